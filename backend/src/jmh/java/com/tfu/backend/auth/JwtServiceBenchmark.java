@@ -0,0 +1,48 @@
+package com.tfu.backend.auth;
+
+import com.tfu.backend.config.JwtConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Firma y validación de tokens JWT (HS256), que se ejecutan en cada login y en
+ * cada request autenticada respectivamente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+
+  private JwtService jwtService;
+  private UserDetails user;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    JwtConfig config = new JwtConfig();
+    config.setSecret("benchmark_secret_key_with_at_least_256_bits_for_hs256_signing");
+    config.setExpiration(3600);
+    jwtService = new JwtService(config);
+    user = User.withUsername("bench@musify.local").password("unused").roles("USER").build();
+    token = jwtService.createToken(user);
+  }
+
+  @Benchmark
+  public String createToken() {
+    return jwtService.createToken(user);
+  }
+
+  @Benchmark
+  public boolean validateToken() {
+    return jwtService.isTokenValid(token, user);
+  }
+}
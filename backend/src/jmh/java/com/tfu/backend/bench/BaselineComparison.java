@@ -0,0 +1,89 @@
+package com.tfu.backend.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara el resultado de una corrida JMH con la línea base guardada en el
+ * repositorio (src/jmh/baseline.json) e imprime la variación de cada benchmark.
+ * Solo informa: los números dependen de la máquina, así que no hace fallar el build.
+ *
+ * Con {@code -Djmh.update-baseline=true} además reemplaza la línea base por el
+ * resultado, sin la ruta del ejecutable java (solo vale en esa máquina).
+ *
+ * Uso: BaselineComparison &lt;baseline.json&gt; &lt;jmh-result.json&gt;
+ */
+public final class BaselineComparison {
+
+  private BaselineComparison() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: BaselineComparison <baseline.json> <jmh-result.json>");
+      System.exit(2);
+    }
+    File baselineFile = new File(args[0]);
+    File resultFile = new File(args[1]);
+    if (!resultFile.exists()) {
+      System.out.println("No JMH result found at " + resultFile);
+      return;
+    }
+
+    ObjectMapper mapper = new ObjectMapper();
+    Map<String, JsonNode> baseline = baselineFile.exists()
+        ? byBenchmark(mapper.readTree(baselineFile))
+        : Map.of();
+    Map<String, JsonNode> current = byBenchmark(mapper.readTree(resultFile));
+
+    System.out.println();
+    System.out.printf("%-60s %12s %12s %9s%n", "Benchmark", "Baseline", "Current", "Delta");
+    current.forEach((name, result) -> {
+      double score = result.path("primaryMetric").path("score").asDouble();
+      String unit = result.path("primaryMetric").path("scoreUnit").asText();
+      JsonNode base = baseline.get(name);
+      if (base == null) {
+        System.out.printf("%-60s %12s %12.3f %9s  %s%n", shorten(name), "-", score, "new", unit);
+        return;
+      }
+      double baseScore = base.path("primaryMetric").path("score").asDouble();
+      double delta = baseScore == 0 ? 0 : (score - baseScore) / baseScore * 100;
+      System.out.printf("%-60s %12.3f %12.3f %+8.1f%%  %s%n", shorten(name), baseScore, score, delta, unit);
+    });
+    baseline.keySet().stream()
+        .filter(name -> !current.containsKey(name))
+        .forEach(name -> System.out.printf("%-60s %12s%n", shorten(name), "removed"));
+
+    if (Boolean.getBoolean("jmh.update-baseline")) {
+      JsonNode results = mapper.readTree(resultFile);
+      for (JsonNode result : results) {
+        ((ObjectNode) result).remove("jvm");
+      }
+      mapper.writerWithDefaultPrettyPrinter().writeValue(baselineFile, results);
+      System.out.println();
+      System.out.println("Baseline updated: " + baselineFile);
+    }
+  }
+
+  private static Map<String, JsonNode> byBenchmark(JsonNode results) {
+    Map<String, JsonNode> byName = new LinkedHashMap<>();
+    for (JsonNode result : results) {
+      // Los benchmarks con @Param se distinguen por sus valores
+      StringBuilder name = new StringBuilder(result.path("benchmark").asText());
+      result.path("params").fields().forEachRemaining(param ->
+          name.append(name.indexOf(":") < 0 ? ":" : ",").append(param.getValue().asText()));
+      byName.put(name.toString(), result);
+    }
+    return byName;
+  }
+
+  private static String shorten(String benchmark) {
+    return benchmark.replace("com.tfu.backend.", "");
+  }
+}
@@ -0,0 +1,114 @@
+package com.tfu.backend.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tfu.backend.catalog.CatalogRepository;
+import com.tfu.backend.catalog.TrackCatalogService;
+import com.tfu.backend.spotify.SpotifyAlbum;
+import com.tfu.backend.spotify.SpotifyArtist;
+import com.tfu.backend.spotify.SpotifyImage;
+import com.tfu.backend.spotify.SpotifyService;
+import com.tfu.backend.spotify.SpotifyTrack;
+import com.tfu.backend.spotify.SpotifyTrackDto;
+import com.tfu.backend.upstream.LastKnownGoodStore;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Datos de prueba y servicios armados sin Spring para los benchmarks JMH.
+ * Todo funciona sin red ni base de datos: el SpotifyService de
+ * {@link #offlineSpotifyService()} responde con canciones generadas aquí.
+ */
+public final class BenchmarkFixtures {
+
+  /** Tamaño de página típico de una búsqueda */
+  public static final int PAGE_SIZE = 20;
+
+  private BenchmarkFixtures() {
+  }
+
+  /** ObjectMapper con la misma configuración base que el de Spring Boot */
+  public static ObjectMapper objectMapper() {
+    return Jackson2ObjectMapperBuilder.json().build();
+  }
+
+  /**
+   * Canciones con la forma de una respuesta real de /v1/search: dos artistas
+   * con URL externa y un álbum con tres tamaños de portada.
+   */
+  public static List<SpotifyTrack> spotifyTracks(int count) {
+    List<SpotifyTrack> tracks = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      SpotifyAlbum album = new SpotifyAlbum();
+      album.setId("album" + (i / 4));
+      album.setName("Album " + (i / 4));
+      album.setImages(List.of(
+          new SpotifyImage(640, 640, "https://i.scdn.co/image/ab67616d0000b273" + i),
+          new SpotifyImage(300, 300, "https://i.scdn.co/image/ab67616d00001e02" + i),
+          new SpotifyImage(64, 64, "https://i.scdn.co/image/ab67616d00004851" + i)));
+
+      List<SpotifyArtist> artists = List.of(artist("artist" + (i % 7)), artist("artist" + (i % 11 + 7)));
+      album.setArtists(artists);
+
+      tracks.add(new SpotifyTrack("track" + i, "Track number " + i, artists, album,
+          "https://p.scdn.co/mp3-preview/" + i));
+    }
+    return tracks;
+  }
+
+  private static SpotifyArtist artist(String id) {
+    SpotifyArtist artist = new SpotifyArtist();
+    artist.setId(id);
+    artist.setName("Artist " + id);
+    artist.setExternalUrls(Map.of("spotify", "https://open.spotify.com/artist/" + id));
+    return artist;
+  }
+
+  /**
+   * SpotifyService que no sale a la red: búsquedas y canciones aleatorias se
+   * resuelven convirtiendo las canciones de prueba.
+   */
+  public static SpotifyService offlineSpotifyService() {
+    TrackCatalogService catalog = new TrackCatalogService(
+        new CatalogRepository(new JdbcTemplate()), new SimpleMeterRegistry(), true, 100, 10_000, Duration.ofHours(24));
+    LastKnownGoodStore lastKnownGood = new LastKnownGoodStore(
+        objectMapper(), 5000, Duration.ofDays(7), false, Path.of("target/jmh-lkg.json"));
+
+    return new SpotifyService(new RestTemplate(), catalog, lastKnownGood, CircuitBreakerRegistry.ofDefaults()) {
+      private final List<SpotifyTrackDto> page = spotifyTrackDtos(PAGE_SIZE);
+
+      @Override
+      public List<SpotifyTrackDto> searchTracks(String query, int limit) {
+        return page.subList(0, Math.min(limit, page.size()));
+      }
+
+      @Override
+      public List<SpotifyTrackDto> getRandomTracks(int limit) {
+        return page.subList(0, Math.min(limit, page.size()));
+      }
+    };
+  }
+
+  /** DTOs equivalentes a los que produce SpotifyService para {@link #spotifyTracks(int)} */
+  public static List<SpotifyTrackDto> spotifyTrackDtos(int count) {
+    List<SpotifyTrackDto> dtos = new ArrayList<>(count);
+    for (SpotifyTrack track : spotifyTracks(count)) {
+      SpotifyArtist primary = track.getArtists().get(0);
+      SpotifyTrackDto dto = new SpotifyTrackDto(track.getId(), track.getName(),
+          primary.getName() + ", " + track.getArtists().get(1).getName(),
+          track.getAlbum().getName(), track.getAlbum().getImages().get(0).getUrl(), track.getPreviewUrl());
+      dto.setPrimaryArtistId(primary.getId());
+      dto.setPrimaryArtistSpotifyUrl(primary.getExternalUrls().get("spotify"));
+      dtos.add(dto);
+    }
+    return dtos;
+  }
+}
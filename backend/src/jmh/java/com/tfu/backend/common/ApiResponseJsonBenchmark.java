@@ -0,0 +1,115 @@
+package com.tfu.backend.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tfu.backend.bench.BenchmarkFixtures;
+import com.tfu.backend.spotify.SpotifyTrackDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización con Jackson de la respuesta más común de la API:
+ * {@code ApiResponse<List<SpotifyTrackDto>>} con una página de canciones,
+ * frente a escribir esa misma respuesta desde {@link ResponseBytesCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ApiResponseJsonBenchmark {
+
+  private ObjectWriter writer;
+  private List<SpotifyTrackDto> tracks;
+  private MockServletContext servletContext;
+  private ResponseBytesCache responseCache;
+  private ResponseBytesCache.Entry cachedPage;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    writer = BenchmarkFixtures.objectMapper().writer();
+    tracks = BenchmarkFixtures.spotifyTrackDtos(BenchmarkFixtures.PAGE_SIZE);
+
+    servletContext = new MockServletContext();
+    responseCache = new ResponseBytesCache(new SimpleMeterRegistry(), true, 500, true, 1024);
+    byte[] body = serializeTrackPage();
+    cachedPage = new ResponseBytesCache.Entry(body, GzipResponseFilter.gzip(body), MediaType.APPLICATION_JSON_VALUE,
+        "\"etag\"", Set.of());
+  }
+
+  @Benchmark
+  public byte[] serializeTrackPage() throws JsonProcessingException {
+    return writer.writeValueAsBytes(ApiResponse.success(tracks, "Tracks retrieved successfully"));
+  }
+
+  /** Fallo de la caché de respuestas: serializar y comprimir */
+  @Benchmark
+  public byte[] serializeAndGzipTrackPage() throws JsonProcessingException {
+    return GzipResponseFilter.gzip(serializeTrackPage());
+  }
+
+  /** Acierto de la caché de respuestas serializadas, con cliente que acepta gzip */
+  @Benchmark
+  public MockHttpServletResponse writeCachedTrackPage() throws IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/music/spotify/search");
+    request.addHeader("Accept-Encoding", "gzip");
+    MockHttpServletResponse response = new BulkWriteResponse();
+    responseCache.write(cachedPage, request, response);
+    return response;
+  }
+
+  /**
+   * El stream de MockHttpServletResponse escribe byte por byte; el de Tomcat
+   * copia el arreglo entero, como este.
+   */
+  private static final class BulkWriteResponse extends MockHttpServletResponse {
+
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream(1024);
+    private final ServletOutputStream outputStream = new ServletOutputStream() {
+      @Override
+      public void write(int b) {
+        content.write(b);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+        content.write(b, off, len);
+      }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(WriteListener writeListener) {
+      }
+    };
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+      return outputStream;
+    }
+
+    @Override
+    public byte[] getContentAsByteArray() {
+      return content.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.tfu.backend.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tfu.backend.bench.BenchmarkFixtures;
+import com.tfu.backend.search.CategorizedSearchService;
+import com.tfu.backend.soap.SoapMusicController;
+import com.tfu.backend.spotify.SpotifyService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de GzipResponseFilter y de calcular el ETag de una respuesta cacheada,
+ * para una página de búsqueda, la búsqueda categorizada y la respuesta SOAP.
+ * Al preparar cada payload imprime la comparación de bytes: sin comprimir,
+ * gzip y 304 (sin cuerpo).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseCompressionBenchmark {
+
+  private static final List<String> MIME_TYPES = List.of("application/json", "application/xml", "text/xml");
+
+  @Param({"trackPage", "categorizedSearch", "soapSearch"})
+  public String payload;
+
+  private GzipResponseFilter filter;
+  private ResponseETags eTags;
+  private ApiResponse<?> response;
+  private byte[] body;
+  private String contentType;
+
+  @Setup
+  public void setUp() throws Exception {
+    ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+    SpotifyService spotifyService = BenchmarkFixtures.offlineSpotifyService();
+    filter = new GzipResponseFilter(1024, MIME_TYPES);
+    eTags = new ResponseETags(objectMapper);
+
+    switch (payload) {
+      case "trackPage" -> {
+        response = ApiResponse.success(spotifyService.searchTracks("rock", BenchmarkFixtures.PAGE_SIZE),
+            "Búsqueda realizada correctamente");
+        body = objectMapper.writeValueAsBytes(response);
+        contentType = MediaType.APPLICATION_JSON_VALUE;
+      }
+      case "categorizedSearch" -> {
+        response = ApiResponse.success(new CategorizedSearchService(spotifyService)
+            .searchCategorized("rock", BenchmarkFixtures.PAGE_SIZE), "Búsqueda categorizada completada para 'rock'");
+        body = objectMapper.writeValueAsBytes(response);
+        contentType = MediaType.APPLICATION_JSON_VALUE;
+      }
+      default -> {
+        String xml = new SoapMusicController(spotifyService).searchMusic("""
+            <searchMusicRequest><query>rock</query><limit>20</limit></searchMusicRequest>
+            """).getBody();
+        response = ApiResponse.success(xml);
+        body = xml.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        contentType = MediaType.TEXT_XML_VALUE;
+      }
+    }
+
+    int gzipped = gzip().getContentAsByteArray().length;
+    System.out.printf("%n%s: identity %d B, gzip %d B (%.0f%% menos), 304 0 B%n",
+        payload, body.length, gzipped, 100.0 * (body.length - gzipped) / body.length);
+  }
+
+  @Benchmark
+  public MockHttpServletResponse gzip() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/music/spotify/search");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+    MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+    FilterChain chain = (req, res) -> {
+      res.setContentType(contentType);
+      res.getOutputStream().write(body);
+    };
+    filter.doFilter(request, servletResponse, chain);
+    return servletResponse;
+  }
+
+  /** ETag de una respuesta cuyos datos salen de la caché (la misma instancia) */
+  @Benchmark
+  public String eTagOfCachedPayload() {
+    return eTags.of(response);
+  }
+}
@@ -0,0 +1,100 @@
+package com.tfu.backend.history;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eventos/seg sostenidos del buffer del historial de escucha: tres hilos del
+ * reproductor registrando eventos y un escritor vaciando en lotes, con el
+ * {@link BoundedRing} sin locks frente a un ArrayBlockingQueue (un lock para
+ * productores y consumidor). Los contadores {@code accepted} y {@code dropped}
+ * son eventos por segundo que entraron al buffer o se descartaron por lleno.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ListeningHistoryRingBenchmark {
+
+    @Param({"65536"})
+    public int capacity;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private BoundedRing<ListeningEvent> ring;
+    private ArrayBlockingQueue<ListeningEvent> queue;
+    private final ListeningEvent event =
+        new ListeningEvent("default", "track", ListeningEvent.Type.PLAY, 0, Instant.now());
+
+    @Setup
+    public void setUp() {
+        ring = new BoundedRing<>(capacity);
+        queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @State(Scope.Thread)
+    public static class Batch {
+        final List<ListeningEvent> events = new ArrayList<>();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Offers {
+        public long accepted;
+        public long dropped;
+
+        void count(boolean offered) {
+            if (offered) {
+                accepted++;
+            } else {
+                dropped++;
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(3)
+    public void ringRecord(Offers offers) {
+        offers.count(ring.offer(event));
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(1)
+    public void ringDrain(Batch batch, Blackhole blackhole) {
+        batch.events.clear();
+        blackhole.consume(ring.drainTo(batch.events, batchSize));
+    }
+
+    @Benchmark
+    @Group("blockingQueue")
+    @GroupThreads(3)
+    public void blockingQueueRecord(Offers offers) {
+        offers.count(queue.offer(event));
+    }
+
+    @Benchmark
+    @Group("blockingQueue")
+    @GroupThreads(1)
+    public void blockingQueueDrain(Batch batch, Blackhole blackhole) {
+        batch.events.clear();
+        blackhole.consume(queue.drainTo(batch.events, batchSize));
+    }
+}
@@ -0,0 +1,76 @@
+package com.tfu.backend.player;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Activar shuffle sobre colas largas: mezclar la cola en el lugar
+ * (Collections.shuffle, como antes) frente a crear un {@link ShuffleOrder}
+ * perezoso. Ambos avanzan luego {@code skips} canciones, que es lo que
+ * realmente se escucha antes de volver a tocar shuffle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShuffleOrderBenchmark {
+
+    @Param({"100000"})
+    public int queueSize;
+
+    @Param({"20"})
+    public int skips;
+
+    private List<TrackInfo> queue;
+    private Random shuffleRandom;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        queue = new ArrayList<>(queueSize);
+        for (int i = 0; i < queueSize; i++) {
+            queue.add(new TrackInfo("track" + i, "Track " + i, "Artist", "Album", null, null, 180_000L));
+        }
+        shuffleRandom = new Random(42);
+        random = new SplittableRandom(42);
+    }
+
+    /** Antes: la cola se reordena completa en cada activación */
+    @Benchmark
+    public void collectionsShuffleInPlace(Blackhole blackhole) {
+        Collections.shuffle(queue, shuffleRandom);
+        for (int i = 0; i < skips; i++) {
+            blackhole.consume(queue.get(i));
+        }
+    }
+
+    @Benchmark
+    public void lazyShuffleOrder(Blackhole blackhole) {
+        ShuffleOrder order = new ShuffleOrder(queue.size(), random.nextInt(queue.size()), random);
+        for (int i = 0; i < skips; i++) {
+            blackhole.consume(queue.get(order.next()));
+        }
+    }
+
+    /** Peor caso: recorrer el orden aleatorio completo */
+    @Benchmark
+    public void lazyShuffleOrderFullPass(Blackhole blackhole) {
+        ShuffleOrder order = new ShuffleOrder(queue.size(), 0, random);
+        while (order.hasNext()) {
+            blackhole.consume(order.next());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.tfu.backend.recommendation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Co-escuchas con {@link CoListenMatrix} (IDs internos y tablas primitivas)
+ * frente a {@code Map<String, Map<String, Integer>>}: sumar un par y pedir los
+ * vecinos de un track, con la matriz ya cargada con escuchas de popularidad
+ * tipo Zipf.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CoListenMatrixBenchmark {
+
+    @Param({"20000"})
+    public int tracks;
+
+    @Param({"500000"})
+    public int listens;
+
+    private static final int LIMIT = 10;
+    private static final int PAIRS = 1 << 16;
+
+    private CoListenMatrix matrix;
+    private int[] listenCounts;
+    private Map<String, Map<String, Integer>> boxed;
+    private Map<String, Integer> boxedListens;
+    private String[] trackIds;
+    private int[] pairsA;
+    private int[] pairsB;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        matrix = new CoListenMatrix(128, 50);
+        listenCounts = new int[tracks];
+        boxed = new HashMap<>();
+        boxedListens = new HashMap<>();
+        trackIds = new String[tracks];
+        for (int i = 0; i < tracks; i++) {
+            trackIds[i] = "spotify:track:" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        }
+
+        int previous = -1;
+        for (int i = 0; i < listens; i++) {
+            int track = zipf(random);
+            matrix.addListen(track);
+            boxedListens.merge(trackIds[track], 1, Integer::sum);
+            if (previous >= 0 && previous != track) {
+                matrix.addPair(track, previous);
+                addBoxed(trackIds[track], trackIds[previous]);
+            }
+            previous = track;
+        }
+
+        pairsA = new int[PAIRS];
+        pairsB = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            pairsA[i] = zipf(random);
+            pairsB[i] = (pairsA[i] + 1 + random.nextInt(tracks - 1)) % tracks;
+        }
+    }
+
+    private int zipf(SplittableRandom random) {
+        return (int) Math.min(tracks - 1, Math.floor(Math.pow(tracks, random.nextDouble())) - 1);
+    }
+
+    private void addBoxed(String a, String b) {
+        boxed.computeIfAbsent(a, k -> new HashMap<>()).merge(b, 1, Integer::sum);
+        boxed.computeIfAbsent(b, k -> new HashMap<>()).merge(a, 1, Integer::sum);
+    }
+
+    @Benchmark
+    public int primitiveAddPair() {
+        int i = next++ & (PAIRS - 1);
+        matrix.addPair(pairsA[i], pairsB[i]);
+        return i;
+    }
+
+    @Benchmark
+    public int boxedAddPair() {
+        int i = next++ & (PAIRS - 1);
+        addBoxed(trackIds[pairsA[i]], trackIds[pairsB[i]]);
+        return i;
+    }
+
+    /** Vecinos de un track popular con el top ya calculado */
+    @Benchmark
+    public int[] primitiveNeighbors() {
+        return matrix.neighbors(pairsA[next++ & (PAIRS - 1)], LIMIT);
+    }
+
+    /** Vecinos justo después de que la fila cambió (se recalcula el top) */
+    @Benchmark
+    public int[] primitiveNeighborsAfterUpdate() {
+        int i = next++ & (PAIRS - 1);
+        matrix.addPair(pairsA[i], pairsB[i]);
+        return matrix.neighbors(pairsA[i], LIMIT);
+    }
+
+    @Benchmark
+    public List<String> boxedNeighbors() {
+        String track = trackIds[pairsA[next++ & (PAIRS - 1)]];
+        Map<String, Integer> row = boxed.getOrDefault(track, Map.of());
+        double norm = Math.sqrt(boxedListens.getOrDefault(track, 1));
+        return row.entrySet().stream()
+            .sorted(Comparator.comparingDouble((Map.Entry<String, Integer> e) ->
+                e.getValue() / (norm * Math.sqrt(boxedListens.getOrDefault(e.getKey(), 1)))).reversed())
+            .limit(LIMIT)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+}
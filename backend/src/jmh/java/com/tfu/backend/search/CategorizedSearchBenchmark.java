@@ -0,0 +1,34 @@
+package com.tfu.backend.search;
+
+import com.tfu.backend.bench.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregación de la búsqueda categorizada (álbumes, artistas y conciertos a
+ * partir de una página de canciones ya obtenida).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CategorizedSearchBenchmark {
+
+  private CategorizedSearchService searchService;
+
+  @Setup
+  public void setUp() {
+    searchService = new CategorizedSearchService(BenchmarkFixtures.offlineSpotifyService());
+  }
+
+  @Benchmark
+  public CategorizedSearchResponse searchCategorized() {
+    return searchService.searchCategorized("rock", BenchmarkFixtures.PAGE_SIZE);
+  }
+}
@@ -0,0 +1,45 @@
+package com.tfu.backend.soap;
+
+import com.tfu.backend.bench.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura del pedido y armado de la respuesta XML del endpoint SOAP de búsqueda.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SoapXmlBenchmark {
+
+  private static final String SEARCH_REQUEST = """
+      <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
+        <soap:Body>
+          <searchMusicRequest>
+            <query>rock &amp; roll</query>
+            <limit>20</limit>
+          </searchMusicRequest>
+        </soap:Body>
+      </soap:Envelope>
+      """;
+
+  private SoapMusicController controller;
+
+  @Setup
+  public void setUp() {
+    controller = new SoapMusicController(BenchmarkFixtures.offlineSpotifyService());
+  }
+
+  @Benchmark
+  public ResponseEntity<String> searchMusic() {
+    return controller.searchMusic(SEARCH_REQUEST);
+  }
+}
@@ -0,0 +1,40 @@
+package com.tfu.backend.spotify;
+
+import com.tfu.backend.bench.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión de una página de resultados de Spotify a DTOs (incluye el
+ * registro en el catálogo write-behind, que solo encola).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConvertToDtoBenchmark {
+
+  private SpotifyService spotifyService;
+  private List<SpotifyTrack> tracks;
+
+  @Setup
+  public void setUp() {
+    spotifyService = BenchmarkFixtures.offlineSpotifyService();
+    tracks = BenchmarkFixtures.spotifyTracks(BenchmarkFixtures.PAGE_SIZE);
+  }
+
+  @Benchmark
+  public void convertSearchPage(Blackhole blackhole) {
+    for (SpotifyTrack track : tracks) {
+      blackhole.consume(spotifyService.convertToDto(track));
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package com.tfu.backend.artist;
 
 import com.tfu.backend.common.ApiResponse;
+import com.tfu.backend.common.StrongETag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,6 +10,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -30,7 +32,7 @@ public class ArtistController {
 
     @Operation(
         summary = "Obtener canciones de un artista", 
-        description = "Devuelve las canciones de un artista específico con paginación. Incluye información del artista y paginación completa."
+        description = "Devuelve las canciones de un artista específico con paginación por página o por offset (pagination.nextOffset). Incluye información del artista y paginación completa."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -38,6 +40,11 @@ public class ArtistController {
             description = "Canciones del artista obtenidas correctamente",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ArtistTracksResponse.class))
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "202", 
+            description = "Las canciones desde esa posición todavía se están cargando (pagination.pending); reintentar desde pagination.nextOffset",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ArtistTracksResponse.class))
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "404", 
             description = "Artista no encontrado",
@@ -54,6 +61,7 @@ public class ArtistController {
             content = @Content(mediaType = "application/json")
         )
     })
+    @StrongETag
     @GetMapping("/{artistId}/tracks")
     public ResponseEntity<ApiResponse<ArtistTracksResponse>> getArtistTracks(
             @PathVariable 
@@ -68,12 +76,23 @@ public class ArtistController {
             @RequestParam(defaultValue = "20") 
             @Min(1) @Max(50) 
             @Parameter(description = "Número de canciones por página (1-50)", example = "20") 
-            int size
+            int size,
+            
+            @RequestParam(required = false) 
+            @Min(0) 
+            @Parameter(description = "Posición de inicio (pagination.nextOffset de la respuesta anterior); si se indica, reemplaza a page", example = "40") 
+            Integer offset
     ) {
         
-        ArtistTracksResponse response = artistService.getArtistTracks(artistId, page, size);
+        int start = offset != null ? offset : page * size;
+        ArtistTracksResponse response = artistService.getArtistTracks(artistId, start, size);
+        
+        if (response.getPagination().isPending()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(response, String.format(
+                "Las canciones desde la posición %d todavía se están cargando, reintente en unos segundos", start)));
+        }
         
-        if (response.getTracks().isEmpty() && page == 0) {
+        if (response.getTracks().isEmpty() && start == 0) {
             return ResponseEntity.ok(ApiResponse.success(response, 
                 "No se encontraron canciones para este artista"));
         }
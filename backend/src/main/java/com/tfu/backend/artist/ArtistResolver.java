@@ -0,0 +1,195 @@
+package com.tfu.backend.artist;
+
+import com.tfu.backend.spotify.SpotifyArtist;
+import com.tfu.backend.spotify.SpotifyPagingObject;
+import com.tfu.backend.spotify.SpotifyService;
+import com.tfu.backend.spotify.SpotifyTrackDto;
+import com.tfu.backend.upstream.UpstreamPriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Resuelve artistas por ID de Spotify y mantiene en caché su lista de canciones.
+ *
+ * La lista se carga de a poco: primero el artista y sus top tracks
+ * (/v1/artists/{id} y /top-tracks), suficiente para la primera página; luego,
+ * solo a medida que se piden o se anticipan más páginas, las páginas siguientes
+ * de la búsqueda del artista en Spotify, siguiendo su offset/next. Cada página
+ * de Spotify se pide una sola vez por artista sin importar el tamaño de página,
+ * y una request espera como mucho {@link #MAX_PAGES_PER_REQUEST}.
+ */
+@Component
+public class ArtistResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtistResolver.class);
+
+    static final String CACHE_NAME = "artistTrackLists";
+
+    /** Tamaño de página de la búsqueda de Spotify (el máximo que permite) */
+    static final int UPSTREAM_PAGE_SIZE = 50;
+
+    /** Spotify no permite offsets de búsqueda mayores */
+    static final int MAX_UPSTREAM_OFFSET = 1000;
+
+    /** Páginas de Spotify que una request espera como mucho para cubrir su offset */
+    static final int MAX_PAGES_PER_REQUEST = 4;
+
+    private final SpotifyService spotifyService;
+    private final Cache cache;
+    private final Executor executor;
+
+    /** Cargas en curso por artista, para no duplicar llamadas a Spotify */
+    private final Map<String, Load> inflight = new ConcurrentHashMap<>();
+
+    public ArtistResolver(SpotifyService spotifyService, CacheManager cacheManager,
+                          @Qualifier("taskExecutor") Executor executor) {
+        this.spotifyService = spotifyService;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.executor = executor;
+    }
+
+    /**
+     * Devuelve la lista conocida del artista, cargando el primer nivel si hace falta.
+     *
+     * @return la lista, o null si el artista no existe
+     */
+    public ArtistTrackList resolve(String artistId) {
+        ArtistTrackList cached = cache.get(artistId, ArtistTrackList.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        SpotifyArtist artist = spotifyService.getArtist(artistId);
+        if (artist == null || artist.getId() == null) {
+            return null;
+        }
+
+        ArtistTrackList list = ArtistTrackList.of(artist, spotifyService.getArtistTopTracks(artistId));
+        Cache.ValueWrapper existing = cache.putIfAbsent(artistId, list);
+        return existing != null && existing.get() != null ? (ArtistTrackList) existing.get() : list;
+    }
+
+    /**
+     * Intenta que la lista tenga al menos {@code needed} canciones (o esté
+     * completa) cargando páginas de Spotify de a una, como mucho
+     * {@link #MAX_PAGES_PER_REQUEST}; la lista se marca completa al llegar a
+     * {@link #MAX_UPSTREAM_OFFSET}. Si aun así no alcanzan, la lista devuelta es
+     * más corta y el llamador decide qué servir.
+     */
+    public ArtistTrackList ensureLoaded(ArtistTrackList list, int needed) {
+        ArtistTrackList current = list;
+        for (int pages = 0; pages < MAX_PAGES_PER_REQUEST && !current.isComplete() && current.size() < needed; pages++) {
+            try {
+                current = loadNextPage(current).join();
+            } catch (Exception e) {
+                logger.warn("Could not load more tracks for artist {}: {}", list.getArtistId(), e.getMessage());
+                break;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Igual que {@link #ensureLoaded} pero sin esperar: anticipa la página
+     * siguiente, con prioridad de prefetch (la tarea hereda la prioridad).
+     */
+    public void prefetch(ArtistTrackList list, int needed) {
+        if (!list.isComplete() && list.size() < needed) {
+            UpstreamPriority.PREFETCH.run(() -> loadNextPage(list));
+        }
+    }
+
+    @CacheEvict(value = CACHE_NAME, allEntries = true, condition = "@spotifyService.isSpotifyAvailable()")
+    @Scheduled(fixedRate = 1800000) // Cada 30 minutos, igual que las cachés de artistas
+    public void evictArtistTrackLists() {
+        logger.info("Evicting artist track lists cache");
+    }
+
+    /**
+     * Carga la página siguiente o se suma a la carga en curso del artista. Una
+     * carga en curso de menor prioridad no sirve: un prefetch puede quedar en
+     * cola detrás de las llamadas interactivas o descartarse con el circuito
+     * abierto, así que una llamada interactiva lanza la suya y la reemplaza.
+     */
+    private CompletableFuture<ArtistTrackList> loadNextPage(ArtistTrackList list) {
+        String artistId = list.getArtistId();
+        ArtistTrackList current = cache.get(artistId, ArtistTrackList.class);
+        if (current != null && (current.isComplete() || current.getNextOffset() > list.getNextOffset())) {
+            // Otra request ya cargó más que lo que este llamador conoce
+            return CompletableFuture.completedFuture(current);
+        }
+
+        UpstreamPriority priority = UpstreamPriority.resolve();
+        Load created = new Load(new CompletableFuture<>(), priority);
+        while (true) {
+            Load existing = inflight.get(artistId);
+            if (existing != null && existing.priority().compareTo(priority) <= 0) {
+                return existing.future();
+            }
+            boolean registered = existing == null
+                ? inflight.putIfAbsent(artistId, created) == null
+                : inflight.replace(artistId, existing, created);
+            if (registered) {
+                break;
+            }
+        }
+
+        try {
+            // La tarea hereda la prioridad del llamador (ContextPropagatingTaskDecorator)
+            executor.execute(() -> {
+                try {
+                    created.future().complete(fetchNextPage(current != null ? current : list));
+                } catch (Throwable t) {
+                    created.future().completeExceptionally(t);
+                } finally {
+                    inflight.remove(artistId, created);
+                }
+            });
+        } catch (RuntimeException e) {
+            inflight.remove(artistId, created);
+            created.future().completeExceptionally(e);
+        }
+        return created.future();
+    }
+
+    private ArtistTrackList fetchNextPage(ArtistTrackList list) {
+        int offset = list.getNextOffset();
+        logger.info("Loading tracks for artist: {} (offset: {})", list.getArtistName(), offset);
+
+        SpotifyPagingObject<SpotifyTrackDto> page =
+            spotifyService.searchTracksPage("artist:" + list.getArtistName(), offset, UPSTREAM_PAGE_SIZE);
+
+        // Solo las canciones cuyo artista principal es exactamente este ID
+        List<SpotifyTrackDto> own = page.stream()
+            .filter(track -> list.getArtistId().equals(track.getPrimaryArtistId()))
+            .collect(Collectors.toList());
+
+        int nextOffset = offset + UPSTREAM_PAGE_SIZE;
+        boolean complete = page.getNext() == null || page.getItems().isEmpty() || nextOffset >= MAX_UPSTREAM_OFFSET;
+        ArtistTrackList extended = list.withPage(own, nextOffset, complete);
+        ArtistTrackList cached = cache.get(list.getArtistId(), ArtistTrackList.class);
+        if (cached != null && (cached.isComplete() || cached.getNextOffset() >= nextOffset)) {
+            // Una carga que reemplazó a esta (o la siguiente) ya llegó más lejos
+            return cached;
+        }
+        cache.put(list.getArtistId(), extended);
+        return extended;
+    }
+
+    /** Carga en curso y la prioridad con la que se pidió */
+    private record Load(CompletableFuture<ArtistTrackList> future, UpstreamPriority priority) {
+    }
+}
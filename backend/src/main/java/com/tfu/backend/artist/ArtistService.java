@@ -1,12 +1,10 @@
 package com.tfu.backend.artist;
 
-import com.tfu.backend.spotify.SpotifyService;
 import com.tfu.backend.spotify.SpotifyTrackDto;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -21,45 +19,52 @@ public class ArtistService {
     
     private static final Logger logger = LoggerFactory.getLogger(ArtistService.class);
     
-    private final SpotifyService spotifyService;
+    private final ArtistResolver artistResolver;
 
-    public ArtistService(SpotifyService spotifyService) {
-        this.spotifyService = spotifyService;
+    public ArtistService(ArtistResolver artistResolver) {
+        this.artistResolver = artistResolver;
     }
 
     /**
-     * Obtiene las canciones de un artista con paginación
+     * Obtiene las canciones de un artista a partir de una posición.
+     * Las páginas se recortan de la lista del artista que ArtistResolver carga
+     * de a una página de Spotify y mantiene en caché; la página siguiente se
+     * anticipa en segundo plano. Si todavía no hay canciones suficientes, la
+     * página sale más corta y {@code nextOffset} indica dónde seguir; si el
+     * offset queda más allá de lo cargado, la respuesta se marca
+     * {@code pending} en lugar de devolver una página vacía.
+     *
+     * @param offset posición de la primera canción (página * tamaño, o el
+     *               nextOffset de la respuesta anterior)
      */
     @Retry(name = "streamSource")
     @CircuitBreaker(name = "streamSource", fallbackMethod = "getArtistTracksFallback")
-    @Cacheable(value = "artistTracks", key = "#artistId + '_' + #page + '_' + #size")
-    public ArtistTracksResponse getArtistTracks(String artistId, int page, int size) {
-        logger.info("Getting tracks for artist: {} (page: {}, size: {})", artistId, page, size);
+    public ArtistTracksResponse getArtistTracks(String artistId, int offset, int size) {
+        logger.info("Getting tracks for artist: {} (offset: {}, size: {})", artistId, offset, size);
         
         try {
-            // Para esta implementación simplificada, buscamos el artista por ID
-            // En una implementación real, usaríamos la API de Spotify para obtener artistas por ID
-            String artistName = getArtistNameById(artistId);
-            if (artistName == null) {
+            ArtistTrackList trackList = artistResolver.resolve(artistId);
+            if (trackList == null) {
                 return createEmptyResponse(artistId, "Artista no encontrado");
             }
             
-            // Buscar canciones del artista usando el servicio existente
-            List<SpotifyTrackDto> allTracks = spotifyService.searchTracks("artist:" + artistName, 50);
+            int start = offset;
+            int end = start + size;
             
-            // Filtrar solo las canciones del artista específico
-            List<SpotifyTrackDto> artistTracks = allTracks.stream()
-                .filter(track -> track.getPrimaryArtistName() != null && 
-                               track.getPrimaryArtistName().toLowerCase().contains(artistName.toLowerCase()))
-                .collect(Collectors.toList());
+            // Cargar lo necesario para esta página y anticipar la siguiente
+            trackList = artistResolver.ensureLoaded(trackList, end);
+            artistResolver.prefetch(trackList, end + size);
             
-            // Aplicar paginación manual
-            int start = page * size;
-            int end = Math.min(start + size, artistTracks.size());
+            List<SpotifyTrackDto> artistTracks = trackList.getTracks();
+            String artistName = trackList.getArtistName();
             
             if (start >= artistTracks.size()) {
-                return createEmptyResponse(artistId, artistName);
+                // Fin de la lista, o una posición que todavía no se alcanzó a cargar
+                return trackList.isComplete()
+                    ? createEmptyResponse(artistId, artistName)
+                    : createPendingResponse(trackList, offset, size);
             }
+            end = Math.min(end, artistTracks.size());
             
             List<SpotifyTrackDto> pageTracksDto = artistTracks.subList(start, end);
             
@@ -68,20 +73,30 @@ public class ArtistService {
                 .map(this::convertToArtistTrack)
                 .collect(Collectors.toList());
             
-            // Crear información de paginación
+            // Crear información de paginación (si la lista aún no está completa,
+            // los totales son los conocidos hasta ahora y siempre hay página siguiente)
+            int page = offset / size;
+            boolean hasNext = end < artistTracks.size() || !trackList.isComplete();
+            int totalPages = (int) Math.ceil((double) artistTracks.size() / size);
+            if (hasNext && totalPages <= page + 1) {
+                totalPages = page + 2;
+            }
+            
             ArtistTracksResponse.PaginationInfo pagination = new ArtistTracksResponse.PaginationInfo();
             pagination.setCurrentPage(page);
             pagination.setTracksPerPage(size);
             pagination.setTotalTracks(artistTracks.size());
-            pagination.setTotalPages((int) Math.ceil((double) artistTracks.size() / size));
-            pagination.setHasNext(end < artistTracks.size());
-            pagination.setHasPrevious(page > 0);
+            pagination.setTotalPages(totalPages);
+            pagination.setHasNext(hasNext);
+            pagination.setHasPrevious(offset > 0);
+            pagination.setOffset(offset);
+            pagination.setNextOffset(hasNext ? end : null);
             
             // Crear respuesta
             ArtistTracksResponse response = new ArtistTracksResponse();
             response.setArtistId(artistId);
             response.setArtistName(artistName);
-            response.setArtistImageUrl(null); // Simplificado por ahora
+            response.setArtistImageUrl(trackList.getArtistImageUrl());
             response.setArtistSpotifyUrl("https://open.spotify.com/artist/" + artistId);
             response.setTracks(pageTracks);
             response.setPagination(pagination);
@@ -95,34 +110,6 @@ public class ArtistService {
         }
     }
     
-    /**
-     * Método simplificado para obtener el nombre del artista por ID
-     * En una implementación real, esto consultaría la API de Spotify
-     */
-    private String getArtistNameById(String artistId) {
-        // Mapeo básico de algunos IDs conocidos para demostración
-        // En producción, esto debería consultar la API de Spotify
-        return switch (artistId) {
-            case "4Z8W4fKeB5YxbusRsdQVPb" -> "Radiohead";
-            case "6vWDO969PvNqNYHIOW5v0m" -> "Beyoncé";
-            case "1vCWHaC5f2uS3yhpwWbIA6" -> "Avicii";
-            case "1dfeR4HaWDbWqFHLkxsg1d" -> "Queen";
-            case "66CXWjxzNUsdJxJ2JdwvnR" -> "Ariana Grande";
-            default -> {
-                // Intentar buscar usando el ID como query
-                try {
-                    List<SpotifyTrackDto> results = spotifyService.searchTracks(artistId, 1);
-                    if (!results.isEmpty()) {
-                        yield results.get(0).getPrimaryArtistName();
-                    }
-                } catch (Exception e) {
-                    logger.warn("Could not resolve artist name for ID: {}", artistId);
-                }
-                yield null;
-            }
-        };
-    }
-    
     /**
      * Convierte SpotifyTrackDto a ArtistTrackDto
      */
@@ -135,7 +122,7 @@ public class ArtistService {
         artistTrack.setImageUrl(track.getImageUrl());
         artistTrack.setPreviewUrl(track.getPreviewUrl());
         artistTrack.setSpotifyUrl("https://open.spotify.com/track/" + track.getId());
-        artistTrack.setArtistSpotifyUrl("https://open.spotify.com/artist/" + track.getPrimaryArtistName());
+        artistTrack.setArtistSpotifyUrl("https://open.spotify.com/artist/" + track.getPrimaryArtistId());
         artistTrack.setDurationMs(0); // Simplificado - no disponible en el modelo actual
         artistTrack.setPopularity(50); // Valor por defecto
         artistTrack.setExplicit(false); // Valor por defecto
@@ -168,11 +155,41 @@ public class ArtistService {
         return response;
     }
     
+    /**
+     * Crea la respuesta para un offset que la lista cargada todavía no alcanza:
+     * sin canciones, con {@code pending} y el mismo offset como nextOffset para
+     * reintentar mientras se siguen cargando páginas.
+     */
+    private ArtistTracksResponse createPendingResponse(ArtistTrackList trackList, int offset, int size) {
+        int page = offset / size;
+        int loaded = trackList.size();
+
+        ArtistTracksResponse.PaginationInfo pagination = new ArtistTracksResponse.PaginationInfo();
+        pagination.setCurrentPage(page);
+        pagination.setTracksPerPage(size);
+        pagination.setTotalTracks(loaded);
+        pagination.setTotalPages(Math.max((int) Math.ceil((double) loaded / size), page + 1));
+        pagination.setHasNext(true);
+        pagination.setHasPrevious(offset > 0);
+        pagination.setOffset(offset);
+        pagination.setNextOffset(offset);
+        pagination.setPending(true);
+
+        ArtistTracksResponse response = new ArtistTracksResponse();
+        response.setArtistId(trackList.getArtistId());
+        response.setArtistName(trackList.getArtistName());
+        response.setArtistImageUrl(trackList.getArtistImageUrl());
+        response.setArtistSpotifyUrl("https://open.spotify.com/artist/" + trackList.getArtistId());
+        response.setTracks(new ArrayList<>());
+        response.setPagination(pagination);
+        return response;
+    }
+
     /**
      * Método de fallback para cuando falla el servicio
      */
-    public ArtistTracksResponse getArtistTracksFallback(String artistId, int page, int size, Exception ex) {
-        logger.error("Fallback triggered for artist tracks - artistId: {}, page: {}, size: {}", artistId, page, size, ex);
+    public ArtistTracksResponse getArtistTracksFallback(String artistId, int offset, int size, Exception ex) {
+        logger.error("Fallback triggered for artist tracks - artistId: {}, offset: {}, size: {}", artistId, offset, size, ex);
         return createEmptyResponse(artistId, "Error al cargar artista");
     }
 }
\ No newline at end of file
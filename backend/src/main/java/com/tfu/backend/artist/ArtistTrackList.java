@@ -0,0 +1,59 @@
+package com.tfu.backend.artist;
+
+import com.tfu.backend.spotify.SpotifyArtist;
+import com.tfu.backend.spotify.SpotifyTrackDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lista de canciones de un artista tal como se conoce en caché.
+ * Es inmutable: cada extensión produce una instancia nueva que reemplaza a la
+ * anterior en la caché, así que las páginas ya servidas nunca cambian bajo el lector.
+ */
+@Getter
+@AllArgsConstructor
+public class ArtistTrackList {
+    private final String artistId;
+    private final String artistName;
+    private final String artistImageUrl;
+    private final List<SpotifyTrackDto> tracks;
+
+    /** Offset de la siguiente página de la búsqueda del artista en Spotify */
+    private final int nextOffset;
+
+    /** true cuando ya no quedan más canciones por cargar desde Spotify */
+    private final boolean complete;
+
+    /**
+     * Crea la lista inicial con el artista y sus top tracks.
+     */
+    public static ArtistTrackList of(SpotifyArtist artist, List<SpotifyTrackDto> topTracks) {
+        String imageUrl = artist.getImages() != null && !artist.getImages().isEmpty()
+            ? artist.getImages().get(0).getUrl()
+            : null;
+        return new ArtistTrackList(artist.getId(), artist.getName(), imageUrl, List.copyOf(topTracks), 0, false);
+    }
+
+    /**
+     * Devuelve una lista con las canciones de una página más de Spotify añadidas
+     * al final, sin duplicar las que ya estaban.
+     *
+     * @param nextOffset offset de la página siguiente en Spotify
+     * @param complete   si era la última página
+     */
+    public ArtistTrackList withPage(List<SpotifyTrackDto> more, int nextOffset, boolean complete) {
+        Map<String, SpotifyTrackDto> merged = new LinkedHashMap<>();
+        tracks.forEach(track -> merged.put(track.getId(), track));
+        more.forEach(track -> merged.putIfAbsent(track.getId(), track));
+        return new ArtistTrackList(artistId, artistName, artistImageUrl, List.copyOf(merged.values()), nextOffset,
+            complete);
+    }
+
+    public int size() {
+        return tracks.size();
+    }
+}
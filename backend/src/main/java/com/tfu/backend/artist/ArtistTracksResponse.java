@@ -35,6 +35,15 @@ public class ArtistTracksResponse {
         private int tracksPerPage;
         private boolean hasNext;
         private boolean hasPrevious;
+        /** Posición de la primera canción de esta página */
+        private int offset;
+        /** Posición desde la que pedir la página siguiente (null si no hay) */
+        private Integer nextOffset;
+        /**
+         * Las canciones desde offset todavía se están cargando: la página viene
+         * vacía y hay que volver a pedirla desde nextOffset
+         */
+        private boolean pending;
         
         public PaginationInfo() {}
         
@@ -1,6 +1,8 @@
 package com.tfu.backend.auth;
 
 import com.tfu.backend.common.ApiResponse;
+import com.tfu.backend.common.ClientAddress;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,6 +15,7 @@ import jakarta.validation.Valid;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -37,6 +40,10 @@ public class AuthController {
   private final JwtService jwtService;
   /** Servicio para cargar detalles de usuario */
   private final UserDetailsService userDetailsService;
+  /** Límite de intentos de login por cuenta e IP */
+  private final LoginRateLimiter loginRateLimiter;
+  /** IP del cliente, detrás del proxy o directa */
+  private final ClientAddress clientAddress;
 
   /**
    * Constructor que inyecta los servicios necesarios.
@@ -44,32 +51,42 @@ public class AuthController {
    * @param authService        Servicio de autenticación
    * @param jwtService         Servicio de JWT
    * @param userDetailsService Servicio de detalles de usuario
+   * @param loginRateLimiter   Límite de intentos de login
+   * @param clientAddress      IP del cliente de cada request
    */
   public AuthController(
       AuthService authService,
       JwtService jwtService,
-      UserDetailsService userDetailsService) {
+      UserDetailsService userDetailsService,
+      LoginRateLimiter loginRateLimiter,
+      ClientAddress clientAddress) {
     this.authService = authService;
     this.jwtService = jwtService;
     this.userDetailsService = userDetailsService;
+    this.loginRateLimiter = loginRateLimiter;
+    this.clientAddress = clientAddress;
   }
 
   /**
    * Endpoint para login de usuario. Devuelve un JWT si es exitoso.
    * 
-   * @param req Datos de login (email y password)
+   * @param req     Datos de login (email y password)
+   * @param request Solicitud HTTP, para limitar los intentos por IP
    * @return Token JWT en un DTO
    */
   @Operation(summary = "Iniciar sesión de usuario", description = "Autentica al usuario y devuelve un token JWT para autorizar solicitudes futuras")
   @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
       @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Login exitoso", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TokenResponse.class))),
       @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Credenciales inválidas", content = @Content(mediaType = "application/json")),
+      @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Demasiados intentos de login para la cuenta o la IP", content = @Content(mediaType = "application/json")),
       @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Error interno del servidor", content = @Content(mediaType = "application/json"))
   })
   @PostMapping("/login")
-  public ResponseEntity<ApiResponse<TokenResponse>> login(@Valid @RequestBody LoginRequest req) {
+  public ResponseEntity<ApiResponse<TokenResponse>> login(@Valid @RequestBody LoginRequest req,
+      HttpServletRequest request) {
     try {
       logger.debug("Intento de login para: {}", req.email());
+      loginRateLimiter.acquire(req.email(), clientAddress.of(request));
 
       // Para compatibilidad con el código anterior
       var userId = authService.login(req.email(), req.password());
@@ -82,6 +99,11 @@ public class AuthController {
 
       logger.info("Login exitoso para: {}", req.email());
       return ResponseEntity.ok(ApiResponse.success(new TokenResponse(token), "Login exitoso"));
+    } catch (RequestNotPermitted e) {
+      logger.warn("Demasiados intentos de login para: {}", req.email());
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+          .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginRateLimiter.retryAfterSeconds()))
+          .body(ApiResponse.error("Demasiados intentos", "Demasiados intentos de login. Intente más tarde."));
     } catch (AuthenticationException e) {
       logger.warn("Error de autenticación: {}", e.getMessage());
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -1,7 +1,5 @@
 package com.tfu.backend.auth;
 
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -54,7 +52,8 @@ public class AuthService {
   /**
    * Realiza el login del usuario validando sus credenciales contra la base de
    * datos.
-   * Aplica rate limiting para prevenir ataques de fuerza bruta.
+   * El límite de intentos contra fuerza bruta lo aplica {@link LoginRateLimiter}
+   * por cuenta e IP, antes de llegar acá.
    * 
    * @param email    Email del usuario
    * @param password Contraseña del usuario
@@ -62,7 +61,6 @@ public class AuthService {
    * @throws AuthenticationException si las credenciales no son válidas o el
    *                                 usuario está deshabilitado
    */
-  @RateLimiter(name = "loginLimiter")
   public String authenticate(String email, String password) {
     try {
       logger.debug("Intentando autenticar usuario con email: {}", email);
@@ -108,7 +106,6 @@ public class AuthService {
    * @return El nombre de usuario si las credenciales son válidas
    * @throws AuthenticationException si las credenciales no son válidas
    */
-  @RateLimiter(name = "loginLimiter")
   public String login(String email, String password) {
     // Buscar usuario por email en la base de datos
     return userRepository.findByEmail(email)
@@ -12,6 +12,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.jsonwebtoken.JwtException;
 
 import java.util.HashMap;
@@ -71,6 +72,28 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
   }
 
+  /**
+   * Maneja los rechazos por límite de intentos (ver {@link LoginRateLimiter}).
+   * 
+   * @param ex      La excepción capturada
+   * @param request La solicitud HTTP
+   * @return Respuesta con el mensaje de error
+   */
+  @ExceptionHandler(RequestNotPermitted.class)
+  public ResponseEntity<Map<String, String>> handleRequestNotPermitted(
+      RequestNotPermitted ex,
+      HttpServletRequest request) {
+
+    logger.warn("Límite de intentos superado: {} en ruta: {}", ex.getMessage(), request.getRequestURI());
+
+    Map<String, String> error = new HashMap<>();
+    error.put("error", "Demasiados intentos");
+    error.put("message", "Demasiados intentos. Intente más tarde.");
+    error.put("path", request.getRequestURI());
+
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+  }
+
   /**
    * Maneja excepciones de acceso denegado.
    * 
@@ -1,5 +1,7 @@
 package com.tfu.backend.auth;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,27 +16,36 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Filtro de autenticación JWT que valida el token en cada solicitud.
  * Extiende OncePerRequestFilter para garantizar que se ejecuta una vez por
  * solicitud.
+ *
+ * El tiempo de validación (sin el resto de la cadena) se mide en el timer
+ * {@code auth.filter} con outcome authenticated, rejected o error; las
+ * solicitudes sin token no se miden.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService jwtService;
   private final UserDetailsService userDetailsService;
+  private final MeterRegistry meterRegistry;
 
   /**
    * Constructor que inyecta los servicios necesarios.
    *
    * @param jwtService         Servicio para manipular tokens JWT
    * @param userDetailsService Servicio para cargar detalles del usuario
+   * @param meterRegistry      Registro de métricas
    */
-  public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+  public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+      MeterRegistry meterRegistry) {
     this.jwtService = jwtService;
     this.userDetailsService = userDetailsService;
+    this.meterRegistry = meterRegistry;
   }
 
   /**
@@ -67,6 +78,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     // Extrae el token (elimina "Bearer " del principio)
     jwt = authHeader.substring(7);
 
+    long start = System.nanoTime();
+    String outcome = "rejected";
     try {
       // Extrae el username del token
       username = jwtService.extractUsername(jwt);
@@ -88,12 +101,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
               new WebAuthenticationDetailsSource().buildDetails(request));
 
           SecurityContextHolder.getContext().setAuthentication(authToken);
+          outcome = "authenticated";
         }
       }
     } catch (Exception e) {
+      outcome = "error";
       logger.error("Error validando el token JWT: " + e.getMessage());
       // No establecer autenticación si hay un error
     }
+    Timer.builder("auth.filter")
+        .description("Tiempo de validación del JWT por solicitud")
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
     // Continúa la cadena de filtros
     filterChain.doFilter(request, response);
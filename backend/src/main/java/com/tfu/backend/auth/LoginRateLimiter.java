@@ -0,0 +1,90 @@
+package com.tfu.backend.auth;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Límite de intentos de login por cuenta y por IP, contra fuerza bruta.
+ *
+ * Cada email y cada IP tienen su propio limitador, para que una cuenta atacada
+ * no deje sin login al resto de la réplica. Usan la configuración de las
+ * instancias {@code loginLimiter} (por cuenta) y {@code loginIpLimiter} (por
+ * IP) de resilience4j. Los limitadores viven en un LRU acotado por
+ * {@code auth.login-limiter.max-keys}.
+ *
+ * Métrica {@code auth.login.rejected{scope}}: intentos rechazados por cuenta o por IP.
+ */
+@Component
+public class LoginRateLimiter {
+
+  private final RateLimiterConfig accountConfig;
+  private final RateLimiterConfig ipConfig;
+  private final int maxKeys;
+  private final Map<String, RateLimiter> limiters;
+  private final Counter accountRejected;
+  private final Counter ipRejected;
+
+  public LoginRateLimiter(
+      RateLimiterRegistry registry,
+      MeterRegistry meterRegistry,
+      @Value("${auth.login-limiter.max-keys:10000}") int maxKeys) {
+    this.accountConfig = registry.rateLimiter("loginLimiter").getRateLimiterConfig();
+    this.ipConfig = registry.rateLimiter("loginIpLimiter").getRateLimiterConfig();
+    this.maxKeys = maxKeys;
+    this.limiters = new LinkedHashMap<>(256, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, RateLimiter> eldest) {
+        return size() > LoginRateLimiter.this.maxKeys;
+      }
+    };
+    this.accountRejected = rejected(meterRegistry, "account");
+    this.ipRejected = rejected(meterRegistry, "ip");
+  }
+
+  /**
+   * Cuenta un intento de login.
+   *
+   * @throws RequestNotPermitted si la cuenta o la IP agotaron sus intentos del periodo
+   */
+  public void acquire(String email, String clientIp) {
+    RateLimiter ip = limiter("ip:" + clientIp, ipConfig);
+    if (!ip.acquirePermission()) {
+      ipRejected.increment();
+      throw RequestNotPermitted.createRequestNotPermitted(ip);
+    }
+    RateLimiter account = limiter("account:" + email.trim().toLowerCase(Locale.ROOT), accountConfig);
+    if (!account.acquirePermission()) {
+      accountRejected.increment();
+      throw RequestNotPermitted.createRequestNotPermitted(account);
+    }
+  }
+
+  /** Segundos hasta que se renuevan los intentos de cuenta e IP, para Retry-After */
+  public long retryAfterSeconds() {
+    long period = Math.max(accountConfig.getLimitRefreshPeriod().toSeconds(),
+        ipConfig.getLimitRefreshPeriod().toSeconds());
+    return Math.max(period, 1);
+  }
+
+  private RateLimiter limiter(String key, RateLimiterConfig config) {
+    synchronized (limiters) {
+      return limiters.computeIfAbsent(key, k -> RateLimiter.of(k, config));
+    }
+  }
+
+  private static Counter rejected(MeterRegistry meterRegistry, String scope) {
+    return Counter.builder("auth.login.rejected").tag("scope", scope)
+        .description("Intentos de login rechazados por superar el límite")
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,160 @@
+package com.tfu.backend.catalog;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC al catálogo local (catalog_tracks, catalog_artists, catalog_albums).
+ * Las escrituras se hacen con upserts en lote (INSERT ... ON CONFLICT) para que
+ * un flush del write-behind sea un único round-trip por tabla y lote.
+ */
+@Repository
+public class CatalogRepository {
+
+    private static final String UPSERT_TRACK = """
+        INSERT INTO catalog_tracks (id, name, artists, album_id, album_name, image_url, preview_url,
+                                    primary_artist_id, primary_artist_name, primary_artist_spotify_url, fetched_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (id) DO UPDATE SET
+            name = EXCLUDED.name,
+            artists = EXCLUDED.artists,
+            album_id = EXCLUDED.album_id,
+            album_name = EXCLUDED.album_name,
+            image_url = EXCLUDED.image_url,
+            preview_url = EXCLUDED.preview_url,
+            primary_artist_id = EXCLUDED.primary_artist_id,
+            primary_artist_name = EXCLUDED.primary_artist_name,
+            primary_artist_spotify_url = EXCLUDED.primary_artist_spotify_url,
+            fetched_at = EXCLUDED.fetched_at
+        """;
+
+    private static final String UPSERT_ARTIST = """
+        INSERT INTO catalog_artists (id, name, spotify_url, updated_at)
+        VALUES (?, ?, ?, ?)
+        ON CONFLICT (id) DO UPDATE SET
+            name = EXCLUDED.name,
+            spotify_url = COALESCE(EXCLUDED.spotify_url, catalog_artists.spotify_url),
+            updated_at = EXCLUDED.updated_at
+        """;
+
+    private static final String UPSERT_ALBUM = """
+        INSERT INTO catalog_albums (id, name, image_url, primary_artist_id, updated_at)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (id) DO UPDATE SET
+            name = EXCLUDED.name,
+            image_url = COALESCE(EXCLUDED.image_url, catalog_albums.image_url),
+            primary_artist_id = EXCLUDED.primary_artist_id,
+            updated_at = EXCLUDED.updated_at
+        """;
+
+    private static final String SELECT_TRACK = """
+        SELECT id, name, artists, album_id, album_name, image_url, preview_url,
+               primary_artist_id, primary_artist_name, primary_artist_spotify_url, fetched_at
+        FROM catalog_tracks
+        """;
+
+    private static final RowMapper<CatalogTrack> TRACK_MAPPER = (rs, rowNum) -> new CatalogTrack(
+        rs.getString("id"),
+        rs.getString("name"),
+        rs.getString("artists"),
+        rs.getString("album_id"),
+        rs.getString("album_name"),
+        rs.getString("image_url"),
+        rs.getString("preview_url"),
+        rs.getString("primary_artist_id"),
+        rs.getString("primary_artist_name"),
+        rs.getString("primary_artist_spotify_url"),
+        rs.getTimestamp("fetched_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Busca una canción por su ID de Spotify.
+     */
+    public Optional<CatalogTrack> findTrack(String id) {
+        List<CatalogTrack> rows = jdbcTemplate.query(SELECT_TRACK + " WHERE id = ?", TRACK_MAPPER, id);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Busca varias canciones en una única consulta.
+     *
+     * @return mapa ID → canción con las canciones encontradas
+     */
+    public Map<String, CatalogTrack> findTracks(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, CatalogTrack> found = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_TRACK + " WHERE id = ANY (?)",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", ids.toArray())),
+            rs -> {
+                CatalogTrack track = TRACK_MAPPER.mapRow(rs, 0);
+                found.put(track.getId(), track);
+            });
+        return found;
+    }
+
+    /**
+     * Inserta o actualiza en lote canciones, sus artistas principales y sus álbumes.
+     */
+    public void upsertTracks(List<CatalogTrack> tracks, int batchSize) {
+        if (tracks.isEmpty()) {
+            return;
+        }
+
+        Map<String, CatalogTrack> artists = new LinkedHashMap<>();
+        Map<String, CatalogTrack> albums = new LinkedHashMap<>();
+        for (CatalogTrack track : tracks) {
+            if (track.getPrimaryArtistId() != null) {
+                artists.put(track.getPrimaryArtistId(), track);
+            }
+            if (track.getAlbumId() != null) {
+                albums.put(track.getAlbumId(), track);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_ARTIST, artists.values(), batchSize, (ps, track) -> {
+            ps.setString(1, track.getPrimaryArtistId());
+            ps.setString(2, track.getPrimaryArtistName());
+            ps.setString(3, track.getPrimaryArtistSpotifyUrl());
+            ps.setTimestamp(4, Timestamp.from(track.getFetchedAt()));
+        });
+
+        jdbcTemplate.batchUpdate(UPSERT_ALBUM, albums.values(), batchSize, (ps, track) -> {
+            ps.setString(1, track.getAlbumId());
+            ps.setString(2, track.getAlbumName());
+            ps.setString(3, track.getImageUrl());
+            ps.setString(4, track.getPrimaryArtistId());
+            ps.setTimestamp(5, Timestamp.from(track.getFetchedAt()));
+        });
+
+        jdbcTemplate.batchUpdate(UPSERT_TRACK, tracks, batchSize, (ps, track) -> {
+            ps.setString(1, track.getId());
+            ps.setString(2, track.getName());
+            ps.setString(3, track.getArtists());
+            ps.setString(4, track.getAlbumId());
+            ps.setString(5, track.getAlbumName());
+            ps.setString(6, track.getImageUrl());
+            ps.setString(7, track.getPreviewUrl());
+            ps.setString(8, track.getPrimaryArtistId());
+            ps.setString(9, track.getPrimaryArtistName());
+            ps.setString(10, track.getPrimaryArtistSpotifyUrl());
+            ps.setTimestamp(11, Timestamp.from(track.getFetchedAt()));
+        });
+    }
+}
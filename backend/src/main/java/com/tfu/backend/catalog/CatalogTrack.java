@@ -0,0 +1,60 @@
+package com.tfu.backend.catalog;
+
+import com.tfu.backend.spotify.SpotifyTrackDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Fila del catálogo local de canciones.
+ * Guarda lo que produce SpotifyService.convertToDto junto con los IDs de
+ * álbum y la fecha en que se obtuvo de Spotify.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogTrack {
+    private String id;
+    private String name;
+    private String artists;
+    private String albumId;
+    private String albumName;
+    private String imageUrl;
+    private String previewUrl;
+    private String primaryArtistId;
+    private String primaryArtistName;
+    private String primaryArtistSpotifyUrl;
+    private Instant fetchedAt;
+
+    /**
+     * Construye la fila a partir del DTO expuesto por la API.
+     */
+    public static CatalogTrack fromDto(SpotifyTrackDto dto, String albumId) {
+        return new CatalogTrack(
+            dto.getId(),
+            dto.getName(),
+            dto.getArtists(),
+            albumId,
+            dto.getAlbum(),
+            dto.getImageUrl(),
+            dto.getPreviewUrl(),
+            dto.getPrimaryArtistId(),
+            dto.getPrimaryArtistName(),
+            dto.getPrimaryArtistSpotifyUrl(),
+            Instant.now()
+        );
+    }
+
+    /**
+     * Convierte la fila de vuelta al DTO expuesto por la API.
+     */
+    public SpotifyTrackDto toDto() {
+        SpotifyTrackDto dto = new SpotifyTrackDto(id, name, artists, albumName, imageUrl, previewUrl);
+        dto.setPrimaryArtistId(primaryArtistId);
+        dto.setPrimaryArtistName(primaryArtistName);
+        dto.setPrimaryArtistSpotifyUrl(primaryArtistSpotifyUrl);
+        return dto;
+    }
+}
@@ -0,0 +1,179 @@
+package com.tfu.backend.catalog;
+
+import com.tfu.backend.spotify.SpotifyTrackDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catálogo local de canciones persistido en Postgres (write-behind).
+ *
+ * Cada canción convertida desde Spotify se encola en memoria y se escribe en
+ * lote cada pocos segundos, de modo que el camino de la request nunca espera
+ * a la base de datos. Las lecturas por ID consultan primero el buffer pendiente
+ * y luego la tabla; las filas más antiguas que {@code catalog.max-age} se
+ * siguen sirviendo pero quedan marcadas para que SpotifyService las refresque
+ * en segundo plano.
+ */
+@Service
+public class TrackCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackCatalogService.class);
+
+    private final CatalogRepository repository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxPending;
+    private final Duration maxAge;
+
+    /** Canciones pendientes de escribir, coalescidas por ID */
+    private final Map<String, CatalogTrack> pending = new ConcurrentHashMap<>();
+
+    /** IDs servidos desde el catálogo que superaron la antigüedad máxima */
+    private final Set<String> staleIds = ConcurrentHashMap.newKeySet();
+
+    private final Timer flushSuccess;
+    private final Timer flushFailure;
+
+    public TrackCatalogService(
+            CatalogRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${catalog.enabled:true}") boolean enabled,
+            @Value("${catalog.batch-size:100}") int batchSize,
+            @Value("${catalog.max-pending:10000}") int maxPending,
+            @Value("${catalog.max-age:24h}") Duration maxAge) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.maxAge = maxAge;
+
+        this.flushSuccess = flushTimer(meterRegistry, "success");
+        this.flushFailure = flushTimer(meterRegistry, "failure");
+        Gauge.builder("catalog.pending", pending, Map::size)
+                .description("Canciones pendientes de escribir en Postgres")
+                .register(meterRegistry);
+    }
+
+    private static Timer flushTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("catalog.flush")
+                .description("Duración de la escritura en lote del catálogo en Postgres")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encola una canción para persistirla en el próximo flush. No bloquea.
+     */
+    public void record(SpotifyTrackDto dto, String albumId) {
+        if (!enabled || dto == null || dto.getId() == null) {
+            return;
+        }
+        if (pending.size() >= maxPending && !pending.containsKey(dto.getId())) {
+            logger.debug("Buffer del catálogo lleno, se descarta el track {}", dto.getId());
+            return;
+        }
+        pending.put(dto.getId(), CatalogTrack.fromDto(dto, albumId));
+        staleIds.remove(dto.getId());
+    }
+
+    /**
+     * Busca una canción conocida por su ID de Spotify.
+     * Si la fila es antigua se devuelve igualmente y se agenda su refresco.
+     */
+    public Optional<SpotifyTrackDto> findTrack(String id) {
+        if (!enabled || id == null) {
+            return Optional.empty();
+        }
+
+        CatalogTrack buffered = pending.get(id);
+        if (buffered != null) {
+            return Optional.of(buffered.toDto());
+        }
+
+        try {
+            return repository.findTrack(id).map(track -> {
+                markIfStale(track);
+                return track.toDto();
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Falló la consulta al catálogo del track {}: {}", id, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Devuelve hasta {@code max} IDs que necesitan refrescarse desde Spotify.
+     */
+    public List<String> drainStaleIds(int max) {
+        List<String> ids = new ArrayList<>(Math.min(max, staleIds.size()));
+        Iterator<String> it = staleIds.iterator();
+        while (it.hasNext() && ids.size() < max) {
+            ids.add(it.next());
+            it.remove();
+        }
+        return ids;
+    }
+
+    /**
+     * Escribe en lote las canciones pendientes.
+     */
+    @Scheduled(fixedDelayString = "${catalog.flush-interval:2000}")
+    public void flush() {
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+
+        List<CatalogTrack> batch = new ArrayList<>(pending.size());
+        for (String id : new ArrayList<>(pending.keySet())) {
+            CatalogTrack track = pending.remove(id);
+            if (track != null) {
+                batch.add(track);
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            repository.upsertTracks(batch, batchSize);
+            flushSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.debug("Catálogo: {} tracks persistidos", batch.size());
+        } catch (DataAccessException e) {
+            flushFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.warn("Falló la escritura del catálogo, se reencolan {} tracks: {}", batch.size(), e.getMessage());
+            // Las versiones más nuevas encoladas durante el flush tienen prioridad
+            batch.forEach(track -> pending.putIfAbsent(track.getId(), track));
+        }
+    }
+
+    /**
+     * Vacía el buffer al detener la aplicación para no perder escrituras.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void markIfStale(CatalogTrack track) {
+        if (track.getFetchedAt().isBefore(Instant.now().minus(maxAge)) && staleIds.size() < maxPending) {
+            staleIds.add(track.getId());
+        }
+    }
+}
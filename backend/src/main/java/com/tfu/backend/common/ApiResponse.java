@@ -16,13 +16,20 @@ public class ApiResponse<T> {
   private final T data;
   private final LocalDateTime timestamp;
   private final String error;
+  private final Boolean stale;
 
   private ApiResponse(boolean success, String message, T data, String error) {
+    this(success, message, data, LocalDateTime.now(), error, null);
+  }
+
+  private ApiResponse(boolean success, String message, T data, LocalDateTime timestamp, String error,
+      Boolean stale) {
     this.success = success;
     this.message = message;
     this.data = data;
-    this.timestamp = LocalDateTime.now();
+    this.timestamp = timestamp;
     this.error = error;
+    this.stale = stale;
   }
 
   /**
@@ -82,6 +89,16 @@ public class ApiResponse<T> {
     return error(message, null);
   }
 
+  /**
+   * Copia de esta respuesta marcada como obsoleta: los datos provienen del
+   * último valor conocido porque el servicio externo no está disponible.
+   * 
+   * @return ApiResponse con stale = true.
+   */
+  public ApiResponse<T> asStale() {
+    return new ApiResponse<>(success, message, data, timestamp, error, true);
+  }
+
   // Getters
   public boolean isSuccess() {
     return success;
@@ -102,4 +119,8 @@ public class ApiResponse<T> {
   public String getError() {
     return error;
   }
-}
\ No newline at end of file
+
+  public Boolean getStale() {
+    return stale;
+  }
+}
@@ -0,0 +1,19 @@
+package com.tfu.backend.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un endpoint GET cuya respuesta se guarda ya serializada (y comprimida)
+ * en {@link ResponseBytesCache}, por ruta y parámetros. Solo sirve para
+ * endpoints públicos cuya respuesta depende únicamente de los parámetros y de
+ * datos que salen de las cachés de Spring.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResponse {
+}
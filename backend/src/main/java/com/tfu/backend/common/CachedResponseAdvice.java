@@ -0,0 +1,102 @@
+package com.tfu.backend.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Sirve los endpoints {@link CachedResponse} desde {@link ResponseBytesCache}.
+ *
+ * Como interceptor responde los aciertos antes de llegar al controlador. En un
+ * fallo, el advice serializa la respuesta una sola vez, la guarda y escribe esos
+ * mismos bytes, así Jackson no la vuelve a serializar. Se registra como
+ * interceptor en WebConfig.
+ */
+@RestControllerAdvice
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class CachedResponseAdvice implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+
+  private static final String KEY_ATTRIBUTE = CachedResponseAdvice.class.getName() + ".key";
+
+  private final ResponseBytesCache cache;
+  private final ResponseETags eTags;
+  private final ObjectMapper objectMapper;
+
+  public CachedResponseAdvice(ResponseBytesCache cache, ResponseETags eTags, ObjectMapper objectMapper) {
+    this.cache = cache;
+    this.eTags = eTags;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+      throws IOException {
+    if (!cache.isEnabled() || !HttpMethod.GET.matches(request.getMethod())
+        || !(handler instanceof HandlerMethod method) || !method.hasMethodAnnotation(CachedResponse.class)) {
+      return true;
+    }
+
+    String key = ResponseBytesCache.keyOf(request);
+    ResponseBytesCache.Entry entry = cache.get(key);
+    if (entry != null) {
+      cache.write(entry, request, response);
+      return false;
+    }
+    request.setAttribute(KEY_ATTRIBUTE, key);
+    cache.startRecording();
+    return true;
+  }
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return returnType.hasMethodAnnotation(CachedResponse.class)
+        && AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+      ServerHttpResponse response) {
+    if (!(body instanceof ApiResponse<?> apiResponse) || !apiResponse.isSuccess()
+        || !(request instanceof ServletServerHttpRequest servletRequest)
+        || !(response instanceof ServletServerHttpResponse servletResponse)) {
+      return body;
+    }
+    HttpServletRequest rawRequest = servletRequest.getServletRequest();
+    String key = (String) rawRequest.getAttribute(KEY_ATTRIBUTE);
+    if (key == null || StaleResponseAdvice.isCurrentRequestStale()) {
+      return body;
+    }
+
+    try {
+      byte[] bytes = objectMapper.writeValueAsBytes(body);
+      ResponseBytesCache.Entry entry = cache.put(key, bytes, selectedContentType.toString(), eTags.of(apiResponse));
+      cache.write(entry, rawRequest, servletResponse.getServletResponse());
+    } catch (JsonProcessingException e) {
+      return body;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // Ya se escribió la respuesta
+    return null;
+  }
+}
@@ -0,0 +1,50 @@
+package com.tfu.backend.common;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IP del cliente de una request.
+ *
+ * Detrás de nginx la IP real llega en X-Real-IP. El header solo se toma si la
+ * conexión viene de uno de los proxies de {@code app.trusted-proxies} (IPs o
+ * CIDR); cualquier otro cliente, aunque esté en la misma red, podría
+ * falsificarlo para hacerse pasar por otro.
+ */
+@Component
+public class ClientAddress {
+
+  private final List<IpAddressMatcher> trustedProxies;
+
+  public ClientAddress(@Value("${app.trusted-proxies:127.0.0.1/32,::1/128}") String[] trustedProxies) {
+    this.trustedProxies = Arrays.stream(trustedProxies)
+        .map(String::trim)
+        .filter(proxy -> !proxy.isEmpty())
+        .map(IpAddressMatcher::new)
+        .toList();
+  }
+
+  public String of(HttpServletRequest request) {
+    String remote = request.getRemoteAddr();
+    String forwarded = request.getHeader("X-Real-IP");
+    if (forwarded != null && !forwarded.isBlank() && isTrustedProxy(remote)) {
+      return forwarded.trim();
+    }
+    return remote;
+  }
+
+  private boolean isTrustedProxy(String address) {
+    // getRemoteAddr es siempre una IP literal: no hay resolución DNS
+    for (IpAddressMatcher proxy : trustedProxies) {
+      if (proxy.matches(address)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
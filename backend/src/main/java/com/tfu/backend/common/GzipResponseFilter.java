@@ -0,0 +1,172 @@
+package com.tfu.backend.common;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Comprime con gzip las respuestas JSON y XML (SOAP) que superan un tamaño
+ * mínimo, cuando el cliente acepta gzip.
+ *
+ * Se hace acá y no con {@code server.compression} porque Tomcat no comprime
+ * respuestas con ETag fuerte: la versión comprimida es otra representación y
+ * necesita otro ETag. Como hace Apache con mod_deflate, la versión gzip lleva el
+ * ETag con sufijo ({@code "<hash>-gzip"}) y el sufijo se quita de If-None-Match
+ * al entrar, así {@link ResponseETagAdvice} compara contra el hash del contenido.
+ */
+public class GzipResponseFilter extends OncePerRequestFilter {
+
+  private static final String GZIP = "gzip";
+  private static final String GZIP_ETAG_SUFFIX = "-gzip\"";
+
+  private final int minResponseSize;
+  private final List<MimeType> mimeTypes;
+
+  public GzipResponseFilter(int minResponseSize, List<String> mimeTypes) {
+    this.minResponseSize = minResponseSize;
+    this.mimeTypes = mimeTypes.stream().map(MimeTypeUtils::parseMimeType).toList();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (!acceptsGzip(request)) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    boolean gzipValidator = ifNoneMatch != null && ifNoneMatch.contains(GZIP_ETAG_SUFFIX);
+    HttpServletRequest filteredRequest = gzipValidator ? new PlainETagRequest(request) : request;
+    ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+    chain.doFilter(filteredRequest, buffered);
+
+    if (buffered.getStatus() == HttpStatus.NOT_MODIFIED.value()) {
+      // El cliente validó con la versión gzip: se le devuelve el mismo ETag
+      String eTag = response.getHeader(HttpHeaders.ETAG);
+      if (gzipValidator && eTag != null && ifNoneMatch.contains(gzipETag(eTag))) {
+        response.setHeader(HttpHeaders.ETAG, gzipETag(eTag));
+      }
+      buffered.copyBodyToResponse();
+      return;
+    }
+
+    byte[] body = buffered.getContentAsByteArray();
+    if (body.length < minResponseSize || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+        || !isCompressible(buffered.getContentType())) {
+      buffered.copyBodyToResponse();
+      return;
+    }
+
+    byte[] compressed = gzip(body);
+    String eTag = response.getHeader(HttpHeaders.ETAG);
+    if (eTag != null) {
+      response.setHeader(HttpHeaders.ETAG, gzipETag(eTag));
+    }
+    response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+    response.setContentLength(compressed.length);
+    response.getOutputStream().write(compressed);
+  }
+
+  static byte[] gzip(byte[] body) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+
+  /** Acepta gzip si aparece gzip (o *) en Accept-Encoding sin q=0 */
+  static boolean acceptsGzip(HttpServletRequest request) {
+    Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+    while (headers != null && headers.hasMoreElements()) {
+      for (String coding : headers.nextElement().split(",")) {
+        String[] parts = coding.split(";");
+        String name = parts[0].trim();
+        if (!name.equalsIgnoreCase(GZIP) && !name.equals("*")) {
+          continue;
+        }
+        boolean rejected = false;
+        for (int i = 1; i < parts.length; i++) {
+          String param = parts[i].trim();
+          if (param.startsWith("q=")) {
+            try {
+              rejected = Double.parseDouble(param.substring(2)) <= 0;
+            } catch (NumberFormatException e) {
+              rejected = true;
+            }
+          }
+        }
+        return !rejected;
+      }
+    }
+    return false;
+  }
+
+  private boolean isCompressible(String contentType) {
+    if (contentType == null) {
+      return false;
+    }
+    try {
+      MimeType type = MimeTypeUtils.parseMimeType(contentType);
+      return mimeTypes.stream().anyMatch(candidate -> candidate.isCompatibleWith(type));
+    } catch (InvalidMimeTypeException e) {
+      return false;
+    }
+  }
+
+  /** ETag fuerte de la representación gzip; los ETag débiles se dejan igual */
+  static String gzipETag(String eTag) {
+    if (eTag.startsWith("W/") || !eTag.endsWith("\"") || eTag.endsWith(GZIP_ETAG_SUFFIX)) {
+      return eTag;
+    }
+    return eTag.substring(0, eTag.length() - 1) + GZIP_ETAG_SUFFIX;
+  }
+
+  /** Request con los ETag de If-None-Match sin el sufijo -gzip */
+  private static final class PlainETagRequest extends HttpServletRequestWrapper {
+
+    PlainETagRequest(HttpServletRequest request) {
+      super(request);
+    }
+
+    @Override
+    public String getHeader(String name) {
+      String value = super.getHeader(name);
+      return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) && value != null ? strip(value) : value;
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+      Enumeration<String> values = super.getHeaders(name);
+      if (!HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) || values == null) {
+        return values;
+      }
+      return Collections.enumeration(Collections.list(values).stream().map(PlainETagRequest::strip).toList());
+    }
+
+    private static String strip(String value) {
+      return value.replace(GZIP_ETAG_SUFFIX, "\"");
+    }
+  }
+}
@@ -0,0 +1,336 @@
+package com.tfu.backend.common;
+
+import com.tfu.backend.config.CacheEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Caché de respuestas ya serializadas de los endpoints {@link CachedResponse}:
+ * guarda los bytes JSON, su versión gzip y el ETag, así un acierto se sirve
+ * escribiendo los bytes sin pasar por Jackson ni por el compresor.
+ *
+ * Se invalida junto con las cachés de datos: mientras se arma una respuesta se
+ * anotan las claves de caché que se leyeron, y cuando alguna de ellas se
+ * escribe, se elimina o se vacía su caché, la respuesta se descarta. Un índice
+ * inverso (caché → clave → respuestas) hace que invalidar cueste lo que las
+ * respuestas afectadas, no recorrer todas. Las respuestas servidas desde
+ * fallbacks (stale) no se guardan. El timestamp de ApiResponse queda fijo en el
+ * del momento en que se serializó.
+ *
+ * Una invalidación puede llegar mientras otra request arma su respuesta con el
+ * valor viejo. Cada invalidación lleva un número de generación y la request
+ * anota el vigente al empezar; si alguna de sus dependencias se invalidó desde
+ * entonces (salvo por una escritura de la misma request, que ya ve su propio
+ * valor), la respuesta se sirve pero no se guarda.
+ */
+@Component
+public class ResponseBytesCache implements CacheEventListener {
+
+  private static final String RECORDING_ATTRIBUTE = ResponseBytesCache.class.getName() + ".recording";
+
+  private final boolean enabled;
+  private final int maxEntries;
+  private final boolean compressionEnabled;
+  private final int minCompressedSize;
+  private final Counter hits;
+  private final Counter misses;
+
+  /** LRU por orden de acceso; este mapa es también el lock del índice */
+  private final LinkedHashMap<String, Entry> entries;
+  /** Respuestas guardadas por caché de datos y clave de la que dependen */
+  private final Map<String, Map<Object, Set<String>>> dependents = new HashMap<>();
+  /** Generación de la última invalidación; con el lock de entries */
+  private long generation;
+  /** Generación de las últimas invalidaciones por clave, acotadas a maxEntries */
+  private final LinkedHashMap<Dependency, Long> invalidatedAt;
+  /**
+   * Por caché, la generación de su último vaciado o de la invalidación más nueva
+   * que ya salió de invalidatedAt: cualquier clave de la caché pudo cambiar hasta ahí
+   */
+  private final Map<String, Long> invalidatedFloor = new HashMap<>();
+
+  public ResponseBytesCache(
+      MeterRegistry meterRegistry,
+      @Value("${response-cache.enabled:false}") boolean enabled,
+      @Value("${response-cache.max-entries:500}") int maxEntries,
+      @Value("${compression.enabled:true}") boolean compressionEnabled,
+      @Value("${compression.min-response-size:1024}") int minCompressedSize) {
+    this.enabled = enabled;
+    this.maxEntries = maxEntries;
+    this.compressionEnabled = compressionEnabled;
+    this.minCompressedSize = minCompressedSize;
+    this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > ResponseBytesCache.this.maxEntries) {
+          unindex(eldest.getKey(), eldest.getValue());
+          return true;
+        }
+        return false;
+      }
+    };
+    this.invalidatedAt = new LinkedHashMap<>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Dependency, Long> eldest) {
+        if (size() > ResponseBytesCache.this.maxEntries) {
+          invalidatedFloor.merge(eldest.getKey().cacheName(), eldest.getValue(), Math::max);
+          return true;
+        }
+        return false;
+      }
+    };
+    this.hits = Counter.builder("cache.gets").tag("cache", "responses").tag("result", "hit")
+        .description("Respuestas servidas desde bytes ya serializados")
+        .register(meterRegistry);
+    this.misses = Counter.builder("cache.gets").tag("cache", "responses").tag("result", "miss")
+        .description("Respuestas que hubo que serializar")
+        .register(meterRegistry);
+    Gauge.builder("cache.size", entries, map -> {
+      synchronized (map) {
+        return map.size();
+      }
+    }).tag("cache", "responses").register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Clave de la respuesta: ruta y parámetros ordenados por nombre.
+   */
+  public static String keyOf(HttpServletRequest request) {
+    StringBuilder key = new StringBuilder(request.getRequestURI());
+    char separator = '?';
+    for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+      for (String value : parameter.getValue()) {
+        key.append(separator).append(parameter.getKey()).append('=').append(value);
+        separator = '&';
+      }
+    }
+    return key.toString();
+  }
+
+  public Entry get(String key) {
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.get(key);
+    }
+    (entry != null ? hits : misses).increment();
+    return entry;
+  }
+
+  /**
+   * Empieza a anotar las claves de caché que lee la request actual, desde la
+   * generación de invalidaciones vigente.
+   */
+  public void startRecording() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes != null) {
+      long start;
+      synchronized (entries) {
+        start = generation;
+      }
+      attributes.setAttribute(RECORDING_ATTRIBUTE, new Recording(start), RequestAttributes.SCOPE_REQUEST);
+    }
+  }
+
+  /**
+   * Guarda la respuesta serializada con las dependencias anotadas en la request
+   * actual. Sin dependencias no se guarda, porque nada la invalidaría; tampoco
+   * si alguna se invalidó mientras se armaba.
+   */
+  public Entry put(String key, byte[] body, String contentType, String eTag) {
+    Recording recording = recording();
+    byte[] gzip = compressionEnabled && body.length >= minCompressedSize ? GzipResponseFilter.gzip(body) : null;
+    Entry entry = new Entry(body, gzip, contentType, eTag,
+        recording != null ? Set.copyOf(recording.dependencies) : Set.of());
+    if (!entry.dependencies().isEmpty()) {
+      synchronized (entries) {
+        if (invalidatedSince(recording)) {
+          return entry;
+        }
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+          unindex(key, previous);
+        }
+        for (Dependency dependency : entry.dependencies()) {
+          dependents.computeIfAbsent(dependency.cacheName(), name -> new HashMap<>())
+              .computeIfAbsent(dependency.key(), k -> new HashSet<>())
+              .add(key);
+        }
+        // Indexada antes de entrar: si el LRU la desaloja de inmediato, se desindexa
+        entries.put(key, entry);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Escribe la respuesta guardada: 304 si If-None-Match coincide, gzip si el
+   * cliente lo acepta y hay versión comprimida, o los bytes JSON.
+   */
+  public void write(Entry entry, HttpServletRequest request, HttpServletResponse response) throws IOException {
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+    if (new ServletWebRequest(request, response).checkNotModified(entry.eTag())) {
+      return;
+    }
+
+    byte[] body = entry.body();
+    if (entry.gzip() != null && GzipResponseFilter.acceptsGzip(request)) {
+      body = entry.gzip();
+      response.setHeader(HttpHeaders.ETAG, GzipResponseFilter.gzipETag(entry.eTag()));
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    response.setContentType(entry.contentType());
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  @Override
+  public void onRead(String cacheName, Object key) {
+    Recording recording = recording();
+    if (recording != null) {
+      recording.dependencies.add(new Dependency(cacheName, key));
+    }
+  }
+
+  @Override
+  public void onWrite(String cacheName, Object key) {
+    Dependency changed = new Dependency(cacheName, key);
+    long invalidation = invalidate(changed);
+    Recording recording = recording();
+    if (recording != null) {
+      // Escritura de la misma request (p. ej. al llenar la caché tras un miss)
+      recording.ownWrites.put(changed, invalidation);
+    }
+  }
+
+  @Override
+  public void onClear(String cacheName) {
+    invalidate(new Dependency(cacheName, null));
+  }
+
+  /**
+   * Descarta las respuestas que leyeron la clave cambiada (o cualquiera de la
+   * caché si es null) y devuelve la generación de esta invalidación.
+   */
+  private long invalidate(Dependency changed) {
+    synchronized (entries) {
+      long invalidation = ++generation;
+      if (changed.key() == null) {
+        invalidatedFloor.put(changed.cacheName(), invalidation);
+      } else {
+        // Reinsertada para que el orden de invalidatedAt sea el de las generaciones
+        invalidatedAt.remove(changed);
+        invalidatedAt.put(changed, invalidation);
+      }
+      Map<Object, Set<String>> byKey = dependents.get(changed.cacheName());
+      if (byKey == null) {
+        return invalidation;
+      }
+      List<String> affected = new ArrayList<>();
+      if (changed.key() == null) {
+        byKey.values().forEach(affected::addAll);
+      } else {
+        Set<String> keys = byKey.get(changed.key());
+        if (keys != null) {
+          affected.addAll(keys);
+        }
+      }
+      for (String key : affected) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+          unindex(key, removed);
+        }
+      }
+      return invalidation;
+    }
+  }
+
+  /**
+   * Si alguna dependencia de la request se invalidó después de que empezara a
+   * anotarlas, sin contar sus propias escrituras. Se llama con el lock de
+   * entries tomado.
+   */
+  private boolean invalidatedSince(Recording recording) {
+    for (Dependency dependency : recording.dependencies) {
+      if (invalidatedFloor.getOrDefault(dependency.cacheName(), 0L) > recording.generation) {
+        return true;
+      }
+      Long invalidation = invalidatedAt.get(dependency);
+      if (invalidation != null && invalidation > recording.generation
+          && !invalidation.equals(recording.ownWrites.get(dependency))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Quita una respuesta del índice inverso. Se llama con el lock de entries tomado. */
+  private void unindex(String key, Entry entry) {
+    for (Dependency dependency : entry.dependencies()) {
+      Map<Object, Set<String>> byKey = dependents.get(dependency.cacheName());
+      if (byKey == null) {
+        continue;
+      }
+      Set<String> keys = byKey.get(dependency.key());
+      if (keys != null && keys.remove(key) && keys.isEmpty()) {
+        byKey.remove(dependency.key());
+        if (byKey.isEmpty()) {
+          dependents.remove(dependency.cacheName());
+        }
+      }
+    }
+  }
+
+  /** Dependencias anotadas en la request actual, o null si no se están anotando */
+  private static Recording recording() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    return attributes != null
+        ? (Recording) attributes.getAttribute(RECORDING_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+        : null;
+  }
+
+  /**
+   * Lo anotado por una request: la generación al empezar, las claves leídas y
+   * la generación de las invalidaciones que causaron sus propias escrituras.
+   */
+  private static final class Recording {
+
+    private final long generation;
+    private final List<Dependency> dependencies = new ArrayList<>();
+    private final Map<Dependency, Long> ownWrites = new HashMap<>();
+
+    private Recording(long generation) {
+      this.generation = generation;
+    }
+  }
+
+  /** Respuesta serializada, su versión gzip (si supera el mínimo) y el ETag */
+  public record Entry(byte[] body, byte[] gzip, String contentType, String eTag, Set<Dependency> dependencies) {
+  }
+
+  /** Clave de una caché de datos leída al armar la respuesta */
+  public record Dependency(String cacheName, Object key) {
+  }
+}
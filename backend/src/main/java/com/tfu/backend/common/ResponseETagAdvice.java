@@ -0,0 +1,64 @@
+package com.tfu.backend.common;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Agrega un ETag fuerte a las respuestas de los endpoints marcados con
+ * {@link StrongETag} y responde 304 sin cuerpo cuando If-None-Match coincide,
+ * antes de que Jackson serialice la respuesta.
+ *
+ * Corre después de {@link StaleResponseAdvice} para que el ETag distinga la
+ * versión obsoleta de la fresca. Las respuestas dependen del usuario
+ * autenticado, así que se marcan {@code private, no-cache}: el navegador puede
+ * guardarlas pero debe revalidarlas siempre.
+ */
+@RestControllerAdvice
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ResponseETagAdvice implements ResponseBodyAdvice<Object> {
+
+  private final ResponseETags eTags;
+
+  public ResponseETagAdvice(ResponseETags eTags) {
+    this.eTags = eTags;
+  }
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return returnType.hasMethodAnnotation(StrongETag.class);
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+      ServerHttpResponse response) {
+    if (!(body instanceof ApiResponse<?> apiResponse) || !apiResponse.isSuccess()
+        || !(request instanceof ServletServerHttpRequest servletRequest)
+        || !(response instanceof ServletServerHttpResponse servletResponse)
+        || (request.getMethod() != HttpMethod.GET && request.getMethod() != HttpMethod.HEAD)) {
+      return body;
+    }
+
+    HttpServletResponse rawResponse = servletResponse.getServletResponse();
+    rawResponse.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+    ServletWebRequest webRequest = new ServletWebRequest(servletRequest.getServletRequest(), rawResponse);
+    if (webRequest.checkNotModified(eTags.of(apiResponse))) {
+      // 304: no se escribe cuerpo
+      return null;
+    }
+    return body;
+  }
+}
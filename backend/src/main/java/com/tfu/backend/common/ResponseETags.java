@@ -0,0 +1,104 @@
+package com.tfu.backend.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Calcula ETags fuertes para respuestas {@link ApiResponse}.
+ *
+ * El ETag es un SHA-256 de los datos serializados, el mensaje y la marca
+ * {@code stale}; el timestamp queda afuera porque cambia en cada respuesta.
+ * El hash de los datos se recuerda por identidad de objeto: los valores que
+ * salen de las cachés son siempre la misma instancia (y no se modifican), así
+ * que se serializan una sola vez para hashearlos aunque se pidan miles de veces.
+ */
+@Component
+public class ResponseETags {
+
+  private static final int MAX_REMEMBERED = 1024;
+
+  private final ObjectWriter writer;
+
+  /** LRU de hashes de datos por identidad del objeto */
+  private final Map<IdentityKey, byte[]> dataDigests = new LinkedHashMap<>(256, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<IdentityKey, byte[]> eldest) {
+      return size() > MAX_REMEMBERED;
+    }
+  };
+
+  public ResponseETags(ObjectMapper objectMapper) {
+    this.writer = objectMapper.writer();
+  }
+
+  /**
+   * ETag fuerte (entre comillas) de la respuesta.
+   */
+  public String of(ApiResponse<?> response) {
+    MessageDigest digest = sha256();
+    digest.update(dataDigest(response.getData()));
+    if (response.getMessage() != null) {
+      digest.update(response.getMessage().getBytes(StandardCharsets.UTF_8));
+    }
+    digest.update((byte) (Boolean.TRUE.equals(response.getStale()) ? 1 : 0));
+    return '"' + HexFormat.of().formatHex(digest.digest(), 0, 16) + '"';
+  }
+
+  private byte[] dataDigest(Object data) {
+    if (data == null) {
+      return new byte[0];
+    }
+    IdentityKey key = new IdentityKey(data);
+    synchronized (dataDigests) {
+      byte[] known = dataDigests.get(key);
+      if (known != null) {
+        return known;
+      }
+    }
+
+    // Se serializa directo al digest, sin armar el arreglo de bytes
+    MessageDigest digest = sha256();
+    try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+      writer.writeValue(out, data);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    byte[] hash = digest.digest();
+    synchronized (dataDigests) {
+      dataDigests.put(key, hash);
+    }
+    return hash;
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record IdentityKey(Object value) {
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof IdentityKey key && key.value == value;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(value);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.tfu.backend.common;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marca como {@code stale} las respuestas cuyos datos se sirvieron desde el
+ * último valor conocido (fallback) durante la request actual. Corre antes de
+ * {@link ResponseETagAdvice} para que la marca entre en el ETag.
+ */
+@RestControllerAdvice
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+  private static final String STALE_ATTRIBUTE = StaleResponseAdvice.class.getName() + ".stale";
+
+  /**
+   * Indica que la request en curso está usando datos obsoletos.
+   * Fuera de una request (tareas en segundo plano) no tiene efecto.
+   */
+  public static void markCurrentRequestStale() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes != null) {
+      attributes.setAttribute(STALE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+    }
+  }
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+      ServerHttpResponse response) {
+    if (body instanceof ApiResponse<?> apiResponse && isCurrentRequestStale()) {
+      return apiResponse.asStale();
+    }
+    return body;
+  }
+
+  /**
+   * Si la request en curso usó datos obsoletos.
+   */
+  static boolean isCurrentRequestStale() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    return attributes != null
+        && Boolean.TRUE.equals(attributes.getAttribute(STALE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+  }
+}
@@ -0,0 +1,18 @@
+package com.tfu.backend.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un endpoint GET cuya respuesta lleva un ETag fuerte calculado a partir
+ * de los datos devueltos y admite requests condicionales con If-None-Match.
+ * Lo aplica {@link ResponseETagAdvice}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StrongETag {
+}
@@ -1,14 +1,44 @@
 package com.tfu.backend.config;
 
+import com.tfu.backend.spotify.SpotifyConcurrencyLimitInterceptor;
+import com.tfu.backend.upstream.UpstreamMetricsInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class AppConfig {
+  /**
+   * RestTemplate compartido. Las llamadas a la API de Spotify pasan por el
+   * límite de concurrencia adaptativo; dentro de él se mide cada llamada
+   * (upstream.requests), sin contar la espera en la cola del limitador. Cada
+   * llamada genera un span de cliente y propaga la traza (traceparent).
+   */
   @Bean
-  public RestTemplate restTemplate() {
-    return new RestTemplateBuilder().build();
+  public RestTemplate restTemplate(Environment environment, SpotifyConcurrencyLimitInterceptor spotifyLimiter,
+      UpstreamMetricsInterceptor upstreamMetrics, ObservationRegistry observationRegistry) {
+    RestTemplate restTemplate = createRestTemplate(Threading.VIRTUAL.isActive(environment));
+    restTemplate.getInterceptors().add(spotifyLimiter);
+    restTemplate.getInterceptors().add(upstreamMetrics);
+    restTemplate.setObservationRegistry(observationRegistry);
+    return restTemplate;
+  }
+
+  /**
+   * En modo de hilos virtuales se usa el HttpClient del JDK: en Java 21
+   * HttpURLConnection bloquea dentro de métodos synchronized y fija (pin) el
+   * hilo portador durante toda la llamada, anulando la ventaja de los hilos virtuales.
+   */
+  static RestTemplate createRestTemplate(boolean virtualThreads) {
+    RestTemplateBuilder builder = new RestTemplateBuilder();
+    if (virtualThreads) {
+      builder = builder.requestFactory(() -> new JdkClientHttpRequestFactory());
+    }
+    return builder.build();
   }
 }
@@ -1,16 +1,35 @@
 package com.tfu.backend.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Configuración para el patrón Asynchronous Request-Reply.
  * Define un pool de hilos personalizado para manejar operaciones asíncronas
  * de manera eficiente.
+ *
+ * Con {@code spring.threads.virtual.enabled=true} (y Java 21+) el executor pasa a
+ * crear un hilo virtual por tarea: las operaciones bloqueantes (RestTemplate,
+ * yt-dlp) dejan de ocupar hilos de plataforma y no hay cola que se llene.
+ * La misma propiedad hace que Spring Boot atienda las requests de Tomcat con
+ * hilos virtuales.
+ *
+ * Todos los executors propagan el contexto de la request (traza actual, MDC)
+ * a las tareas con {@link ContextPropagatingTaskDecorator}.
  */
 @Configuration
 @EnableAsync
@@ -18,17 +37,206 @@ public class AsyncConfig {
 
   /**
    * Configura el executor para operaciones asíncronas.
-   * Pool de hilos optimizado para peticiones REST asíncronas.
-   * 
-   * @return Executor configurado con pool de hilos
+   * Pool de hilos optimizado para peticiones REST asíncronas, o hilos
+   * virtuales si el modo virtual está activo.
+   *
+   * @param environment Entorno de Spring para detectar el modo de hilos
+   * @return Executor configurado
    */
   @Bean(name = "taskExecutor")
-  public Executor taskExecutor() {
+  public AsyncTaskExecutor taskExecutor(Environment environment) {
+    return createTaskExecutor(Threading.VIRTUAL.isActive(environment));
+  }
+
+  /**
+   * Executor dedicado a las operaciones del reproductor (PlayerService), que
+   * bloquean en llamadas a Spotify. Mantenerlas aquí evita que ocupen el
+   * ForkJoinPool común o compitan con las tareas @Async.
+   *
+   * En modo plataforma es un pool con cola acotada: cuando la cola se llena la
+   * tarea se ejecuta en el hilo de la request (backpressure en vez de error) y
+   * se cuenta en {@code player.executor.rejected}. Spring Boot publica
+   * automáticamente executor.active, executor.queued, etc. con tag
+   * name=playerExecutor. En modo virtual se usa un hilo virtual por tarea con
+   * un límite de concurrencia y se publica executor.active manualmente.
+   *
+   * @return Executor del reproductor
+   */
+  @Bean(name = "playerExecutor")
+  public AsyncTaskExecutor playerExecutor(
+      Environment environment,
+      MeterRegistry meterRegistry,
+      @Value("${player.executor.core-size:4}") int coreSize,
+      @Value("${player.executor.max-size:16}") int maxSize,
+      @Value("${player.executor.queue-capacity:200}") int queueCapacity) {
+
+    if (Threading.VIRTUAL.isActive(environment)) {
+      AtomicInteger active = new AtomicInteger();
+      Gauge.builder("executor.active", active, AtomicInteger::get)
+          .tag("name", "playerExecutor")
+          .description("Tareas del reproductor en ejecución")
+          .register(meterRegistry);
+
+      SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("player-");
+      executor.setVirtualThreads(true);
+      executor.setConcurrencyLimit(maxSize); // Bloquea al llamador al superar el límite
+      ContextPropagatingTaskDecorator propagation = new ContextPropagatingTaskDecorator();
+      executor.setTaskDecorator(task -> {
+        Runnable withContext = propagation.decorate(task);
+        return () -> {
+          active.incrementAndGet();
+          try {
+            withContext.run();
+          } finally {
+            active.decrementAndGet();
+          }
+        };
+      });
+      executor.setTaskTerminationTimeout(30000);
+      return executor;
+    }
+
+    Counter rejected = Counter.builder("player.executor.rejected")
+        .description("Tareas del reproductor ejecutadas en el hilo llamador por cola llena")
+        .register(meterRegistry);
+    ThreadPoolExecutor.CallerRunsPolicy callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(coreSize);
+    executor.setMaxPoolSize(maxSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("player-");
+    executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+    executor.setRejectedExecutionHandler((task, pool) -> {
+      rejected.increment();
+      callerRuns.rejectedExecution(task, pool);
+    });
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Executor de los intentos hacia la fuente de streaming (flaky-service).
+   * Sin cola: los intentos bloquean hasta el read timeout y un hedge encolado
+   * llegaría tarde, así que si no hay hilo libre el hedge se descarta.
+   *
+   * @return Executor de la fuente de streaming
+   */
+  @Bean(name = "streamSourceExecutor")
+  public AsyncTaskExecutor streamSourceExecutor(
+      Environment environment,
+      @Value("${stream-source.executor.max-size:64}") int maxSize) {
+
+    if (Threading.VIRTUAL.isActive(environment)) {
+      SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("stream-source-");
+      executor.setVirtualThreads(true);
+      executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+      executor.setTaskTerminationTimeout(5000);
+      return executor;
+    }
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(Math.min(8, maxSize));
+    executor.setMaxPoolSize(maxSize);
+    executor.setQueueCapacity(0);
+    executor.setThreadNamePrefix("stream-source-");
+    executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Executor que escribe los eventos SSE del reproductor (ver
+   * {@code PlayerEventPublisher}). Cada conexión tiene a lo sumo una tarea
+   * encolada, así que la cola crece con las conexiones abiertas y no con los
+   * eventos. En modo virtual cada conexión escribe en su propio hilo virtual y
+   * un cliente lento solo bloquea el suyo; en modo plataforma ocupa uno de los
+   * {@code writer-threads}.
+   *
+   * @return Executor de los eventos del reproductor
+   */
+  @Bean(name = "playerEventsExecutor")
+  public AsyncTaskExecutor playerEventsExecutor(
+      Environment environment,
+      @Value("${player.events.writer-threads:8}") int threads,
+      @Value("${player.events.writer-queue-capacity:20000}") int queueCapacity) {
+
+    if (Threading.VIRTUAL.isActive(environment)) {
+      SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("player-events-");
+      executor.setVirtualThreads(true);
+      executor.setTaskTerminationTimeout(5000);
+      return executor;
+    }
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setDaemon(true);
+    executor.setThreadNamePrefix("player-events-");
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Executor de baja prioridad para el prefetch del reproductor (metadata y
+   * URLs de audio de las próximas canciones). Pocos hilos de plataforma con
+   * prioridad mínima, también en modo virtual, para acotar cuántos yt-dlp
+   * corren en segundo plano. Con la cola llena se descarta la tarea más vieja:
+   * corresponde a una canción que probablemente ya dejó de ser la próxima. Los
+   * descartes se cuentan en {@code player.prefetch.dropped}.
+   *
+   * @return Executor del prefetch
+   */
+  @Bean(name = "prefetchExecutor")
+  public AsyncTaskExecutor prefetchExecutor(
+      MeterRegistry meterRegistry,
+      @Value("${player.prefetch.threads:2}") int threads,
+      @Value("${player.prefetch.queue-capacity:16}") int queueCapacity) {
+    Counter dropped = Counter.builder("player.prefetch.dropped")
+        .description("Tareas de prefetch descartadas por cola llena")
+        .register(meterRegistry);
+    ThreadPoolExecutor.DiscardOldestPolicy discardOldest = new ThreadPoolExecutor.DiscardOldestPolicy();
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadPriority(Thread.MIN_PRIORITY);
+    executor.setDaemon(true);
+    executor.setThreadNamePrefix("prefetch-");
+    executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+    executor.setRejectedExecutionHandler((task, pool) -> {
+      dropped.increment();
+      discardOldest.rejectedExecution(task, pool);
+    });
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Crea el executor en modo plataforma (pool acotado) o virtual.
+   *
+   * @param virtualThreads true para usar un hilo virtual por tarea
+   * @return Executor inicializado
+   */
+  static AsyncTaskExecutor createTaskExecutor(boolean virtualThreads) {
+    if (virtualThreads) {
+      SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-");
+      executor.setVirtualThreads(true);
+      executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+      executor.setTaskTerminationTimeout(60000);
+      return executor;
+    }
+
     ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
     executor.setCorePoolSize(5); // Tamaño mínimo del pool
     executor.setMaxPoolSize(10); // Tamaño máximo del pool
     executor.setQueueCapacity(100); // Capacidad de la cola de espera
     executor.setThreadNamePrefix("async-");
+    executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
     executor.setWaitForTasksToCompleteOnShutdown(true);
     executor.setAwaitTerminationSeconds(60);
     executor.initialize();
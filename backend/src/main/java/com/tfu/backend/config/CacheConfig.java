@@ -0,0 +1,39 @@
+package com.tfu.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Caché simple en memoria (la misma que spring.cache.type=simple) con
+ * contadores de aciertos y fallos por caché y un span por lectura
+ * (ver {@link MeteredCache}). Los {@link CacheEventListener} registrados
+ * reciben las lecturas y cambios de todas las cachés.
+ */
+@Configuration
+public class CacheConfig {
+
+  @Bean
+  public CacheManager cacheManager(MeterRegistry meterRegistry, ObservationRegistry observationRegistry,
+      ObjectProvider<CacheEventListener> listenerProvider,
+      @Value("${spring.cache.cache-names:}") List<String> cacheNames) {
+    List<CacheEventListener> listeners = listenerProvider.orderedStream().toList();
+    ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager() {
+      @Override
+      protected Cache createConcurrentMapCache(String name) {
+        return new MeteredCache(super.createConcurrentMapCache(name), meterRegistry, observationRegistry,
+            listeners);
+      }
+    };
+    cacheManager.setCacheNames(cacheNames);
+    return cacheManager;
+  }
+}
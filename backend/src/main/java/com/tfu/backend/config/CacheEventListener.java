@@ -0,0 +1,21 @@
+package com.tfu.backend.config;
+
+/**
+ * Recibe los accesos y cambios de las cachés de datos (ver {@link MeteredCache}).
+ * Lo usan las cachés derivadas, como la de respuestas serializadas, para
+ * invalidarse junto con los datos de los que dependen.
+ */
+public interface CacheEventListener {
+
+  /** Lectura de una clave, haya o no valor */
+  default void onRead(String cacheName, Object key) {
+  }
+
+  /** Escritura o eliminación de una clave */
+  default void onWrite(String cacheName, Object key) {
+  }
+
+  /** Vaciado de toda la caché */
+  default void onClear(String cacheName) {
+  }
+}
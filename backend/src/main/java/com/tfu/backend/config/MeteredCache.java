@@ -0,0 +1,163 @@
+package com.tfu.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.cache.Cache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Cache que cuenta aciertos, fallos y escrituras con los mismos nombres que
+ * los binders de caché de Micrometer ({@code cache.gets} con result=hit|miss y
+ * {@code cache.puts}), para que los dashboards sirvan igual si se cambia de
+ * implementación. La caché simple de Spring no lleva estadísticas propias.
+ *
+ * Cada lectura es además una observación {@code cache.lookup} (span hijo de la
+ * request, con tags cache y result) para ver en la traza qué capa respondió.
+ * Lecturas, escrituras y vaciados se avisan a los {@link CacheEventListener}.
+ */
+class MeteredCache implements Cache {
+
+  private final Cache delegate;
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter puts;
+  private final ObservationRegistry observationRegistry;
+  private final List<CacheEventListener> listeners;
+
+  MeteredCache(Cache delegate, MeterRegistry meterRegistry, ObservationRegistry observationRegistry,
+      List<CacheEventListener> listeners) {
+    this.delegate = delegate;
+    this.observationRegistry = observationRegistry;
+    this.listeners = listeners;
+    this.hits = Counter.builder("cache.gets").tag("cache", delegate.getName()).tag("result", "hit")
+        .description("Lecturas de caché que encontraron el valor")
+        .register(meterRegistry);
+    this.misses = Counter.builder("cache.gets").tag("cache", delegate.getName()).tag("result", "miss")
+        .description("Lecturas de caché que no encontraron el valor")
+        .register(meterRegistry);
+    this.puts = Counter.builder("cache.puts").tag("cache", delegate.getName())
+        .description("Valores escritos en la caché")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return delegate.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    return lookup(key);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = lookup(key);
+    return wrapper != null ? delegate.get(key, type) : null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper wrapper = lookup(key);
+    if (wrapper != null) {
+      return (T) wrapper.get();
+    }
+    return delegate.get(key, () -> {
+      puts.increment();
+      T value = valueLoader.call();
+      written(key);
+      return value;
+    });
+  }
+
+  @Override
+  public CompletableFuture<?> retrieve(Object key) {
+    return delegate.retrieve(key);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+    return delegate.retrieve(key, valueLoader);
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    puts.increment();
+    delegate.put(key, value);
+    written(key);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = delegate.putIfAbsent(key, value);
+    if (existing == null) {
+      puts.increment();
+      written(key);
+    }
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    delegate.evict(key);
+    written(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean evicted = delegate.evictIfPresent(key);
+    written(key);
+    return evicted;
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    cleared();
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean invalidated = delegate.invalidate();
+    cleared();
+    return invalidated;
+  }
+
+  private ValueWrapper lookup(Object key) {
+    Observation observation = Observation.createNotStarted("cache.lookup", observationRegistry)
+        .contextualName("cache " + delegate.getName())
+        .lowCardinalityKeyValue("cache", delegate.getName())
+        .start();
+    ValueWrapper wrapper = delegate.get(key);
+    (wrapper != null ? hits : misses).increment();
+    for (CacheEventListener listener : listeners) {
+      listener.onRead(delegate.getName(), key);
+    }
+    observation.lowCardinalityKeyValue("result", wrapper != null ? "hit" : "miss").stop();
+    return wrapper;
+  }
+
+  private void written(Object key) {
+    for (CacheEventListener listener : listeners) {
+      listener.onWrite(delegate.getName(), key);
+    }
+  }
+
+  private void cleared() {
+    for (CacheEventListener listener : listeners) {
+      listener.onClear(delegate.getName());
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.tfu.backend.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtro de Logback que deja pasar solo 1 de cada {@code rate} eventos marcados
+ * con {@link #SAMPLED} (líneas de debug por request). Al ser un TurboFilter se
+ * evalúa antes de formatear el mensaje, así que los eventos descartados casi no
+ * cuestan. Se configura en logback-spring.xml ({@code logging.sampling.rate}).
+ */
+public class SampledLogFilter extends TurboFilter {
+
+  public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+  private final AtomicLong counter = new AtomicLong();
+  private int rate = 100;
+
+  @Override
+  public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+      Throwable t) {
+    if (marker == null || rate <= 1 || !marker.contains(SAMPLED)) {
+      return FilterReply.NEUTRAL;
+    }
+    if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+      return FilterReply.DENY;
+    }
+    return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+  }
+
+  public void setRate(int rate) {
+    this.rate = rate;
+  }
+}
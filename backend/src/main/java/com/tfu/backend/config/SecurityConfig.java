@@ -71,6 +71,8 @@ public class SecurityConfig {
             .requestMatchers("/api/search/**").permitAll() // Hacer público el endpoint de búsqueda categorizada
             .requestMatchers("/api/youtube/**").permitAll() // Hacer público el endpoint de YouTube
             .requestMatchers("/api/player/**").permitAll() // Hacer públicos los endpoints del reproductor
+            .requestMatchers("/api/trending/**").permitAll() // Hacer públicos los endpoints de trending
+            .requestMatchers("/api/recommendations/**").permitAll() // Hacer públicas las recomendaciones
             .requestMatchers("/soap/**").permitAll() // Hacer públicos los endpoints SOAP/XML
             .anyRequest().authenticated())
         .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -1,17 +1,39 @@
 package com.tfu.backend.config;
 
+import com.tfu.backend.common.CachedResponseAdvice;
+import com.tfu.backend.common.GzipResponseFilter;
+import com.tfu.backend.trending.TrendingQueryInterceptor;
+import com.tfu.backend.upstream.UpstreamTenantInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * Configuración global de CORS para la aplicación.
  * Esta configuración complementa la de SecurityConfig y se aplica a todos los
- * controladores.
+ * controladores. También registra la compresión gzip de los endpoints de
+ * catálogo y la caché de respuestas serializadas.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+  private final CachedResponseAdvice cachedResponseAdvice;
+  private final TrendingQueryInterceptor trendingQueryInterceptor;
+  private final UpstreamTenantInterceptor upstreamTenantInterceptor;
+
+  public WebConfig(CachedResponseAdvice cachedResponseAdvice, TrendingQueryInterceptor trendingQueryInterceptor,
+      UpstreamTenantInterceptor upstreamTenantInterceptor) {
+    this.cachedResponseAdvice = cachedResponseAdvice;
+    this.trendingQueryInterceptor = trendingQueryInterceptor;
+    this.upstreamTenantInterceptor = upstreamTenantInterceptor;
+  }
+
   /**
    * Configura las reglas CORS para todas las rutas.
    * Esta configuración asegura que los controladores respondan adecuadamente a
@@ -43,4 +65,33 @@ public class WebConfig implements WebMvcConfigurer {
         .allowCredentials(true)
         .maxAge(3600);
   }
-}
\ No newline at end of file
+
+  /**
+   * Responde desde la caché de respuestas serializadas los endpoints
+   * marcados con {@code @CachedResponse}. Las búsquedas se cuentan para
+   * trending antes, para no perder las que se sirven desde la caché. Cada
+   * request queda asociada a su tenant para el reparto de la cuota de Spotify.
+   */
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(upstreamTenantInterceptor);
+    registry.addInterceptor(trendingQueryInterceptor).addPathPatterns("/music/spotify/search", "/api/search");
+    registry.addInterceptor(cachedResponseAdvice);
+  }
+
+  /**
+   * Compresión gzip de las respuestas JSON/XML de búsqueda, artistas y SOAP.
+   * No se aplica a los endpoints de streaming de audio ni al reproductor.
+   */
+  @Bean
+  public FilterRegistrationBean<GzipResponseFilter> gzipResponseFilter(
+      @Value("${compression.enabled:true}") boolean enabled,
+      @Value("${compression.min-response-size:1024}") int minResponseSize,
+      @Value("${compression.mime-types:application/json,application/xml,text/xml,application/soap+xml}") List<String> mimeTypes) {
+    FilterRegistrationBean<GzipResponseFilter> registration = new FilterRegistrationBean<>(
+        new GzipResponseFilter(minResponseSize, mimeTypes));
+    registration.addUrlPatterns("/music/spotify/*", "/api/search/*", "/api/artists/*", "/soap/music/*");
+    registration.setEnabled(enabled);
+    return registration;
+  }
+}
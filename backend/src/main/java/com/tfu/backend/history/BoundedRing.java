@@ -0,0 +1,100 @@
+package com.tfu.backend.history;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring buffer acotado con muchos productores y un único consumidor, sin locks
+ * (cola de Vyukov): cada celda tiene un número de secuencia que indica si está
+ * libre para el productor de esa vuelta o lista para el consumidor.
+ *
+ * {@link #offer} nunca espera: con el buffer lleno devuelve false y el
+ * llamador decide (descartar y contar). Solo un hilo puede llamar a
+ * {@link #poll} / {@link #drainTo} a la vez.
+ */
+final class BoundedRing<E> {
+
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity se redondea a la potencia de 2 siguiente
+     */
+    BoundedRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Agrega un elemento si hay lugar. Seguro desde cualquier hilo.
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = element;
+                    // La escritura volátil de la secuencia publica el elemento
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Saca el elemento más viejo, o null si no hay ninguno listo.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = (E) buffer[index];
+        buffer[index] = null;
+        sequences.set(index, position + mask + 1);
+        head.set(position + 1);
+        return element;
+    }
+
+    /**
+     * Mueve hasta {@code max} elementos a {@code target}.
+     *
+     * @return cantidad de elementos movidos
+     */
+    int drainTo(Collection<? super E> target, int max) {
+        int drained = 0;
+        E element;
+        while (drained < max && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+}
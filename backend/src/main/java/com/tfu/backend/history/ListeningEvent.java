@@ -0,0 +1,19 @@
+package com.tfu.backend.history;
+
+import java.time.Instant;
+
+/**
+ * Un evento de escucha del reproductor.
+ *
+ * @param sessionId  sesión del reproductor
+ * @param trackId    ID de Spotify de la canción
+ * @param type       inicio, salto o escucha completa
+ * @param positionMs milisegundos escuchados al terminar (0 en PLAY)
+ * @param occurredAt momento del evento
+ */
+public record ListeningEvent(String sessionId, String trackId, Type type, long positionMs, Instant occurredAt) {
+
+    public enum Type {
+        PLAY, SKIP, COMPLETE
+    }
+}
@@ -0,0 +1,154 @@
+package com.tfu.backend.history;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Historial de escucha del reproductor (play, skip, complete) persistido en
+ * Postgres sin sumar latencia a las operaciones del reproductor.
+ *
+ * {@link #record} solo deja el evento en un ring buffer acotado sin locks; si
+ * está lleno (la base no da abasto o no responde) el evento se descarta y se
+ * cuenta en {@code listening.history.dropped}. Un único escritor vacía el buffer
+ * cada {@code listening-history.flush-interval} con inserciones en lote en la
+ * partición del mes.
+ */
+@Component
+public class ListeningHistoryRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListeningHistoryRecorder.class);
+
+    private final ListeningHistoryRepository repository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxPerFlush;
+    private final BoundedRing<ListeningEvent> buffer;
+
+    /** Eventos que fallaron al escribirse; se reintentan antes que el buffer */
+    private List<ListeningEvent> retry = new ArrayList<>();
+    private YearMonth partitionMonth;
+
+    private final Counter recorded;
+    private final Counter dropped;
+    private final Counter written;
+    private final Timer flushSuccess;
+    private final Timer flushFailure;
+
+    public ListeningHistoryRecorder(
+            ListeningHistoryRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${listening-history.enabled:true}") boolean enabled,
+            @Value("${listening-history.buffer-capacity:65536}") int bufferCapacity,
+            @Value("${listening-history.batch-size:1000}") int batchSize,
+            @Value("${listening-history.max-per-flush:20000}") int maxPerFlush) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxPerFlush = maxPerFlush;
+        this.buffer = new BoundedRing<>(bufferCapacity);
+
+        this.recorded = Counter.builder("listening.history.events").tag("stage", "recorded")
+                .description("Eventos de escucha recibidos y escritos en Postgres")
+                .register(meterRegistry);
+        this.written = Counter.builder("listening.history.events").tag("stage", "written")
+                .description("Eventos de escucha recibidos y escritos en Postgres")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("listening.history.dropped")
+                .description("Eventos de escucha descartados por buffer lleno")
+                .register(meterRegistry);
+        Gauge.builder("listening.history.buffered", buffer, BoundedRing::size)
+                .description("Eventos de escucha en el buffer esperando escritura")
+                .register(meterRegistry);
+        Gauge.builder("listening.history.buffer.capacity", buffer, BoundedRing::capacity)
+                .description("Capacidad del buffer de eventos de escucha")
+                .register(meterRegistry);
+        this.flushSuccess = flushTimer(meterRegistry, "success");
+        this.flushFailure = flushTimer(meterRegistry, "failure");
+    }
+
+    private static Timer flushTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("listening.history.flush")
+                .description("Duración de la escritura en lote del historial de escucha")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra un evento de escucha. No bloquea ni espera a la base.
+     *
+     * @return false si el evento se descartó por buffer lleno
+     */
+    public boolean record(String sessionId, String trackId, ListeningEvent.Type type, long positionMs) {
+        if (!enabled || trackId == null) {
+            return false;
+        }
+        if (!buffer.offer(new ListeningEvent(sessionId, trackId, type, positionMs, Instant.now()))) {
+            dropped.increment();
+            return false;
+        }
+        recorded.increment();
+        return true;
+    }
+
+    /**
+     * Escribe en lote los eventos acumulados. Único consumidor del buffer.
+     */
+    @Scheduled(fixedDelayString = "${listening-history.flush-interval:500}")
+    public synchronized void flush() {
+        if (!enabled || (retry.isEmpty() && buffer.size() == 0)) {
+            return;
+        }
+
+        List<ListeningEvent> batch = retry;
+        retry = new ArrayList<>();
+        buffer.drainTo(batch, maxPerFlush - batch.size());
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            YearMonth month = YearMonth.now(ZoneOffset.UTC);
+            if (!month.equals(partitionMonth)) {
+                repository.ensurePartition(month);
+                repository.ensurePartition(month.plusMonths(1));
+                partitionMonth = month;
+            }
+            repository.insertEvents(batch, batchSize);
+            written.increment(batch.size());
+            flushSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.debug("Listening history flushed {} events", batch.size());
+        } catch (DataAccessException e) {
+            flushFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.warn("Listening history flush failed, retrying {} events: {}", batch.size(), e.getMessage());
+            // Se conserva a lo sumo un flush de reintentos; el resto cuenta como descartado
+            int keep = Math.min(batch.size(), maxPerFlush);
+            dropped.increment(batch.size() - keep);
+            retry = new ArrayList<>(batch.subList(0, keep));
+        }
+    }
+
+    /**
+     * Vacía el buffer al detener la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
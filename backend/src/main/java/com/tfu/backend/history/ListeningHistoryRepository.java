@@ -0,0 +1,82 @@
+package com.tfu.backend.history;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Acceso JDBC a listening_history, particionada por mes (RANGE sobre
+ * occurred_at). Las inserciones van en lote; con reWriteBatchedInserts en la URL
+ * del datasource el driver las envía como INSERT multi-fila.
+ */
+@Repository
+public class ListeningHistoryRepository {
+
+    private static final String INSERT_EVENT = """
+        INSERT INTO listening_history (session_id, track_id, event_type, position_ms, occurred_at)
+        VALUES (?, ?, ?, ?, ?)
+        """;
+
+    private static final String RECENT_LISTENS = """
+        SELECT session_id, track_id FROM (
+            SELECT session_id, track_id, occurred_at FROM listening_history
+            WHERE occurred_at < ?
+              AND (event_type = 'COMPLETE' OR (event_type = 'SKIP' AND position_ms >= ?))
+            ORDER BY occurred_at DESC
+            LIMIT ?
+        ) recent
+        ORDER BY occurred_at
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ListeningHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Crea la partición mensual si no existe. Los eventos de meses sin partición
+     * caen en listening_history_default.
+     */
+    public void ensurePartition(YearMonth month) {
+        YearMonth next = month.plusMonths(1);
+        jdbcTemplate.execute(String.format("""
+            CREATE TABLE IF NOT EXISTS listening_history_%d_%02d PARTITION OF listening_history
+                FOR VALUES FROM ('%s-01') TO ('%s-01')
+            """, month.getYear(), month.getMonthValue(), month, next));
+    }
+
+    /**
+     * Inserta en lote eventos de escucha.
+     */
+    public void insertEvents(List<ListeningEvent> events, int batchSize) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events, batchSize, (ps, event) -> {
+            ps.setString(1, event.sessionId());
+            ps.setString(2, event.trackId());
+            ps.setString(3, event.type().name());
+            ps.setLong(4, event.positionMs());
+            ps.setTimestamp(5, Timestamp.from(event.occurredAt()));
+        });
+    }
+
+    /**
+     * Recorre en orden cronológico las últimas {@code limit} escuchas reales
+     * (completas o de al menos {@code minListenMs}) anteriores a {@code before}
+     * como (sesión, track).
+     */
+    public void forEachRecentListen(Instant before, int limit, long minListenMs,
+                                    BiConsumer<String, String> consumer) {
+        jdbcTemplate.query(RECENT_LISTENS,
+            (RowCallbackHandler) rs -> consumer.accept(rs.getString("session_id"), rs.getString("track_id")),
+            Timestamp.from(before), minListenMs, limit);
+    }
+}
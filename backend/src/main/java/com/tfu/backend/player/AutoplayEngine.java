@@ -0,0 +1,227 @@
+package com.tfu.backend.player;
+
+import com.tfu.backend.spotify.SpotifyArtist;
+import com.tfu.backend.spotify.SpotifyService;
+import com.tfu.backend.spotify.SpotifyTrackDto;
+import com.tfu.backend.upstream.UpstreamPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Autoplay estilo radio: cuando a la cola le quedan pocas canciones se preparan
+ * en segundo plano candidatas parecidas a la actual, para que playNext extienda
+ * la cola sin esperar a Spotify.
+ *
+ * Las candidatas mezclan, alternando, los top tracks del artista de la canción
+ * actual, canciones del primer género del artista y el pool de canciones
+ * aleatorias, sin repetir las que ya están en la cola. Todas las llamadas pasan
+ * por SpotifyService (cachés, reintentos y fallbacks) con prioridad
+ * {@link UpstreamPriority#PREFETCH}: nadie las espera todavía.
+ *
+ * Las candidatas valen para la semilla con la que se prepararon: si el usuario
+ * pasa a una canción de otro artista que no salió del autoplay, se descartan
+ * (también la tanda que se esté preparando) y se preparan de nuevo.
+ */
+@Component
+public class AutoplayEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutoplayEngine.class);
+
+    private final SpotifyService spotifyService;
+    private final Executor executor;
+    private final boolean enabled;
+    private final int lowWaterMark;
+    private final int batchSize;
+
+    private final ConcurrentLinkedDeque<TrackInfo> candidates = new ConcurrentLinkedDeque<>();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    /** Protege el cambio de semilla frente a las tandas que se agregan */
+    private final Object seedLock = new Object();
+    /** Artista de la semilla de las candidatas actuales */
+    private String seedArtist;
+    /** Cambia con cada semilla; una tanda de una semilla anterior se descarta */
+    private long generation;
+    /** Última candidata entregada: que suene no es un cambio de semilla */
+    private volatile String lastServedId;
+    private final Counter prepared;
+    private final Counter generated;
+
+    /**
+     * @param lowWaterMark canciones restantes en la cola a partir de las cuales
+     *                     se preparan candidatas
+     * @param batchSize    candidatas que se preparan por tanda
+     */
+    public AutoplayEngine(
+            SpotifyService spotifyService,
+            @Qualifier("taskExecutor") Executor executor,
+            MeterRegistry meterRegistry,
+            @Value("${player.autoplay.enabled:true}") boolean enabled,
+            @Value("${player.autoplay.low-water-mark:2}") int lowWaterMark,
+            @Value("${player.autoplay.batch-size:10}") int batchSize) {
+        this.spotifyService = spotifyService;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.lowWaterMark = lowWaterMark;
+        this.batchSize = batchSize;
+        Gauge.builder("player.autoplay.candidates", candidates, Collection::size)
+            .description("Canciones de autoplay preparadas")
+            .register(meterRegistry);
+        this.prepared = Counter.builder("player.autoplay.tracks").tag("source", "prepared")
+            .description("Canciones agregadas por autoplay según si ya estaban preparadas")
+            .register(meterRegistry);
+        this.generated = Counter.builder("player.autoplay.tracks").tag("source", "blocking")
+            .description("Canciones agregadas por autoplay según si ya estaban preparadas")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Avisa cuántas canciones le quedan a la cola después de la actual. Si son
+     * pocas y no hay suficientes candidatas, prepara más en segundo plano.
+     *
+     * @param seed     canción actual, base de las recomendaciones
+     * @param queueIds IDs ya en la cola, para no repetirlos (se calculan solo
+     *                 si hace falta preparar candidatas)
+     */
+    public void onQueueAdvanced(TrackInfo seed, int remaining, Supplier<Set<String>> queueIds) {
+        if (!enabled || seed == null) {
+            return;
+        }
+        long seedGeneration = reseed(seed);
+        if (remaining > lowWaterMark || candidates.size() >= batchSize
+                || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        Set<String> excluded = queueIds.get();
+        try {
+            executor.execute(() -> {
+                try {
+                    UpstreamPriority.PREFETCH.run(() -> refill(seed, excluded, seedGeneration));
+                } finally {
+                    refilling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refilling.set(false);
+        }
+    }
+
+    /**
+     * Siguiente candidata preparada que no esté en la cola, sin llamadas
+     * externas.
+     */
+    public Optional<TrackInfo> next(Set<String> queueIds) {
+        TrackInfo track;
+        while ((track = candidates.pollFirst()) != null) {
+            if (!queueIds.contains(track.getId())) {
+                prepared.increment();
+                lastServedId = track.getId();
+                return Optional.of(track);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Registra una canción de autoplay que hubo que pedir en el momento porque
+     * no había candidatas preparadas.
+     */
+    void recordBlocking() {
+        generated.increment();
+    }
+
+    /**
+     * Descarta las candidatas si la canción actual es de otro artista que la
+     * semilla y no es la última candidata entregada.
+     *
+     * @return la generación vigente para esta semilla
+     */
+    private long reseed(TrackInfo seed) {
+        String artist = seed.getArtist() != null ? seed.getArtist() : seed.getId();
+        synchronized (seedLock) {
+            if (!artist.equals(seedArtist) && !Objects.equals(seed.getId(), lastServedId)) {
+                if (seedArtist != null && !candidates.isEmpty()) {
+                    logger.debug("Autoplay seed changed to {}, dropping {} candidates", artist, candidates.size());
+                }
+                candidates.clear();
+                seedArtist = artist;
+                generation++;
+            }
+            return generation;
+        }
+    }
+
+    private void refill(TrackInfo seed, Set<String> queueIds, long seedGeneration) {
+        try {
+            List<List<SpotifyTrackDto>> sources = new ArrayList<>(3);
+            Optional<String> artistId = spotifyService.getTrackById(seed.getId())
+                .map(SpotifyTrackDto::getPrimaryArtistId);
+            if (artistId.isPresent()) {
+                sources.add(shuffled(spotifyService.getArtistTopTracks(artistId.get())));
+                SpotifyArtist artist = spotifyService.getArtist(artistId.get());
+                if (artist != null && artist.getGenres() != null && !artist.getGenres().isEmpty()) {
+                    sources.add(shuffled(spotifyService.searchTracks("genre:" + artist.getGenres().get(0), batchSize)));
+                }
+            }
+            sources.add(shuffled(spotifyService.getRandomTracks(batchSize)));
+
+            Map<String, TrackInfo> batch = interleave(sources, queueIds);
+            synchronized (seedLock) {
+                if (seedGeneration != generation) {
+                    logger.debug("Autoplay seed changed while preparing from {}, discarding batch", seed.getId());
+                    return;
+                }
+                candidates.forEach(candidate -> batch.remove(candidate.getId()));
+                candidates.addAll(batch.values());
+            }
+            logger.debug("Autoplay prepared {} candidates from {}", batch.size(), seed.getId());
+        } catch (Exception e) {
+            logger.warn("Could not prepare autoplay candidates: {}", e.getMessage());
+        }
+    }
+
+    /** Toma una canción de cada fuente por turno hasta completar la tanda */
+    private Map<String, TrackInfo> interleave(List<List<SpotifyTrackDto>> sources, Set<String> queueIds) {
+        Map<String, TrackInfo> batch = new LinkedHashMap<>();
+        List<Iterator<SpotifyTrackDto>> iterators = new ArrayList<>();
+        sources.forEach(source -> iterators.add(source.iterator()));
+        while (batch.size() < batchSize && iterators.stream().anyMatch(Iterator::hasNext)) {
+            for (Iterator<SpotifyTrackDto> iterator : iterators) {
+                if (iterator.hasNext() && batch.size() < batchSize) {
+                    SpotifyTrackDto track = iterator.next();
+                    if (track.getId() != null && !queueIds.contains(track.getId())) {
+                        batch.putIfAbsent(track.getId(), TrackInfo.from(track));
+                    }
+                }
+            }
+        }
+        return batch;
+    }
+
+    private static List<SpotifyTrackDto> shuffled(List<SpotifyTrackDto> tracks) {
+        List<SpotifyTrackDto> copy = tracks != null ? new ArrayList<>(tracks) : new ArrayList<>();
+        Collections.shuffle(copy);
+        return copy;
+    }
+}
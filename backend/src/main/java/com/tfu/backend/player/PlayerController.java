@@ -7,8 +7,10 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -21,9 +23,11 @@ import java.util.concurrent.CompletableFuture;
 public class PlayerController {
     
     private final PlayerService playerService;
+    private final PlayerEventPublisher playerEvents;
     
-    public PlayerController(PlayerService playerService) {
+    public PlayerController(PlayerService playerService, PlayerEventPublisher playerEvents) {
         this.playerService = playerService;
+        this.playerEvents = playerEvents;
     }
     
     @Operation(summary = "Reproducir canción", description = "Inicia la reproducción de una canción específica")
@@ -84,6 +88,16 @@ public class PlayerController {
         return ResponseEntity.ok(ApiResponse.success(state, "Estado del reproductor obtenido"));
     }
     
+    @Operation(summary = "Eventos del reproductor",
+        description = "Canal Server-Sent Events: un evento 'state' con el estado completo al conectar y luego "
+            + "eventos 'delta' con solo los campos que cambiaron. Reemplaza el polling de /state")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        // Recupera el estado persistido antes de enviar el inicial, como el resto de los endpoints
+        playerService.getState();
+        return playerEvents.subscribe();
+    }
+    
     @Operation(summary = "Toggle Shuffle", description = "Activa o desactiva el modo shuffle")
     @PostMapping("/shuffle")
     public ResponseEntity<ApiResponse<PlayerState>> toggleShuffle() {
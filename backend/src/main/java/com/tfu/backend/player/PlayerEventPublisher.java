@@ -0,0 +1,315 @@
+package com.tfu.backend.player;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Canal push del estado del reproductor por Server-Sent Events, en lugar de
+ * que cada cliente consulte /api/player/state periódicamente.
+ *
+ * Al suscribirse el cliente recibe un evento {@code state} con el estado
+ * completo; después, solo eventos {@code delta} con los campos que cambiaron
+ * (un track agregado al final de la cola viaja como {@code queueAppend}). El id
+ * de cada evento es la versión del estado. Cada evento se serializa una sola vez
+ * y se encola en todas las conexiones bajo el mismo lock, así los deltas llegan
+ * en orden.
+ *
+ * Encolar no bloquea: cada conexión tiene su propia cola, acotada por
+ * {@code max-pending}, que escribe una tarea de {@code playerEventsExecutor}.
+ * Un cliente lento solo atrasa su propia cola; si se llena, el cliente quedó
+ * atrasado y se corta (métrica {@code player.events.dropped}) para que
+ * reconecte y reciba el estado completo. Una conexión ociosa no ocupa hilos
+ * (async de Servlet); cada {@code heartbeat-interval} se manda un comentario
+ * para detectar clientes caídos y que los proxies no corten la conexión.
+ */
+@Component
+public class PlayerEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayerEventPublisher.class);
+
+    private final ObjectMapper objectMapper;
+    private final Executor writer;
+    private final Duration timeout;
+    private final int maxPending;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final Counter stateEvents;
+    private final Counter deltaEvents;
+    private final Counter heartbeats;
+    private final Counter dropped;
+
+    /** Ordena los eventos encolados; protege lastSnapshot y version */
+    private final Object lock = new Object();
+    private Map<String, Object> lastSnapshot = snapshot(new PlayerState());
+    private long version;
+
+    public PlayerEventPublisher(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Qualifier("playerEventsExecutor") Executor writer,
+            @Value("${player.events.timeout:30m}") Duration timeout,
+            @Value("${player.events.max-pending:64}") int maxPending) {
+        this.objectMapper = objectMapper;
+        this.writer = writer;
+        this.timeout = timeout;
+        this.maxPending = maxPending;
+        Gauge.builder("player.events.listeners", clients, Set::size)
+            .description("Conexiones SSE abiertas del reproductor")
+            .register(meterRegistry);
+        this.stateEvents = sentCounter(meterRegistry, "state");
+        this.deltaEvents = sentCounter(meterRegistry, "delta");
+        this.heartbeats = sentCounter(meterRegistry, "heartbeat");
+        this.dropped = Counter.builder("player.events.dropped")
+            .description("Conexiones SSE cortadas por acumular demasiados eventos sin escribir")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Abre una conexión SSE. El estado completo se encola antes que cualquier
+     * delta posterior, así ninguno se pierde ni llega antes que el estado inicial.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Client client = new Client(emitter);
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> clients.remove(client));
+
+        synchronized (lock) {
+            try {
+                client.offer(new Pending(SseEmitter.event()
+                    .name("state")
+                    .id(Long.toString(version))
+                    .data(objectMapper.writeValueAsString(lastSnapshot), MediaType.APPLICATION_JSON)
+                    .build(), stateEvents));
+            } catch (JsonProcessingException e) {
+                emitter.completeWithError(e);
+                return emitter;
+            }
+            clients.add(client);
+        }
+        return emitter;
+    }
+
+    /**
+     * Publica el estado actual si cambió. La foto del estado se toma en el hilo
+     * que lo modificó; la escritura a los clientes ocurre en el executor.
+     */
+    public void publish(PlayerState state) {
+        Map<String, Object> current = snapshot(state);
+        synchronized (lock) {
+            Map<String, Object> delta = delta(lastSnapshot, current);
+            if (delta.isEmpty()) {
+                return;
+            }
+            lastSnapshot = current;
+            version++;
+            try {
+                broadcast(new Pending(SseEmitter.event()
+                    .name("delta")
+                    .id(Long.toString(version))
+                    .data(objectMapper.writeValueAsString(delta), MediaType.APPLICATION_JSON)
+                    .build(), deltaEvents));
+            } catch (JsonProcessingException e) {
+                logger.warn("Could not serialize player delta: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${player.events.heartbeat-interval:25000}")
+    public void heartbeat() {
+        if (!clients.isEmpty()) {
+            broadcast(new Pending(SseEmitter.event().comment("").build(), heartbeats));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Client client : clients) {
+            clients.remove(client);
+            client.close();
+        }
+    }
+
+    private void broadcast(Pending event) {
+        for (Client client : clients) {
+            if (!client.offer(event)) {
+                logger.debug("Dropping SSE client that fell {} events behind", maxPending);
+                clients.remove(client);
+                dropped.increment();
+                client.close();
+            }
+        }
+    }
+
+    /** Evento listo para escribir y el contador que suma al enviarse */
+    private record Pending(Set<ResponseBodyEmitter.DataWithMediaType> data, Counter sent) {
+    }
+
+    /**
+     * Conexión SSE con su cola de eventos sin escribir. A lo sumo una tarea del
+     * executor la vacía a la vez, así el orden se mantiene; el emitter solo se
+     * toca desde esa tarea, nunca desde el hilo que encola (send y complete de
+     * SseEmitter se sincronizan entre sí y bloquearían a quien publica).
+     */
+    private final class Client implements Runnable {
+
+        private final SseEmitter emitter;
+        private final ArrayDeque<Pending> outbox = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean closed;
+
+        Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /** Encola sin bloquear; false si ya había {@code maxPending} eventos sin escribir */
+        boolean offer(Pending event) {
+            synchronized (this) {
+                if (closed) {
+                    return true;
+                }
+                if (outbox.size() >= maxPending) {
+                    return false;
+                }
+                outbox.add(event);
+                if (scheduled) {
+                    return true;
+                }
+                scheduled = true;
+            }
+            schedule();
+            return true;
+        }
+
+        /** Descarta lo pendiente y completa el emitter desde la tarea de escritura */
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                outbox.clear();
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            try {
+                writer.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Executor saturado o apagándose: no hay tarea escribiendo, se corta acá
+                clients.remove(this);
+                synchronized (this) {
+                    closed = true;
+                    outbox.clear();
+                    scheduled = false;
+                }
+                emitter.complete();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Pending next;
+                synchronized (this) {
+                    next = closed ? null : outbox.poll();
+                    if (next == null) {
+                        scheduled = false;
+                        if (!closed) {
+                            return;
+                        }
+                    }
+                }
+                if (next == null) {
+                    emitter.complete();
+                    return;
+                }
+                try {
+                    emitter.send(next.data());
+                    next.sent().increment();
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado
+                    clients.remove(this);
+                    synchronized (this) {
+                        closed = true;
+                        outbox.clear();
+                    }
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Campos del estado que viajan en los eventos; la cola se copia */
+    private static Map<String, Object> snapshot(PlayerState state) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("status", state.getStatus());
+        snapshot.put("currentTrack", state.getCurrentTrack());
+        snapshot.put("queue", state.getQueue() != null ? List.copyOf(state.getQueue()) : List.of());
+        snapshot.put("currentIndex", state.getCurrentIndex());
+        snapshot.put("shuffle", state.isShuffle());
+        snapshot.put("repeat", state.isRepeat());
+        snapshot.put("position", state.getPosition());
+        snapshot.put("duration", state.getDuration());
+        return snapshot;
+    }
+
+    /**
+     * Campos que cambiaron entre dos fotos. Si la cola solo creció al final se
+     * envían únicamente los tracks nuevos como {@code queueAppend}.
+     */
+    static Map<String, Object> delta(Map<String, Object> previous, Map<String, Object> current) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        current.forEach((field, value) -> {
+            Object before = previous.get(field);
+            if (Objects.equals(before, value)) {
+                return;
+            }
+            if (field.equals("queue") && before instanceof List<?> oldQueue && value instanceof List<?> newQueue
+                    && newQueue.size() > oldQueue.size() && newQueue.subList(0, oldQueue.size()).equals(oldQueue)) {
+                delta.put("queueAppend", new ArrayList<>(newQueue.subList(oldQueue.size(), newQueue.size())));
+                return;
+            }
+            delta.put(field, value);
+        });
+        return delta;
+    }
+
+    private static Counter sentCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("player.events.sent").tag("type", type)
+            .description("Eventos SSE escritos a clientes del reproductor")
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,88 @@
+package com.tfu.backend.player;
+
+import com.tfu.backend.spotify.SpotifyService;
+import com.tfu.backend.upstream.UpstreamPriority;
+import com.tfu.backend.youtube.YoutubeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Precarga de las canciones que vienen en la cola: cada vez que cambia la
+ * canción actual se resuelven en segundo plano sus datos de reproducción
+ * (caché trackPlayback) y la URL de audio de yt-dlp que usará
+ * /api/youtube/stream (ver StreamUrlCache). Así el cambio de canción no espera
+ * un yt-dlp en frío.
+ *
+ * Corre en el executor de baja prioridad prefetchExecutor; si se atrasa, las
+ * precargas más viejas se descartan. El ratio de aciertos se publica en
+ * {@code youtube.stream.prefetch{result}}.
+ *
+ * La canción actual se precarga como llamada interactiva (la request de
+ * streaming la está por pedir); las siguientes como {@link UpstreamPriority#PREFETCH},
+ * así no le quitan capacidad de Spotify ni de yt-dlp a las requests.
+ */
+@Component
+public class PlayerPrefetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayerPrefetcher.class);
+
+    private final SpotifyService spotifyService;
+    private final YoutubeService youtubeService;
+    private final Executor executor;
+    private final boolean enabled;
+    private final int lookahead;
+
+    /**
+     * @param lookahead cuántas canciones después de la actual se precargan
+     */
+    public PlayerPrefetcher(
+            SpotifyService spotifyService,
+            YoutubeService youtubeService,
+            @Qualifier("prefetchExecutor") Executor executor,
+            @Value("${player.prefetch.enabled:true}") boolean enabled,
+            @Value("${player.prefetch.lookahead:3}") int lookahead) {
+        this.spotifyService = spotifyService;
+        this.youtubeService = youtubeService;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.lookahead = lookahead;
+    }
+
+    public int getLookahead() {
+        return enabled ? lookahead : 0;
+    }
+
+    /**
+     * Precarga la canción actual (la request de streaming que llega enseguida
+     * espera esta misma resolución) y las siguientes, en ese orden.
+     */
+    public void prefetch(List<TrackInfo> tracks) {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < tracks.size(); i++) {
+            TrackInfo track = tracks.get(i);
+            UpstreamPriority priority = i == 0 ? UpstreamPriority.INTERACTIVE : UpstreamPriority.PREFETCH;
+            executor.execute(() -> priority.run(() -> warm(track)));
+        }
+    }
+
+    private void warm(TrackInfo track) {
+        try {
+            if (track.getId() != null) {
+                spotifyService.getTrackPlayback(track.getId());
+            }
+            if (track.getName() != null && track.getArtist() != null) {
+                youtubeService.prefetchStreamUrl(track.getName(), track.getArtist());
+            }
+        } catch (Exception e) {
+            logger.debug("Prefetch failed for track {}: {}", track.getId(), e.getMessage());
+        }
+    }
+}
@@ -1,29 +1,98 @@
 package com.tfu.backend.player;
 
+import com.tfu.backend.history.ListeningEvent;
+import com.tfu.backend.history.ListeningHistoryRecorder;
+import com.tfu.backend.recommendation.CoListenRecommender;
 import com.tfu.backend.spotify.SpotifyService;
 import com.tfu.backend.spotify.SpotifyTrackDto;
+import com.tfu.backend.trending.TrendingService;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Servicio para manejo de reproductor con cola, navegación y autoplay
  */
 @Service
+@Observed(name = "player.service")
 public class PlayerService {
     
     private static final Logger logger = LoggerFactory.getLogger(PlayerService.class);
     
+    /** Hay un único reproductor compartido; se persiste como una sesión */
+    static final String SESSION_ID = "default";
+    /** Margen para considerar completa una canción que se cambió justo al terminar */
+    private static final long COMPLETE_TOLERANCE_MS = 3000;
+    
     private final SpotifyService spotifyService;
-    private PlayerState playerState;
+    private final Executor executor;
+    private final PlayerEventPublisher events;
+    private final PlayerPrefetcher prefetcher;
+    private final AutoplayEngine autoplay;
+    private final PlayerStateStore store;
+    private final ListeningHistoryRecorder history;
+    private final TrendingService trending;
+    private final CoListenRecommender coListens;
+    /**
+     * Estado del reproductor. Se modifica solo con el monitor de este servicio
+     * tomado, el mismo con el que {@link #published()} lo publica y lo codifica
+     * para persistirlo; las llamadas a Spotify quedan fuera.
+     */
+    private volatile PlayerState playerState;
+    /** Si ya se intentó recuperar el estado persistido */
+    private volatile boolean loaded;
+    /** Canción para la que se lanzó el último prefetch */
+    private String prefetchedFor;
+    /**
+     * Orden aleatorio sobre la cola mientras shuffle está activo (la cola no se
+     * reordena). Las operaciones corren en varios hilos de playerExecutor y
+     * ShuffleOrder no es thread-safe: se usa solo con {@link #shuffleLock}.
+     */
+    private ShuffleOrder shuffleOrder;
+    private final SplittableRandom random = new SplittableRandom();
+    private final Object shuffleLock = new Object();
+    /** Canción en escucha para el historial (sonando o en pausa) y tiempo escuchado */
+    private String listeningTrackId;
+    private long listeningDurationMs;
+    private long listenedNanos;
+    private long listeningResumedAt = -1;
     
-    public PlayerService(SpotifyService spotifyService) {
+    /**
+     * @param executor executor dedicado e instrumentado del reproductor (ver
+     *                 AsyncConfig.playerExecutor); evita bloquear el ForkJoinPool
+     *                 común con llamadas a Spotify
+     * @param events   canal SSE al que se publica cada cambio de estado
+     * @param prefetcher precarga de las próximas canciones de la cola
+     * @param autoplay   candidatas preparadas para extender la cola al terminar
+     * @param store      persistencia del estado (se recupera en el primer uso)
+     * @param history    historial de escucha (play, skip, complete)
+     * @param trending   conteo de reproducciones para canciones en tendencia
+     * @param coListens  co-escuchas para recomendaciones "fans also played"
+     */
+    public PlayerService(SpotifyService spotifyService, @Qualifier("playerExecutor") Executor executor,
+                         PlayerEventPublisher events, PlayerPrefetcher prefetcher, AutoplayEngine autoplay,
+                         PlayerStateStore store, ListeningHistoryRecorder history,
+                         TrendingService trending, CoListenRecommender coListens) {
         this.spotifyService = spotifyService;
+        this.executor = executor;
+        this.events = events;
+        this.prefetcher = prefetcher;
+        this.autoplay = autoplay;
+        this.store = store;
+        this.history = history;
+        this.trending = trending;
+        this.coListens = coListens;
         this.playerState = new PlayerState();
     }
     
@@ -31,261 +100,457 @@ public class PlayerService {
      * Inicia reproducción de una canción y la añade a la cola
      */
     public CompletableFuture<PlayerState> play(String trackId) {
+        ensureLoaded();
         return CompletableFuture.supplyAsync(() -> {
             try {
                 logger.info("Iniciando reproducción del track: {}", trackId);
                 
-                // Buscar información del track (simulado con búsqueda)
-                List<SpotifyTrackDto> searchResults = spotifyService.searchTracks(trackId, 1);
+                // Resolver el track por ID (catálogo local primero, luego Spotify)
+                List<SpotifyTrackDto> searchResults = spotifyService.getTrackById(trackId)
+                    .map(List::of)
+                    .orElseGet(List::of);
                 if (searchResults.isEmpty()) {
                     // Si no encuentra por ID, buscar tracks aleatorios
                     searchResults = spotifyService.getRandomTracks(1);
                 }
                 
-                if (!searchResults.isEmpty()) {
-                    SpotifyTrackDto track = searchResults.get(0);
-                    TrackInfo trackInfo = convertToTrackInfo(track);
+                synchronized (this) {
+                    if (!searchResults.isEmpty()) {
+                        SpotifyTrackDto track = searchResults.get(0);
+                        TrackInfo trackInfo = TrackInfo.from(track);
+                        // Se cuenta la canción que suena de verdad, no el ID pedido (puede no existir)
+                        trending.recordPlay(trackInfo.getId());
                     
-                    // Añadir a la cola si no existe
-                    if (playerState.getQueue() == null) {
-                        playerState.setQueue(new ArrayList<>());
-                    }
+                        // Añadir a la cola si no existe
+                        if (playerState.getQueue() == null) {
+                            playerState.setQueue(new ArrayList<>());
+                        }
                     
-                    // Si es una nueva canción, añadirla a la cola
-                    if (playerState.getQueue().stream().noneMatch(t -> t.getId().equals(trackInfo.getId()))) {
-                        playerState.getQueue().add(trackInfo);
-                        playerState.setCurrentIndex(playerState.getQueue().size() - 1);
-                    } else {
-                        // Encontrar el índice de la canción existente
-                        for (int i = 0; i < playerState.getQueue().size(); i++) {
-                            if (playerState.getQueue().get(i).getId().equals(trackInfo.getId())) {
-                                playerState.setCurrentIndex(i);
-                                break;
+                        // Si es una nueva canción, añadirla a la cola
+                        if (playerState.getQueue().stream().noneMatch(t -> t.getId().equals(trackInfo.getId()))) {
+                            playerState.getQueue().add(trackInfo);
+                            playerState.setCurrentIndex(playerState.getQueue().size() - 1);
+                        } else {
+                            // Encontrar el índice de la canción existente
+                            for (int i = 0; i < playerState.getQueue().size(); i++) {
+                                if (playerState.getQueue().get(i).getId().equals(trackInfo.getId())) {
+                                    playerState.setCurrentIndex(i);
+                                    break;
+                                }
                             }
                         }
-                    }
                     
-                    playerState.setCurrentTrack(trackInfo);
-                    playerState.setStatus("playing");
-                    playerState.setPosition(0);
-                    playerState.setDuration(trackInfo.getDuration());
+                        synchronized (shuffleLock) {
+                            // Elegir una canción saca del orden aleatorio: se vuelve a crear
+                            // al navegar, empezando por ella
+                            shuffleOrder = null;
+                        }
+                        playerState.setCurrentTrack(trackInfo);
+                        playerState.setStatus("playing");
+                        playerState.setPosition(0);
+                        playerState.setDuration(trackInfo.getDuration());
                     
-                    logger.info("Reproducción iniciada: {} - {}", trackInfo.getName(), trackInfo.getArtist());
-                }
+                        logger.info("Reproducción iniciada: {} - {}", trackInfo.getName(), trackInfo.getArtist());
+                    }
                 
-                return playerState;
+                    return published();
+                }
             } catch (Exception e) {
                 logger.error("Error al iniciar reproducción: {}", e.getMessage(), e);
-                playerState.setStatus("error");
-                return playerState;
+                synchronized (this) {
+                    playerState.setStatus("error");
+                    return published();
+                }
             }
-        });
+        }, executor);
     }
     
     /**
      * Reproduce la siguiente canción en la cola
      */
     public CompletableFuture<PlayerState> playNext() {
+        ensureLoaded();
         return CompletableFuture.supplyAsync(() -> {
             try {
                 logger.info("Reproduciendo siguiente canción");
                 
-                if (playerState.getQueue() == null || playerState.getQueue().isEmpty()) {
-                    // Si no hay cola, obtener canciones aleatorias
-                    return generateAndPlayRecommended().join();
+                synchronized (this) {
+                    if (playerState.getQueue() != null && !playerState.getQueue().isEmpty()) {
+                        int nextIndex = nextIndex();
+                        if (nextIndex >= 0) {
+                            playerState.setCurrentIndex(nextIndex);
+                            TrackInfo nextTrack = playerState.getQueue().get(nextIndex);
+                            playerState.setCurrentTrack(nextTrack);
+                            playerState.setStatus("playing");
+                            playerState.setPosition(0);
+                            playerState.setDuration(nextTrack.getDuration());
+                            
+                            logger.info("Siguiente canción: {} - {}", nextTrack.getName(), nextTrack.getArtist());
+                            return published();
+                        }
+                    }
                 }
+                // Sin cola o se terminó sin repeat: nueva recomendación (fuera del lock: pide a Spotify)
+                return generateAndPlayRecommended();
                 
-                int nextIndex = playerState.getCurrentIndex() + 1;
+            } catch (Exception e) {
+                logger.error("Error al reproducir siguiente canción: {}", e.getMessage(), e);
+                return published();
+            }
+        }, executor);
+    }
+    
+    /** Índice de la siguiente canción, o -1 si se terminó la cola sin repeat */
+    private int nextIndex() {
+        int nextIndex;
+        synchronized (shuffleLock) {
+            ShuffleOrder shuffled = shuffleOrder();
+            if (shuffled != null) {
+                if (shuffled.hasNext()) {
+                    nextIndex = shuffled.next();
+                } else {
+                    nextIndex = playerState.isRepeat() ? shuffled.first() : -1;
+                }
+            } else {
+                nextIndex = playerState.getCurrentIndex() + 1;
                 
                 // Si llegamos al final y repeat está activado, volver al inicio
                 if (nextIndex >= playerState.getQueue().size()) {
-                    if (playerState.isRepeat()) {
-                        nextIndex = 0;
-                    } else {
-                        // Generar nueva recomendación
-                        return generateAndPlayRecommended().join();
-                    }
+                    nextIndex = playerState.isRepeat() ? 0 : -1;
                 }
-                
-                playerState.setCurrentIndex(nextIndex);
-                TrackInfo nextTrack = playerState.getQueue().get(nextIndex);
-                playerState.setCurrentTrack(nextTrack);
-                playerState.setStatus("playing");
-                playerState.setPosition(0);
-                playerState.setDuration(nextTrack.getDuration());
-                
-                logger.info("Siguiente canción: {} - {}", nextTrack.getName(), nextTrack.getArtist());
-                return playerState;
-                
-            } catch (Exception e) {
-                logger.error("Error al reproducir siguiente canción: {}", e.getMessage(), e);
-                return playerState;
             }
-        });
+        }
+        return nextIndex;
     }
     
     /**
      * Reproduce la canción anterior en la cola
      */
     public CompletableFuture<PlayerState> playPrevious() {
+        ensureLoaded();
         return CompletableFuture.supplyAsync(() -> {
             try {
                 logger.info("Reproduciendo canción anterior");
                 
-                if (playerState.getQueue() == null || playerState.getQueue().isEmpty()) {
-                    return playerState;
-                }
-                
-                int prevIndex = playerState.getCurrentIndex() - 1;
+                synchronized (this) {
+                    if (playerState.getQueue() == null || playerState.getQueue().isEmpty()) {
+                        return published();
+                    }
                 
-                // Si llegamos al inicio y repeat está activado, ir al final
-                if (prevIndex < 0) {
-                    if (playerState.isRepeat()) {
-                        prevIndex = playerState.getQueue().size() - 1;
-                    } else {
-                        prevIndex = 0; // Quedarse en la primera canción
+                    int prevIndex;
+                    synchronized (shuffleLock) {
+                        ShuffleOrder shuffled = shuffleOrder();
+                        if (shuffled != null) {
+                            if (shuffled.hasPrevious()) {
+                                prevIndex = shuffled.previous();
+                            } else if (playerState.isRepeat()) {
+                                prevIndex = shuffled.last();
+                            } else {
+                                prevIndex = shuffled.current(); // Quedarse en la primera canción
+                            }
+                        } else {
+                            prevIndex = playerState.getCurrentIndex() - 1;
+                        
+                            // Si llegamos al inicio y repeat está activado, ir al final
+                            if (prevIndex < 0) {
+                                if (playerState.isRepeat()) {
+                                    prevIndex = playerState.getQueue().size() - 1;
+                                } else {
+                                    prevIndex = 0; // Quedarse en la primera canción
+                                }
+                            }
+                        }
                     }
-                }
                 
-                playerState.setCurrentIndex(prevIndex);
-                TrackInfo prevTrack = playerState.getQueue().get(prevIndex);
-                playerState.setCurrentTrack(prevTrack);
-                playerState.setStatus("playing");
-                playerState.setPosition(0);
-                playerState.setDuration(prevTrack.getDuration());
+                    playerState.setCurrentIndex(prevIndex);
+                    TrackInfo prevTrack = playerState.getQueue().get(prevIndex);
+                    playerState.setCurrentTrack(prevTrack);
+                    playerState.setStatus("playing");
+                    playerState.setPosition(0);
+                    playerState.setDuration(prevTrack.getDuration());
                 
-                logger.info("Canción anterior: {} - {}", prevTrack.getName(), prevTrack.getArtist());
-                return playerState;
+                    logger.info("Canción anterior: {} - {}", prevTrack.getName(), prevTrack.getArtist());
+                    return published();
+                }
                 
             } catch (Exception e) {
                 logger.error("Error al reproducir canción anterior: {}", e.getMessage(), e);
-                return playerState;
+                return published();
             }
-        });
+        }, executor);
     }
     
     /**
      * Pausa la reproducción
      */
-    public PlayerState pause() {
+    public synchronized PlayerState pause() {
+        ensureLoaded();
         logger.info("Pausando reproducción");
         playerState.setStatus("paused");
-        return playerState;
+        return published();
     }
     
     /**
      * Reanuda la reproducción
      */
-    public PlayerState resume() {
+    public synchronized PlayerState resume() {
+        ensureLoaded();
         logger.info("Reanudando reproducción");
         playerState.setStatus("playing");
-        return playerState;
+        return published();
     }
     
     /**
      * Detiene la reproducción
      */
-    public PlayerState stop() {
+    public synchronized PlayerState stop() {
+        ensureLoaded();
         logger.info("Deteniendo reproducción");
         playerState.setStatus("stopped");
         playerState.setPosition(0);
-        return playerState;
+        return published();
     }
     
     /**
      * Obtiene el estado actual del reproductor
      */
     public PlayerState getState() {
+        ensureLoaded();
         return playerState;
     }
     
     /**
-     * Activa/desactiva shuffle
+     * Activa/desactiva shuffle. La cola no se reordena: el orden aleatorio se
+     * genera a medida que se avanza (ver {@link ShuffleOrder}), así que activarlo
+     * es O(1) y al desactivarlo se sigue en el orden original desde la canción
+     * actual.
      */
-    public PlayerState toggleShuffle() {
+    public synchronized PlayerState toggleShuffle() {
+        ensureLoaded();
         playerState.setShuffle(!playerState.isShuffle());
-        
-        if (playerState.isShuffle() && playerState.getQueue() != null) {
-            // Guardar la canción actual
-            TrackInfo currentTrack = playerState.getCurrentTrack();
-            
-            // Mezclar la cola
-            Collections.shuffle(playerState.getQueue());
-            
-            // Encontrar la nueva posición de la canción actual
-            if (currentTrack != null) {
-                for (int i = 0; i < playerState.getQueue().size(); i++) {
-                    if (playerState.getQueue().get(i).getId().equals(currentTrack.getId())) {
-                        playerState.setCurrentIndex(i);
-                        break;
-                    }
-                }
-            }
+        synchronized (shuffleLock) {
+            // Se crea al navegar, empezando por la canción actual
+            shuffleOrder = null;
         }
         
         logger.info("Shuffle {}", playerState.isShuffle() ? "activado" : "desactivado");
-        return playerState;
+        return published();
     }
     
     /**
      * Activa/desactiva repeat
      */
-    public PlayerState toggleRepeat() {
+    public synchronized PlayerState toggleRepeat() {
+        ensureLoaded();
         playerState.setRepeat(!playerState.isRepeat());
         logger.info("Repeat {}", playerState.isRepeat() ? "activado" : "desactivado");
-        return playerState;
+        return published();
     }
     
     /**
-     * Genera y reproduce una canción recomendada (autoplay)
+     * Genera y reproduce una canción recomendada (autoplay).
+     * Normalmente usa una candidata que {@link AutoplayEngine} preparó en segundo
+     * plano; solo si no hay ninguna (p. ej. la cola estaba vacía) pide una
+     * canción aleatoria en el momento.
+     * Se ejecuta en el hilo de la operación que lo invoca: encadenar otra tarea
+     * en el mismo executor y esperarla podría agotar un pool acotado.
      */
-    private CompletableFuture<PlayerState> generateAndPlayRecommended() {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
+    private PlayerState generateAndPlayRecommended() {
+        try {
+            TrackInfo trackInfo = autoplay.next(queueIds()).orElse(null);
+            if (trackInfo == null) {
                 logger.info("Generando canción recomendada para autoplay");
+                autoplay.recordBlocking();
                 
                 // Obtener canciones aleatorias como recomendación
                 List<SpotifyTrackDto> recommendations = spotifyService.getRandomTracks(1);
-                
                 if (!recommendations.isEmpty()) {
-                    SpotifyTrackDto track = recommendations.get(0);
-                    TrackInfo trackInfo = convertToTrackInfo(track);
-                    
+                    trackInfo = TrackInfo.from(recommendations.get(0));
+                }
+            }
+            
+            synchronized (this) {
+                if (trackInfo != null) {
                     // Añadir a la cola
                     if (playerState.getQueue() == null) {
                         playerState.setQueue(new ArrayList<>());
                     }
-                    
+                
                     playerState.getQueue().add(trackInfo);
                     playerState.setCurrentIndex(playerState.getQueue().size() - 1);
+                    synchronized (shuffleLock) {
+                        if (shuffleOrder != null) {
+                            // Al final del orden aleatorio: el único índice sin sortear es el nuevo
+                            shuffleOrder.grow(playerState.getQueue().size());
+                            shuffleOrder.next();
+                        }
+                    }
                     playerState.setCurrentTrack(trackInfo);
                     playerState.setStatus("playing");
                     playerState.setPosition(0);
                     playerState.setDuration(trackInfo.getDuration());
-                    
+                
                     logger.info("Autoplay iniciado: {} - {}", trackInfo.getName(), trackInfo.getArtist());
                 }
-                
-                return playerState;
-            } catch (Exception e) {
-                logger.error("Error en autoplay: {}", e.getMessage(), e);
-                return playerState;
+            
+                return published();
+            }
+        } catch (Exception e) {
+            logger.error("Error en autoplay: {}", e.getMessage(), e);
+            return published();
+        }
+    }
+    
+    /**
+     * Orden aleatorio vigente, o null si shuffle está desactivado o la cola está
+     * vacía. Se crea con la canción actual primero y se extiende a los tracks
+     * agregados a la cola desde la última navegación. Se llama con
+     * {@link #shuffleLock} tomado.
+     */
+    private ShuffleOrder shuffleOrder() {
+        List<TrackInfo> queue = playerState.getQueue();
+        if (!playerState.isShuffle() || queue == null || queue.isEmpty()) {
+            return null;
+        }
+        if (shuffleOrder == null) {
+            int current = Math.min(Math.max(playerState.getCurrentIndex(), 0), queue.size() - 1);
+            shuffleOrder = new ShuffleOrder(queue.size(), current, random);
+        } else {
+            shuffleOrder.grow(queue.size());
+        }
+        return shuffleOrder;
+    }
+    
+    /**
+     * Publica el estado a los clientes SSE (solo viajan los campos que cambiaron)
+     * y lo devuelve. Si cambió la canción actual, lanza el prefetch de las
+     * siguientes.
+     */
+    private synchronized PlayerState published() {
+        events.publish(playerState);
+        store.markDirty(SESSION_ID, playerState);
+        recordListening();
+        TrackInfo current = playerState.getCurrentTrack();
+        if (current != null && "playing".equals(playerState.getStatus())
+                && !current.getId().equals(prefetchedFor)) {
+            prefetchedFor = current.getId();
+            prefetcher.prefetch(upcomingTracks(prefetcher.getLookahead()));
+        }
+        if (current != null && "playing".equals(playerState.getStatus()) && !playerState.isRepeat()) {
+            autoplay.onQueueAdvanced(current, remainingTracks(), this::queueIds);
+        }
+        return playerState;
+    }
+
+    /**
+     * Traduce el cambio de estado a eventos del historial: PLAY al empezar una
+     * canción y, al dejarla, COMPLETE si se escuchó entera o SKIP si no. El tiempo
+     * escuchado se mide en el servidor y no cuenta las pausas.
+     */
+    private synchronized void recordListening() {
+        TrackInfo current = playerState.getCurrentTrack();
+        boolean playing = "playing".equals(playerState.getStatus());
+        String trackId = current != null && (playing || "paused".equals(playerState.getStatus()))
+            ? current.getId() : null;
+        long now = System.nanoTime();
+
+        if (Objects.equals(trackId, listeningTrackId)) {
+            if (trackId != null && playing && listeningResumedAt < 0) {
+                listeningResumedAt = now;
+            } else if (!playing && listeningResumedAt >= 0) {
+                listenedNanos += now - listeningResumedAt;
+                listeningResumedAt = -1;
             }
-        });
+            return;
+        }
+
+        if (listeningTrackId != null) {
+            long listenedMs = (listenedNanos + (listeningResumedAt >= 0 ? now - listeningResumedAt : 0)) / 1_000_000;
+            boolean complete = listeningDurationMs > 0 && listenedMs + COMPLETE_TOLERANCE_MS >= listeningDurationMs;
+            history.record(SESSION_ID, listeningTrackId,
+                complete ? ListeningEvent.Type.COMPLETE : ListeningEvent.Type.SKIP, listenedMs);
+            coListens.onListenEnded(SESSION_ID, listeningTrackId, listenedMs, complete);
+        }
+        listeningTrackId = trackId;
+        listeningDurationMs = current != null ? current.getDuration() : 0;
+        listenedNanos = 0;
+        listeningResumedAt = playing ? now : -1;
+        if (trackId != null) {
+            history.record(SESSION_ID, trackId, ListeningEvent.Type.PLAY, 0);
+        }
     }
     
     /**
-     * Convierte SpotifyTrackDto a TrackInfo
+     * Recupera el estado persistido la primera vez que esta réplica usa el
+     * reproductor (después de un reinicio o un cambio blue/green).
      */
-    private TrackInfo convertToTrackInfo(SpotifyTrackDto spotifyTrack) {
-        return new TrackInfo(
-            spotifyTrack.getId(),
-            spotifyTrack.getName(),
-            spotifyTrack.getArtists(),
-            spotifyTrack.getAlbum(),
-            spotifyTrack.getImageUrl(),
-            spotifyTrack.getPreviewUrl(), // URL de audio
-            180000L // Duración aproximada en ms (3 minutos)
-        );
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                store.load(SESSION_ID).ifPresent(state -> {
+                    playerState = state;
+                    events.publish(state);
+                    logger.info("Estado del reproductor recuperado: {} canciones en cola",
+                        state.getQueue() != null ? state.getQueue().size() : 0);
+                });
+                loaded = true;
+            }
+        }
+    }
+    
+    /** Canciones de la cola que quedan después de la actual */
+    private int remainingTracks() {
+        List<TrackInfo> queue = playerState.getQueue();
+        if (queue == null || queue.isEmpty()) {
+            return 0;
+        }
+        synchronized (shuffleLock) {
+            ShuffleOrder shuffled = shuffleOrder();
+            return shuffled != null ? shuffled.remaining() : queue.size() - 1 - playerState.getCurrentIndex();
+        }
+    }
+    
+    private Set<String> queueIds() {
+        List<TrackInfo> queue = playerState.getQueue();
+        Set<String> ids = new HashSet<>();
+        if (queue != null) {
+            queue.forEach(track -> ids.add(track.getId()));
+        }
+        return ids;
+    }
+    
+    /**
+     * La canción actual seguida de las {@code count} que sonarán después, según
+     * el orden aleatorio si shuffle está activo y volviendo al inicio con repeat.
+     */
+    private List<TrackInfo> upcomingTracks(int count) {
+        List<TrackInfo> queue = playerState.getQueue();
+        List<TrackInfo> upcoming = new ArrayList<>(count + 1);
+        upcoming.add(playerState.getCurrentTrack());
+        if (queue == null || queue.isEmpty()) {
+            return upcoming;
+        }
+        synchronized (shuffleLock) {
+            ShuffleOrder shuffled = shuffleOrder();
+            for (int ahead = 1; ahead <= count && ahead < queue.size(); ahead++) {
+                int index;
+                if (shuffled != null) {
+                    index = shuffled.peek(ahead);
+                } else {
+                    index = playerState.getCurrentIndex() + ahead;
+                    if (index >= queue.size()) {
+                        index = playerState.isRepeat() ? index % queue.size() : -1;
+                    }
+                }
+                if (index < 0) {
+                    break;
+                }
+                upcoming.add(queue.get(index));
+            }
+        }
+        return upcoming;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package com.tfu.backend.player;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a player_sessions: el estado del reproductor de cada sesión,
+ * codificado con {@link PlayerStateCodec}. Las escrituras son upserts en lote
+ * para que un flush sea un único round-trip.
+ */
+@Repository
+public class PlayerSessionRepository {
+
+    private static final String UPSERT_SESSION = """
+        INSERT INTO player_sessions (session_id, state, updated_at)
+        VALUES (?, ?, ?)
+        ON CONFLICT (session_id) DO UPDATE SET
+            state = EXCLUDED.state,
+            updated_at = EXCLUDED.updated_at
+        """;
+
+    private static final String SELECT_SESSION = "SELECT state FROM player_sessions WHERE session_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PlayerSessionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Estado codificado de una sesión, si se persistió alguna vez.
+     */
+    public Optional<byte[]> findState(String sessionId) {
+        List<byte[]> rows = jdbcTemplate.query(SELECT_SESSION, (rs, rowNum) -> rs.getBytes("state"), sessionId);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Inserta o reemplaza en lote el estado de varias sesiones.
+     */
+    public void upsertStates(Map<String, byte[]> states, int batchSize) {
+        if (states.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(UPSERT_SESSION, states.entrySet(), batchSize, (ps, session) -> {
+            ps.setString(1, session.getKey());
+            ps.setBytes(2, session.getValue());
+            ps.setTimestamp(3, now);
+        });
+    }
+}
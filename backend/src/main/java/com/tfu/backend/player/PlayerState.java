@@ -1,5 +1,6 @@
 package com.tfu.backend.player;
 
+import com.tfu.backend.spotify.SpotifyTrackDto;
 import lombok.Data;
 import java.util.List;
 
@@ -51,4 +52,19 @@ class TrackInfo {
         this.audioUrl = audioUrl;
         this.duration = duration;
     }
+    
+    /**
+     * Convierte SpotifyTrackDto a TrackInfo
+     */
+    static TrackInfo from(SpotifyTrackDto spotifyTrack) {
+        return new TrackInfo(
+            spotifyTrack.getId(),
+            spotifyTrack.getName(),
+            spotifyTrack.getArtists(),
+            spotifyTrack.getAlbum(),
+            spotifyTrack.getImageUrl(),
+            spotifyTrack.getPreviewUrl(), // URL de audio
+            180000L // Duración aproximada en ms (3 minutos)
+        );
+    }
 }
\ No newline at end of file
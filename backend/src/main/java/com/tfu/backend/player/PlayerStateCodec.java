@@ -0,0 +1,214 @@
+package com.tfu.backend.player;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codificación binaria compacta de {@link PlayerState} para persistirlo.
+ *
+ * Los textos de los tracks (artista, álbum, URLs de imagen) se repiten mucho
+ * dentro de una cola, así que se escriben una sola vez en una tabla de strings y
+ * cada track guarda índices en varint. La canción actual se guarda como índice
+ * de la cola cuando está en ella. El resultado se comprime con deflate.
+ */
+final class PlayerStateCodec {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int SHUFFLE = 1;
+    private static final int REPEAT = 2;
+    /** Capacidad inicial máxima de las listas, sin confiar en los tamaños leídos */
+    private static final int MAX_PRESIZE = 1024;
+
+    private PlayerStateCodec() {
+    }
+
+    static byte[] encode(PlayerState state) {
+        List<TrackInfo> queue = state.getQueue() != null ? state.getQueue() : List.of();
+        StringTable strings = new StringTable();
+        int[][] tracks = new int[queue.size()][];
+        for (int i = 0; i < queue.size(); i++) {
+            tracks[i] = strings.indexes(queue.get(i));
+        }
+        TrackInfo current = state.getCurrentTrack();
+        int currentInQueue = -1;
+        if (current != null) {
+            int index = state.getCurrentIndex();
+            currentInQueue = index >= 0 && index < queue.size() && current.equals(queue.get(index))
+                ? index : queue.indexOf(current);
+        }
+        int[] currentTrack = current != null && currentInQueue < 0 ? strings.indexes(current) : null;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(state.getStatus() != null ? state.getStatus() : "stopped");
+            out.writeByte((state.isShuffle() ? SHUFFLE : 0) | (state.isRepeat() ? REPEAT : 0));
+            writeVarLong(out, state.getCurrentIndex());
+            writeVarLong(out, state.getPosition());
+            writeVarLong(out, state.getDuration());
+
+            writeVarLong(out, strings.values.size());
+            for (String value : strings.values) {
+                out.writeUTF(value);
+            }
+            writeVarLong(out, queue.size());
+            for (int i = 0; i < queue.size(); i++) {
+                writeTrack(out, tracks[i], queue.get(i).getDuration());
+            }
+            // Canción actual: 0 = ninguna, 1 + índice en la cola, o -1 = track propio
+            if (currentTrack != null) {
+                writeVarLong(out, -1);
+                writeTrack(out, currentTrack, current.getDuration());
+            } else {
+                writeVarLong(out, currentInQueue + 1L);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException si los bytes no son un estado válido
+     *         (formato desconocido, datos truncados o índices fuera de rango)
+     */
+    static PlayerState decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(encoded)))) {
+            int format = in.readUnsignedByte();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unknown player state format " + format);
+            }
+            PlayerState state = new PlayerState();
+            state.setStatus(in.readUTF());
+            int flags = in.readUnsignedByte();
+            state.setShuffle((flags & SHUFFLE) != 0);
+            state.setRepeat((flags & REPEAT) != 0);
+            long currentIndex = readVarLong(in);
+            state.setPosition(readVarLong(in));
+            state.setDuration(readVarLong(in));
+
+            int stringCount = readCount(in);
+            List<String> strings = new ArrayList<>(Math.min(stringCount, MAX_PRESIZE));
+            for (int i = 0; i < stringCount; i++) {
+                strings.add(in.readUTF());
+            }
+            int queueSize = readCount(in);
+            List<TrackInfo> queue = new ArrayList<>(Math.min(queueSize, MAX_PRESIZE));
+            for (int i = 0; i < queueSize; i++) {
+                queue.add(readTrack(in, strings));
+            }
+            state.setQueue(queue);
+            // Con la cola vacía el índice queda en 0, el valor inicial de PlayerState
+            if (currentIndex != 0 && (currentIndex < 0 || currentIndex >= queueSize)) {
+                throw new IllegalArgumentException("Corrupt player state: current index " + currentIndex
+                    + " outside a queue of " + queueSize);
+            }
+            state.setCurrentIndex((int) currentIndex);
+
+            long current = readVarLong(in);
+            if (current < 0) {
+                state.setCurrentTrack(readTrack(in, strings));
+            } else if (current > 0) {
+                state.setCurrentTrack(queue.get(checkIndex(current - 1, queue.size(), "current track")));
+            }
+            return state;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt player state", e);
+        }
+    }
+
+    private static void writeTrack(DataOutputStream out, int[] fields, long duration) throws IOException {
+        for (int field : fields) {
+            writeVarLong(out, field);
+        }
+        writeVarLong(out, duration);
+    }
+
+    private static TrackInfo readTrack(DataInputStream in, List<String> strings) throws IOException {
+        String[] fields = new String[StringTable.FIELDS];
+        for (int i = 0; i < fields.length; i++) {
+            long index = readVarLong(in);
+            fields[i] = index == 0 ? null : strings.get(checkIndex(index - 1, strings.size(), "string"));
+        }
+        return new TrackInfo(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], readVarLong(in));
+    }
+
+    /** Cantidad de elementos que sigue; no puede ser negativa */
+    private static int readCount(DataInputStream in) throws IOException {
+        long count = readVarLong(in);
+        if (count < 0 || count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Corrupt player state: count " + count);
+        }
+        return (int) count;
+    }
+
+    /**
+     * Valida un índice leído contra el tamaño de su lista, para que un estado
+     * corrupto falle con IllegalArgumentException como el resto del formato.
+     */
+    private static int checkIndex(long index, int size, String what) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Corrupt player state: " + what + " index " + index
+                + " outside " + size + " entries");
+        }
+        return (int) index;
+    }
+
+    /** Varint con zigzag: valores chicos (y -1) ocupan un byte */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /** Strings únicos en orden de aparición; el índice 0 representa null */
+    private static final class StringTable {
+
+        static final int FIELDS = 6;
+
+        final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        int[] indexes(TrackInfo track) {
+            return new int[] {
+                index(track.getId()), index(track.getName()), index(track.getArtist()),
+                index(track.getAlbum()), index(track.getImageUrl()), index(track.getAudioUrl())
+            };
+        }
+
+        private int index(String value) {
+            if (value == null) {
+                return 0;
+            }
+            return indexes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size();
+            });
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.tfu.backend.player;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistencia del estado del reproductor en Postgres (write-behind), para que
+ * un reinicio o un cambio blue/green no borre la cola.
+ *
+ * Cada cambio se codifica (ver {@link PlayerStateCodec}) en el hilo que lo hizo
+ * y queda como pendiente de su sesión; cada
+ * {@code player.persistence.flush-interval} se escriben en lote las sesiones
+ * que cambiaron, así varios play/pause/next seguidos se coalescen en una sola
+ * escritura. Las
+ * réplicas cargan una sesión la primera vez que la usan.
+ */
+@Component
+public class PlayerStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayerStateStore.class);
+
+    private final PlayerSessionRepository repository;
+    private final boolean enabled;
+    private final int batchSize;
+
+    /** Último estado codificado de cada sesión con cambios sin persistir */
+    private final Map<String, byte[]> pending = new ConcurrentHashMap<>();
+
+    private final Timer flushSuccess;
+    private final Timer flushFailure;
+    private final DistributionSummary stateBytes;
+
+    public PlayerStateStore(
+            PlayerSessionRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${player.persistence.enabled:true}") boolean enabled,
+            @Value("${player.persistence.batch-size:100}") int batchSize) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+
+        this.flushSuccess = flushTimer(meterRegistry, "success");
+        this.flushFailure = flushTimer(meterRegistry, "failure");
+        this.stateBytes = DistributionSummary.builder("player.persistence.state.size")
+                .baseUnit("bytes")
+                .description("Tamaño del estado del reproductor codificado")
+                .register(meterRegistry);
+        Gauge.builder("player.persistence.pending", pending, Map::size)
+                .description("Sesiones del reproductor con cambios sin persistir")
+                .register(meterRegistry);
+    }
+
+    private static Timer flushTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("player.persistence.flush")
+                .description("Duración de la escritura en lote del estado del reproductor")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Marca una sesión para persistirla en el próximo flush. No espera a la base.
+     * El estado se codifica acá, así que debe llamarse con el lock que protege
+     * sus cambios tomado: el flush nunca lee el estado vivo.
+     */
+    public void markDirty(String sessionId, PlayerState state) {
+        if (enabled) {
+            pending.put(sessionId, PlayerStateCodec.encode(state));
+        }
+    }
+
+    /**
+     * Estado persistido de una sesión. Si la base no responde se sigue sin él.
+     */
+    public Optional<PlayerState> load(String sessionId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            byte[] buffered = pending.get(sessionId);
+            if (buffered != null) {
+                return Optional.of(PlayerStateCodec.decode(buffered));
+            }
+            return repository.findState(sessionId).map(PlayerStateCodec::decode);
+        } catch (DataAccessException | IllegalArgumentException e) {
+            logger.warn("Could not load player session {}: {}", sessionId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Escribe en lote las sesiones que cambiaron.
+     */
+    @Scheduled(fixedDelayString = "${player.persistence.flush-interval:250}")
+    public void flush() {
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, byte[]> batch = new LinkedHashMap<>();
+        for (String sessionId : new ArrayList<>(pending.keySet())) {
+            byte[] encoded = pending.remove(sessionId);
+            if (encoded != null) {
+                stateBytes.record(encoded.length);
+                batch.put(sessionId, encoded);
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            repository.upsertStates(batch, batchSize);
+            flushSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.debug("Player persistence flushed {} sessions", batch.size());
+        } catch (DataAccessException e) {
+            flushFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.warn("Player persistence flush failed, re-queueing {} sessions: {}", batch.size(), e.getMessage());
+            // Un cambio encolado durante el flush es más nuevo y tiene prioridad
+            batch.forEach(pending::putIfAbsent);
+        }
+    }
+
+    /**
+     * Vacía los cambios pendientes al detener la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
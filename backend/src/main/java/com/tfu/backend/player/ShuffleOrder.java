@@ -0,0 +1,145 @@
+package com.tfu.backend.player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Orden aleatorio de reproducción como vista sobre la cola, sin modificarla.
+ *
+ * Es una permutación de índices generada de forma perezosa (Fisher–Yates
+ * incremental): la posición {@code k} se sortea recién cuando se pide, entre los
+ * índices todavía no sorteados. Los intercambios del algoritmo se guardan en un
+ * mapa disperso en lugar de un arreglo de tamaño n, así que crear el orden es
+ * O(1) y cada posición nueva cuesta O(1), sin importar el largo de la cola.
+ *
+ * Los tracks agregados al final de la cola ({@link #grow(int)}) pasan a formar
+ * parte de lo que falta sortear, sin volver a mezclar lo ya reproducido.
+ * No es thread-safe: PlayerService lo usa siempre con su lock de shuffle tomado.
+ */
+final class ShuffleOrder {
+
+    private final RandomGenerator random;
+
+    /** Tamaño de la cola cubierta por la permutación */
+    private int size;
+    /** Índices de la cola en orden aleatorio, ya sorteados: order[0..drawn) */
+    private int[] order = new int[16];
+    private int drawn;
+    /** Intercambios de Fisher–Yates en el rango no sorteado (posición → índice) */
+    private final Map<Integer, Integer> swaps = new HashMap<>();
+    /** Posición actual de reproducción dentro del orden */
+    private int position;
+
+    /**
+     * @param size   largo de la cola
+     * @param first  índice de la cola que queda primero (la canción que está
+     *               sonando al activar shuffle)
+     * @param random generador para el sorteo
+     */
+    ShuffleOrder(int size, int first, RandomGenerator random) {
+        if (first < 0 || first >= size) {
+            throw new IllegalArgumentException("first must be in [0, " + size + "): " + first);
+        }
+        this.size = size;
+        this.random = random;
+        draw(first);
+    }
+
+    /**
+     * Extiende la permutación a una cola más larga (tracks agregados al final).
+     */
+    void grow(int newSize) {
+        if (newSize > size) {
+            size = newSize;
+        }
+    }
+
+    /** Índice de la cola de la canción actual */
+    int current() {
+        return order[position];
+    }
+
+    boolean hasNext() {
+        return position + 1 < size;
+    }
+
+    /** Avanza y devuelve el índice de la cola de la siguiente canción */
+    int next() {
+        if (!hasNext()) {
+            throw new IllegalStateException("No more tracks in shuffle order");
+        }
+        position++;
+        return indexAt(position);
+    }
+
+    /** Canciones que quedan después de la actual */
+    int remaining() {
+        return size - 1 - position;
+    }
+
+    boolean hasPrevious() {
+        return position > 0;
+    }
+
+    /** Retrocede y devuelve el índice de la cola de la canción anterior */
+    int previous() {
+        if (!hasPrevious()) {
+            throw new IllegalStateException("Already at the first track in shuffle order");
+        }
+        return order[--position];
+    }
+
+    /**
+     * Índice de la cola {@code ahead} canciones después de la actual, sin
+     * moverse; -1 si el orden termina antes.
+     */
+    int peek(int ahead) {
+        int target = position + ahead;
+        return target < size ? indexAt(target) : -1;
+    }
+
+    /** Vuelve al principio del orden (repeat al terminar la cola) */
+    int first() {
+        position = 0;
+        return order[0];
+    }
+
+    /** Va al final del orden (repeat hacia atrás); sortea lo que falte */
+    int last() {
+        position = size - 1;
+        return indexAt(position);
+    }
+
+    /**
+     * Índice de la cola en la posición dada del orden, sorteando las posiciones
+     * intermedias que falten.
+     */
+    int indexAt(int orderPosition) {
+        if (orderPosition < 0 || orderPosition >= size) {
+            throw new IndexOutOfBoundsException(orderPosition);
+        }
+        while (drawn <= orderPosition) {
+            draw(drawn + random.nextInt(size - drawn));
+        }
+        return order[orderPosition];
+    }
+
+    /**
+     * Paso de Fisher–Yates: el índice en la posición {@code chosen} del rango no
+     * sorteado pasa a la posición {@code drawn}, y el que ocupaba {@code drawn}
+     * toma el lugar de {@code chosen}.
+     */
+    private void draw(int chosen) {
+        int index = swaps.getOrDefault(chosen, chosen);
+        if (chosen != drawn) {
+            swaps.put(chosen, swaps.getOrDefault(drawn, drawn));
+        }
+        swaps.remove(drawn);
+        if (drawn == order.length) {
+            order = Arrays.copyOf(order, order.length * 2);
+        }
+        order[drawn++] = index;
+    }
+}
@@ -0,0 +1,190 @@
+package com.tfu.backend.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Matriz dispersa y simétrica de co-escuchas entre tracks (IDs internos): una
+ * fila {@link IntIntCounts} por track con cuántas veces se escuchó cerca de
+ * cada otro, más el total de escuchas de cada uno.
+ *
+ * Los vecinos se ordenan por similitud coseno, co-escuchas / √(escuchas(a) ·
+ * escuchas(b)), para que los tracks populares no aparezcan como vecinos de
+ * todo. El top de cada fila se guarda calculado y se recalcula recién cuando
+ * la fila cambia, así la consulta habitual es copiar un arreglo.
+ *
+ * Cada fila tiene a lo sumo {@code maxNeighbors} entradas; al pasarse se
+ * descartan las de menos co-escuchas hasta quedar en la mitad, con lo que la
+ * memoria queda acotada por tracks × maxNeighbors. No es thread-safe.
+ */
+final class CoListenMatrix {
+
+    private final int maxNeighbors;
+    private final int cachedNeighbors;
+
+    private IntIntCounts[] rows = new IntIntCounts[1024];
+    private int[] listens = new int[1024];
+    /** Top calculado por fila (IDs y puntajes); null si la fila cambió */
+    private int[][] topIds = new int[1024][];
+    private float[][] topScores = new float[1024][];
+    private long pairs;
+
+    CoListenMatrix(int maxNeighbors, int cachedNeighbors) {
+        this.maxNeighbors = maxNeighbors;
+        this.cachedNeighbors = cachedNeighbors;
+    }
+
+    void addListen(int track) {
+        ensureCapacity(track);
+        listens[track]++;
+    }
+
+    /** Suma una co-escucha entre dos tracks distintos, en ambas direcciones */
+    void addPair(int a, int b) {
+        ensureCapacity(Math.max(a, b));
+        increment(a, b);
+        increment(b, a);
+    }
+
+    int listens(int track) {
+        return track < listens.length ? listens[track] : 0;
+    }
+
+    int coListens(int a, int b) {
+        return a < rows.length && rows[a] != null ? rows[a].get(b) : 0;
+    }
+
+    /** Pares distintos con co-escuchas (cada par cuenta una vez por dirección) */
+    long pairs() {
+        return pairs;
+    }
+
+    /**
+     * Hasta {@code limit} vecinos del track, de mayor a menor similitud.
+     * El arreglo devuelto no debe modificarse.
+     */
+    int[] neighbors(int track, int limit) {
+        if (track >= rows.length || rows[track] == null) {
+            return new int[0];
+        }
+        if (topIds[track] == null) {
+            computeTop(track);
+        }
+        int[] top = topIds[track];
+        return top.length <= limit ? top : Arrays.copyOf(top, limit);
+    }
+
+    /** Similitud del vecino en la posición dada del último top calculado */
+    float score(int track, int position) {
+        return topScores[track][position];
+    }
+
+    private void increment(int from, int to) {
+        IntIntCounts row = rows[from];
+        if (row == null) {
+            row = rows[from] = new IntIntCounts(4);
+        }
+        int sizeBefore = row.size();
+        row.increment(to, 1);
+        pairs += row.size() - sizeBefore;
+        if (row.size() > maxNeighbors) {
+            prune(row);
+        }
+        topIds[from] = null;
+    }
+
+    /** Deja la fila en maxNeighbors / 2 entradas, las de más co-escuchas */
+    private void prune(IntIntCounts row) {
+        int sizeBefore = row.size();
+        row.retainTop(maxNeighbors / 2);
+        pairs -= sizeBefore - row.size();
+    }
+
+    /** Top por similitud con un min-heap de tamaño cachedNeighbors */
+    private void computeTop(int track) {
+        IntIntCounts row = rows[track];
+        int capacity = Math.min(cachedNeighbors, row.size());
+        int[] heapIds = new int[capacity];
+        float[] heapScores = new float[capacity];
+        int size = 0;
+        double norm = Math.sqrt(Math.max(1, listens[track]));
+        for (int slot = 0; slot < row.capacity(); slot++) {
+            int neighbor = row.keyAt(slot);
+            if (neighbor < 0) {
+                continue;
+            }
+            float score = (float) (row.valueAt(slot) / (norm * Math.sqrt(Math.max(1, listens[neighbor]))));
+            if (size < capacity) {
+                heapIds[size] = neighbor;
+                heapScores[size] = score;
+                siftUp(heapIds, heapScores, size++);
+            } else if (score > heapScores[0]) {
+                heapIds[0] = neighbor;
+                heapScores[0] = score;
+                siftDown(heapIds, heapScores, size);
+            }
+        }
+        // Vaciar el heap de atrás hacia adelante deja el orden descendente
+        int[] ids = new int[size];
+        float[] scores = new float[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ids[i] = heapIds[0];
+            scores[i] = heapScores[0];
+            heapIds[0] = heapIds[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heapIds, heapScores, i);
+        }
+        topIds[track] = ids;
+        topScores[track] = scores;
+    }
+
+    private static void siftUp(int[] ids, float[] scores, int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (scores[parent] <= scores[position]) {
+                return;
+            }
+            swap(ids, scores, position, parent);
+            position = parent;
+        }
+    }
+
+    private static void siftDown(int[] ids, float[] scores, int size) {
+        int position = 0;
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(ids, scores, position, smallest);
+            position = smallest;
+        }
+    }
+
+    private static void swap(int[] ids, float[] scores, int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    private void ensureCapacity(int track) {
+        if (track < rows.length) {
+            return;
+        }
+        int length = Math.max(rows.length * 2, track + 1);
+        rows = Arrays.copyOf(rows, length);
+        listens = Arrays.copyOf(listens, length);
+        topIds = Arrays.copyOf(topIds, length);
+        topScores = Arrays.copyOf(topScores, length);
+    }
+}
@@ -0,0 +1,210 @@
+package com.tfu.backend.recommendation;
+
+import com.tfu.backend.history.ListeningHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Recomendaciones "fans also played" a partir de co-escuchas, calculadas en
+ * el proceso y actualizadas con cada escucha.
+ *
+ * Dos tracks co-ocurren cuando se escuchan dentro de las últimas
+ * {@code recommendations.window} escuchas de una misma sesión (el orden en
+ * que la cola se va reproduciendo). Solo cuentan las escuchas reales: canción
+ * completa o al menos {@code recommendations.min-listen-ms}. Al arrancar se
+ * reconstruye la matriz con las escuchas del historial anteriores al arranque;
+ * las posteriores ya llegan por {@link #onListenEnded} y no se cuentan dos veces.
+ *
+ * {@code recommendations.max-tracks} es un límite operativo: los IDs internos
+ * no se liberan, así que una vez alcanzado las escuchas de tracks nuevos se
+ * ignoran (métrica {@code recommendations.listens.untracked}) hasta el próximo
+ * reinicio, cuyo precalentado parte solo del historial reciente y deja afuera
+ * los tracks que ya nadie escucha.
+ *
+ * Los IDs de Spotify se internan a ints ({@link TrackInterner}) y los conteos
+ * viven en tablas primitivas ({@link CoListenMatrix}); un vecino no cuesta un
+ * Map ni un Integer por par.
+ */
+@Service
+public class CoListenRecommender {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoListenRecommender.class);
+
+    private final ListeningHistoryRepository historyRepository;
+    private final Executor executor;
+    private final boolean enabled;
+    private final int window;
+    private final long minListenMs;
+    private final int warmupEvents;
+
+    private final TrackInterner interner;
+    private final CoListenMatrix matrix;
+    /** Últimas escuchas de cada sesión */
+    private final Map<String, RecentListens> recent = new HashMap<>();
+
+    private final Counter listens;
+    private final Counter untracked;
+
+    public CoListenRecommender(
+            ListeningHistoryRepository historyRepository,
+            @Qualifier("taskExecutor") Executor executor,
+            MeterRegistry meterRegistry,
+            @Value("${recommendations.enabled:true}") boolean enabled,
+            @Value("${recommendations.window:5}") int window,
+            @Value("${recommendations.min-listen-ms:30000}") long minListenMs,
+            @Value("${recommendations.max-tracks:50000}") int maxTracks,
+            @Value("${recommendations.max-neighbors:128}") int maxNeighbors,
+            @Value("${recommendations.top-n:50}") int topN,
+            @Value("${recommendations.warmup-events:100000}") int warmupEvents) {
+        this.historyRepository = historyRepository;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.window = window;
+        this.minListenMs = minListenMs;
+        this.warmupEvents = warmupEvents;
+        this.interner = new TrackInterner(maxTracks);
+        this.matrix = new CoListenMatrix(maxNeighbors, topN);
+
+        this.listens = Counter.builder("recommendations.listens")
+                .description("Escuchas incorporadas a la matriz de co-escucha")
+                .register(meterRegistry);
+        this.untracked = Counter.builder("recommendations.listens.untracked")
+                .description("Escuchas ignoradas por haber llegado al máximo de tracks")
+                .register(meterRegistry);
+        Gauge.builder("recommendations.tracks", this, recommender -> recommender.size(false))
+                .description("Tracks con ID interno en la matriz de co-escucha")
+                .register(meterRegistry);
+        Gauge.builder("recommendations.tracks.max", interner, TrackInterner::maxTracks)
+                .description("Máximo de tracks con ID interno (recommendations.max-tracks)")
+                .register(meterRegistry);
+        Gauge.builder("recommendations.pairs", this, recommender -> recommender.size(true))
+                .description("Entradas de co-escucha guardadas (pares por dirección)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reconstruye la matriz con el historial reciente, en segundo plano para
+     * no demorar el arranque. La consulta se corta en el instante de arranque
+     * porque las escuchas que llegan mientras tanto ya se cuentan en vivo.
+     */
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled || warmupEvents <= 0) {
+            return;
+        }
+        Instant startedAt = Instant.now();
+        executor.execute(() -> {
+            try {
+                int[] loaded = {0};
+                historyRepository.forEachRecentListen(startedAt, warmupEvents, minListenMs, (sessionId, trackId) -> {
+                    onListened(sessionId, trackId);
+                    loaded[0]++;
+                });
+                logger.info("Co-listen matrix warmed up with {} listens", loaded[0]);
+            } catch (DataAccessException e) {
+                logger.warn("Could not warm up co-listen matrix from history: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Cuenta una canción que terminó de escucharse (o se cambió después de
+     * {@code min-listen-ms}) si la escucha califica.
+     */
+    public void onListenEnded(String sessionId, String trackId, long listenedMs, boolean complete) {
+        if (complete || listenedMs >= minListenMs) {
+            onListened(sessionId, trackId);
+        }
+    }
+
+    private synchronized void onListened(String sessionId, String trackId) {
+        if (!enabled || trackId == null) {
+            return;
+        }
+        int track = interner.intern(trackId);
+        if (track < 0) {
+            if (untracked.count() == 0) {
+                logger.warn("Co-listen matrix reached recommendations.max-tracks={}; listens of new tracks are ignored",
+                        interner.maxTracks());
+            }
+            untracked.increment();
+            return;
+        }
+        matrix.addListen(track);
+        listens.increment();
+
+        RecentListens session = recent.computeIfAbsent(sessionId, id -> new RecentListens(window));
+        int[] tracks = session.tracks;
+        for (int i = 0; i < tracks.length; i++) {
+            int previous = tracks[i];
+            if (previous >= 0 && previous != track && !session.seenBefore(i, previous)) {
+                matrix.addPair(track, previous);
+            }
+        }
+        session.add(track);
+    }
+
+    /**
+     * Hasta {@code limit} tracks más escuchados junto al dado.
+     */
+    public synchronized List<SimilarTrack> similar(String trackId, int limit) {
+        int track = interner.find(trackId);
+        if (track < 0) {
+            return List.of();
+        }
+        int[] neighbors = matrix.neighbors(track, limit);
+        List<SimilarTrack> similar = new ArrayList<>(neighbors.length);
+        for (int i = 0; i < neighbors.length; i++) {
+            similar.add(new SimilarTrack(interner.trackId(neighbors[i]), matrix.score(track, i),
+                    matrix.coListens(track, neighbors[i])));
+        }
+        return similar;
+    }
+
+    private synchronized double size(boolean pairs) {
+        return pairs ? matrix.pairs() : interner.size();
+    }
+
+    /** Ring con los IDs internos de las últimas escuchas de una sesión */
+    private static final class RecentListens {
+
+        final int[] tracks;
+        private int next;
+
+        RecentListens(int window) {
+            tracks = new int[window];
+            Arrays.fill(tracks, -1);
+        }
+
+        void add(int track) {
+            tracks[next] = track;
+            next = (next + 1) % tracks.length;
+        }
+
+        /** Si el track ya apareció antes en el ring, para no contar dos veces el par */
+        boolean seenBefore(int index, int track) {
+            for (int i = 0; i < index; i++) {
+                if (tracks[i] == track) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.tfu.backend.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Mapa int → int de conteos con direccionamiento abierto (sondeo lineal) sobre
+ * dos arreglos primitivos: sin boxing ni un objeto por entrada. Las claves son
+ * IDs internos de tracks (≥ 0); -1 marca una celda libre. No hay borrado
+ * individual, solo {@link #retainTop}, que reconstruye la tabla.
+ * No es thread-safe.
+ */
+final class IntIntCounts {
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    IntIntCounts(int expected) {
+        allocate(tableSize(expected));
+    }
+
+    /** Suma {@code delta} al conteo de la clave y devuelve el nuevo valor */
+    int increment(int key, int delta) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    int get(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Largo de la tabla; las celdas se recorren con {@link #keyAt} / {@link #valueAt} */
+    int capacity() {
+        return keys.length;
+    }
+
+    /** Clave de la celda, o -1 si está libre */
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Deja las {@code keep} entradas de mayor conteo (los empates en el límite
+     * se resuelven por orden en la tabla) y achica la tabla a lo que queda.
+     */
+    void retainTop(int keep) {
+        if (size <= keep) {
+            return;
+        }
+        int[] counts = new int[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                counts[n++] = values[i];
+            }
+        }
+        Arrays.sort(counts);
+        int threshold = counts[counts.length - keep];
+        int aboveThreshold = 0;
+        for (int count : counts) {
+            if (count > threshold) {
+                aboveThreshold++;
+            }
+        }
+        int atThreshold = keep - aboveThreshold;
+
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(tableSize(keep));
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE) {
+                continue;
+            }
+            if (oldValues[i] > threshold) {
+                insertNew(oldKeys[i], oldValues[i]);
+            } else if (oldValues[i] == threshold && atThreshold > 0) {
+                insertNew(oldKeys[i], oldValues[i]);
+                atThreshold--;
+            }
+        }
+    }
+
+    private void rehash(int newLength) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newLength);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                insertNew(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void insertNew(int key, int value) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private void allocate(int length) {
+        keys = new int[length];
+        values = new int[length];
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    /** Potencia de 2 con lugar para {@code expected} entradas a carga ≤ 3/4 */
+    private static int tableSize(int expected) {
+        int needed = Math.max(4, expected * 4 / 3 + 1);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    /** Los IDs internos son consecutivos; se dispersan para no formar racimos */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
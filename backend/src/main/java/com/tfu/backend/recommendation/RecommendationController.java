@@ -0,0 +1,46 @@
+package com.tfu.backend.recommendation;
+
+import com.tfu.backend.common.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador de recomendaciones "fans also played", servidas desde la matriz
+ * de co-escucha en memoria.
+ */
+@Tag(name = "Recommendations", description = "API de recomendaciones basadas en co-escuchas")
+@RestController
+@RequestMapping("/api/recommendations")
+@Validated
+public class RecommendationController {
+
+    private final CoListenRecommender recommender;
+
+    public RecommendationController(CoListenRecommender recommender) {
+        this.recommender = recommender;
+    }
+
+    @Operation(summary = "Tracks similares", description = "Tracks más escuchados junto al dado, ordenados por similitud")
+    @GetMapping("/tracks/{trackId}/similar")
+    public ResponseEntity<ApiResponse<List<SimilarTrack>>> similarTracks(
+        @Parameter(description = "ID de la canción", required = true)
+        @PathVariable String trackId,
+        @Parameter(description = "Cantidad de tracks", example = "10")
+        @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(
+            recommender.similar(trackId, limit), "Tracks escuchados junto a " + trackId));
+    }
+}
@@ -0,0 +1,8 @@
+package com.tfu.backend.recommendation;
+
+/**
+ * Track escuchado junto a otro ("fans also played"), con su similitud coseno
+ * y las co-escuchas contadas.
+ */
+public record SimilarTrack(String trackId, double score, int coListens) {
+}
@@ -0,0 +1,59 @@
+package com.tfu.backend.recommendation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IDs de Spotify ↔ IDs internos consecutivos, para que las estructuras de
+ * co-escucha trabajen con ints. Hay una entrada por track, no por par.
+ *
+ * Los IDs no se liberan: las filas de {@link CoListenMatrix} de otros tracks
+ * los siguen referenciando. Por eso {@code maxTracks} acota la memoria y, una
+ * vez alcanzado, los tracks nuevos quedan sin ID hasta reiniciar.
+ * No es thread-safe.
+ */
+final class TrackInterner {
+
+    private final int maxTracks;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> trackIds = new ArrayList<>();
+
+    TrackInterner(int maxTracks) {
+        this.maxTracks = maxTracks;
+    }
+
+    /** ID interno del track, asignándolo si es nuevo; -1 si no hay más lugar */
+    int intern(String trackId) {
+        Integer id = ids.get(trackId);
+        if (id != null) {
+            return id;
+        }
+        if (trackIds.size() >= maxTracks) {
+            return -1;
+        }
+        int next = trackIds.size();
+        ids.put(trackId, next);
+        trackIds.add(trackId);
+        return next;
+    }
+
+    /** ID interno de un track ya visto, o -1 */
+    int find(String trackId) {
+        Integer id = ids.get(trackId);
+        return id != null ? id : -1;
+    }
+
+    String trackId(int id) {
+        return trackIds.get(id);
+    }
+
+    int size() {
+        return trackIds.size();
+    }
+
+    int maxTracks() {
+        return maxTracks;
+    }
+}
@@ -1,6 +1,8 @@
 package com.tfu.backend.search;
 
 import com.tfu.backend.common.ApiResponse;
+import com.tfu.backend.common.CachedResponse;
+import com.tfu.backend.common.StrongETag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -50,6 +52,8 @@ public class CategorizedSearchController {
             content = @Content(mediaType = "application/json")
         )
     })
+    @CachedResponse
+    @StrongETag
     @GetMapping
     public ResponseEntity<ApiResponse<CategorizedSearchResponse>> searchCategorized(
         @Parameter(description = "Término de búsqueda", required = true, example = "jazz")
@@ -2,6 +2,7 @@ package com.tfu.backend.search;
 
 import com.tfu.backend.spotify.SpotifyService;
 import com.tfu.backend.spotify.SpotifyTrackDto;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +15,7 @@ import java.util.List;
  * Servicio para búsqueda categorizada que combina diferentes tipos de contenido
  */
 @Service
+@Observed(name = "search.service")
 public class CategorizedSearchService {
     
     private static final Logger logger = LoggerFactory.getLogger(CategorizedSearchService.class);
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -15,6 +16,11 @@ public class SpotifyArtist {
     
     @JsonProperty("external_urls")
     private Map<String, String> externalUrls;
+
+    // Solo presentes en GET /v1/artists/{id} (objeto de artista completo)
+    private List<SpotifyImage> images;
+    private List<String> genres;
+    private Integer popularity;
     
     // Constructor para retrocompatibilidad
     public SpotifyArtist(String id, String name) {
@@ -0,0 +1,203 @@
+package com.tfu.backend.spotify;
+
+import com.tfu.backend.upstream.AdaptiveConcurrencyLimiter;
+import com.tfu.backend.upstream.UpstreamLimitExceededException;
+import com.tfu.backend.upstream.UpstreamPriority;
+import com.tfu.backend.upstream.UpstreamTenant;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Aplica un límite de concurrencia adaptativo (AIMD) a las llamadas hacia la
+ * API de Spotify. El límite se ajusta con la latencia observada y con las
+ * respuestas 429, cuyo Retry-After pausa las llamadas siguientes; mientras no
+ * hay capacidad las llamadas esperan en cola hasta {@code spotify.limiter.max-wait}.
+ *
+ * La espera se reparte de forma justa entre tenants ({@link UpstreamTenant}:
+ * usuario o IP de la request; las tareas de fondo cuentan como "system"), así
+ * un cliente que insiste con búsquedas no deja sin cuota a los demás.
+ *
+ * Cada llamada además tiene una {@link UpstreamPriority}: las interactivas se
+ * atienden primero y prefetch/fondo solo usan su fracción del límite
+ * ({@code spotify.limiter.priority.*-share}). Mientras el circuit breaker
+ * spotifyApi no está cerrado, las llamadas no interactivas se descartan antes
+ * de salir: en half-open las pocas llamadas de prueba quedan para los usuarios,
+ * y en open tampoco salen los refrescos de fondo que no pasan por el breaker.
+ * El descarte es una {@link UpstreamLimitExceededException}, que el breaker
+ * ignora, así que termina en el fallback sin contar como fallo de Spotify.
+ *
+ * Métricas: spotify.limiter.limit, spotify.limiter.inflight,
+ * spotify.limiter.queue.depth, spotify.limiter.throttled,
+ * spotify.limiter.priority.queue.depth{priority}, spotify.limiter.shed{priority}
+ * y spotify.limiter.tenant.queue.depth{tenant} (los tenants con más llamadas en
+ * espera, hasta {@code spotify.limiter.fair.metrics-max-tenants}).
+ */
+@Component
+public class SpotifyConcurrencyLimitInterceptor implements ClientHttpRequestInterceptor {
+
+  private final AdaptiveConcurrencyLimiter limiter;
+  private final List<String> hosts;
+  private final Duration defaultRetryAfter;
+  private final UpstreamTenant systemTenant;
+  private final int metricsMaxTenants;
+  private final CircuitBreaker circuitBreaker;
+  private final Counter throttled;
+  private final Map<UpstreamPriority, Counter> shed = new EnumMap<>(UpstreamPriority.class);
+  private final MultiGauge tenantQueueDepth;
+
+  public SpotifyConcurrencyLimitInterceptor(
+      MeterRegistry meterRegistry,
+      CircuitBreakerRegistry circuitBreakerRegistry,
+      @Value("${spotify.limiter.hosts:api.spotify.com}") List<String> hosts,
+      @Value("${spotify.limiter.initial-limit:10}") int initialLimit,
+      @Value("${spotify.limiter.min-limit:1}") int minLimit,
+      @Value("${spotify.limiter.max-limit:50}") int maxLimit,
+      @Value("${spotify.limiter.backoff-ratio:0.7}") double backoffRatio,
+      @Value("${spotify.limiter.latency-threshold:2s}") Duration latencyThreshold,
+      @Value("${spotify.limiter.max-wait:2s}") Duration maxWait,
+      @Value("${spotify.limiter.max-queue:100}") int maxQueue,
+      @Value("${spotify.limiter.default-retry-after:1s}") Duration defaultRetryAfter,
+      @Value("${spotify.limiter.fair.max-queue-per-tenant:20}") int maxQueuePerTenant,
+      @Value("${spotify.limiter.fair.system-weight:1}") double systemWeight,
+      @Value("${spotify.limiter.fair.metrics-max-tenants:20}") int metricsMaxTenants,
+      @Value("${spotify.limiter.priority.prefetch-share:0.75}") double prefetchShare,
+      @Value("${spotify.limiter.priority.background-share:0.5}") double backgroundShare) {
+    this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio,
+        latencyThreshold.toMillis(), maxWait.toMillis(), maxQueue, maxQueuePerTenant, prefetchShare, backgroundShare);
+    this.hosts = hosts;
+    this.defaultRetryAfter = defaultRetryAfter;
+    this.systemTenant = new UpstreamTenant("system", systemWeight);
+    this.metricsMaxTenants = metricsMaxTenants;
+    this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("spotifyApi");
+
+    Gauge.builder("spotify.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Límite actual de llamadas concurrentes a Spotify")
+        .register(meterRegistry);
+    Gauge.builder("spotify.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+        .description("Llamadas a Spotify en curso")
+        .register(meterRegistry);
+    Gauge.builder("spotify.limiter.queue.depth", limiter, AdaptiveConcurrencyLimiter::getQueueDepth)
+        .description("Llamadas esperando capacidad hacia Spotify")
+        .register(meterRegistry);
+    this.throttled = Counter.builder("spotify.limiter.throttled")
+        .description("Respuestas 429 recibidas de Spotify")
+        .register(meterRegistry);
+    for (UpstreamPriority priority : UpstreamPriority.values()) {
+      String tag = priority.name().toLowerCase(Locale.ROOT);
+      Gauge.builder("spotify.limiter.priority.queue.depth", limiter, l -> l.getQueueDepth(priority))
+          .tag("priority", tag)
+          .description("Llamadas esperando capacidad hacia Spotify por prioridad")
+          .register(meterRegistry);
+      if (priority != UpstreamPriority.INTERACTIVE) {
+        shed.put(priority, Counter.builder("spotify.limiter.shed")
+            .tag("priority", tag)
+            .description("Llamadas a Spotify descartadas por prioridad con el circuit breaker abierto o half-open")
+            .register(meterRegistry));
+      }
+    }
+    this.tenantQueueDepth = MultiGauge.builder("spotify.limiter.tenant.queue.depth")
+        .description("Llamadas esperando capacidad hacia Spotify por tenant")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Actualiza la profundidad de cola por tenant. Solo se publican los tenants
+   * con más llamadas en espera, para acotar la cantidad de series.
+   */
+  @Scheduled(fixedDelayString = "${spotify.limiter.fair.metrics-interval:5000}")
+  public void publishTenantQueueDepths() {
+    tenantQueueDepth.register(limiter.getTenantQueueDepths().entrySet().stream()
+        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+        .limit(metricsMaxTenants)
+        .map(entry -> MultiGauge.Row.of(Tags.of("tenant", entry.getKey()), entry.getValue()))
+        .toList(), true);
+  }
+
+  @Override
+  public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+      throws IOException {
+    if (!hosts.contains(request.getURI().getHost())) {
+      return execution.execute(request, body);
+    }
+
+    UpstreamPriority priority = UpstreamPriority.resolve();
+    if (priority != UpstreamPriority.INTERACTIVE && isBreakerTripped()) {
+      shed.get(priority).increment();
+      throw new UpstreamLimitExceededException("Shedding " + priority + " Spotify call while the circuit breaker is "
+          + circuitBreaker.getState());
+    }
+    UpstreamTenant tenant = UpstreamTenant.current().orElse(systemTenant);
+    long start = limiter.acquire(tenant.key(), tenant.weight(), priority);
+    ClientHttpResponse response;
+    HttpStatusCode status;
+    try {
+      response = execution.execute(request, body);
+      status = response.getStatusCode();
+    } catch (IOException | RuntimeException e) {
+      limiter.onOverload();
+      throw e;
+    }
+
+    if (status.value() == 429) {
+      throttled.increment();
+      limiter.onThrottled(retryAfter(response).toMillis());
+    } else if (status.is5xxServerError()) {
+      limiter.onOverload();
+    } else if (status.isError()) {
+      limiter.onIgnored();
+    } else {
+      limiter.onSuccess(start);
+    }
+    return response;
+  }
+
+  private boolean isBreakerTripped() {
+    CircuitBreaker.State state = circuitBreaker.getState();
+    return state == CircuitBreaker.State.HALF_OPEN || state == CircuitBreaker.State.OPEN;
+  }
+
+  /**
+   * Interpreta Retry-After en segundos o como fecha HTTP.
+   */
+  private Duration retryAfter(ClientHttpResponse response) {
+    String value = response.getHeaders().getFirst("Retry-After");
+    if (value == null || value.isBlank()) {
+      return defaultRetryAfter;
+    }
+    try {
+      return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+    } catch (NumberFormatException e) {
+      try {
+        Instant until = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        Duration wait = Duration.between(Instant.now(), until);
+        return wait.isNegative() ? Duration.ZERO : wait;
+      } catch (DateTimeParseException ignored) {
+        return defaultRetryAfter;
+      }
+    }
+  }
+}
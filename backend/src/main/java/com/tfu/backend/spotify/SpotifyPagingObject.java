@@ -16,6 +16,8 @@ public class SpotifyPagingObject<T> {
     private int total;
     private int limit;
     private int offset;
+    /** URL de la página siguiente, o null si es la última */
+    private String next;
     
     public Stream<T> stream() {
         return items.stream();
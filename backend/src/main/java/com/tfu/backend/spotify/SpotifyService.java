@@ -1,9 +1,17 @@
 package com.tfu.backend.spotify;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.tfu.backend.catalog.TrackCatalogService;
+import com.tfu.backend.config.SampledLogFilter;
+import com.tfu.backend.upstream.LastKnownGoodStore;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
@@ -19,34 +27,59 @@ import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Random;
 import java.util.stream.Collectors;
 
 @Service
+@Observed(name = "spotify.service")
 public class SpotifyService {
+  private static final Logger logger = LoggerFactory.getLogger(SpotifyService.class);
+
   @Value("${spotify.client.id}")
   private String clientId;
 
   @Value("${spotify.client.secret}")
   private String clientSecret;
 
+  /** Base de la API y del servidor de tokens (configurables para apuntar a los stubs de carga) */
+  @Value("${spotify.api.url:https://api.spotify.com}")
+  private String apiUrl;
+
+  @Value("${spotify.accounts.url:https://accounts.spotify.com}")
+  private String accountsUrl;
+
   private final RestTemplate restTemplate;
+  private final TrackCatalogService trackCatalog;
+  private final LastKnownGoodStore lastKnownGood;
+  private final CircuitBreakerRegistry circuitBreakerRegistry;
   private String accessToken;
   private long tokenExpiration = 0;
 
-  public SpotifyService(RestTemplate restTemplate) {
+  /** Per-request debug lines are sampled (see SampledLogFilter) */
+  private static final Marker SAMPLED = SampledLogFilter.SAMPLED;
+
+  private static final TypeReference<List<SpotifyTrackDto>> TRACK_LIST = new TypeReference<>() {
+  };
+
+  public SpotifyService(RestTemplate restTemplate, TrackCatalogService trackCatalog,
+      LastKnownGoodStore lastKnownGood, CircuitBreakerRegistry circuitBreakerRegistry) {
     this.restTemplate = restTemplate;
+    this.trackCatalog = trackCatalog;
+    this.lastKnownGood = lastKnownGood;
+    this.circuitBreakerRegistry = circuitBreakerRegistry;
   }
 
   @PostConstruct
   @Scheduled(fixedRate = 3000000) // Refresh token every 50 minutes (token valid for 1 hour)
   public void fetchAccessToken() {
     if (System.currentTimeMillis() < tokenExpiration - 60000) {
-      System.out.println("Token still valid, skipping refresh");
+      logger.debug("Token still valid, skipping refresh");
       return; // Token still valid for more than a minute
     }
 
-    System.out.println("Fetching new Spotify access token with client ID: " + clientId);
+    logger.info("Fetching new Spotify access token");
 
     try {
       String authHeader = "Basic " + Base64.getEncoder()
@@ -62,7 +95,7 @@ public class SpotifyService {
       HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
 
       ResponseEntity<SpotifyTokenResponse> response = restTemplate.exchange(
-          "https://accounts.spotify.com/api/token",
+          accountsUrl + "/api/token",
           HttpMethod.POST,
           request,
           SpotifyTokenResponse.class);
@@ -71,14 +104,12 @@ public class SpotifyService {
         this.accessToken = response.getBody().getAccessToken();
         this.tokenExpiration = System.currentTimeMillis() +
             (response.getBody().getExpiresIn() * 1000);
-        System.out.println("Successfully obtained Spotify access token. Expires in: "
-            + response.getBody().getExpiresIn() + " seconds");
+        logger.info("Obtained Spotify access token, expires in {} seconds", response.getBody().getExpiresIn());
       } else {
-        System.err.println("Error: Spotify token response body is null");
+        logger.error("Spotify token response body is null");
       }
     } catch (Exception e) {
-      System.err.println("Error fetching Spotify token: " + e.getMessage());
-      e.printStackTrace();
+      logger.error("Error fetching Spotify token: {}", e.getMessage(), e);
     }
   }
 
@@ -86,7 +117,7 @@ public class SpotifyService {
   @CircuitBreaker(name = "spotifyApi", fallbackMethod = "getRandomTracksFallback")
   @Cacheable(value = "randomTracks", key = "#limit + '_' + T(java.time.LocalDateTime).now().getMinute() / 5")
   public List<SpotifyTrackDto> getRandomTracks(int limit) {
-    System.out.println("Getting random tracks from Spotify, limit: " + limit);
+    logger.debug(SAMPLED, "Getting random tracks from Spotify, limit: {}", limit);
     
     // Lista de queries aleatorias para obtener variedad
     String[] randomQueries = {
@@ -108,10 +139,10 @@ public class SpotifyService {
 
       // Usar search con query aleatoria en lugar de new-releases
       String url = String.format(
-        "https://api.spotify.com/v1/search?q=genre:%s year:%d&type=track&limit=%d&offset=%d",
+        apiUrl + "/v1/search?q=genre:%s year:%d&type=track&limit=%d&offset=%d",
         randomQuery, randomYear, Math.min(limit * 2, 50), (int) (Math.random() * 100)
       );
-      System.out.println("Making request to: " + url);
+      logger.debug(SAMPLED, "Making request to: {}", url);
 
       ResponseEntity<SpotifySearchResponse> response = restTemplate.exchange(
           url,
@@ -119,13 +150,11 @@ public class SpotifyService {
           entity,
           SpotifySearchResponse.class);
 
-      System.out.println("Response status: " + response.getStatusCode());
+      logger.debug(SAMPLED, "Response status: {}", response.getStatusCode());
 
       if (response.getBody() != null && response.getBody().getTracks() != null) {
-        System.out.println("Response body received");
-        
         List<SpotifyTrack> spotifyTracks = response.getBody().getTracks().getItems();
-        System.out.println("Tracks found: " + spotifyTracks.size());
+        logger.debug(SAMPLED, "Tracks found: {}", spotifyTracks.size());
 
         if (!spotifyTracks.isEmpty()) {
           List<SpotifyTrackDto> tracks = spotifyTracks.stream()
@@ -140,17 +169,17 @@ public class SpotifyService {
             tracks = tracks.subList(0, limit);
           }
 
-          System.out.println("Returning " + tracks.size() + " randomized tracks");
+          logger.debug(SAMPLED, "Returning {} randomized tracks", tracks.size());
+          lastKnownGood.put("randomTracks:" + limit, tracks);
           return tracks;
         } else {
-          System.out.println("No tracks found in response");
+          logger.debug("No tracks found in response");
         }
       } else {
-        System.out.println("Response body is null");
+        logger.warn("Random tracks response body is null");
       }
     } catch (Exception e) {
-      System.err.println("Error getting random tracks: " + e.getMessage());
-      e.printStackTrace();
+      logger.warn("Error getting random tracks: {}", e.getMessage(), e);
     }
 
     return Collections.emptyList();
@@ -160,7 +189,7 @@ public class SpotifyService {
   @CircuitBreaker(name = "spotifyApi", fallbackMethod = "searchTracksFallback")
   @Cacheable(value = "searchTracks", key = "#query + '_' + #limit")
   public List<SpotifyTrackDto> searchTracks(String query, int limit) {
-    System.out.println("Searching tracks for: " + query + " with limit: " + limit);
+    logger.debug(SAMPLED, "Searching tracks for: {} with limit: {}", query, limit);
     
     HttpHeaders headers = getAuthHeaders();
     HttpEntity<String> entity = new HttpEntity<>(headers);
@@ -170,12 +199,12 @@ public class SpotifyService {
     
     // Crear una búsqueda más simple y efectiva
     String searchUrl = String.format(
-      "https://api.spotify.com/v1/search?q=%s&type=track&limit=%d&market=US",
+      apiUrl + "/v1/search?q=%s&type=track&limit=%d&market=US",
       java.net.URLEncoder.encode(cleanQuery, java.nio.charset.StandardCharsets.UTF_8),
       limit
     );
     
-    System.out.println("Making search request to: " + searchUrl);
+    logger.debug(SAMPLED, "Making search request to: {}", searchUrl);
 
     ResponseEntity<SpotifySearchResponse> response = restTemplate.exchange(
         searchUrl,
@@ -185,24 +214,63 @@ public class SpotifyService {
 
     if (response.getBody() != null && response.getBody().getTracks() != null) {
       List<SpotifyTrack> tracks = response.getBody().getTracks().getItems();
-      System.out.println("Found " + tracks.size() + " tracks for query: " + query);
+      logger.debug(SAMPLED, "Found {} tracks for query: {}", tracks.size(), query);
       
-      return tracks.stream()
+      List<SpotifyTrackDto> result = tracks.stream()
           .map(this::convertToDto)
           .collect(Collectors.toList());
+      lastKnownGood.put("searchTracks:" + query + "_" + limit, result);
+      return result;
     }
 
-    System.out.println("No tracks found for query: " + query);
+    logger.debug(SAMPLED, "No tracks found for query: {}", query);
     return Collections.emptyList();
   }
 
+  /**
+   * One page of a track search with Spotify's paging info (offset, total and
+   * next), for walking a result set lazily. Not cached: callers keep the pages
+   * they already merged (see ArtistResolver).
+   */
+  @Retry(name = "spotifyApi")
+  @CircuitBreaker(name = "spotifyApi")
+  public SpotifyPagingObject<SpotifyTrackDto> searchTracksPage(String query, int offset, int limit) {
+    logger.debug(SAMPLED, "Searching tracks page for: {} (offset: {}, limit: {})", query, offset, limit);
+
+    String cleanQuery = query.trim().replaceAll("[\"'`]", "");
+    String searchUrl = String.format(
+      apiUrl + "/v1/search?q=%s&type=track&limit=%d&offset=%d&market=US",
+      java.net.URLEncoder.encode(cleanQuery, java.nio.charset.StandardCharsets.UTF_8),
+      limit,
+      offset
+    );
+
+    ResponseEntity<SpotifySearchResponse> response = restTemplate.exchange(
+        searchUrl,
+        HttpMethod.GET,
+        new HttpEntity<>(getAuthHeaders()),
+        SpotifySearchResponse.class);
+
+    SpotifyPagingObject<SpotifyTrackDto> page = new SpotifyPagingObject<>();
+    page.setOffset(offset);
+    page.setLimit(limit);
+    if (response.getBody() == null || response.getBody().getTracks() == null) {
+      return page;
+    }
+    SpotifyPagingObject<SpotifyTrack> tracks = response.getBody().getTracks();
+    page.setItems(tracks.getItems().stream().map(this::convertToDto).collect(Collectors.toList()));
+    page.setTotal(tracks.getTotal());
+    page.setNext(tracks.getNext());
+    return page;
+  }
+
   /**
    * Alternative method to get truly random tracks using different strategies
    */
   @Retry(name = "spotifyApi")
   @CircuitBreaker(name = "spotifyApi", fallbackMethod = "getTrulyRandomTracksFallback")
   public List<SpotifyTrackDto> getTrulyRandomTracks(int limit) {
-    System.out.println("Getting truly random tracks using multiple strategies, limit: " + limit);
+    logger.debug(SAMPLED, "Getting truly random tracks using multiple strategies, limit: {}", limit);
     
     List<SpotifyTrackDto> allTracks = new ArrayList<>();
     Random random = new Random();
@@ -222,7 +290,7 @@ public class SpotifyService {
         HttpEntity<String> entity = new HttpEntity<>(headers);
         
         String url = String.format(
-          "https://api.spotify.com/v1/search?q=%s&type=track&limit=20&offset=%d",
+          apiUrl + "/v1/search?q=%s&type=track&limit=20&offset=%d",
           randomWord, randomOffset
         );
         
@@ -257,18 +325,25 @@ public class SpotifyService {
         uniqueTracks = uniqueTracks.subList(0, limit);
       }
       
-      System.out.println("Returning " + uniqueTracks.size() + " truly random unique tracks");
+      logger.debug(SAMPLED, "Returning {} truly random unique tracks", uniqueTracks.size());
+      lastKnownGood.put("randomTracks:" + limit, uniqueTracks);
       return uniqueTracks;
       
     } catch (Exception e) {
-      System.err.println("Error getting truly random tracks: " + e.getMessage());
+      logger.warn("Error getting truly random tracks: {}", e.getMessage());
       return Collections.emptyList();
     }
   }
 
-  // Fallback methods
+  // Fallback methods: serve the last known good result (flagged as stale)
+  // before degrading to an empty response
   public List<SpotifyTrackDto> getRandomTracksFallback(int limit, Throwable t) {
-    System.out.println("Random tracks fallback triggered: " + t.getMessage());
+    logger.warn("Random tracks fallback triggered: {}", t.getMessage());
+    Optional<List<SpotifyTrackDto>> lastGood = lastKnownGood.get("randomTracks:" + limit, TRACK_LIST);
+    if (lastGood.isPresent() || t instanceof CallNotPermittedException) {
+      // With the breaker open, don't hit Spotify again through the alternative method
+      return lastGood.orElse(Collections.emptyList());
+    }
     // Try the alternative method as fallback
     try {
       return getTrulyRandomTracks(limit);
@@ -278,13 +353,13 @@ public class SpotifyService {
   }
   
   public List<SpotifyTrackDto> getTrulyRandomTracksFallback(int limit, Throwable t) {
-    System.out.println("Truly random tracks fallback triggered: " + t.getMessage());
-    return Collections.emptyList();
+    logger.warn("Truly random tracks fallback triggered: {}", t.getMessage());
+    return lastKnownGood.get("randomTracks:" + limit, TRACK_LIST).orElse(Collections.emptyList());
   }
 
   public List<SpotifyTrackDto> searchTracksFallback(String query, int limit, Throwable t) {
-    // Return empty list or cached data
-    return Collections.emptyList();
+    logger.warn("Search fallback triggered: {}", t.getMessage());
+    return lastKnownGood.get("searchTracks:" + query + "_" + limit, TRACK_LIST).orElse(Collections.emptyList());
   }
 
   private HttpHeaders getAuthHeaders() {
@@ -297,7 +372,8 @@ public class SpotifyService {
     return headers;
   }
 
-  private SpotifyTrackDto convertToDto(SpotifyTrack track) {
+  // Package-private for the JMH benchmarks (src/jmh/java)
+  SpotifyTrackDto convertToDto(SpotifyTrack track) {
     // Safe conversion with null checks
     String artistsString = "";
     String primaryArtistId = null;
@@ -339,23 +415,143 @@ public class SpotifyService {
     dto.setPrimaryArtistId(primaryArtistId);
     dto.setPrimaryArtistName(primaryArtistName);
     dto.setPrimaryArtistSpotifyUrl(primaryArtistSpotifyUrl);
+
+    // Write-behind: persistir en el catálogo local sin bloquear la request
+    trackCatalog.record(dto, track.getAlbum() != null ? track.getAlbum().getId() : null);
     
     return dto;
   }
 
+  /**
+   * Resolves a single track by Spotify ID, serving known IDs from the local
+   * catalog and only calling Spotify for tracks never seen before.
+   */
+  @Retry(name = "spotifyApi")
+  @CircuitBreaker(name = "spotifyApi", fallbackMethod = "getTrackByIdFallback")
+  public Optional<SpotifyTrackDto> getTrackById(String trackId) {
+    Optional<SpotifyTrackDto> cached = trackCatalog.findTrack(trackId);
+    if (cached.isPresent()) {
+      return cached;
+    }
+
+    HttpEntity<String> entity = new HttpEntity<>(getAuthHeaders());
+    ResponseEntity<SpotifyTrack> response = restTemplate.exchange(
+        apiUrl + "/v1/tracks/" + trackId,
+        HttpMethod.GET,
+        entity,
+        SpotifyTrack.class);
+
+    return Optional.ofNullable(response.getBody()).map(this::convertToDto);
+  }
+
+  public Optional<SpotifyTrackDto> getTrackByIdFallback(String trackId, Throwable t) {
+    logger.warn("Fallback for track lookup. Error: {}", t.getMessage());
+    // The local catalog still answers for known tracks while Spotify is down
+    return trackCatalog.findTrack(trackId);
+  }
+
+  /**
+   * Resolves an artist by Spotify ID (GET /v1/artists/{id}).
+   */
+  @Retry(name = "spotifyApi")
+  @CircuitBreaker(name = "spotifyApi", fallbackMethod = "getArtistFallback")
+  @Cacheable(value = "artists", key = "#artistId", unless = "#result == null")
+  public SpotifyArtist getArtist(String artistId) {
+    HttpEntity<String> entity = new HttpEntity<>(getAuthHeaders());
+    ResponseEntity<SpotifyArtist> response = restTemplate.exchange(
+        apiUrl + "/v1/artists/" + artistId,
+        HttpMethod.GET,
+        entity,
+        SpotifyArtist.class);
+    lastKnownGood.put("artists:" + artistId, response.getBody());
+    return response.getBody();
+  }
+
+  public SpotifyArtist getArtistFallback(String artistId, Throwable t) {
+    logger.warn("Fallback for artist lookup. Error: {}", t.getMessage());
+    return lastKnownGood.get("artists:" + artistId, new TypeReference<SpotifyArtist>() {
+    }).orElse(null);
+  }
+
+  /**
+   * Returns an artist's top tracks (GET /v1/artists/{id}/top-tracks, at most 10).
+   */
+  @Retry(name = "spotifyApi")
+  @CircuitBreaker(name = "spotifyApi", fallbackMethod = "getArtistTopTracksFallback")
+  @Cacheable(value = "artistTopTracks", key = "#artistId")
+  public List<SpotifyTrackDto> getArtistTopTracks(String artistId) {
+    HttpEntity<String> entity = new HttpEntity<>(getAuthHeaders());
+    ResponseEntity<SpotifyTracksResponse> response = restTemplate.exchange(
+        apiUrl + "/v1/artists/" + artistId + "/top-tracks?market=US",
+        HttpMethod.GET,
+        entity,
+        SpotifyTracksResponse.class);
+
+    if (response.getBody() == null || response.getBody().getTracks() == null) {
+      return Collections.emptyList();
+    }
+    List<SpotifyTrackDto> tracks = response.getBody().getTracks().stream()
+        .map(this::convertToDto)
+        .collect(Collectors.toList());
+    lastKnownGood.put("artistTopTracks:" + artistId, tracks);
+    return tracks;
+  }
+
+  public List<SpotifyTrackDto> getArtistTopTracksFallback(String artistId, Throwable t) {
+    logger.warn("Fallback for artist top tracks. Error: {}", t.getMessage());
+    return lastKnownGood.get("artistTopTracks:" + artistId, TRACK_LIST).orElse(Collections.emptyList());
+  }
+
+  /**
+   * Background freshness check for the local catalog: tracks served from the
+   * catalog past their max age are re-fetched in batches of up to 50 IDs
+   * (the limit of GET /v1/tracks).
+   */
+  @Scheduled(fixedDelayString = "${catalog.refresh-interval:60000}")
+  public void refreshStaleCatalogTracks() {
+    List<String> staleIds = trackCatalog.drainStaleIds(50);
+    if (staleIds.isEmpty()) {
+      return;
+    }
+
+    try {
+      HttpEntity<String> entity = new HttpEntity<>(getAuthHeaders());
+      ResponseEntity<SpotifyTracksResponse> response = restTemplate.exchange(
+          apiUrl + "/v1/tracks?ids=" + String.join(",", staleIds),
+          HttpMethod.GET,
+          entity,
+          SpotifyTracksResponse.class);
+
+      if (response.getBody() != null && response.getBody().getTracks() != null) {
+        // convertToDto vuelve a encolar cada canción con fecha actual
+        response.getBody().getTracks().stream()
+            .filter(Objects::nonNull)
+            .forEach(this::convertToDto);
+      }
+    } catch (Exception e) {
+      logger.warn("Error refreshing stale catalog tracks: {}", e.getMessage());
+    }
+  }
+
   @Retry(name = "spotifyApi")
   @CircuitBreaker(name = "spotifyApi", fallbackMethod = "getTrackPlaybackFallback")
   @Cacheable(value = "trackPlayback", key = "#trackId")
   public SpotifyPlaybackResponse getTrackPlayback(String trackId) {
-    System.out.println("Getting playback data for track: " + trackId);
+    logger.debug(SAMPLED, "Getting playback data for track: {}", trackId);
+
+    // Las canciones ya conocidas se sirven desde el catálogo local
+    Optional<SpotifyTrackDto> known = trackCatalog.findTrack(trackId);
+    if (known.isPresent()) {
+      return toPlaybackResponse(known.get());
+    }
 
     try {
       HttpHeaders headers = getAuthHeaders();
       HttpEntity<String> entity = new HttpEntity<>(headers);
 
       // Primero, obtenemos los datos completos de la canción
-      String url = "https://api.spotify.com/v1/tracks/" + trackId;
-      System.out.println("Making request to: " + url);
+      String url = apiUrl + "/v1/tracks/" + trackId;
+      logger.debug(SAMPLED, "Making request to: {}", url);
 
       ResponseEntity<SpotifyTrack> response = restTemplate.exchange(
           url,
@@ -363,80 +559,94 @@ public class SpotifyService {
           entity,
           SpotifyTrack.class);
 
-      System.out.println("Response status: " + response.getStatusCode());
+      logger.debug(SAMPLED, "Response status: {}", response.getStatusCode());
 
       if (response.getBody() != null) {
         SpotifyTrack track = response.getBody();
 
         // Convertimos los datos a nuestra respuesta de reproducción
-        SpotifyPlaybackResponse playbackResponse = new SpotifyPlaybackResponse();
-        playbackResponse.setTrackId(track.getId());
-        playbackResponse.setName(track.getName());
-
-        // Obtenemos los nombres de los artistas
-        if (track.getArtists() != null) {
-          String artistsString = track.getArtists().stream()
-              .map(SpotifyArtist::getName)
-              .collect(Collectors.joining(", "));
-          playbackResponse.setArtists(artistsString);
-        }
-
-        // Información del álbum
-        if (track.getAlbum() != null) {
-          playbackResponse.setAlbum(track.getAlbum().getName());
-
-          // Imagen del álbum
-          if (track.getAlbum().getImages() != null && !track.getAlbum().getImages().isEmpty()) {
-            playbackResponse.setImageUrl(track.getAlbum().getImages().get(0).getUrl());
-          }
-        }
-
-        // URL de previsualización
-        playbackResponse.setPreviewUrl(track.getPreviewUrl());
-
-        // Por defecto, usamos la URL de previsualización como URL de streaming
-        // En un caso real, aquí implementaríamos la lógica para generar una URL de
-        // streaming
-        // basada en acuerdos con Spotify o utilizando su SDK para Web Playback
-        playbackResponse.setStreamUrl(track.getPreviewUrl());
-
-        // Indicamos si es reproducible (si tiene URL de previsualización)
-        playbackResponse.setIsPlayable(track.getPreviewUrl() != null);
+        // (convertToDto además registra la canción en el catálogo local)
+        SpotifyPlaybackResponse playbackResponse = toPlaybackResponse(convertToDto(track));
 
-        System.out.println("Playback data retrieved successfully for track: " + track.getName());
+        logger.debug(SAMPLED, "Playback data retrieved for track: {}", track.getName());
+        lastKnownGood.put("trackPlayback:" + trackId, playbackResponse);
         return playbackResponse;
       }
     } catch (Exception e) {
-      System.err.println("Error getting track playback data: " + e.getMessage());
-      e.printStackTrace();
+      logger.warn("Error getting track playback data: {}", e.getMessage(), e);
     }
 
     return null;
   }
 
+  private SpotifyPlaybackResponse toPlaybackResponse(SpotifyTrackDto track) {
+    SpotifyPlaybackResponse playbackResponse = new SpotifyPlaybackResponse();
+    playbackResponse.setTrackId(track.getId());
+    playbackResponse.setName(track.getName());
+    playbackResponse.setArtists(track.getArtists());
+    playbackResponse.setAlbum(track.getAlbum());
+    playbackResponse.setImageUrl(track.getImageUrl());
+    playbackResponse.setPreviewUrl(track.getPreviewUrl());
+
+    // Por defecto, usamos la URL de previsualización como URL de streaming
+    // En un caso real, aquí implementaríamos la lógica para generar una URL de
+    // streaming
+    // basada en acuerdos con Spotify o utilizando su SDK para Web Playback
+    playbackResponse.setStreamUrl(track.getPreviewUrl());
+
+    // Indicamos si es reproducible (si tiene URL de previsualización)
+    playbackResponse.setIsPlayable(track.getPreviewUrl() != null);
+    return playbackResponse;
+  }
+
   // Fallback method for track playback
   public SpotifyPlaybackResponse getTrackPlaybackFallback(String trackId, Throwable t) {
-    System.err.println("Fallback for track playback. Error: " + t.getMessage());
-    // Podríamos devolver datos en caché o una respuesta genérica
-    return null;
+    logger.warn("Fallback for track playback. Error: {}", t.getMessage());
+    Optional<SpotifyPlaybackResponse> lastGood = lastKnownGood.get("trackPlayback:" + trackId,
+        new TypeReference<SpotifyPlaybackResponse>() {
+        });
+    if (lastGood.isPresent()) {
+      return lastGood.get();
+    }
+    return trackCatalog.findTrack(trackId).map(this::toPlaybackResponse).orElse(null);
+  }
+
+  /**
+   * Whether the spotifyApi circuit breaker is closed. Scheduled evictions are
+   * skipped otherwise, so caches keep serving during a Spotify outage.
+   */
+  public boolean isSpotifyAvailable() {
+    return circuitBreakerRegistry.circuitBreaker("spotifyApi").getState()
+        == io.github.resilience4j.circuitbreaker.CircuitBreaker.State.CLOSED;
   }
 
   /**
    * Evicts all cache entries periodically to prevent stale data.
    * Runs every 2 minutes for randomTracks to ensure freshness.
    */
-  @CacheEvict(value = { "randomTracks" }, allEntries = true)
+  @CacheEvict(value = { "randomTracks" }, allEntries = true, condition = "@spotifyService.isSpotifyAvailable()")
   @Scheduled(fixedRate = 120000) // Every 2 minutes for random tracks
   public void evictRandomTracksCache() {
-    System.out.println("Evicting randomTracks cache to ensure fresh random results");
+    logger.debug("Evicting randomTracks cache to ensure fresh random results");
   }
   
   /**
    * Evicts search cache less frequently as searches are more predictable.
    */
-  @CacheEvict(value = { "searchTracks", "trackPlayback" }, allEntries = true)
+  @CacheEvict(value = { "searchTracks", "trackPlayback" }, allEntries = true,
+      condition = "@spotifyService.isSpotifyAvailable()")
   @Scheduled(fixedRate = 600000) // Every 10 minutes for search results
   public void evictSearchCache() {
-    System.out.println("Evicting search and playback caches to refresh data");
+    logger.debug("Evicting search and playback caches to refresh data");
+  }
+
+  /**
+   * Artist metadata and top tracks change rarely; refresh them every 30 minutes.
+   */
+  @CacheEvict(value = { "artists", "artistTopTracks" }, allEntries = true,
+      condition = "@spotifyService.isSpotifyAvailable()")
+  @Scheduled(fixedRate = 1800000)
+  public void evictArtistCache() {
+    logger.debug("Evicting artist caches to refresh data");
   }
 }
@@ -1,6 +1,8 @@
 package com.tfu.backend.spotify;
 
 import com.tfu.backend.common.ApiResponse;
+import com.tfu.backend.common.CachedResponse;
+import com.tfu.backend.common.StrongETag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -58,6 +60,8 @@ public class SpotifyTrackController {
       @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Parámetro de búsqueda inválido", content = @Content(mediaType = "application/json")),
       @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Error al buscar canciones", content = @Content(mediaType = "application/json"))
   })
+  @CachedResponse
+  @StrongETag
   @GetMapping("/search")
   public ResponseEntity<ApiResponse<List<SpotifyTrackDto>>> searchTracks(
       @RequestParam @Size(min = 1, max = 100) String q,
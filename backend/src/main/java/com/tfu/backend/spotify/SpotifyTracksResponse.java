@@ -0,0 +1,17 @@
+package com.tfu.backend.spotify;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Respuesta de GET /v1/tracks?ids=... (varias canciones en una sola llamada)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpotifyTracksResponse {
+    private List<SpotifyTrack> tracks;
+}
@@ -0,0 +1,116 @@
+package com.tfu.backend.stream;
+
+import com.tfu.backend.upstream.HedgedExecutor;
+import com.tfu.backend.upstream.UpstreamMetricsInterceptor;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Cliente de la fuente de streaming de alta calidad (flaky-service).
+ *
+ * La fuente es poco confiable: parte de las llamadas no responde nunca y otras
+ * devuelven 500. Cada llamada se ejecuta con hedging (otro intento en paralelo
+ * cada vez que se supera el p90 reciente sin respuesta), dentro de los reintentos y el circuit
+ * breaker {@code streamSource}; si todo falla se devuelve la URL de respaldo.
+ */
+@Service
+@Observed(name = "stream.source.client")
+public class StreamSourceClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamSourceClient.class);
+
+    private final RestTemplate restTemplate;
+    private final HedgedExecutor hedging;
+    private final String sourceUrl;
+    private final String fallbackUrl;
+
+    public StreamSourceClient(
+            Environment environment,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry,
+            UpstreamMetricsInterceptor upstreamMetrics,
+            @Qualifier("streamSourceExecutor") AsyncTaskExecutor executor,
+            @Value("${stream-source.url:http://flaky-service:9090}") String sourceUrl,
+            @Value("${stream-source.fallback-url:https://cdn.example/low-bitrate/}") String fallbackUrl,
+            @Value("${stream-source.connect-timeout:500ms}") Duration connectTimeout,
+            @Value("${stream-source.read-timeout:2s}") Duration readTimeout,
+            @Value("${stream-source.hedge.percentile:0.9}") double percentile,
+            @Value("${stream-source.hedge.max-attempts:3}") int maxAttempts,
+            @Value("${stream-source.hedge.min-delay:20ms}") Duration minDelay,
+            @Value("${stream-source.hedge.max-delay:1s}") Duration maxDelay,
+            @Value("${stream-source.hedge.window:200}") int window,
+            @Value("${stream-source.hedge.budget-ratio:0.5}") double budgetRatio,
+            @Value("${stream-source.hedge.max-budget:10}") double maxBudget) {
+        this.restTemplate = createRestTemplate(Threading.VIRTUAL.isActive(environment), connectTimeout, readTimeout);
+        this.restTemplate.getInterceptors().add(upstreamMetrics);
+        this.restTemplate.setObservationRegistry(observationRegistry); // Span de cliente + traceparent
+        this.hedging = new HedgedExecutor(executor, percentile, maxAttempts, minDelay.toMillis(), maxDelay.toMillis(),
+                window, budgetRatio, maxBudget);
+        this.sourceUrl = sourceUrl;
+        this.fallbackUrl = fallbackUrl;
+
+        Gauge.builder("stream.source.hedge.delay", hedging, HedgedExecutor::getHedgeDelayMillis)
+                .baseUnit("milliseconds")
+                .description("Espera antes de lanzar el segundo intento (percentil aprendido)")
+                .register(meterRegistry);
+        FunctionCounter.builder("stream.source.hedge.fired", hedging, HedgedExecutor::getHedgesFired)
+                .description("Segundos intentos lanzados")
+                .register(meterRegistry);
+        FunctionCounter.builder("stream.source.hedge.won", hedging, HedgedExecutor::getHedgesWon)
+                .description("Segundos intentos que respondieron primero")
+                .register(meterRegistry);
+        FunctionCounter.builder("stream.source.hedge.denied", hedging, HedgedExecutor::getHedgesDenied)
+                .description("Hedges no lanzados por falta de presupuesto")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Obtiene la URL de streaming de alta calidad para una canción.
+     */
+    @Retry(name = "streamSource")
+    @CircuitBreaker(name = "streamSource", fallbackMethod = "fallbackUrl")
+    public String getStreamUrl(String trackId) {
+        return hedging.call(() ->
+                restTemplate.getForObject(sourceUrl + "/source?trackId={trackId}", String.class, trackId));
+    }
+
+    /**
+     * URL de respaldo (baja calidad) cuando la fuente no responde.
+     */
+    public String fallbackUrl(String trackId, Throwable t) {
+        logger.warn("Stream source unavailable for track {}: {}", trackId, t.getMessage());
+        return fallbackUrl + trackId;
+    }
+
+    /**
+     * RestTemplate con timeouts propios: sin read timeout un intento que no
+     * responde ocuparía su hilo indefinidamente.
+     */
+    static RestTemplate createRestTemplate(boolean virtualThreads, Duration connectTimeout, Duration readTimeout) {
+        RestTemplateBuilder builder = new RestTemplateBuilder()
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout);
+        if (virtualThreads) {
+            builder = builder.requestFactoryBuilder(ClientHttpRequestFactoryBuilder.jdk());
+        }
+        return builder.build();
+    }
+}
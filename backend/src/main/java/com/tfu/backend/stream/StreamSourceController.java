@@ -0,0 +1,36 @@
+package com.tfu.backend.stream;
+
+import com.tfu.backend.common.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador de la fuente de streaming (demo de tolerancia a fallos con flaky-service)
+ */
+@Tag(name = "Playback", description = "URLs de streaming desde la fuente externa")
+@RestController
+@RequestMapping("/api/playback")
+public class StreamSourceController {
+
+    private final StreamSourceClient streamSourceClient;
+
+    public StreamSourceController(StreamSourceClient streamSourceClient) {
+        this.streamSourceClient = streamSourceClient;
+    }
+
+    @Operation(summary = "URL de streaming", description = "Obtiene la URL de streaming de una canción, con hedging, reintentos y fallback")
+    @GetMapping("/source/{trackId}")
+    public ResponseEntity<ApiResponse<String>> getStreamUrl(
+        @Parameter(description = "ID de la canción", required = true)
+        @PathVariable String trackId
+    ) {
+        String url = streamSourceClient.getStreamUrl(trackId);
+        return ResponseEntity.ok(ApiResponse.success(url, "URL de streaming obtenida"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.tfu.backend.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporta las trazas como JSON, una línea por span, a un archivo local. Pensado
+ * para pruebas de carga y entornos sin colector: el archivo se puede filtrar por
+ * traceId para reconstruir una request completa entre réplicas.
+ */
+public class JsonFileSpanExporter implements SpanExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonFileSpanExporter.class);
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public JsonFileSpanExporter(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (SpanData span : spans) {
+                    writer.write(objectMapper.writeValueAsString(toJson(span)));
+                    writer.newLine();
+                }
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            logger.warn("Could not export {} spans to {}: {}", spans.size(), path, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private ObjectNode toJson(SpanData span) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("traceId", span.getTraceId());
+        json.put("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) {
+            json.put("parentSpanId", span.getParentSpanId());
+        }
+        json.put("name", span.getName());
+        json.put("kind", span.getKind().name());
+        json.put("service", span.getResource().getAttributes().asMap().entrySet().stream()
+                .filter(e -> e.getKey().getKey().equals("service.name"))
+                .map(e -> String.valueOf(e.getValue()))
+                .findFirst()
+                .orElse(null));
+        json.put("startEpochMicros", TimeUnit.NANOSECONDS.toMicros(span.getStartEpochNanos()));
+        json.put("durationMicros", TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()));
+        json.put("status", span.getStatus().getStatusCode().name());
+        json.set("attributes", attributes(span.getAttributes()));
+
+        ArrayNode events = json.putArray("events");
+        for (EventData event : span.getEvents()) {
+            ObjectNode node = events.addObject();
+            node.put("name", event.getName());
+            node.put("offsetMicros", TimeUnit.NANOSECONDS.toMicros(event.getEpochNanos() - span.getStartEpochNanos()));
+            if (!event.getAttributes().isEmpty()) {
+                node.set("attributes", attributes(event.getAttributes()));
+            }
+        }
+        return json;
+    }
+
+    private ObjectNode attributes(Attributes attributes) {
+        ObjectNode node = objectMapper.createObjectNode();
+        attributes.forEach((key, value) -> node.put(key.getKey(), String.valueOf(value)));
+        return node;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
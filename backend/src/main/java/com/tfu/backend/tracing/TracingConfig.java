@@ -0,0 +1,104 @@
+package com.tfu.backend.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.registry.EntryAddedEvent;
+import io.github.resilience4j.core.registry.EntryRemovedEvent;
+import io.github.resilience4j.core.registry.EntryReplacedEvent;
+import io.github.resilience4j.core.registry.RegistryEventConsumer;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Trazas distribuidas (Micrometer Tracing + OpenTelemetry, propagación W3C).
+ *
+ * Los exportadores son enchufables: Spring Boot envía los spans a todos los
+ * beans {@code SpanExporter}. OTLP se activa con
+ * {@code management.otlp.tracing.endpoint}; el archivo JSON con
+ * {@code tracing.exporter.file.enabled}.
+ *
+ * Además, las decisiones de Resilience4j (reintentos, errores registrados y
+ * llamadas rechazadas por el circuit breaker) se agregan como eventos al span
+ * en curso. Cada intento tiene su propio span (los métodos con @Observed quedan
+ * dentro del aspecto de @Retry).
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.exporter.file.enabled", havingValue = "true")
+    public JsonFileSpanExporter jsonFileSpanExporter(
+            ObjectMapper objectMapper,
+            @Value("${tracing.exporter.file.path:data/spans.jsonl}") Path path) {
+        return new JsonFileSpanExporter(path, objectMapper);
+    }
+
+    @Bean
+    public RegistryEventConsumer<Retry> retryTracing(ObservationRegistry observationRegistry) {
+        return new EntryAddedConsumer<>() {
+            @Override
+            public void onEntryAddedEvent(EntryAddedEvent<Retry> entryAddedEvent) {
+                entryAddedEvent.getAddedEntry().getEventPublisher()
+                        .onRetry(event -> annotate(observationRegistry, "resilience4j.retry",
+                                "retry " + event.getName() + " attempt " + event.getNumberOfRetryAttempts()
+                                        + " after " + errorName(event.getLastThrowable())))
+                        .onError(event -> annotate(observationRegistry, "resilience4j.retry",
+                                "retry " + event.getName() + " exhausted after "
+                                        + event.getNumberOfRetryAttempts() + " attempts"));
+            }
+        };
+    }
+
+    @Bean
+    public RegistryEventConsumer<CircuitBreaker> circuitBreakerTracing(ObservationRegistry observationRegistry) {
+        return new EntryAddedConsumer<>() {
+            @Override
+            public void onEntryAddedEvent(EntryAddedEvent<CircuitBreaker> entryAddedEvent) {
+                CircuitBreaker circuitBreaker = entryAddedEvent.getAddedEntry();
+                circuitBreaker.getEventPublisher()
+                        .onCallNotPermitted(event -> annotate(observationRegistry, "resilience4j.circuitbreaker",
+                                "circuit breaker " + event.getCircuitBreakerName() + " "
+                                        + circuitBreaker.getState() + ": call not permitted"))
+                        .onError(event -> annotate(observationRegistry, "resilience4j.circuitbreaker",
+                                "circuit breaker " + event.getCircuitBreakerName() + " recorded "
+                                        + errorName(event.getThrowable())))
+                        .onStateTransition(event -> annotate(observationRegistry, "resilience4j.circuitbreaker",
+                                "circuit breaker " + event.getCircuitBreakerName() + " "
+                                        + event.getStateTransition()));
+            }
+        };
+    }
+
+    /**
+     * Agrega un evento a la observación (span) en curso, si la hay.
+     */
+    private static void annotate(ObservationRegistry observationRegistry, String name, String description) {
+        Observation current = observationRegistry.getCurrentObservation();
+        if (current != null) {
+            current.event(Observation.Event.of(name, description));
+        }
+    }
+
+    private static String errorName(Throwable throwable) {
+        return throwable == null ? "unknown error" : throwable.getClass().getSimpleName();
+    }
+
+    /** Solo interesa el alta de instancias, que ocurre al crearlas desde la configuración */
+    private abstract static class EntryAddedConsumer<T> implements RegistryEventConsumer<T> {
+
+        @Override
+        public void onEntryRemovedEvent(EntryRemovedEvent<T> entryRemoveEvent) {
+        }
+
+        @Override
+        public void onEntryReplacedEvent(EntryReplacedEvent<T> entryReplacedEvent) {
+        }
+    }
+}
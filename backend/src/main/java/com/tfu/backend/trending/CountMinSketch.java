@@ -0,0 +1,118 @@
+package com.tfu.backend.trending;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Count-min sketch: frecuencias aproximadas de claves en memoria constante
+ * ({@code depth × width} contadores), sin importar cuántas claves distintas
+ * lleguen. La estimación nunca es menor que la frecuencia real y la excede a lo
+ * sumo en ~2/width del total con probabilidad 1 - 1/2^depth.
+ *
+ * El hash es estable entre JVMs, así que dos sketches con las mismas
+ * dimensiones se combinan sumando contadores ({@link #merge}): el resultado es
+ * el mismo que si todos los eventos hubieran llegado a una sola réplica.
+ * No es thread-safe.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final long[] counts;
+    private long total;
+
+    /**
+     * @param width se redondea a la potencia de 2 siguiente
+     */
+    CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = Integer.highestOneBit(Math.max(2, width) - 1) << 1;
+        this.mask = this.width - 1;
+        this.counts = new long[depth * this.width];
+    }
+
+    void add(String key, long count) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + ((h1 + row * h2) & mask)] += count;
+        }
+        total += count;
+    }
+
+    long estimate(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row * width + ((h1 + row * h2) & mask)]);
+        }
+        return min;
+    }
+
+    /** Suma los contadores de otro sketch con las mismas dimensiones */
+    void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Sketch dimensions differ: "
+                + other.depth + "x" + other.width + " vs " + depth + "x" + width);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    CountMinSketch copy() {
+        CountMinSketch copy = new CountMinSketch(depth, width);
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.total = total;
+        return copy;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        total = 0;
+    }
+
+    long total() {
+        return total;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(depth);
+        out.writeInt(width);
+        out.writeLong(total);
+        for (long count : counts) {
+            out.writeLong(count);
+        }
+    }
+
+    static CountMinSketch readFrom(DataInputStream in) throws IOException {
+        CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+        sketch.total = in.readLong();
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = in.readLong();
+        }
+        return sketch;
+    }
+
+    /** FNV-1a de 64 bits sobre los chars más la mezcla final de Murmur3 */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,56 @@
+package com.tfu.backend.trending;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Lo contado en un intervalo de la ventana: el sketch con las frecuencias y las
+ * claves candidatas a trending (el top-K del intervalo). Es lo que cada réplica
+ * publica para que las demás lo combinen.
+ */
+record TrendingBucket(CountMinSketch sketch, List<String> candidates) {
+
+    private static final int FORMAT_VERSION = 1;
+
+    /** Serializa el bucket; los contadores en cero se comprimen con deflate */
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeByte(FORMAT_VERSION);
+            sketch.writeTo(out);
+            out.writeInt(candidates.size());
+            for (String candidate : candidates) {
+                out.writeUTF(candidate);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static TrendingBucket decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(encoded)))) {
+            int format = in.readUnsignedByte();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unknown trending bucket format " + format);
+            }
+            CountMinSketch sketch = CountMinSketch.readFrom(in);
+            int count = in.readInt();
+            List<String> candidates = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                candidates.add(in.readUTF());
+            }
+            return new TrendingBucket(sketch, candidates);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt trending bucket", e);
+        }
+    }
+}
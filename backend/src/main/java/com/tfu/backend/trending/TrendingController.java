@@ -0,0 +1,53 @@
+package com.tfu.backend.trending;
+
+import com.tfu.backend.common.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador del estante "trending now": responde desde memoria con el último
+ * ranking combinado entre réplicas.
+ */
+@Tag(name = "Trending", description = "API de canciones y búsquedas en tendencia")
+@RestController
+@RequestMapping("/api/trending")
+@Validated
+public class TrendingController {
+
+    private final TrendingService trendingService;
+
+    public TrendingController(TrendingService trendingService) {
+        this.trendingService = trendingService;
+    }
+
+    @Operation(summary = "Canciones en tendencia", description = "IDs de las canciones más reproducidas en la última ventana, con su conteo estimado")
+    @GetMapping("/tracks")
+    public ResponseEntity<ApiResponse<List<TrendingEntry>>> trendingTracks(
+        @Parameter(description = "Cantidad de canciones", example = "20")
+        @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(
+            trendingService.top(TrendingService.Kind.TRACKS, limit), "Canciones en tendencia"));
+    }
+
+    @Operation(summary = "Búsquedas en tendencia", description = "Búsquedas más frecuentes en la última ventana, normalizadas, con su conteo estimado")
+    @GetMapping("/queries")
+    public ResponseEntity<ApiResponse<List<TrendingEntry>>> trendingQueries(
+        @Parameter(description = "Cantidad de búsquedas", example = "20")
+        @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(
+            trendingService.top(TrendingService.Kind.QUERIES, limit), "Búsquedas en tendencia"));
+    }
+}
@@ -0,0 +1,8 @@
+package com.tfu.backend.trending;
+
+/**
+ * Una clave en tendencia (ID de canción o búsqueda normalizada) con su conteo
+ * estimado en la ventana, sumado entre réplicas.
+ */
+public record TrendingEntry(String key, long count) {
+}
@@ -0,0 +1,29 @@
+package com.tfu.backend.trending;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Cuenta las búsquedas del usuario para trending antes de que la caché de
+ * respuestas las sirva sin llegar al controlador; así cuenta también las
+ * repetidas. Las búsquedas internas (autoplay, artistas) no pasan por acá.
+ */
+@Component
+public class TrendingQueryInterceptor implements HandlerInterceptor {
+
+    private final TrendingService trendingService;
+
+    public TrendingQueryInterceptor(TrendingService trendingService) {
+        this.trendingService = trendingService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if ("GET".equals(request.getMethod())) {
+            trendingService.recordQuery(request.getParameter("q"));
+        }
+        return true;
+    }
+}
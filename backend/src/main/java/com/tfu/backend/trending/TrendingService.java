@@ -0,0 +1,186 @@
+package com.tfu.backend.trending;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canciones y búsquedas en tendencia ("trending now") calculadas en streaming,
+ * sin recorrer logs: cada reproducción y cada búsqueda suma en una ventana
+ * deslizante de count-min sketches con top-K acotado ({@link TrendingWindow}),
+ * en memoria constante.
+ *
+ * Cada {@code trending.sync-interval} la réplica publica en Postgres los
+ * intervalos que cambiaron, lee los de todas las réplicas y recalcula el
+ * ranking combinado. Como los sketches se suman y el desempate es por clave,
+ * las dos réplicas responden lo mismo. El endpoint lee el último ranking
+ * calculado, sin tocar la base.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    /** Largo máximo de una búsqueda contada; las más largas se recortan */
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    public enum Kind { TRACKS, QUERIES }
+
+    private final TrendingSketchRepository repository;
+    private final String replicaId;
+    private final boolean syncEnabled;
+    private final int topK;
+    private final Map<Kind, TrendingWindow> windows = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> recorded = new EnumMap<>(Kind.class);
+    /** Último ranking calculado por tipo; es lo que responde el endpoint */
+    private final Map<Kind, List<TrendingEntry>> rankings = new ConcurrentHashMap<>();
+    /** Intervalos de las otras réplicas de la última lectura correcta */
+    private final Map<Kind, List<TrendingSketchRepository.StoredBucket>> lastRemote = new EnumMap<>(Kind.class);
+
+    private final Timer syncSuccess;
+    private final Timer syncFailure;
+
+    public TrendingService(
+            TrendingSketchRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${trending.replica-id:${HOSTNAME:local}}") String replicaId,
+            @Value("${trending.sync.enabled:true}") boolean syncEnabled,
+            @Value("${trending.window:1h}") Duration window,
+            @Value("${trending.buckets:12}") int buckets,
+            @Value("${trending.sketch.depth:4}") int depth,
+            @Value("${trending.sketch.width:2048}") int width,
+            @Value("${trending.top-k:100}") int topK) {
+        this.repository = repository;
+        this.replicaId = replicaId;
+        this.syncEnabled = syncEnabled;
+        this.topK = topK;
+        long bucketMillis = Math.max(1, window.toMillis() / buckets);
+        for (Kind kind : Kind.values()) {
+            windows.put(kind, new TrendingWindow(bucketMillis, buckets, depth, width, topK));
+            rankings.put(kind, List.of());
+            lastRemote.put(kind, List.of());
+            recorded.put(kind, Counter.builder("trending.events")
+                    .tag("kind", kind.name().toLowerCase(Locale.ROOT))
+                    .description("Eventos contados para trending")
+                    .register(meterRegistry));
+        }
+        this.syncSuccess = syncTimer(meterRegistry, "success");
+        this.syncFailure = syncTimer(meterRegistry, "failure");
+    }
+
+    private static Timer syncTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("trending.sync")
+                .description("Duración de la publicación y combinación de sketches de trending")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /** Cuenta una reproducción de la canción */
+    public void recordPlay(String trackId) {
+        if (trackId != null && !trackId.isBlank()) {
+            record(Kind.TRACKS, trackId);
+        }
+    }
+
+    /** Cuenta una búsqueda del usuario, normalizada (minúsculas, espacios simples) */
+    public void recordQuery(String query) {
+        if (query == null) {
+            return;
+        }
+        String normalized = query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        record(Kind.QUERIES, normalized.length() > MAX_QUERY_LENGTH
+                ? normalized.substring(0, MAX_QUERY_LENGTH) : normalized);
+    }
+
+    private void record(Kind kind, String key) {
+        windows.get(kind).add(key, System.currentTimeMillis());
+        recorded.get(kind).increment();
+    }
+
+    /**
+     * Las {@code limit} claves más frecuentes de la ventana, combinadas entre
+     * réplicas a la última sincronización.
+     */
+    public List<TrendingEntry> top(Kind kind, int limit) {
+        List<TrendingEntry> ranking = rankings.get(kind);
+        return ranking.subList(0, Math.max(0, Math.min(limit, ranking.size())));
+    }
+
+    /**
+     * Publica los intervalos propios y recalcula los rankings con los de todas
+     * las réplicas. Si la base no responde, el ranking se calcula con los
+     * intervalos locales y los remotos de la última lectura.
+     */
+    @Scheduled(fixedDelayString = "${trending.sync-interval:10000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        for (Kind kind : Kind.values()) {
+            TrendingWindow window = windows.get(kind);
+            if (!syncEnabled) {
+                rankings.put(kind, rankLocal(window, now, List.of()));
+                continue;
+            }
+
+            long start = System.nanoTime();
+            Map<Long, byte[]> dirty = window.takeDirty(now);
+            try {
+                String kindName = kind.name();
+                repository.upsertBuckets(replicaId, kindName, dirty);
+                List<TrendingSketchRepository.StoredBucket> stored =
+                        repository.findBuckets(kindName, window.firstIndex(now));
+                repository.deleteBefore(kindName, window.firstIndex(now));
+
+                Map<Long, List<TrendingBucket>> byIndex = new HashMap<>();
+                List<TrendingSketchRepository.StoredBucket> remote = new ArrayList<>();
+                for (TrendingSketchRepository.StoredBucket bucket : stored) {
+                    byIndex.computeIfAbsent(bucket.bucketIndex(), index -> new ArrayList<>())
+                            .add(TrendingBucket.decode(bucket.data()));
+                    if (!replicaId.equals(bucket.replicaId())) {
+                        remote.add(bucket);
+                    }
+                }
+                rankings.put(kind, TrendingWindow.rank(byIndex, topK));
+                lastRemote.put(kind, remote);
+                syncSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (DataAccessException | IllegalArgumentException e) {
+                syncFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                logger.warn("Trending sync failed for {}, ranking from local buckets: {}", kind, e.getMessage());
+                window.markDirty(dirty.keySet());
+                rankings.put(kind, rankLocal(window, now, lastRemote.get(kind)));
+            }
+        }
+    }
+
+    private List<TrendingEntry> rankLocal(TrendingWindow window, long now, List<TrendingSketchRepository.StoredBucket> remote) {
+        Map<Long, List<TrendingBucket>> byIndex = new HashMap<>();
+        window.snapshot(now).forEach((index, bucket) ->
+                byIndex.computeIfAbsent(index, i -> new ArrayList<>()).add(bucket));
+        long first = window.firstIndex(now);
+        for (TrendingSketchRepository.StoredBucket bucket : remote) {
+            if (bucket.bucketIndex() >= first) {
+                byIndex.computeIfAbsent(bucket.bucketIndex(), i -> new ArrayList<>())
+                        .add(TrendingBucket.decode(bucket.data()));
+            }
+        }
+        return TrendingWindow.rank(byIndex, topK);
+    }
+}
@@ -0,0 +1,65 @@
+package com.tfu.backend.trending;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sketches de trending publicados por cada réplica, uno por intervalo de la
+ * ventana. Cada réplica lee los de todas para calcular el mismo ranking.
+ */
+@Repository
+public class TrendingSketchRepository {
+
+    private static final String UPSERT_BUCKET = """
+        INSERT INTO trending_sketches (replica_id, kind, bucket_index, data, updated_at)
+        VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+        ON CONFLICT (replica_id, kind, bucket_index) DO UPDATE SET
+            data = EXCLUDED.data,
+            updated_at = EXCLUDED.updated_at
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TrendingSketchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Publica los intervalos de esta réplica en un solo lote.
+     */
+    public void upsertBuckets(String replicaId, String kind, Map<Long, byte[]> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_BUCKET, new ArrayList<>(buckets.entrySet()), buckets.size(), (ps, bucket) -> {
+            ps.setString(1, replicaId);
+            ps.setString(2, kind);
+            ps.setLong(3, bucket.getKey());
+            ps.setBytes(4, bucket.getValue());
+        });
+    }
+
+    /**
+     * Intervalos de todas las réplicas desde {@code firstIndex}.
+     */
+    public List<StoredBucket> findBuckets(String kind, long firstIndex) {
+        return jdbcTemplate.query(
+            "SELECT replica_id, bucket_index, data FROM trending_sketches WHERE kind = ? AND bucket_index >= ?",
+            (rs, rowNum) -> new StoredBucket(rs.getString("replica_id"), rs.getLong("bucket_index"), rs.getBytes("data")),
+            kind, firstIndex);
+    }
+
+    /**
+     * Borra los intervalos que ya salieron de la ventana.
+     */
+    public int deleteBefore(String kind, long firstIndex) {
+        return jdbcTemplate.update("DELETE FROM trending_sketches WHERE kind = ? AND bucket_index < ?", kind, firstIndex);
+    }
+
+    public record StoredBucket(String replicaId, long bucketIndex, byte[] data) {
+    }
+}
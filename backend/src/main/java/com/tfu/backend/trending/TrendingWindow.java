@@ -0,0 +1,151 @@
+package com.tfu.backend.trending;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ventana deslizante de conteos: {@code buckets} intervalos de
+ * {@code bucketMillis}, cada uno con su {@link CountMinSketch} y su
+ * {@link TopK}. Los intervalos se alinean al reloj (época / bucketMillis), así
+ * que el intervalo N de una réplica es el mismo que el de otra y se pueden
+ * combinar. Al avanzar el reloj se reutiliza el intervalo más viejo, por lo que
+ * la memoria es fija.
+ */
+final class TrendingWindow {
+
+    private final long bucketMillis;
+    private final Slot[] slots;
+
+    TrendingWindow(long bucketMillis, int buckets, int depth, int width, int topK) {
+        this.bucketMillis = bucketMillis;
+        this.slots = new Slot[buckets];
+        for (int i = 0; i < buckets; i++) {
+            slots[i] = new Slot(new CountMinSketch(depth, width), new TopK(topK));
+        }
+    }
+
+    long bucketIndex(long epochMillis) {
+        return epochMillis / bucketMillis;
+    }
+
+    /** Primer intervalo que sigue dentro de la ventana */
+    long firstIndex(long epochMillis) {
+        return bucketIndex(epochMillis) - slots.length + 1;
+    }
+
+    synchronized void add(String key, long epochMillis) {
+        long index = bucketIndex(epochMillis);
+        Slot slot = slots[(int) Math.floorMod(index, (long) slots.length)];
+        if (slot.index != index) {
+            slot.reset(index);
+        }
+        slot.sketch.add(key, 1);
+        slot.top.offer(key, slot.sketch.estimate(key));
+        slot.dirty = true;
+    }
+
+    /**
+     * Intervalos con cambios desde la última llamada, serializados; quedan
+     * marcados como publicados.
+     */
+    synchronized Map<Long, byte[]> takeDirty(long epochMillis) {
+        long first = firstIndex(epochMillis);
+        Map<Long, byte[]> dirty = new LinkedHashMap<>();
+        for (Slot slot : slots) {
+            if (slot.dirty && slot.index >= first) {
+                dirty.put(slot.index, slot.toBucket().encode());
+                slot.dirty = false;
+            }
+        }
+        return dirty;
+    }
+
+    /** Vuelve a marcar intervalos cuya publicación falló */
+    synchronized void markDirty(Collection<Long> indexes) {
+        for (Slot slot : slots) {
+            if (indexes.contains(slot.index)) {
+                slot.dirty = true;
+            }
+        }
+    }
+
+    /** Copia de los intervalos vigentes de esta réplica */
+    synchronized Map<Long, TrendingBucket> snapshot(long epochMillis) {
+        long first = firstIndex(epochMillis);
+        Map<Long, TrendingBucket> buckets = new HashMap<>();
+        for (Slot slot : slots) {
+            if (slot.index >= first) {
+                buckets.put(slot.index, new TrendingBucket(slot.sketch.copy(), slot.top.keys()));
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Ranking de la ventana a partir de los intervalos de todas las réplicas:
+     * los sketches de un mismo intervalo se suman y cada candidata se puntúa
+     * con la suma de sus estimaciones. Los empates se ordenan por clave para
+     * que todas las réplicas devuelvan el mismo orden.
+     */
+    static List<TrendingEntry> rank(Map<Long, List<TrendingBucket>> bucketsByIndex, int limit) {
+        List<CountMinSketch> merged = new ArrayList<>();
+        Set<String> candidates = new HashSet<>();
+        for (List<TrendingBucket> buckets : bucketsByIndex.values()) {
+            CountMinSketch sketch = null;
+            for (TrendingBucket bucket : buckets) {
+                if (sketch == null) {
+                    sketch = bucket.sketch();
+                } else {
+                    sketch.merge(bucket.sketch());
+                }
+                candidates.addAll(bucket.candidates());
+            }
+            if (sketch != null) {
+                merged.add(sketch);
+            }
+        }
+
+        List<TrendingEntry> ranking = new ArrayList<>(candidates.size());
+        for (String candidate : candidates) {
+            long count = 0;
+            for (CountMinSketch sketch : merged) {
+                count += sketch.estimate(candidate);
+            }
+            ranking.add(new TrendingEntry(candidate, count));
+        }
+        ranking.sort(Comparator.comparingLong(TrendingEntry::count).reversed()
+            .thenComparing(TrendingEntry::key));
+        return List.copyOf(ranking.subList(0, Math.min(limit, ranking.size())));
+    }
+
+    private static final class Slot {
+
+        final CountMinSketch sketch;
+        final TopK top;
+        long index = Long.MIN_VALUE;
+        boolean dirty;
+
+        Slot(CountMinSketch sketch, TopK top) {
+            this.sketch = sketch;
+            this.top = top;
+        }
+
+        void reset(long newIndex) {
+            sketch.clear();
+            top.clear();
+            index = newIndex;
+            dirty = false;
+        }
+
+        TrendingBucket toBucket() {
+            return new TrendingBucket(sketch, top.keys());
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.tfu.backend.upstream;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de concurrencia adaptativo (AIMD) para llamadas a un servicio externo.
+ *
+ * El límite crece de a un permiso por "ventana" mientras las respuestas llegan
+ * por debajo del umbral de latencia y el límite está en uso, y se reduce
+ * multiplicativamente ante respuestas lentas, errores de sobrecarga o 429.
+ * Un 429 con Retry-After además bloquea nuevas llamadas hasta esa fecha.
+ * Las llamadas que no tienen permiso esperan en cola un tiempo acotado en vez
+ * de fallar de inmediato.
+ *
+ * La cola es justa por tenant (usuario, IP o tareas del sistema) con
+ * start-time fair queueing: cada llamada en espera recibe una etiqueta
+ * virtual max(tiempo virtual, fin de la anterior del tenant) y cada tenant
+ * avanza 1/peso por llamada, así que los permisos se reparten en proporción
+ * al peso aunque un tenant tenga cientos de llamadas encoladas y otro una
+ * sola. Cada tenant además tiene un tope propio de llamadas en espera.
+ *
+ * Además hay un carril por {@link UpstreamPriority}, cada uno con su propia cola
+ * justa: los permisos que se liberan van siempre primero al carril interactivo.
+ * Prefetch y tareas de fondo solo usan una fracción del límite ({@code share}),
+ * así queda margen para las llamadas interactivas que lleguen mientras ellas
+ * están en curso (una llamada en curso no se puede interrumpir).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final long maxWaitNanos;
+    private final int maxQueue;
+    private final int maxQueuePerTenant;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Un carril por prioridad, en orden de atención */
+    private final Map<UpstreamPriority, Lane> lanes = new EnumMap<>(UpstreamPriority.class);
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long blockedUntilNanos;
+    private long sequence;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      long latencyThresholdMillis, long maxWaitMillis, int maxQueue) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, latencyThresholdMillis, maxWaitMillis, maxQueue, maxQueue);
+    }
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      long latencyThresholdMillis, long maxWaitMillis, int maxQueue,
+                                      int maxQueuePerTenant) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, latencyThresholdMillis, maxWaitMillis, maxQueue,
+            maxQueuePerTenant, 1, 1);
+    }
+
+    /**
+     * @param prefetchShare   fracción del límite que pueden ocupar las llamadas
+     *                        de prefetch (siempre al menos un permiso)
+     * @param backgroundShare ídem para las tareas de fondo
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      long latencyThresholdMillis, long maxWaitMillis, int maxQueue,
+                                      int maxQueuePerTenant, double prefetchShare, double backgroundShare) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.maxQueue = maxQueue;
+        this.maxQueuePerTenant = maxQueuePerTenant;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+        this.blockedUntilNanos = System.nanoTime();
+        lanes.put(UpstreamPriority.INTERACTIVE, new Lane(UpstreamPriority.INTERACTIVE, 1));
+        lanes.put(UpstreamPriority.PREFETCH, new Lane(UpstreamPriority.PREFETCH, prefetchShare));
+        lanes.put(UpstreamPriority.BACKGROUND, new Lane(UpstreamPriority.BACKGROUND, backgroundShare));
+    }
+
+    /**
+     * Obtiene un permiso interactivo como tenant único (sin reparto justo).
+     *
+     * @see #acquire(String, double, UpstreamPriority)
+     */
+    public long acquire() {
+        return acquire("default", 1);
+    }
+
+    /**
+     * @see #acquire(String, double, UpstreamPriority)
+     */
+    public long acquire(String tenant, double weight) {
+        return acquire(tenant, weight, UpstreamPriority.INTERACTIVE);
+    }
+
+    /**
+     * Obtiene un permiso, esperando en cola como máximo el tiempo configurado.
+     * Con el límite ocupado, los permisos que se liberan van primero a las
+     * prioridades más altas y, dentro de cada una, se reparten entre tenants
+     * según su peso.
+     *
+     * @param tenant   clave del tenant que hace la llamada
+     * @param weight   peso relativo del tenant (&gt; 0)
+     * @param priority clase de la llamada
+     * @return marca de tiempo (nanoTime) de inicio de la llamada, para medir su latencia
+     * @throws UpstreamLimitExceededException si la cola (global o del tenant)
+     *         está llena o vence la espera
+     */
+    public long acquire(String tenant, double weight, UpstreamPriority priority) {
+        lock.lock();
+        try {
+            Lane lane = lanes.get(priority);
+            long now = System.nanoTime();
+            if (!waitingAtOrAbove(priority) && canProceed(now, lane)) {
+                inFlight++;
+                return now;
+            }
+            if (waiting >= maxQueue) {
+                throw new UpstreamLimitExceededException("Upstream queue full (" + waiting + " waiting)");
+            }
+            long deadline = now + maxWaitNanos;
+            if (blockedUntilNanos - deadline > 0) {
+                throw new UpstreamLimitExceededException("Upstream asked to retry after the maximum wait");
+            }
+            Tenant state = lane.tenants.computeIfAbsent(tenant, key -> new Tenant());
+            if (state.waiting >= maxQueuePerTenant) {
+                throw new UpstreamLimitExceededException(
+                    "Upstream queue full for tenant (" + state.waiting + " waiting)");
+            }
+
+            double startTag = Math.max(lane.virtualTime, state.lastFinishTag);
+            state.lastFinishTag = startTag + 1 / weight;
+            state.waiting++;
+            waiting++;
+            Waiter waiter = new Waiter(startTag, sequence++, lock.newCondition());
+            lane.waiters.add(waiter);
+            dispatch(now);
+
+            try {
+                while (!waiter.granted) {
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        lane.waiters.remove(waiter);
+                        throw new UpstreamLimitExceededException("Timed out waiting for upstream capacity");
+                    }
+                    long blockedFor = blockedUntilNanos - now;
+                    waiter.signal.awaitNanos(blockedFor > 0 ? Math.min(remaining, blockedFor) : remaining);
+                    now = System.nanoTime();
+                    // El fin de un Retry-After no lo avisa nadie: el primero en despertar reparte
+                    dispatch(now);
+                }
+            } catch (InterruptedException e) {
+                if (!waiter.granted) {
+                    lane.waiters.remove(waiter);
+                    Thread.currentThread().interrupt();
+                    throw new UpstreamLimitExceededException("Interrupted waiting for upstream capacity");
+                }
+                Thread.currentThread().interrupt();
+            } finally {
+                state.waiting--;
+                waiting--;
+                lane.forgetIdle();
+            }
+            return now;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera el permiso de una llamada exitosa y ajusta el límite según su latencia.
+     */
+    public void onSuccess(long startNanos) {
+        long latency = System.nanoTime() - startNanos;
+        lock.lock();
+        try {
+            inFlight--;
+            if (latency > latencyThresholdNanos) {
+                decrease();
+            } else if (inFlight + 1 >= limit / 2) {
+                // Aumento aditivo: ~ +1 permiso cuando se completa una ventana entera
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            dispatch(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera el permiso de una llamada rechazada con 429 y bloquea nuevas
+     * llamadas durante {@code retryAfterMillis}.
+     */
+    public void onThrottled(long retryAfterMillis) {
+        lock.lock();
+        try {
+            inFlight--;
+            decrease();
+            long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis);
+            if (until - blockedUntilNanos > 0) {
+                blockedUntilNanos = until;
+            }
+            dispatch(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera el permiso de una llamada que falló por sobrecarga (5xx, timeout, E/S).
+     */
+    public void onOverload() {
+        lock.lock();
+        try {
+            inFlight--;
+            decrease();
+            dispatch(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera el permiso sin ajustar el límite (errores que no indican sobrecarga).
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            inFlight--;
+            dispatch(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth(UpstreamPriority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Llamadas en espera por tenant (sumando prioridades), solo de los tenants
+     * que tienen alguna.
+     */
+    public Map<String, Integer> getTenantQueueDepths() {
+        lock.lock();
+        try {
+            Map<String, Integer> depths = new HashMap<>();
+            for (Lane lane : lanes.values()) {
+                lane.tenants.forEach((key, state) -> {
+                    if (state.waiting > 0) {
+                        depths.merge(key, state.waiting, Integer::sum);
+                    }
+                });
+            }
+            return depths;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Da permiso a las llamadas en espera mientras haya capacidad: carril por
+     * carril en orden de prioridad y, dentro de cada uno, en orden de etiqueta
+     * virtual. Un carril bajo no pasa delante de uno más alto con llamadas en
+     * espera. Se llama con el lock tomado.
+     */
+    private void dispatch(long now) {
+        for (Lane lane : lanes.values()) {
+            while (!lane.waiters.isEmpty() && canProceed(now, lane)) {
+                Waiter next = lane.waiters.poll();
+                inFlight++;
+                lane.virtualTime = Math.max(lane.virtualTime, next.startTag);
+                next.granted = true;
+                next.signal.signal();
+            }
+            if (!lane.waiters.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /** Si hay llamadas esperando con esta prioridad o una más alta */
+    private boolean waitingAtOrAbove(UpstreamPriority priority) {
+        for (Lane lane : lanes.values()) {
+            if (!lane.waiters.isEmpty()) {
+                return true;
+            }
+            if (lane.priority == priority) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean canProceed(long now, Lane lane) {
+        return now - blockedUntilNanos >= 0 && inFlight < lane.capacity(limit);
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    /** Cola justa de una prioridad */
+    private static final class Lane {
+        final UpstreamPriority priority;
+        final double share;
+        /** Llamadas en espera por etiqueta virtual de inicio (y orden de llegada) */
+        final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.comparingDouble(Waiter::startTag).thenComparingLong(Waiter::sequence));
+        /** Tenants con llamadas en espera o con etiquetas por delante del tiempo virtual */
+        final Map<String, Tenant> tenants = new HashMap<>();
+        double virtualTime;
+
+        Lane(UpstreamPriority priority, double share) {
+            this.priority = priority;
+            this.share = share;
+        }
+
+        /** Permisos en curso hasta los que este carril puede tomar uno más */
+        int capacity(double limit) {
+            return share >= 1 ? (int) limit : Math.max(1, (int) (limit * share));
+        }
+
+        /**
+         * Olvida los tenants sin llamadas en espera cuyas etiquetas ya alcanzó el
+         * tiempo virtual (volverían a empezar igual); sin cola se olvidan todos.
+         */
+        void forgetIdle() {
+            if (waiters.isEmpty()) {
+                tenants.values().removeIf(state -> state.waiting == 0);
+                return;
+            }
+            tenants.values().removeIf(state -> state.waiting == 0 && state.lastFinishTag <= virtualTime);
+        }
+    }
+
+    private static final class Tenant {
+        int waiting;
+        double lastFinishTag;
+    }
+
+    private static final class Waiter {
+        final double startTag;
+        final long sequence;
+        final Condition signal;
+        boolean granted;
+
+        Waiter(double startTag, long sequence, Condition signal) {
+            this.startTag = startTag;
+            this.sequence = sequence;
+            this.signal = signal;
+        }
+
+        double startTag() {
+            return startTag;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.tfu.backend.upstream;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta llamadas bloqueantes con "hedging": si el primer intento no respondió
+ * cuando se alcanza el percentil configurado de la latencia reciente (p. ej.
+ * p90), se lanza otro intento en paralelo (y así hasta {@code maxAttempts}
+ * intentos simultáneos) y se devuelve el primer éxito.
+ *
+ * Los intentos extra están acotados por un presupuesto tipo token bucket: cada
+ * llamada aporta {@code budgetRatio} tokens (hasta {@code maxBudget}) y cada
+ * hedge consume uno, así la carga extra sobre el servicio externo no supera
+ * ~budgetRatio de las llamadas. Cada intento debe tener su propio timeout
+ * (p. ej. el read timeout del cliente HTTP).
+ */
+public class HedgedExecutor {
+
+    private static final int MIN_SAMPLES = 20;
+    /** Muestras nuevas entre dos cálculos del percentil */
+    private static final int RECOMPUTE_EVERY = 20;
+
+    private final Executor executor;
+    private final double percentile;
+    private final int maxAttempts;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final double budgetRatio;
+    private final double maxBudget;
+
+    /** Latencias de los intentos exitosos más recientes (buffer circular) */
+    private final long[] samples;
+    private int sampleCount;
+    private int nextSample;
+    private int sinceRecompute;
+    private volatile long hedgeDelayNanos;
+
+    private double budget;
+
+    private final LongAdder hedgesFired = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final LongAdder hedgesDenied = new LongAdder();
+
+    public HedgedExecutor(Executor executor, double percentile, int maxAttempts, long minDelayMillis,
+                          long maxDelayMillis, int window, double budgetRatio, double maxBudget) {
+        this.executor = executor;
+        this.percentile = percentile;
+        this.maxAttempts = maxAttempts;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.samples = new long[window];
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = maxBudget;
+        this.budget = maxBudget;
+        // Hasta tener suficientes muestras se espera el máximo antes de duplicar
+        this.hedgeDelayNanos = maxDelayNanos;
+    }
+
+    /**
+     * Ejecuta el intento y, cada vez que pasa el retardo de hedge sin respuesta, otro en paralelo.
+     *
+     * @return el resultado del primer intento exitoso
+     * @throws RuntimeException la excepción del último intento si todos fallan
+     */
+    public <T> T call(Supplier<T> attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        depositBudget();
+
+        launch(attempt, result, pending, false);
+        try {
+            for (int launched = 1; launched < maxAttempts; launched++) {
+                try {
+                    return result.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    if (!withdrawBudget()) {
+                        hedgesDenied.increment();
+                        break;
+                    }
+                    if (pending.incrementAndGet() == 1) {
+                        // Todos los intentos anteriores ya fallaron y completaron el resultado
+                        pending.decrementAndGet();
+                        refundBudget();
+                        break;
+                    }
+                    hedgesFired.increment();
+                    launch(attempt, result, pending, true);
+                }
+            }
+            return result.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for upstream", e);
+        }
+    }
+
+    public long getHedgeDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos);
+    }
+
+    public long getHedgesFired() {
+        return hedgesFired.sum();
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    public long getHedgesDenied() {
+        return hedgesDenied.sum();
+    }
+
+    private <T> void launch(Supplier<T> attempt, CompletableFuture<T> result, AtomicInteger pending, boolean hedge) {
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    T value = attempt.get();
+                    recordLatency(System.nanoTime() - start);
+                    if (result.complete(value) && hedge) {
+                        hedgesWon.increment();
+                    }
+                } catch (RuntimeException e) {
+                    if (pending.decrementAndGet() == 0) {
+                        result.completeExceptionally(e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        return e.getCause() instanceof RuntimeException runtime
+            ? runtime
+            : new IllegalStateException(e.getCause());
+    }
+
+    private synchronized void depositBudget() {
+        budget = Math.min(maxBudget, budget + budgetRatio);
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    /** Devuelve el token de un hedge que al final no se lanzó */
+    private synchronized void refundBudget() {
+        budget = Math.min(maxBudget, budget + 1);
+    }
+
+    /**
+     * Guarda la latencia y, cada {@link #RECOMPUTE_EVERY} muestras, recalcula el
+     * retardo de hedge. La copia se toma con el monitor; el orden, fuera de él.
+     */
+    private void recordLatency(long nanos) {
+        long[] sorted;
+        synchronized (this) {
+            samples[nextSample] = nanos;
+            nextSample = (nextSample + 1) % samples.length;
+            if (sampleCount < samples.length) {
+                sampleCount++;
+            }
+            if (++sinceRecompute < RECOMPUTE_EVERY || sampleCount < MIN_SAMPLES) {
+                return;
+            }
+            sinceRecompute = 0;
+            sorted = Arrays.copyOf(samples, sampleCount);
+        }
+
+        Arrays.sort(sorted);
+        long value = sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+        hedgeDelayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, value));
+    }
+}
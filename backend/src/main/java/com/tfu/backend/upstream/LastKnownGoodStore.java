@@ -0,0 +1,204 @@
+package com.tfu.backend.upstream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tfu.backend.common.StaleResponseAdvice;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Último valor bueno conocido de cada consulta a servicios externos.
+ *
+ * A diferencia de las cachés (que se vacían periódicamente para refrescar), este
+ * almacén conserva la última respuesta exitosa durante días para que los
+ * fallbacks puedan devolverla cuando el servicio externo no está disponible.
+ * Es un LRU acotado en memoria con volcado opcional a disco, que se recarga al
+ * arrancar. Leer un valor marca la respuesta HTTP actual como {@code stale}.
+ */
+@Component
+public class LastKnownGoodStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastKnownGoodStore.class);
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final Duration maxAge;
+    private final boolean diskEnabled;
+    private final Path diskPath;
+
+    /** LRU por orden de acceso; el valor es el objeto o, si vino de disco, su JSON */
+    private final LinkedHashMap<String, Entry> entries;
+    private boolean dirty;
+
+    public LastKnownGoodStore(
+            ObjectMapper objectMapper,
+            @Value("${last-known-good.max-entries:5000}") int maxEntries,
+            @Value("${last-known-good.max-age:7d}") Duration maxAge,
+            @Value("${last-known-good.disk.enabled:false}") boolean diskEnabled,
+            @Value("${last-known-good.disk.path:data/last-known-good.json}") Path diskPath) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.diskEnabled = diskEnabled;
+        this.diskPath = diskPath;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > LastKnownGoodStore.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Guarda el último valor bueno de una consulta. Los valores vacíos se ignoran
+     * para no pisar un resultado útil.
+     */
+    public void put(String key, Object value) {
+        if (value == null || (value instanceof java.util.Collection<?> c && c.isEmpty())) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(value, Instant.now()));
+            dirty = true;
+        }
+    }
+
+    /**
+     * Devuelve el último valor bueno de una consulta (si no superó la antigüedad
+     * máxima) y marca la respuesta actual como obsoleta.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> get(String key, TypeReference<T> type) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null || entry.storedAt().isBefore(Instant.now().minus(maxAge))) {
+            return Optional.empty();
+        }
+
+        Object value = entry.value();
+        if (value instanceof JsonNode json) {
+            try {
+                value = objectMapper.convertValue(json, type);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Discarding unreadable last-known-good entry {}: {}", key, e.getMessage());
+                synchronized (entries) {
+                    entries.remove(key);
+                }
+                return Optional.empty();
+            }
+            synchronized (entries) {
+                entries.replace(key, entry, new Entry(value, entry.storedAt()));
+            }
+        }
+
+        StaleResponseAdvice.markCurrentRequestStale();
+        return Optional.of((T) value);
+    }
+
+    /**
+     * Recarga el volcado de disco al arrancar.
+     */
+    @PostConstruct
+    public void load() {
+        if (!diskEnabled || !Files.exists(diskPath)) {
+            return;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(diskPath.toFile());
+            Instant oldest = Instant.now().minus(maxAge);
+            synchronized (entries) {
+                for (Map.Entry<String, JsonNode> field : root.properties()) {
+                    Instant storedAt = Instant.ofEpochMilli(field.getValue().path("storedAt").asLong());
+                    if (storedAt.isAfter(oldest)) {
+                        entries.put(field.getKey(), new Entry(field.getValue().get("value"), storedAt));
+                    }
+                }
+            }
+            logger.info("Loaded {} last-known-good entries from {}", entries.size(), diskPath);
+        } catch (IOException e) {
+            logger.warn("Could not load last-known-good snapshot from {}: {}", diskPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelca el contenido a disco si cambió desde el último volcado.
+     * Bajo el lock solo se copia el mapa; la serialización corre afuera para no
+     * frenar los put de las requests. Se escribe a un archivo temporal y se
+     * renombra para no dejar un volcado a medias.
+     */
+    @Scheduled(fixedDelayString = "${last-known-good.disk.flush-interval:30000}")
+    public void flush() {
+        if (!diskEnabled) {
+            return;
+        }
+
+        Map<String, Entry> snapshot;
+        synchronized (entries) {
+            if (!dirty) {
+                return;
+            }
+            snapshot = new LinkedHashMap<>(entries);
+            dirty = false;
+        }
+
+        Path tmp = null;
+        try {
+            ObjectNode root = objectMapper.createObjectNode();
+            snapshot.forEach((key, entry) -> {
+                ObjectNode node = root.putObject(key);
+                node.put("storedAt", entry.storedAt().toEpochMilli());
+                node.set("value", objectMapper.valueToTree(entry.value()));
+            });
+
+            Path parent = diskPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            tmp = Files.createTempFile(parent, "last-known-good", ".tmp");
+            objectMapper.writeValue(tmp.toFile(), root);
+            Files.move(tmp, diskPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not write last-known-good snapshot to {}: {}", diskPath, e.getMessage());
+            deleteQuietly(tmp);
+            synchronized (entries) {
+                dirty = true;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Could not delete temporary snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private record Entry(Object value, Instant storedAt) {
+    }
+}
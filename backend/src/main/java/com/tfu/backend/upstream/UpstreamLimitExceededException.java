@@ -0,0 +1,13 @@
+package com.tfu.backend.upstream;
+
+/**
+ * Se lanza cuando una llamada a un servicio externo no obtiene permiso del
+ * limitador de concurrencia dentro del tiempo máximo de espera.
+ * No indica un fallo del servicio externo, por eso los circuit breakers la ignoran.
+ */
+public class UpstreamLimitExceededException extends RuntimeException {
+
+    public UpstreamLimitExceededException(String message) {
+        super(message);
+    }
+}
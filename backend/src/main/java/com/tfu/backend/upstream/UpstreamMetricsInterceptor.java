@@ -0,0 +1,76 @@
+package com.tfu.backend.upstream;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Mide cada llamada HTTP saliente con el timer {@code upstream.requests}.
+ *
+ * Tags: {@code host}, {@code operation} (método y ruta con los IDs reemplazados
+ * por {id} para acotar la cardinalidad), {@code status} y {@code outcome}
+ * (SUCCESS, CLIENT_ERROR, SERVER_ERROR o IO_ERROR). Cada intento (reintento o
+ * hedge) se mide por separado y solo incluye el tiempo de red, no la espera en
+ * el limitador de concurrencia.
+ */
+@Component
+public class UpstreamMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String METRIC = "upstream.requests";
+
+    /** IDs de Spotify (base62, 22 caracteres), numéricos o UUID */
+    private static final Pattern ID_SEGMENT = Pattern.compile("[A-Za-z0-9]{16,}|\\d+|[0-9a-fA-F-]{36}");
+
+    private final MeterRegistry meterRegistry;
+
+    public UpstreamMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        String outcome = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int code = response.getStatusCode().value();
+            status = String.valueOf(code);
+            outcome = code >= 500 ? "SERVER_ERROR" : code >= 400 ? "CLIENT_ERROR" : "SUCCESS";
+            return response;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .description("Latencia de llamadas a servicios externos")
+                    .tag("host", String.valueOf(request.getURI().getHost()))
+                    .tag("operation", request.getMethod().name() + " " + operation(request.getURI().getPath()))
+                    .tag("status", status)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Ruta con los segmentos que parecen IDs reemplazados por {id}.
+     */
+    static String operation(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        StringBuilder operation = new StringBuilder(path.length());
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            operation.append('/').append(ID_SEGMENT.matcher(segment).matches() ? "{id}" : segment);
+        }
+        return operation.length() == 0 ? "/" : operation.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.tfu.backend.upstream;
+
+import io.micrometer.context.ContextRegistry;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Clase de prioridad de una llamada a un servicio externo (Spotify, yt-dlp).
+ * {@link AdaptiveConcurrencyLimiter} atiende siempre primero las interactivas y
+ * a las demás solo les deja una parte del límite.
+ *
+ * Igual que {@link UpstreamTenant}, vive en un ThreadLocal registrado en el
+ * {@link ContextRegistry}: una tarea lanzada dentro de {@link #call} hereda la
+ * prioridad. Sin prioridad explícita, una llamada hecha en nombre de una
+ * request es interactiva y una tarea de fondo sin tenant (refresco de catálogo,
+ * @Scheduled) es de fondo; ver {@link #resolve()}.
+ */
+public enum UpstreamPriority {
+
+    /** Alguien espera la respuesta (búsquedas, reproducción, streaming) */
+    INTERACTIVE,
+    /** Anticipa algo que probablemente se pida pronto (próximas canciones, autoplay) */
+    PREFETCH,
+    /** Refrescos y precalentado de cachés; puede esperar o descartarse */
+    BACKGROUND;
+
+    private static final ThreadLocal<UpstreamPriority> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance()
+            .registerThreadLocalAccessor("upstream.priority", CURRENT::get, CURRENT::set, CURRENT::remove);
+    }
+
+    /** Prioridad asignada explícitamente al hilo actual */
+    public static Optional<UpstreamPriority> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Prioridad efectiva del hilo actual: la explícita o, si no hay, interactiva
+     * cuando hay un {@link UpstreamTenant} de request y de fondo cuando no.
+     */
+    public static UpstreamPriority resolve() {
+        UpstreamPriority priority = CURRENT.get();
+        if (priority != null) {
+            return priority;
+        }
+        return UpstreamTenant.current().isPresent() ? INTERACTIVE : BACKGROUND;
+    }
+
+    /**
+     * Ejecuta {@code work} con esta prioridad y restaura la anterior al terminar.
+     */
+    public <T> T call(Supplier<T> work) {
+        UpstreamPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * @see #call(Supplier)
+     */
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+}
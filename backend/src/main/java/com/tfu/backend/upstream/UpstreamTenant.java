@@ -0,0 +1,37 @@
+package com.tfu.backend.upstream;
+
+import io.micrometer.context.ContextRegistry;
+
+import java.util.Optional;
+
+/**
+ * Tenant en nombre del cual se hace una llamada a un servicio externo, para
+ * repartir la capacidad de forma justa ({@link AdaptiveConcurrencyLimiter}).
+ *
+ * Vive en un ThreadLocal que se registra en el {@link ContextRegistry}, así que
+ * los executors con ContextPropagatingTaskDecorator (ver AsyncConfig) lo pasan a
+ * las tareas: una llamada a Spotify hecha desde el executor del reproductor
+ * sigue contando para el usuario que hizo la request.
+ */
+public record UpstreamTenant(String key, double weight) {
+
+    private static final ThreadLocal<UpstreamTenant> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance()
+            .registerThreadLocalAccessor("upstream.tenant", CURRENT::get, CURRENT::set, CURRENT::remove);
+    }
+
+    /** Tenant del hilo actual; vacío en tareas de fondo (prefetch, catálogo, token) */
+    public static Optional<UpstreamTenant> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static void set(UpstreamTenant tenant) {
+        CURRENT.set(tenant);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
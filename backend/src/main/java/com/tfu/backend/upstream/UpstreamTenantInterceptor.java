@@ -0,0 +1,59 @@
+package com.tfu.backend.upstream;
+
+import com.tfu.backend.common.ClientAddress;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Identifica el tenant de cada request para el reparto de la cuota de
+ * Spotify: el usuario autenticado o, si no hay, la IP del cliente según
+ * {@link ClientAddress}, que solo acepta X-Real-IP de los proxies
+ * configurados; un cliente directo no puede repartirse entre varios tenants
+ * falsificando el header.
+ */
+@Component
+public class UpstreamTenantInterceptor implements AsyncHandlerInterceptor {
+
+    private final ClientAddress clientAddress;
+    private final double userWeight;
+    private final double ipWeight;
+
+    public UpstreamTenantInterceptor(
+            ClientAddress clientAddress,
+            @Value("${spotify.limiter.fair.user-weight:2}") double userWeight,
+            @Value("${spotify.limiter.fair.ip-weight:1}") double ipWeight) {
+        this.clientAddress = clientAddress;
+        this.userWeight = userWeight;
+        this.ipWeight = ipWeight;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            UpstreamTenant.set(new UpstreamTenant("user:" + authentication.getName(), userWeight));
+        } else {
+            UpstreamTenant.set(new UpstreamTenant("ip:" + clientAddress.of(request), ipWeight));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        UpstreamTenant.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        UpstreamTenant.clear();
+    }
+}
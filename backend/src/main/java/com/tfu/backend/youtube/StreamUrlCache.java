@@ -0,0 +1,162 @@
+package com.tfu.backend.youtube;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * URLs de audio ya resueltas por yt-dlp, para no lanzar un proceso por cada
+ * reproducción de la misma canción.
+ *
+ * Las entradas las carga el prefetch del reproductor (canciones próximas en la
+ * cola) o la propia request de streaming. Si una request llega mientras el
+ * prefetch de esa canción sigue corriendo, espera ese mismo resultado en lugar
+ * de lanzar otro yt-dlp, a lo sumo lo que tardaría en resolverla ella misma
+ * ({@code youtube.yt-dlp.max-wait} más {@code youtube.yt-dlp.timeout}); si se
+ * pasa, la resuelve en la request. Las URLs de YouTube caducan, así que cada entrada vive
+ * {@code youtube.stream-url-cache.ttl}; los fallos no se guardan.
+ *
+ * Métrica {@code youtube.stream.prefetch{result}}: hit (ya resuelta), pending
+ * (resolviéndose, la request espera) y miss (yt-dlp en la request). El ratio de
+ * aciertos del prefetch es hit / total.
+ */
+@Component
+public class StreamUrlCache {
+
+    private final long ttlNanos;
+    private final long pendingWaitNanos;
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+
+    private final Counter hits;
+    private final Counter pending;
+    private final Counter misses;
+
+    public StreamUrlCache(
+            MeterRegistry meterRegistry,
+            @Value("${youtube.stream-url-cache.ttl:30m}") Duration ttl,
+            @Value("${youtube.stream-url-cache.max-entries:1000}") int maxEntries,
+            @Value("${youtube.yt-dlp.max-wait:10s}") Duration processWait,
+            @Value("${youtube.yt-dlp.timeout:30s}") Duration processTimeout) {
+        this.ttlNanos = ttl.toNanos();
+        this.pendingWaitNanos = processWait.plus(processTimeout).toNanos();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > StreamUrlCache.this.maxEntries;
+            }
+        };
+        this.hits = lookups(meterRegistry, "hit");
+        this.pending = lookups(meterRegistry, "pending");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    /**
+     * URL de audio para la request de streaming: la precargada si existe (o su
+     * resolución en curso); si no, la resuelve en el hilo actual.
+     *
+     * @param resolver ejecuta yt-dlp; devuelve null si no encontró audio
+     */
+    public String get(String key, Callable<String> resolver) throws Exception {
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null || entry.isExpired()) {
+                entry = new Entry(new CompletableFuture<>(), System.nanoTime() + ttlNanos);
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            misses.increment();
+            return resolve(key, entry, resolver);
+        }
+        (entry.url().isDone() ? hits : pending).increment();
+        try {
+            String url = entry.url().get(pendingWaitNanos, TimeUnit.NANOSECONDS);
+            return url != null ? url : resolve(key, renew(key, entry), resolver);
+        } catch (ExecutionException | TimeoutException e) {
+            // El prefetch falló o no termina: se reintenta en la request
+            return resolve(key, renew(key, entry), resolver);
+        }
+    }
+
+    /**
+     * Resuelve y guarda la URL en el hilo actual (el de prefetch), salvo que ya
+     * esté vigente o resolviéndose.
+     */
+    public void prefetch(String key, Callable<String> resolver) {
+        Entry entry;
+        synchronized (entries) {
+            Entry existing = entries.get(key);
+            if (existing != null && !existing.isExpired()) {
+                return;
+            }
+            entry = new Entry(new CompletableFuture<>(), System.nanoTime() + ttlNanos);
+            entries.put(key, entry);
+        }
+        try {
+            resolve(key, entry, resolver);
+        } catch (Exception e) {
+            // Ya quedó registrado en la entrada; la request reintenta
+        }
+    }
+
+    private String resolve(String key, Entry entry, Callable<String> resolver) throws Exception {
+        try {
+            String url = resolver.call();
+            if (url == null) {
+                remove(key, entry);
+            }
+            entry.url().complete(url);
+            return url;
+        } catch (Throwable e) {
+            // También con Errors: quien espera la entrada no debe quedar colgado
+            remove(key, entry);
+            entry.url().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** Reemplaza una entrada fallida por una nueva que resuelve la request actual */
+    private Entry renew(String key, Entry failed) {
+        Entry entry = new Entry(new CompletableFuture<>(), System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            entries.remove(key, failed);
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private void remove(String key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("youtube.stream.prefetch").tag("result", result)
+            .description("Resoluciones de audio para streaming según si la URL ya estaba precargada")
+            .register(meterRegistry);
+    }
+
+    private record Entry(CompletableFuture<String> url, long expiresAt) {
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
@@ -1,11 +1,35 @@
 package com.tfu.backend.youtube;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import com.tfu.backend.upstream.AdaptiveConcurrencyLimiter;
+import com.tfu.backend.upstream.UpstreamLimitExceededException;
+import com.tfu.backend.upstream.UpstreamPriority;
+import com.tfu.backend.upstream.UpstreamTenant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -18,6 +42,64 @@ import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBo
 @RequestMapping("/api/youtube")
 public class YoutubeService {
 
+    private static final Logger logger = LoggerFactory.getLogger(YoutubeService.class);
+    private static final UpstreamTenant SYSTEM_TENANT = new UpstreamTenant("system", 1);
+
+    /** Ejecutable de yt-dlp (en pruebas de carga se reemplaza por loadtest/fake-yt-dlp) */
+    @Value("${youtube.yt-dlp.path:yt-dlp}")
+    private String ytDlpPath;
+
+    private final ObservationRegistry observationRegistry;
+    private final StreamUrlCache streamUrls;
+    private final long processTimeoutNanos;
+    private final Timer spawnTime;
+    private final Counter streamBytes;
+    private final DistributionSummary streamThroughput;
+    /**
+     * Procesos de yt-dlp simultáneos: fijo, con prioridad (las requests antes
+     * que el prefetch) y reparto justo entre tenants como en Spotify.
+     */
+    private final AdaptiveConcurrencyLimiter processes;
+
+    /**
+     * @param maxConcurrent yt-dlp simultáneos como máximo
+     * @param prefetchShare fracción de ellos que puede ocupar el prefetch
+     * @param processTimeout duración máxima de un yt-dlp; al vencer se mata
+     */
+    public YoutubeService(MeterRegistry meterRegistry, ObservationRegistry observationRegistry,
+                          StreamUrlCache streamUrls,
+                          @Value("${youtube.yt-dlp.max-concurrent:8}") int maxConcurrent,
+                          @Value("${youtube.yt-dlp.max-wait:10s}") Duration maxWait,
+                          @Value("${youtube.yt-dlp.max-queue:100}") int maxQueue,
+                          @Value("${youtube.yt-dlp.prefetch-share:0.5}") double prefetchShare,
+                          @Value("${youtube.yt-dlp.timeout:30s}") Duration processTimeout) {
+        this.observationRegistry = observationRegistry;
+        this.streamUrls = streamUrls;
+        this.processTimeoutNanos = processTimeout.toNanos();
+        this.processes = new AdaptiveConcurrencyLimiter(maxConcurrent, maxConcurrent, maxConcurrent, 1,
+                maxWait.toMillis(), maxWait.toMillis(), maxQueue, maxQueue, prefetchShare, prefetchShare);
+        Gauge.builder("ytdlp.limiter.inflight", processes, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Procesos de yt-dlp en curso")
+                .register(meterRegistry);
+        for (UpstreamPriority priority : UpstreamPriority.values()) {
+            Gauge.builder("ytdlp.limiter.queue.depth", processes, l -> l.getQueueDepth(priority))
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .description("Resoluciones de yt-dlp esperando un proceso libre por prioridad")
+                    .register(meterRegistry);
+        }
+        this.spawnTime = Timer.builder("ytdlp.spawn")
+                .description("Tiempo en crear el proceso de yt-dlp")
+                .register(meterRegistry);
+        this.streamBytes = Counter.builder("youtube.stream.bytes")
+                .baseUnit("bytes")
+                .description("Bytes de audio enviados por el proxy de streaming (rate = bytes/s)")
+                .register(meterRegistry);
+        this.streamThroughput = DistributionSummary.builder("youtube.stream.throughput")
+                .baseUnit("bytes/s")
+                .description("Velocidad media de cada stream de audio al terminar")
+                .register(meterRegistry);
+    }
+
     // endpoint para conseguir audio de youtube
     @GetMapping("/audio")
     public ResponseEntity<String> getAudioURL(@RequestParam String name, @RequestParam String artist) {
@@ -25,8 +107,7 @@ public class YoutubeService {
             // Crear query más específica para audio/música
             String query = String.format("ytsearch5:\"%s\" \"%s\" audio OR music OR album OR song", name, artist);
     
-            ProcessBuilder pb = new ProcessBuilder(
-                "yt-dlp",
+            String url = runYtDlp("search",
                 "-f", "bestaudio[ext=webm]/bestaudio[ext=m4a]/bestaudio", // Preferir formatos web
                 "--get-url",
                 "-q",
@@ -36,18 +117,13 @@ public class YoutubeService {
                 "--audio-quality", "0", // Mejor calidad de audio
                 query
         );
-        Process proc = pb.start();
-        String url;
-        try (BufferedReader out = new BufferedReader(new InputStreamReader(proc.getInputStream()))) {
-            url = out.readLine();
-        }
-
-        int exit = proc.waitFor();
-        if (exit != 0 || url == null || !url.startsWith("https")) {
+        if (url == null || !url.startsWith("https")) {
             // Si falla la búsqueda específica, intentar búsqueda más simple
             return trySimpleSearch(name, artist);
         }
         return ResponseEntity.ok(url);
+    } catch (UpstreamLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("yt-dlp saturado: " + e.getMessage());
     } catch (Exception e) {
         return ResponseEntity.status(500).body("Fallo yt-dlp: " + e.getMessage());
     }
@@ -58,8 +134,7 @@ public class YoutubeService {
         try {
             String simpleQuery = String.format("ytsearch1:%s %s", name, artist);
             
-            ProcessBuilder pb = new ProcessBuilder(
-                "yt-dlp",
+            String url = runYtDlp("simple",
                 "-f", "bestaudio",
                 "--get-url",
                 "-q",
@@ -67,14 +142,7 @@ public class YoutubeService {
                 "--no-progress",
                 simpleQuery
             );
-            Process proc = pb.start();
-            String url;
-            try (BufferedReader out = new BufferedReader(new InputStreamReader(proc.getInputStream()))) {
-                url = out.readLine();
-            }
-
-            int exit = proc.waitFor();
-            if (exit != 0 || url == null || !url.startsWith("https")) {
+            if (url == null || !url.startsWith("https")) {
                 return ResponseEntity.status(502).body("No se pudo encontrar audio para la canción solicitada.");
             }
             return ResponseEntity.ok(url);
@@ -92,26 +160,9 @@ public class YoutubeService {
             @RequestParam String name, 
             @RequestParam String artist) {
         try {
-            // First get the audio URL from yt-dlp
-            String query = String.format("ytsearch1:\"%s\" \"%s\"", name, artist);
-            
-            ProcessBuilder pb = new ProcessBuilder(
-                "yt-dlp",
-                "-f", "bestaudio[ext=webm]/bestaudio[ext=m4a]/bestaudio",
-                "--get-url",
-                "-q",
-                "--no-warnings",
-                "--no-progress",
-                query
-            );
-            Process proc = pb.start();
-            String audioUrl;
-            try (BufferedReader out = new BufferedReader(new InputStreamReader(proc.getInputStream()))) {
-                audioUrl = out.readLine();
-            }
-
-            int exit = proc.waitFor();
-            if (exit != 0 || audioUrl == null || !audioUrl.startsWith("https")) {
+            // First get the audio URL (prefetched by the player when possible)
+            String audioUrl = streamUrls.get(streamKey(name, artist), () -> resolveStreamUrl(name, artist));
+            if (audioUrl == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
 
@@ -141,15 +192,24 @@ public class YoutubeService {
 
             // Stream the content
             StreamingResponseBody stream = outputStream -> {
+                long start = System.nanoTime();
+                long total = 0;
                 try (InputStream inputStream = connection.getInputStream()) {
                     byte[] buffer = new byte[8192];
                     int bytesRead;
                     while ((bytesRead = inputStream.read(buffer)) != -1) {
                         outputStream.write(buffer, 0, bytesRead);
                         outputStream.flush();
+                        streamBytes.increment(bytesRead);
+                        total += bytesRead;
                     }
                 } catch (Exception e) {
-                    System.err.println("Error streaming audio: " + e.getMessage());
+                    logger.warn("Error streaming audio: {}", e.getMessage());
+                } finally {
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    if (total > 0 && seconds > 0) {
+                        streamThroughput.record(total / seconds);
+                    }
                 }
             };
 
@@ -157,9 +217,109 @@ public class YoutubeService {
                     .headers(headers)
                     .body(stream);
 
+        } catch (UpstreamLimitExceededException e) {
+            logger.warn("No yt-dlp capacity for stream: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
-            System.err.println("Error in stream endpoint: " + e.getMessage());
+            logger.error("Error in stream endpoint: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * Resuelve por adelantado la URL de audio que usará /stream para una
+     * canción (ver {@link StreamUrlCache}). Corre en el hilo que la llama.
+     */
+    public void prefetchStreamUrl(String name, String artist) {
+        streamUrls.prefetch(streamKey(name, artist), () -> resolveStreamUrl(name, artist));
+    }
+
+    /**
+     * URL de audio de yt-dlp para /stream, o null si no encontró una utilizable.
+     */
+    private String resolveStreamUrl(String name, String artist) throws IOException, InterruptedException {
+        String query = String.format("ytsearch1:\"%s\" \"%s\"", name, artist);
+        String audioUrl = runYtDlp("stream",
+            "-f", "bestaudio[ext=webm]/bestaudio[ext=m4a]/bestaudio",
+            "--get-url",
+            "-q",
+            "--no-warnings",
+            "--no-progress",
+            query
+        );
+        return audioUrl != null && audioUrl.startsWith("https") ? audioUrl : null;
+    }
+
+    private static String streamKey(String name, String artist) {
+        return name + '\u0000' + artist;
+    }
+
+    /**
+     * Ejecuta yt-dlp y devuelve la primera línea de salida, o null si terminó con
+     * error o no terminó en {@code youtube.yt-dlp.timeout} (el proceso se mata). Mide la creación del proceso (ytdlp.spawn) y la ejecución completa
+     * como observación ytdlp.process (timer por modo y resultado, y span).
+     * Antes espera un proceso libre según la {@link UpstreamPriority} del hilo.
+     *
+     * @throws UpstreamLimitExceededException si no hubo proceso libre a tiempo
+     */
+    private String runYtDlp(String mode, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(args.length + 1);
+        command.add(ytDlpPath);
+        command.addAll(Arrays.asList(args));
+
+        UpstreamTenant tenant = UpstreamTenant.current().orElse(SYSTEM_TENANT);
+        processes.acquire(tenant.key(), tenant.weight(), UpstreamPriority.resolve());
+        try {
+            return runProcess(mode, command);
+        } finally {
+            processes.onIgnored();
+        }
+    }
+
+    private String runProcess(String mode, List<String> command) throws IOException, InterruptedException {
+
+        Observation observation = Observation.createNotStarted("ytdlp.process", observationRegistry)
+                .contextualName("yt-dlp " + mode)
+                .lowCardinalityKeyValue("mode", mode)
+                .start();
+        String outcome = "failure";
+        try (Observation.Scope scope = observation.openScope()) {
+            long start = System.nanoTime();
+            Process proc = new ProcessBuilder(command).start();
+            spawnTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            // Matarlo al vencer también desbloquea la lectura de su salida
+            CompletableFuture<Process> deadline = proc.onExit()
+                    .orTimeout(processTimeoutNanos, TimeUnit.NANOSECONDS)
+                    .whenComplete((exited, timeout) -> {
+                        if (timeout != null) {
+                            proc.destroyForcibly();
+                        }
+                    });
+
+            String line;
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(proc.getInputStream()))) {
+                line = out.readLine();
+            }
+            long remaining = processTimeoutNanos - (System.nanoTime() - start);
+            if (!proc.waitFor(remaining, TimeUnit.NANOSECONDS) || deadline.isCompletedExceptionally()) {
+                proc.destroyForcibly();
+                outcome = "timeout";
+                observation.event(Observation.Event.of("ytdlp.timeout", "yt-dlp killed after timeout"));
+                return null;
+            }
+            int exit = proc.exitValue();
+            if (exit != 0) {
+                observation.event(Observation.Event.of("ytdlp.exit", "yt-dlp exited with " + exit));
+                return null;
+            }
+            outcome = "success";
+            return line;
+        } catch (IOException | RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.lowCardinalityKeyValue("outcome", outcome).stop();
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package com.tfu.backend.auth;
+
+import com.tfu.backend.common.ApiResponse;
+import com.tfu.backend.common.ClientAddress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Respuesta 429 con Retry-After del login cuando se agotan los intentos, sin
+ * llegar a validar las credenciales.
+ */
+class AuthControllerTest {
+
+  private final AuthService authService = mock(AuthService.class);
+  private final JwtService jwtService = mock(JwtService.class);
+  private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+
+  private final AuthController controller = new AuthController(authService, jwtService, userDetailsService,
+      LoginRateLimiterTest.limiter(LoginRateLimiterTest.limit(1, Duration.ofMinutes(1)),
+          LoginRateLimiterTest.limit(10, Duration.ofMinutes(1)), 100, new SimpleMeterRegistry()),
+      new ClientAddress(new String[] {"127.0.0.1/32"}));
+
+  AuthControllerTest() {
+    when(authService.login(anyString(), anyString())).thenReturn("ana@example.com");
+    when(userDetailsService.loadUserByUsername(anyString())).thenReturn(mock(UserDetails.class));
+    when(jwtService.createToken(any(UserDetails.class))).thenReturn("token");
+  }
+
+  private static MockHttpServletRequest request(String remoteAddr) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+    request.setRemoteAddr(remoteAddr);
+    return request;
+  }
+
+  @Test
+  void tooManyAttemptsAnswer429WithRetryAfter() {
+    LoginRequest login = new LoginRequest("ana@example.com", "password123");
+    assertEquals(HttpStatus.OK, controller.login(login, request("203.0.113.7")).getStatusCode());
+
+    ResponseEntity<ApiResponse<TokenResponse>> rejected = controller.login(login, request("203.0.113.8"));
+
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+    assertEquals("60", rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    verify(authService, times(1)).login(anyString(), anyString());
+  }
+}
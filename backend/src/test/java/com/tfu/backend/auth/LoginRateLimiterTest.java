@@ -0,0 +1,102 @@
+package com.tfu.backend.auth;
+
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Límites por cuenta y por IP independientes entre sí, y el LRU que acota
+ * cuántos limitadores se guardan.
+ */
+class LoginRateLimiterTest {
+
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+  static RateLimiterConfig limit(int attempts, Duration period) {
+    return RateLimiterConfig.custom()
+        .limitForPeriod(attempts)
+        .limitRefreshPeriod(period)
+        .timeoutDuration(Duration.ZERO)
+        .build();
+  }
+
+  static LoginRateLimiter limiter(RateLimiterConfig account, RateLimiterConfig ip, int maxKeys,
+      SimpleMeterRegistry meters) {
+    RateLimiterRegistry registry = RateLimiterRegistry.ofDefaults();
+    registry.rateLimiter("loginLimiter", account);
+    registry.rateLimiter("loginIpLimiter", ip);
+    return new LoginRateLimiter(registry, meters, maxKeys);
+  }
+
+  private LoginRateLimiter limiter(int perAccount, int perIp, int maxKeys) {
+    return limiter(limit(perAccount, Duration.ofMinutes(1)), limit(perIp, Duration.ofMinutes(1)),
+        maxKeys, meters);
+  }
+
+  private double rejected(String scope) {
+    return meters.get("auth.login.rejected").tag("scope", scope).counter().count();
+  }
+
+  @Test
+  void accountLimitDoesNotAffectOtherAccounts() {
+    LoginRateLimiter limiter = limiter(3, 100, 100);
+    for (int i = 0; i < 3; i++) {
+      limiter.acquire("ana@example.com", "10.0.0." + i);
+    }
+
+    assertThrows(RequestNotPermitted.class, () -> limiter.acquire("ana@example.com", "10.0.0.9"));
+    assertDoesNotThrow(() -> limiter.acquire("beto@example.com", "10.0.0.9"));
+    assertEquals(1, rejected("account"));
+    assertEquals(0, rejected("ip"));
+  }
+
+  @Test
+  void emailIsComparedIgnoringCaseAndSpaces() {
+    LoginRateLimiter limiter = limiter(1, 100, 100);
+    limiter.acquire("ana@example.com", "10.0.0.1");
+
+    assertThrows(RequestNotPermitted.class, () -> limiter.acquire(" Ana@Example.com ", "10.0.0.2"));
+  }
+
+  @Test
+  void ipLimitCoversEveryAccountFromThatIp() {
+    LoginRateLimiter limiter = limiter(100, 3, 100);
+    for (int i = 0; i < 3; i++) {
+      limiter.acquire("user" + i + "@example.com", "203.0.113.7");
+    }
+
+    assertThrows(RequestNotPermitted.class, () -> limiter.acquire("otro@example.com", "203.0.113.7"));
+    assertDoesNotThrow(() -> limiter.acquire("otro@example.com", "203.0.113.8"));
+    assertEquals(1, rejected("ip"));
+    assertEquals(0, rejected("account"));
+  }
+
+  @Test
+  void leastRecentlyUsedLimitersAreEvicted() {
+    // Cada intento usa dos claves (IP y cuenta): con 2 entra un solo cliente
+    LoginRateLimiter limiter = limiter(1, 100, 2);
+    limiter.acquire("ana@example.com", "10.0.0.1");
+    assertThrows(RequestNotPermitted.class, () -> limiter.acquire("ana@example.com", "10.0.0.1"));
+
+    limiter.acquire("beto@example.com", "10.0.0.2");
+
+    // El limitador de ana se descartó y empieza de nuevo
+    assertDoesNotThrow(() -> limiter.acquire("ana@example.com", "10.0.0.1"));
+  }
+
+  @Test
+  void retryAfterCoversTheLongestPeriod() {
+    LoginRateLimiter limiter = limiter(limit(5, Duration.ofMinutes(1)), limit(30, Duration.ofMinutes(2)),
+        100, meters);
+
+    assertEquals(120, limiter.retryAfterSeconds());
+  }
+}
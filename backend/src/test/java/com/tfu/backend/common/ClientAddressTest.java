@@ -0,0 +1,54 @@
+package com.tfu.backend.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * X-Real-IP solo se acepta de los proxies configurados; cualquier otro peer,
+ * también uno de la red local, se identifica por su propia IP.
+ */
+class ClientAddressTest {
+
+  private static MockHttpServletRequest request(String remoteAddr, String realIp) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setRemoteAddr(remoteAddr);
+    if (realIp != null) {
+      request.addHeader("X-Real-IP", realIp);
+    }
+    return request;
+  }
+
+  @Test
+  void headerFromTheConfiguredProxyIsUsed() {
+    ClientAddress address = new ClientAddress(new String[] {"172.28.0.10/32"});
+
+    assertEquals("203.0.113.7", address.of(request("172.28.0.10", " 203.0.113.7 ")));
+  }
+
+  @Test
+  void headerFromAnotherLocalPeerIsIgnored() {
+    ClientAddress address = new ClientAddress(new String[] {"172.28.0.10/32"});
+
+    assertEquals("192.168.1.50", address.of(request("192.168.1.50", "203.0.113.7")));
+    assertEquals("172.28.0.11", address.of(request("172.28.0.11", "203.0.113.7")));
+  }
+
+  @Test
+  void proxiesCanBeGivenAsRanges() {
+    ClientAddress address = new ClientAddress(new String[] {"10.0.0.0/8", " ", "::1/128"});
+
+    assertEquals("203.0.113.7", address.of(request("10.20.30.40", "203.0.113.7")));
+    assertEquals("203.0.113.8", address.of(request("0:0:0:0:0:0:0:1", "203.0.113.8")));
+    assertEquals("11.0.0.1", address.of(request("11.0.0.1", "203.0.113.7")));
+  }
+
+  @Test
+  void missingOrBlankHeaderFallsBackToThePeer() {
+    ClientAddress address = new ClientAddress(new String[] {"127.0.0.1/32"});
+
+    assertEquals("127.0.0.1", address.of(request("127.0.0.1", null)));
+    assertEquals("127.0.0.1", address.of(request("127.0.0.1", "  ")));
+  }
+}
@@ -0,0 +1,185 @@
+package com.tfu.backend.common;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Invalidación de las respuestas guardadas a través del índice inverso de
+ * dependencias, y de las que se estaban armando cuando cambió una dependencia.
+ */
+class ResponseBytesCacheTest {
+
+  private ResponseBytesCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new ResponseBytesCache(new SimpleMeterRegistry(), true, 3, false, 1024);
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  /** Simula una request que lee las claves dadas ("cache:key") y guarda su respuesta */
+  private void store(String responseKey, String... reads) {
+    startRequest(reads);
+    finishRequest(responseKey);
+  }
+
+  /** Empieza una request en el hilo actual y anota las lecturas */
+  private void startRequest(String... reads) {
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    cache.startRecording();
+    for (String read : reads) {
+      String[] parts = read.split(":", 2);
+      cache.onRead(parts[0], parts[1]);
+    }
+  }
+
+  private void finishRequest(String responseKey) {
+    cache.put(responseKey, responseKey.getBytes(StandardCharsets.UTF_8), "application/json", "\"" + responseKey + "\"");
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  /** Invalidación hecha por otra request, fuera del contexto de la actual */
+  private void writeFromAnotherRequest(String cacheName, String key) {
+    RequestAttributes current = RequestContextHolder.getRequestAttributes();
+    RequestContextHolder.resetRequestAttributes();
+    if (key != null) {
+      cache.onWrite(cacheName, key);
+    } else {
+      cache.onClear(cacheName);
+    }
+    RequestContextHolder.setRequestAttributes(current);
+  }
+
+  @Test
+  void writingAKeyDropsOnlyTheResponsesThatReadIt() {
+    store("/a", "tracks:1", "artists:9");
+    store("/b", "tracks:2");
+
+    cache.onWrite("tracks", "1");
+
+    assertNull(cache.get("/a"));
+    assertNotNull(cache.get("/b"));
+  }
+
+  @Test
+  void clearingACacheDropsEveryResponseThatReadFromIt() {
+    store("/a", "tracks:1");
+    store("/b", "tracks:2");
+    store("/c", "artists:9");
+
+    cache.onClear("tracks");
+
+    assertNull(cache.get("/a"));
+    assertNull(cache.get("/b"));
+    assertNotNull(cache.get("/c"));
+  }
+
+  @Test
+  void responsesWithoutDependenciesAreNotStored() {
+    store("/a");
+
+    assertNull(cache.get("/a"));
+  }
+
+  @Test
+  void replacingAResponseForgetsItsOldDependencies() {
+    store("/a", "tracks:1");
+    store("/a", "tracks:2");
+
+    cache.onWrite("tracks", "1");
+    assertNotNull(cache.get("/a"));
+
+    cache.onWrite("tracks", "2");
+    assertNull(cache.get("/a"));
+  }
+
+  @Test
+  void evictedResponsesLeaveTheIndex() {
+    store("/a", "tracks:1");
+    store("/b", "tracks:2");
+    store("/c", "tracks:3");
+    store("/d", "tracks:4");
+    assertNull(cache.get("/a"));
+
+    // /a vuelve con otra dependencia: la vieja ya no la invalida
+    store("/a", "artists:9");
+    cache.onWrite("tracks", "1");
+    assertNotNull(cache.get("/a"));
+  }
+
+  @Test
+  void responseBuiltWhileADependencyChangedIsNotStored() {
+    startRequest("tracks:1", "artists:9");
+    writeFromAnotherRequest("tracks", "1");
+    finishRequest("/a");
+
+    assertNull(cache.get("/a"));
+  }
+
+  @Test
+  void changesToOtherKeysDoNotBlockThePut() {
+    startRequest("tracks:1");
+    writeFromAnotherRequest("tracks", "2");
+    writeFromAnotherRequest("artists", "9");
+    finishRequest("/a");
+
+    assertNotNull(cache.get("/a"));
+  }
+
+  @Test
+  void clearingTheCacheWhileBuildingBlocksThePut() {
+    startRequest("tracks:1");
+    writeFromAnotherRequest("tracks", null);
+    finishRequest("/a");
+
+    assertNull(cache.get("/a"));
+  }
+
+  @Test
+  void theRequestsOwnCacheFillDoesNotBlockThePut() {
+    // Miss seguido del put de @Cacheable en la misma request
+    startRequest("tracks:1");
+    cache.onWrite("tracks", "1");
+    finishRequest("/a");
+
+    assertNotNull(cache.get("/a"));
+  }
+
+  @Test
+  void anotherWriteAfterTheOwnFillStillBlocksThePut() {
+    startRequest("tracks:1");
+    cache.onWrite("tracks", "1");
+    writeFromAnotherRequest("tracks", "1");
+    finishRequest("/a");
+
+    assertNull(cache.get("/a"));
+  }
+
+  @Test
+  void forgottenInvalidationsStillBlockTheirCache() {
+    startRequest("tracks:1");
+    writeFromAnotherRequest("tracks", "1");
+    // Más invalidaciones que maxEntries: la de tracks:1 sale del registro por clave
+    for (int i = 0; i < 5; i++) {
+      writeFromAnotherRequest("artists", Integer.toString(i));
+    }
+    finishRequest("/a");
+
+    assertNull(cache.get("/a"));
+  }
+}
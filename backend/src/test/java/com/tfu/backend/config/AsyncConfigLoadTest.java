@@ -0,0 +1,158 @@
+package com.tfu.backend.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tfu.backend.loadtest.LoadTestStats.percentile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Prueba de carga que compara los modos de ejecución del executor de la aplicación
+ * con 1000 llamadas concurrentes a un upstream lento (1 s por respuesta por
+ * defecto, configurable con -Dloadtest.upstream-delay-ms). Cada modo usa el
+ * RestTemplate que AppConfig crea para ese modo.
+ *
+ * Ejecutar con: mvn -Pload-test test -Dtest=AsyncConfigLoadTest
+ * (el modo virtual se omite si la JVM es anterior a Java 21). Cliente y upstream
+ * comparten la JVM, así que con pocos núcleos el CPU acota los resultados.
+ */
+@Tag("load")
+class AsyncConfigLoadTest {
+
+  private static final int CONCURRENT_CALLS = 1000;
+  private static final int UPSTREAM_DELAY_MS = Integer.getInteger("loadtest.upstream-delay-ms", 1000);
+
+  private static HttpServer upstream;
+  private static ExecutorService upstreamExecutor;
+  private static String upstreamUrl;
+
+  @BeforeAll
+  static void startSlowUpstream() throws Exception {
+    upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CONCURRENT_CALLS * 2);
+    upstream.createContext("/slow", exchange -> {
+      try {
+        Thread.sleep(UPSTREAM_DELAY_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    upstreamExecutor = Executors.newCachedThreadPool();
+    upstream.setExecutor(upstreamExecutor);
+    upstream.start();
+    upstreamUrl = "http://127.0.0.1:" + upstream.getAddress().getPort() + "/slow";
+
+    // Calentamiento: JIT del cliente/servidor y creación de hilos del upstream
+    ThreadPoolTaskExecutor warmup = new ThreadPoolTaskExecutor();
+    warmup.setCorePoolSize(CONCURRENT_CALLS);
+    warmup.initialize();
+    new AsyncConfigLoadTest().run("warmup", warmup, false);
+  }
+
+  @AfterAll
+  static void stopSlowUpstream() {
+    upstream.stop(0);
+    upstreamExecutor.shutdownNow();
+  }
+
+  @Test
+  void boundedPlatformPool() throws Exception {
+    run("platform (5-10 hilos, cola 100)", AsyncConfig.createTaskExecutor(false), false);
+  }
+
+  @Test
+  void tomcatSizedPlatformPool() throws Exception {
+    // Equivalente al pool por defecto de Tomcat (200 hilos) sin rechazo
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(200);
+    executor.setMaxPoolSize(200);
+    executor.setThreadNamePrefix("tomcat-like-");
+    executor.initialize();
+    run("platform (200 hilos, estilo Tomcat)", executor, false);
+  }
+
+  @Test
+  void virtualThreads() throws Exception {
+    assumeTrue(Runtime.version().feature() >= 21, "Los hilos virtuales requieren Java 21");
+
+    Result result = run("virtual (hilo por tarea)", AsyncConfig.createTaskExecutor(true), true);
+
+    assertEquals(0, result.rejected());
+    assertEquals(CONCURRENT_CALLS, result.completed());
+  }
+
+  private Result run(String mode, AsyncTaskExecutor executor, boolean virtualThreads) throws Exception {
+    RestTemplate restTemplate = AppConfig.createRestTemplate(virtualThreads);
+    List<Long> latencies = Collections.synchronizedList(new ArrayList<>(CONCURRENT_CALLS));
+    AtomicInteger rejected = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+    List<CompletableFuture<Void>> futures = new ArrayList<>(CONCURRENT_CALLS);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < CONCURRENT_CALLS; i++) {
+      long submittedAt = System.nanoTime();
+      try {
+        futures.add(CompletableFuture.runAsync(() -> {
+          try {
+            restTemplate.getForObject(upstreamUrl, String.class);
+            latencies.add(System.nanoTime() - submittedAt);
+          } catch (RuntimeException e) {
+            failed.incrementAndGet();
+          }
+        }, executor));
+      } catch (RejectedExecutionException e) {
+        rejected.incrementAndGet();
+      }
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(2, TimeUnit.MINUTES);
+    double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+    shutdown(executor);
+
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    Result result = new Result(sorted.size(), rejected.get(), failed.get(),
+        sorted.size() / wallSeconds, percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6);
+
+    System.out.printf("%-36s completed=%4d rejected=%4d failed=%3d throughput=%7.1f req/s p50=%6.1f ms p99=%6.1f ms%n",
+        mode, result.completed(), result.rejected(), result.failed(),
+        result.throughput(), result.p50Ms(), result.p99Ms());
+    return result;
+  }
+
+  private static void shutdown(AsyncTaskExecutor executor) throws Exception {
+    if (executor instanceof DisposableBean disposable) {
+      disposable.destroy();
+    } else if (executor instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+
+  private record Result(int completed, int rejected, int failed, double throughput, double p50Ms, double p99Ms) {
+  }
+}
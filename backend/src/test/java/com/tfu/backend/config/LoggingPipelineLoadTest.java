@@ -0,0 +1,153 @@
+package com.tfu.backend.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Benchmark del costo de logging por request en SpotifyService: System.out
+ * (como antes) frente a SLF4J con JSON estructurado síncrono y frente al
+ * pipeline de logback-spring.xml (AsyncAppender + muestreo de líneas SAMPLED).
+ * Cada "request" hace un poco de trabajo y emite las mismas 4 líneas que una
+ * búsqueda en SpotifyService. La salida va a un archivo temporal.
+ *
+ * Ejecutar con: mvn -Pload-test test -Dtest=LoggingPipelineLoadTest
+ */
+@Tag("load")
+class LoggingPipelineLoadTest {
+
+  private static final int THREADS = 32;
+  private static final int REQUESTS_PER_THREAD = 5_000;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void compareLoggingPipelines() throws Exception {
+    // Antes: System.out (PrintStream sincronizado, flush por línea)
+    try (PrintStream out = new PrintStream(
+        new BufferedOutputStream(new FileOutputStream(tempDir.resolve("stdout.log").toFile()), 8192), true)) {
+      run("System.out.println", i -> {
+        String query = "query" + i;
+        out.println("Searching tracks for: " + query + " with limit: " + 20);
+        out.println("Making search request to: " + url(query));
+        out.println("Response status: 200 OK");
+        out.println("Found " + 20 + " tracks for query: " + query);
+      });
+    }
+
+    runSlf4j("SLF4J JSON síncrono, DEBUG", false, Level.DEBUG, 1);
+    runSlf4j("SLF4J JSON async + muestreo 1/100, DEBUG", true, Level.DEBUG, 100);
+    runSlf4j("SLF4J JSON async, INFO (producción)", true, Level.INFO, 100);
+  }
+
+  private void runSlf4j(String mode, boolean async, Level level, int sampleRate) throws Exception {
+    LoggerContext context = new LoggerContext();
+    context.putObject(Environment.class.getName(), new StandardEnvironment());
+
+    SampledLogFilter sampling = new SampledLogFilter();
+    sampling.setRate(sampleRate);
+    sampling.setContext(context);
+    sampling.start();
+    context.addTurboFilter(sampling);
+
+    StructuredLogEncoder encoder = new StructuredLogEncoder();
+    encoder.setContext(context);
+    encoder.setFormat("ecs");
+    encoder.start();
+
+    FileAppender<ILoggingEvent> file = new FileAppender<>();
+    file.setContext(context);
+    file.setFile(tempDir.resolve(mode.hashCode() + ".log").toString());
+    file.setEncoder(encoder);
+    file.start();
+
+    Appender<ILoggingEvent> appender = file;
+    if (async) {
+      AsyncAppender asyncAppender = new AsyncAppender();
+      asyncAppender.setContext(context);
+      asyncAppender.setQueueSize(8192);
+      asyncAppender.setNeverBlock(true);
+      asyncAppender.addAppender(file);
+      asyncAppender.start();
+      appender = asyncAppender;
+    }
+
+    Logger logger = context.getLogger("com.tfu.backend.spotify.SpotifyService");
+    logger.setLevel(level);
+    logger.addAppender(appender);
+
+    run(mode, i -> {
+      String query = "query" + i;
+      logger.debug(SampledLogFilter.SAMPLED, "Searching tracks for: {} with limit: {}", query, 20);
+      logger.debug(SampledLogFilter.SAMPLED, "Making search request to: {}", url(query));
+      logger.debug(SampledLogFilter.SAMPLED, "Response status: {}", "200 OK");
+      logger.debug(SampledLogFilter.SAMPLED, "Found {} tracks for query: {}", 20, query);
+    });
+
+    context.stop();
+  }
+
+  private void run(String mode, IntConsumer request) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    // Calentamiento (JIT) sin medir
+    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+      work(i);
+      request.accept(i);
+    }
+
+    long start = System.nanoTime();
+    List<Future<Long>> futures = new ArrayList<>(THREADS);
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(executor.submit(() -> {
+        long checksum = 0;
+        for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+          checksum += work(i);
+          request.accept(i);
+        }
+        return checksum;
+      }));
+    }
+    for (Future<Long> future : futures) {
+      future.get();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    executor.shutdown();
+
+    System.out.printf("%-44s %9.0f req/s%n", mode, THREADS * REQUESTS_PER_THREAD / seconds);
+  }
+
+  /** Trabajo de la request sin logging (armado de URL y conversión de resultados) */
+  private static long work(int i) {
+    long h = i;
+    for (int k = 0; k < 2_000; k++) {
+      h = h * 31 + k;
+    }
+    return h;
+  }
+
+  private static String url(String query) {
+    return "https://api.spotify.com/v1/search?q=" + query + "&type=track&limit=20&market=US";
+  }
+}
@@ -0,0 +1,110 @@
+package com.tfu.backend.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Capacidad, orden FIFO, vueltas del buffer y varios productores con un
+ * consumidor.
+ */
+class BoundedRingTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(8, new BoundedRing<Integer>(5).capacity());
+        assertEquals(8, new BoundedRing<Integer>(8).capacity());
+        assertEquals(2, new BoundedRing<Integer>(0).capacity());
+    }
+
+    @Test
+    void offerFailsWhenFullAndPollIsFifo() {
+        BoundedRing<Integer> ring = new BoundedRing<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void drainToRespectsTheMaximumAndWrapsAround() {
+        BoundedRing<Integer> ring = new BoundedRing<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        // Varias vueltas al buffer llenándolo y vaciándolo de a partes
+        for (int round = 0; round < 5; round++) {
+            while (ring.offer(next)) {
+                next++;
+            }
+            assertEquals(3, ring.drainTo(drained, 3));
+        }
+        ring.drainTo(drained, Integer.MAX_VALUE);
+
+        assertEquals(next, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i));
+        }
+    }
+
+    @Test
+    void concurrentProducersLoseNothingAndKeepTheirOwnOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 5_000;
+        BoundedRing<long[]> ring = new BoundedRing<>(64);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ring.offer(new long[] {producer, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer) {
+            assertTrue(System.nanoTime() < deadline, "Los productores no terminaron");
+            long[] element = ring.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int producer = (int) element[0];
+            assertEquals(nextExpected[producer], element[1]);
+            nextExpected[producer]++;
+            received++;
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertNull(ring.poll());
+    }
+}
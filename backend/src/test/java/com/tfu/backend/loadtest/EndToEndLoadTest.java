@@ -0,0 +1,237 @@
+package com.tfu.backend.loadtest;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Prueba de carga de punta a punta contra un backend en ejecución que usa los
+ * stand-ins de loadtest/ (stub de Spotify, fake-yt-dlp y flaky-service):
+ *
+ *   docker compose -f docker-compose.yaml -f docker-compose.loadtest.yaml up --build
+ *   mvn -Pload-test test -Dtest=EndToEndLoadTest
+ *
+ * Escenarios: tormenta de búsquedas, uso del reproductor y fan-out de streams
+ * (muchos oyentes resolviendo el audio de las mismas canciones). Reporta
+ * throughput y percentiles por endpoint. Si el backend no responde, se omite.
+ *
+ * Propiedades: loadtest.base-url (https://localhost:8443), loadtest.users (50),
+ * loadtest.duration (30s por escenario).
+ */
+@Tag("load")
+class EndToEndLoadTest {
+
+  private static final String BASE_URL = System.getProperty("loadtest.base-url", "https://localhost:8443");
+  private static final int USERS = Integer.getInteger("loadtest.users", 50);
+  private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+
+  /** IDs que el stub de Spotify reconoce (stubtrack + índice) */
+  private static final int HOT_TRACKS = 5;
+
+  private static final String[] TERMS = {
+      "rock", "pop", "jazz", "love", "night", "summer", "dance", "blues", "metal", "indie",
+      "salsa", "tango", "cumbia", "piano", "guitar", "live", "remix", "acoustic", "classic", "party"};
+
+  private static HttpClient client;
+
+  @BeforeAll
+  static void connect() throws Exception {
+    // Certificado autofirmado del backend (musify.p12)
+    System.setProperty("jdk.internal.httpclient.disableHostnameVerification", "true");
+    SSLContext ssl = SSLContext.getInstance("TLS");
+    ssl.init(null, new TrustManager[] {new X509TrustManager() {
+      @Override
+      public void checkClientTrusted(X509Certificate[] chain, String authType) {
+      }
+
+      @Override
+      public void checkServerTrusted(X509Certificate[] chain, String authType) {
+      }
+
+      @Override
+      public X509Certificate[] getAcceptedIssuers() {
+        return new X509Certificate[0];
+      }
+    }}, null);
+    client = HttpClient.newBuilder()
+        .sslContext(ssl)
+        .connectTimeout(Duration.ofSeconds(2))
+        .executor(Executors.newFixedThreadPool(8))
+        .build();
+
+    // Cualquier respuesta alcanza: health puede estar DOWN por dependencias
+    boolean up = true;
+    try {
+      client.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/actuator/health")).build(),
+          HttpResponse.BodyHandlers.discarding());
+    } catch (Exception e) {
+      up = false;
+    }
+    assumeTrue(up, "Backend not reachable at " + BASE_URL);
+  }
+
+  @Test
+  void searchStorm() throws Exception {
+    Report report = run("Search storm", (user, random, report1) -> {
+      // 80% de las búsquedas repiten los términos populares (aciertos de caché)
+      String term = random.nextInt(100) < 80
+          ? TERMS[random.nextInt(5)]
+          : TERMS[random.nextInt(TERMS.length)] + " " + random.nextInt(1000);
+      if (random.nextInt(4) == 0) {
+        report1.call("GET /api/search", "GET", "/api/search?q=" + encode(term) + "&limit=5");
+      } else {
+        report1.call("GET /music/spotify/search", "GET", "/music/spotify/search?q=" + encode(term) + "&limit=20");
+      }
+    });
+    assertTrue(report.total() > 0);
+  }
+
+  @Test
+  void playerUsage() throws Exception {
+    Report report = run("Player usage", (user, random, report1) -> {
+      report1.call("POST /api/player/play", "POST", "/api/player/play?trackId=" + trackId(random.nextInt(10_000)));
+      for (int i = 0; i < 3; i++) {
+        report1.call("GET /api/player/state", "GET", "/api/player/state");
+        Thread.sleep(100); // Tiempo de escucha entre consultas de estado
+      }
+      report1.call("POST /api/player/pause", "POST", "/api/player/pause");
+      report1.call("POST /api/player/resume", "POST", "/api/player/resume");
+      report1.call("POST /api/player/next", "POST", "/api/player/next");
+    });
+    assertTrue(report.total() > 0);
+  }
+
+  @Test
+  void streamFanOut() throws Exception {
+    Report report = run("Stream fan-out", (user, random, report1) -> {
+      // Todos los oyentes piden las mismas pocas canciones a la vez
+      int hot = random.nextInt(HOT_TRACKS);
+      report1.call("GET /music/spotify/play/{id}", "GET", "/music/spotify/play/" + trackId(hot));
+      report1.call("GET /api/playback/source/{id}", "GET", "/api/playback/source/" + trackId(hot));
+      report1.call("GET /api/youtube/audio", "GET",
+          "/api/youtube/audio?name=" + encode("Stub Track " + hot) + "&artist=" + encode("Stub Artist " + hot));
+    });
+    assertTrue(report.total() > 0);
+  }
+
+  private Report run(String scenario, UserLoop loop) throws Exception {
+    Report report = new Report();
+    ExecutorService users = Executors.newFixedThreadPool(USERS);
+    long deadline = System.nanoTime() + DURATION.toNanos();
+    CountDownLatch done = new CountDownLatch(USERS);
+    long start = System.nanoTime();
+    for (int u = 0; u < USERS; u++) {
+      int user = u;
+      users.execute(() -> {
+        SplittableRandom random = new SplittableRandom(user);
+        try {
+          while (System.nanoTime() < deadline) {
+            loop.iterate(user, random, report);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+    done.await(DURATION.toSeconds() + 60, TimeUnit.SECONDS);
+    users.shutdownNow();
+    report.print(scenario, (System.nanoTime() - start) / 1e9);
+    return report;
+  }
+
+  private static String trackId(int index) {
+    return "stubtrack" + String.format("%013d", index);
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  @FunctionalInterface
+  private interface UserLoop {
+    void iterate(int user, SplittableRandom random, Report report) throws InterruptedException;
+  }
+
+  /** Latencias y códigos de estado por endpoint */
+  private static final class Report {
+
+    private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, AtomicLong>> statuses = new ConcurrentHashMap<>();
+
+    void call(String endpoint, String method, String path) throws InterruptedException {
+      HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+          .timeout(Duration.ofSeconds(30))
+          .method(method, HttpRequest.BodyPublishers.noBody())
+          .build();
+      long start = System.nanoTime();
+      String status;
+      try {
+        status = String.valueOf(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+      } catch (InterruptedException e) {
+        throw e;
+      } catch (Exception e) {
+        status = e.getClass().getSimpleName();
+      }
+      long micros = (System.nanoTime() - start) / 1_000;
+      latencies.computeIfAbsent(endpoint, k -> Collections.synchronizedList(new ArrayList<>())).add(micros);
+      statuses.computeIfAbsent(endpoint, k -> new ConcurrentHashMap<>())
+          .computeIfAbsent(status, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    long total() {
+      return latencies.values().stream().mapToLong(List::size).sum();
+    }
+
+    void print(String scenario, double seconds) {
+      System.out.printf("%n%s: %d users, %.1fs, %.0f req/s%n", scenario, USERS, seconds, total() / seconds);
+      System.out.printf("%-32s %8s %8s %8s %8s %8s %8s  %s%n",
+          "Endpoint", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "ok %", "statuses");
+      new TreeMap<>(latencies).forEach((endpoint, values) -> {
+        List<Long> sorted;
+        synchronized (values) {
+          sorted = new ArrayList<>(values);
+        }
+        Collections.sort(sorted);
+        Map<String, AtomicLong> byStatus = new TreeMap<>(statuses.get(endpoint));
+        long ok = byStatus.entrySet().stream()
+            .filter(e -> e.getKey().startsWith("2"))
+            .mapToLong(e -> e.getValue().get())
+            .sum();
+        System.out.printf("%-32s %8.1f %8.1f %8.1f %8.1f %8.1f %8.1f  %s%n",
+            endpoint, sorted.size() / seconds,
+            LoadTestStats.percentile(sorted, 0.50) / 1000.0, LoadTestStats.percentile(sorted, 0.95) / 1000.0,
+            LoadTestStats.percentile(sorted, 0.99) / 1000.0,
+            sorted.get(sorted.size() - 1) / 1000.0, 100.0 * ok / sorted.size(), byStatus);
+      });
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package com.tfu.backend.loadtest;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Reparto justo de la cuota de Spotify: un cliente ruidoso lanza búsquedas
+ * distintas (sin caché) con {@code loadtest.noisy-users} hilos, mientras un
+ * cliente tranquilo busca de a una. Los clientes se distinguen por X-Real-IP,
+ * que el backend acepta desde localhost como si viniera de nginx.
+ *
+ * Una búsqueda "atendida" trae resultados; sin cuota el backend responde con
+ * el fallback (lista vacía). Reporta por cliente atendidas, fallback y
+ * percentiles de latencia. La cuota tiene que ser escasa para que haya
+ * competencia, por ejemplo:
+ *
+ *   STUB_LATENCY_MS=300 node loadtest/spotify-stub/server.js
+ *   java -jar backend.jar --spotify.limiter.initial-limit=2 --spotify.limiter.min-limit=2 \
+ *       --spotify.limiter.max-limit=2
+ *   mvn -Pload-test test -Dtest=FairShareLoadTest
+ *
+ * Propiedades: loadtest.base-url (https://localhost:8443), loadtest.noisy-users
+ * (40), loadtest.duration (30s), loadtest.quiet-interval (200ms).
+ */
+@Tag("load")
+class FairShareLoadTest {
+
+  private static final String BASE_URL = System.getProperty("loadtest.base-url", "https://localhost:8443");
+  private static final int NOISY_USERS = Integer.getInteger("loadtest.noisy-users", 40);
+  private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+  private static final Duration QUIET_INTERVAL =
+      Duration.ofMillis(Integer.getInteger("loadtest.quiet-interval", 200));
+
+  private static HttpClient client;
+
+  @BeforeAll
+  static void connect() throws Exception {
+    // Certificado autofirmado del backend (musify.p12)
+    System.setProperty("jdk.internal.httpclient.disableHostnameVerification", "true");
+    SSLContext ssl = SSLContext.getInstance("TLS");
+    ssl.init(null, new TrustManager[] {new X509TrustManager() {
+      @Override
+      public void checkClientTrusted(X509Certificate[] chain, String authType) {
+      }
+
+      @Override
+      public void checkServerTrusted(X509Certificate[] chain, String authType) {
+      }
+
+      @Override
+      public X509Certificate[] getAcceptedIssuers() {
+        return new X509Certificate[0];
+      }
+    }}, null);
+    client = HttpClient.newBuilder()
+        .sslContext(ssl)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    boolean up = true;
+    try {
+      client.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/actuator/health")).build(),
+          HttpResponse.BodyHandlers.discarding());
+    } catch (Exception e) {
+      up = false;
+    }
+    assumeTrue(up, "Backend not reachable at " + BASE_URL);
+  }
+
+  @Test
+  void quietClientKeepsItsShareWhileAnotherFloods() throws Exception {
+    long deadline = System.nanoTime() + DURATION.toNanos();
+    AtomicLong sequence = new AtomicLong();
+    Stats noisy = new Stats("noisy (" + NOISY_USERS + " threads)");
+    Stats quiet = new Stats("quiet (1 thread)");
+
+    ExecutorService pool = Executors.newFixedThreadPool(NOISY_USERS + 1);
+    for (int i = 0; i < NOISY_USERS; i++) {
+      pool.submit(() -> {
+        while (System.nanoTime() < deadline) {
+          search("10.0.0.1", "noisy" + sequence.incrementAndGet(), noisy);
+        }
+      });
+    }
+    pool.submit(() -> {
+      while (System.nanoTime() < deadline) {
+        search("10.0.0.2", "quiet" + sequence.incrementAndGet(), quiet);
+        sleep(QUIET_INTERVAL);
+      }
+    });
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(DURATION.toSeconds() + 60, TimeUnit.SECONDS));
+
+    System.out.printf("%n%-24s %8s %8s %8s %8s %8s%n", "Client", "served", "fallback", "errors", "p50 ms", "p95 ms");
+    noisy.print();
+    quiet.print();
+    assertTrue(quiet.served.get() > 0, "Quiet client got no searches served");
+    assertTrue(quiet.servedRatio() >= 0.9,
+        String.format("Quiet client served only %.0f%% of its searches", quiet.servedRatio() * 100));
+  }
+
+  private static void search(String clientIp, String query, Stats stats) {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + "/music/spotify/search?limit=5&q=" + query))
+        .header("X-Real-IP", clientIp)
+        .timeout(Duration.ofSeconds(30))
+        .build();
+    long start = System.nanoTime();
+    try {
+      HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+      stats.latencies.add((System.nanoTime() - start) / 1_000_000);
+      if (response.statusCode() != 200) {
+        stats.errors.incrementAndGet();
+      } else if (response.body().contains("\"data\":[]")) {
+        stats.fallback.incrementAndGet();
+      } else {
+        stats.served.incrementAndGet();
+      }
+    } catch (Exception e) {
+      stats.errors.incrementAndGet();
+    }
+  }
+
+  private static void sleep(Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static final class Stats {
+
+    final String name;
+    final AtomicLong served = new AtomicLong();
+    final AtomicLong fallback = new AtomicLong();
+    final AtomicLong errors = new AtomicLong();
+    final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+
+    Stats(String name) {
+      this.name = name;
+    }
+
+    double servedRatio() {
+      long total = served.get() + fallback.get() + errors.get();
+      return total == 0 ? 0 : (double) served.get() / total;
+    }
+
+    void print() {
+      List<Long> sorted;
+      synchronized (latencies) {
+        sorted = new ArrayList<>(latencies);
+      }
+      Collections.sort(sorted);
+      System.out.printf("%-24s %8d %8d %8d %8d %8d%n", name, served.get(), fallback.get(), errors.get(),
+          LoadTestStats.percentile(sorted, 0.50), LoadTestStats.percentile(sorted, 0.95));
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.tfu.backend.loadtest;
+
+import java.util.List;
+
+/**
+ * Estadísticas comunes de las pruebas de carga.
+ */
+public final class LoadTestStats {
+
+  private LoadTestStats() {
+  }
+
+  /**
+   * Percentil por rango más cercano de una lista ya ordenada, en la misma
+   * unidad que sus valores; 0 si está vacía.
+   *
+   * @param p percentil entre 0 y 1
+   */
+  public static long percentile(List<Long> sorted, double p) {
+    if (sorted.isEmpty()) {
+      return 0;
+    }
+    int index = (int) Math.ceil(p * sorted.size()) - 1;
+    return sorted.get(Math.min(sorted.size() - 1, Math.max(index, 0)));
+  }
+}
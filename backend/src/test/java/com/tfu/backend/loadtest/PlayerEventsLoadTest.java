@@ -0,0 +1,287 @@
+package com.tfu.backend.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compara el estado del reproductor por polling (cada cliente consulta
+ * GET /api/player/state, como el frontend cada 5 s) frente al canal SSE
+ * GET /api/player/events con la misma cantidad de oyentes ociosos. En ambos
+ * modos el estado cambia cada {@code loadtest.change-interval} (pausa/reanuda).
+ *
+ * Reporta requests/s que recibe el backend, eventos/s que llegan a los clientes
+ * y CPU del proceso del backend (process.cpu.time de /actuator/metrics).
+ * Si el backend no responde, se omite.
+ *
+ *   mvn -Pload-test test -Dtest=PlayerEventsLoadTest -Dloadtest.listeners=10000
+ *
+ * Con 10k oyentes el backend necesita server.tomcat.max-connections mayor que
+ * 10000 (ya configurado) y límites de descriptores de archivo acordes en ambos
+ * procesos.
+ *
+ * Propiedades: loadtest.base-url (https://localhost:8443), loadtest.listeners
+ * (10000), loadtest.duration (30s por modo), loadtest.poll-interval (5s),
+ * loadtest.change-interval (5s).
+ */
+@Tag("load")
+class PlayerEventsLoadTest {
+
+  private static final String BASE_URL = System.getProperty("loadtest.base-url", "https://localhost:8443");
+  private static final int LISTENERS = Integer.getInteger("loadtest.listeners", 10_000);
+  private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+  private static final Duration POLL_INTERVAL =
+      Duration.ofSeconds(Integer.getInteger("loadtest.poll-interval", 5));
+  private static final Duration CHANGE_INTERVAL =
+      Duration.ofSeconds(Integer.getInteger("loadtest.change-interval", 5));
+
+  private static final Pattern METRIC_VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+
+  private static HttpClient client;
+  private static ScheduledExecutorService scheduler;
+
+  @BeforeAll
+  static void connect() throws Exception {
+    // Certificado autofirmado del backend (musify.p12)
+    System.setProperty("jdk.internal.httpclient.disableHostnameVerification", "true");
+    SSLContext ssl = SSLContext.getInstance("TLS");
+    ssl.init(null, new TrustManager[] {new X509TrustManager() {
+      @Override
+      public void checkClientTrusted(X509Certificate[] chain, String authType) {
+      }
+
+      @Override
+      public void checkServerTrusted(X509Certificate[] chain, String authType) {
+      }
+
+      @Override
+      public X509Certificate[] getAcceptedIssuers() {
+        return new X509Certificate[0];
+      }
+    }}, null);
+    // HTTP/1.1: cada oyente SSE es una conexión propia, como un EventSource
+    client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .sslContext(ssl)
+        .connectTimeout(Duration.ofSeconds(10))
+        .executor(Executors.newFixedThreadPool(8))
+        .build();
+    scheduler = Executors.newScheduledThreadPool(2);
+
+    boolean up = true;
+    try {
+      client.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/actuator/health")).build(),
+          HttpResponse.BodyHandlers.discarding());
+    } catch (Exception e) {
+      up = false;
+    }
+    assumeTrue(up, "Backend not reachable at " + BASE_URL);
+  }
+
+  @AfterAll
+  static void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  void pollingVersusServerSentEvents() throws Exception {
+    Result polling = polling();
+    Result push = serverSentEvents();
+
+    System.out.printf("%n%d listeners, %ds per mode, state change every %ds%n",
+        LISTENERS, DURATION.toSeconds(), CHANGE_INTERVAL.toSeconds());
+    System.out.printf("%-28s %10s %10s %12s %8s  %s%n",
+        "Mode", "req/s", "events/s", "server CPU%", "errors", "notes");
+    polling.print();
+    push.print();
+    assertTrue(polling.requests() > 0 && push.connected() > 0);
+  }
+
+  /** Cada oyente consulta /state cada POLL_INTERVAL, repartidos en el intervalo */
+  private Result polling() throws Exception {
+    AtomicLong requests = new AtomicLong();
+    AtomicLong errors = new AtomicLong();
+    AtomicLong inFlight = new AtomicLong();
+    HttpRequest state = HttpRequest.newBuilder(URI.create(BASE_URL + "/api/player/state"))
+        .timeout(Duration.ofSeconds(30))
+        .build();
+
+    List<ScheduledFuture<?>> pollers = new ArrayList<>(LISTENERS);
+    long spreadMicros = POLL_INTERVAL.toNanos() / 1_000 / LISTENERS;
+    double cpuStart = serverCpuSeconds();
+    long start = System.nanoTime();
+    AtomicLong changes = new AtomicLong();
+    ScheduledFuture<?> changer = scheduleStateChanges(changes);
+    for (int i = 0; i < LISTENERS; i++) {
+      pollers.add(scheduler.scheduleAtFixedRate(() -> {
+        inFlight.incrementAndGet();
+        client.sendAsync(state, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+              inFlight.decrementAndGet();
+              requests.incrementAndGet();
+              if (error != null || response.statusCode() != 200) {
+                errors.incrementAndGet();
+              }
+            });
+      }, i * spreadMicros, POLL_INTERVAL.toNanos() / 1_000, TimeUnit.MICROSECONDS));
+    }
+    Thread.sleep(DURATION.toMillis());
+    pollers.forEach(poller -> poller.cancel(false));
+    changer.cancel(false);
+    // Si el backend no da abasto quedan consultas encoladas: se esperan y cuentan
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+    while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(100);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    double cpu = serverCpuSeconds() - cpuStart;
+
+    // En polling cada respuesta es un "evento" para el cliente, haya cambiado o no
+    return new Result("Polling /state every " + POLL_INTERVAL.toSeconds() + "s", LISTENERS,
+        requests.get() + changes.get(), requests.get() - errors.get(), errors.get(), seconds, cpu,
+        changes.get() + " state changes");
+  }
+
+  /** LISTENERS conexiones SSE abiertas; solo llegan eventos cuando el estado cambia */
+  private Result serverSentEvents() throws Exception {
+    AtomicLong events = new AtomicLong();
+    AtomicLong connected = new AtomicLong();
+    AtomicLong errors = new AtomicLong();
+    HttpRequest subscribe = HttpRequest.newBuilder(URI.create(BASE_URL + "/api/player/events"))
+        .header("Accept", "text/event-stream")
+        .build();
+
+    // Las conexiones se abren antes de medir (el handshake TLS no es parte del régimen estable)
+    List<CompletableFuture<HttpResponse<Void>>> streams = new ArrayList<>(LISTENERS);
+    for (int i = 0; i < LISTENERS; i++) {
+      streams.add(client.sendAsync(subscribe, HttpResponse.BodyHandlers.fromLineSubscriber(
+          new EventCounter(events, connected))).whenComplete((response, error) -> {
+            if (error != null) {
+              errors.incrementAndGet();
+            }
+          }));
+      if (i % 500 == 499) {
+        Thread.sleep(200);
+      }
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+    while (connected.get() + errors.get() < LISTENERS && System.nanoTime() < deadline) {
+      Thread.sleep(100);
+    }
+
+    long eventsStart = events.get();
+    double cpuStart = serverCpuSeconds();
+    long start = System.nanoTime();
+    AtomicLong changes = new AtomicLong();
+    ScheduledFuture<?> changer = scheduleStateChanges(changes);
+    Thread.sleep(DURATION.toMillis());
+    changer.cancel(false);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    double cpu = serverCpuSeconds() - cpuStart;
+    long delivered = events.get() - eventsStart;
+    long failed = errors.get();
+
+    streams.forEach(stream -> stream.cancel(true));
+    return new Result("SSE /events", connected.get(), changes.get(), delivered, failed,
+        seconds, cpu, connected.get() + " connected, " + changes.get() + " state changes");
+  }
+
+  /** Alterna pausa/reanudación; cada cambio es una request al backend */
+  private ScheduledFuture<?> scheduleStateChanges(AtomicLong changes) {
+    long[] tick = {0};
+    return scheduler.scheduleAtFixedRate(() -> {
+      String path = tick[0]++ % 2 == 0 ? "/api/player/pause" : "/api/player/resume";
+      client.sendAsync(HttpRequest.newBuilder(URI.create(BASE_URL + path))
+          .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+      changes.incrementAndGet();
+    }, CHANGE_INTERVAL.toMillis(), CHANGE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** Segundos de CPU consumidos por el proceso del backend */
+  private static double serverCpuSeconds() throws Exception {
+    HttpResponse<String> response = client.send(
+        HttpRequest.newBuilder(URI.create(BASE_URL + "/actuator/metrics/process.cpu.time"))
+            .timeout(Duration.ofSeconds(60)).build(),
+        HttpResponse.BodyHandlers.ofString());
+    Matcher matcher = METRIC_VALUE.matcher(response.body());
+    return matcher.find() ? Double.parseDouble(matcher.group(1)) / 1e9 : Double.NaN;
+  }
+
+  /** Cuenta los eventos recibidos por una conexión SSE */
+  private static final class EventCounter implements Flow.Subscriber<String> {
+
+    private final AtomicLong events;
+    private final AtomicLong connected;
+
+    EventCounter(AtomicLong events, AtomicLong connected) {
+      this.events = events;
+      this.connected = connected;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(String line) {
+      if (line.startsWith("event:state")) {
+        connected.incrementAndGet();
+      } else if (line.startsWith("event:")) {
+        events.incrementAndGet();
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+    }
+
+    @Override
+    public void onComplete() {
+    }
+  }
+
+  /**
+   * @param requests requests HTTP que atendió el backend durante la medición
+   * @param events   respuestas (polling) o eventos (SSE) que recibieron los clientes
+   */
+  private record Result(String mode, long listeners, long requests, long events, long errors,
+      double seconds, double cpuSeconds, String notes) {
+
+    long connected() {
+      return listeners;
+    }
+
+    void print() {
+      System.out.printf("%-28s %10.1f %10.1f %11.1f%% %8d  %s%n",
+          mode, requests / seconds, events / seconds, 100 * cpuSeconds / seconds, errors, notes);
+    }
+  }
+}
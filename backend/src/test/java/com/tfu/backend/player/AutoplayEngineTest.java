@@ -0,0 +1,115 @@
+package com.tfu.backend.player;
+
+import com.tfu.backend.spotify.SpotifyService;
+import com.tfu.backend.spotify.SpotifyTrackDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Las candidatas se descartan cuando cambia la semilla, pero no cuando suena
+ * una canción que salió del propio autoplay. Sin artista (getTrackById vacío)
+ * las candidatas salen solo del pool aleatorio, numeradas por tanda (el orden
+ * dentro de la tanda es aleatorio).
+ */
+class AutoplayEngineTest {
+
+    private final SpotifyService spotify = mock(SpotifyService.class);
+    private final AtomicInteger generated = new AtomicInteger();
+
+    AutoplayEngineTest() {
+        when(spotify.getTrackById(anyString())).thenReturn(Optional.empty());
+        when(spotify.getRandomTracks(anyInt())).thenAnswer(invocation -> {
+            List<SpotifyTrackDto> tracks = new ArrayList<>();
+            for (int i = 0; i < (int) invocation.getArgument(0); i++) {
+                int n = generated.incrementAndGet();
+                tracks.add(new SpotifyTrackDto("r" + n, "Random " + n, "Otro " + n, "Álbum", null, null));
+            }
+            return tracks;
+        });
+    }
+
+    private AutoplayEngine engine(Executor executor) {
+        return new AutoplayEngine(spotify, executor, new SimpleMeterRegistry(), true, 2, 3);
+    }
+
+    private static TrackInfo track(String id, String artist) {
+        return new TrackInfo(id, "Canción " + id, artist, "Álbum", null, null, 180_000);
+    }
+
+    /** Vacía las candidatas preparadas */
+    private static Set<String> drain(AutoplayEngine engine) {
+        Set<String> ids = new HashSet<>();
+        Optional<TrackInfo> next;
+        while ((next = engine.next(Set.of())).isPresent()) {
+            ids.add(next.get().getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void preparesCandidatesWhenTheQueueRunsLow() {
+        AutoplayEngine engine = engine(Runnable::run);
+
+        engine.onQueueAdvanced(track("a", "Soda"), 5, Set::of);
+        assertTrue(engine.next(Set.of()).isEmpty());
+
+        engine.onQueueAdvanced(track("a", "Soda"), 1, Set::of);
+        assertEquals(Set.of("r1", "r2", "r3"), drain(engine));
+    }
+
+    @Test
+    void playingAnAutoplayCandidateKeepsTheRest() {
+        AutoplayEngine engine = engine(Runnable::run);
+        engine.onQueueAdvanced(track("a", "Soda"), 0, Set::of);
+
+        TrackInfo served = engine.next(Set.of()).orElseThrow();
+        engine.onQueueAdvanced(served, 5, Set::of);
+
+        Set<String> rest = new HashSet<>(Set.of("r1", "r2", "r3"));
+        rest.remove(served.getId());
+        assertEquals(rest, drain(engine));
+    }
+
+    @Test
+    void anotherArtistChosenByTheUserDropsTheCandidates() {
+        AutoplayEngine engine = engine(Runnable::run);
+        engine.onQueueAdvanced(track("a", "Soda"), 0, Set::of);
+
+        // Otra canción del mismo artista sigue siendo la misma radio
+        engine.onQueueAdvanced(track("b", "Soda"), 5, Set::of);
+        assertTrue(engine.next(Set.of()).isPresent());
+
+        engine.onQueueAdvanced(track("c", "Charly"), 5, Set::of);
+        assertTrue(engine.next(Set.of()).isEmpty());
+
+        engine.onQueueAdvanced(track("c", "Charly"), 0, Set::of);
+        assertEquals(Set.of("r4", "r5", "r6"), drain(engine));
+    }
+
+    @Test
+    void aBatchPreparedForAnOldSeedIsDiscarded() {
+        List<Runnable> pending = new ArrayList<>();
+        AutoplayEngine engine = engine(pending::add);
+
+        engine.onQueueAdvanced(track("a", "Soda"), 0, Set::of);
+        engine.onQueueAdvanced(track("c", "Charly"), 5, Set::of);
+        pending.forEach(Runnable::run);
+
+        assertTrue(engine.next(Set.of()).isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package com.tfu.backend.player;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cada conexión tiene su cola acotada: un cliente que no escribe se corta al
+ * llenarla sin atrasar a los demás, y a lo sumo hay una tarea de escritura
+ * encolada por conexión.
+ */
+class PlayerEventPublisherTest {
+
+    private static final int MAX_PENDING = 4;
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    /** Executor que no corre nada hasta que el test lo pide: simula escrituras trabadas */
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final PlayerEventPublisher publisher = new PlayerEventPublisher(
+        new ObjectMapper(), meters, tasks::add, Duration.ofMinutes(1), MAX_PENDING);
+
+    private static PlayerState playing(long position) {
+        PlayerState state = new PlayerState();
+        state.setStatus("playing");
+        state.setPosition(position);
+        return state;
+    }
+
+    private double listeners() {
+        return meters.get("player.events.listeners").gauge().value();
+    }
+
+    private double dropped() {
+        return meters.get("player.events.dropped").counter().count();
+    }
+
+    @Test
+    void eachConnectionSchedulesASingleWriter() {
+        publisher.subscribe();
+        publisher.subscribe();
+        for (int i = 1; i < MAX_PENDING; i++) {
+            publisher.publish(playing(i));
+        }
+
+        assertEquals(2, tasks.size());
+        assertEquals(2, listeners());
+        assertEquals(0, dropped());
+    }
+
+    @Test
+    void laggingConnectionIsDroppedWithoutBlockingTheOthers() {
+        publisher.subscribe();
+        // El estado inicial más MAX_PENDING - 1 deltas llenan la cola
+        for (int i = 1; i < MAX_PENDING; i++) {
+            publisher.publish(playing(i));
+        }
+        tasks.clear();
+        publisher.subscribe();
+
+        publisher.publish(playing(MAX_PENDING));
+
+        assertEquals(1, listeners());
+        assertEquals(1, dropped());
+        // La conexión nueva agenda su escritura; la cortada ya tenía la suya
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    void unchangedStateIsNotPublished() {
+        publisher.subscribe();
+        for (int i = 0; i < MAX_PENDING * 2; i++) {
+            publisher.publish(playing(1));
+        }
+
+        assertEquals(1, listeners());
+        assertEquals(0, dropped());
+    }
+}
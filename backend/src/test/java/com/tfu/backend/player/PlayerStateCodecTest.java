@@ -0,0 +1,126 @@
+package com.tfu.backend.player;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ida y vuelta del formato binario del estado del reproductor y rechazo de
+ * estados corruptos con IllegalArgumentException.
+ */
+class PlayerStateCodecTest {
+
+    private static TrackInfo track(String id, String artist, long duration) {
+        return new TrackInfo(id, "Canción " + id, artist, "Álbum de " + artist, "https://img/" + artist, null, duration);
+    }
+
+    private static PlayerState state(List<TrackInfo> queue, int currentIndex, TrackInfo current) {
+        PlayerState state = new PlayerState();
+        state.setStatus("playing");
+        state.setShuffle(true);
+        state.setRepeat(false);
+        state.setQueue(new ArrayList<>(queue));
+        state.setCurrentIndex(currentIndex);
+        state.setCurrentTrack(current);
+        state.setPosition(65_000);
+        state.setDuration(current != null ? current.getDuration() : 0);
+        return state;
+    }
+
+    @Test
+    void currentTrackInTheQueueRoundTrips() {
+        List<TrackInfo> queue = List.of(track("a", "Soda", 200_000), track("b", "Soda", 180_000),
+            track("c", "Charly", 240_000));
+        PlayerState original = state(queue, 1, queue.get(1));
+
+        assertEquals(original, PlayerStateCodec.decode(PlayerStateCodec.encode(original)));
+    }
+
+    @Test
+    void currentTrackOutsideTheQueueRoundTrips() {
+        List<TrackInfo> queue = List.of(track("a", "Soda", 200_000));
+        PlayerState original = state(queue, 0, track("z", "Spinetta", 300_000));
+
+        assertEquals(original, PlayerStateCodec.decode(PlayerStateCodec.encode(original)));
+    }
+
+    @Test
+    void emptyStateRoundTrips() {
+        PlayerState original = new PlayerState();
+
+        PlayerState decoded = PlayerStateCodec.decode(PlayerStateCodec.encode(original));
+
+        assertEquals("stopped", decoded.getStatus());
+        assertEquals(List.of(), decoded.getQueue());
+        assertNull(decoded.getCurrentTrack());
+        assertEquals(0, decoded.getCurrentIndex());
+    }
+
+    @Test
+    void garbageIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PlayerStateCodec.decode(new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    void truncatedStateIsRejected() {
+        byte[] encoded = PlayerStateCodec.encode(state(List.of(track("a", "Soda", 1)), 0, null));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> PlayerStateCodec.decode(Arrays.copyOf(encoded, encoded.length / 2)));
+    }
+
+    @Test
+    void stringIndexOutOfRangeIsRejected() throws IOException {
+        // Un track cuyo id apunta al string 5 de una tabla vacía
+        byte[] encoded = raw(0, 0, 1, 5, 0, 0, 0, 0, 0, 1, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> PlayerStateCodec.decode(encoded));
+    }
+
+    @Test
+    void currentTrackIndexOutOfRangeIsRejected() throws IOException {
+        // Cola de un track sin strings y canción actual = posición 3 de la cola
+        byte[] encoded = raw(0, 0, 1, 0, 0, 0, 0, 0, 0, 1, 4);
+
+        assertThrows(IllegalArgumentException.class, () -> PlayerStateCodec.decode(encoded));
+    }
+
+    @Test
+    void currentIndexOutOfRangeIsRejected() throws IOException {
+        byte[] encoded = raw(7, 0, 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> PlayerStateCodec.decode(encoded));
+    }
+
+    /**
+     * Estado versión 1 con status "playing", sin flags, posición y duración 0.
+     * {@code varints} son, en orden: índice actual, cantidad de strings
+     * (siempre 0 acá), tamaño de la cola, los campos de cada track y la canción
+     * actual; todos chicos y no negativos.
+     */
+    private static byte[] raw(int... varints) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeByte(1);
+            out.writeUTF("playing");
+            out.writeByte(0);
+            out.writeByte(varints[0] << 1);
+            out.writeByte(0);
+            out.writeByte(0);
+            for (int i = 1; i < varints.length; i++) {
+                out.writeByte(varints[i] << 1);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,90 @@
+package com.tfu.backend.player;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * El estado se codifica al marcarlo: el flush escribe la foto de ese momento
+ * aunque el estado vivo siga cambiando, y si la base falla la reencola.
+ */
+class PlayerStateStoreTest {
+
+    private final PlayerSessionRepository repository = mock(PlayerSessionRepository.class);
+    private final PlayerStateStore store = new PlayerStateStore(repository, new SimpleMeterRegistry(), true, 100);
+
+    private static PlayerState state(String... trackIds) {
+        PlayerState state = new PlayerState();
+        state.setStatus("playing");
+        state.setQueue(new ArrayList<>());
+        for (String id : trackIds) {
+            state.getQueue().add(new TrackInfo(id, "Canción " + id, "Artista", "Álbum", null, null, 180_000));
+        }
+        state.setCurrentIndex(0);
+        state.setCurrentTrack(state.getQueue().get(0));
+        return state;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, byte[]> written(int flushes) {
+        ArgumentCaptor<Map<String, byte[]>> batch = ArgumentCaptor.forClass(Map.class);
+        verify(repository, times(flushes)).upsertStates(batch.capture(), anyInt());
+        return batch.getValue();
+    }
+
+    private static List<String> queueIds(byte[] encoded) {
+        return PlayerStateCodec.decode(encoded).getQueue().stream().map(TrackInfo::getId).toList();
+    }
+
+    @Test
+    void flushWritesTheStateAsItWasWhenMarked() {
+        PlayerState live = state("a", "b");
+        store.markDirty("s1", live);
+        live.getQueue().add(new TrackInfo("c", "Canción c", "Artista", "Álbum", null, null, 180_000));
+        live.setStatus("paused");
+
+        store.flush();
+
+        byte[] encoded = written(1).get("s1");
+        assertEquals(List.of("a", "b"), queueIds(encoded));
+        assertEquals("playing", PlayerStateCodec.decode(encoded).getStatus());
+    }
+
+    @Test
+    void pendingStateIsServedBeforeItIsFlushed() {
+        store.markDirty("s1", state("a"));
+        store.markDirty("s1", state("a", "b"));
+
+        assertEquals(List.of("a", "b"), store.load("s1").orElseThrow().getQueue().stream()
+                .map(TrackInfo::getId).toList());
+    }
+
+    @Test
+    void failedFlushKeepsNewerChanges() {
+        doThrow(new DataAccessResourceFailureException("down")).when(repository).upsertStates(anyMap(), anyInt());
+        store.markDirty("s1", state("a"));
+        store.markDirty("s2", state("x"));
+        store.flush();
+
+        // Un cambio posterior reemplaza al estado reencolado
+        store.markDirty("s1", state("a", "b"));
+        store.flush();
+
+        Map<String, byte[]> retried = written(2);
+        assertEquals(List.of("a", "b"), queueIds(retried.get("s1")));
+        assertEquals(List.of("x"), queueIds(retried.get("s2")));
+    }
+}
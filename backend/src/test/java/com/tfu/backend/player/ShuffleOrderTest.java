@@ -0,0 +1,124 @@
+package com.tfu.backend.player;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * El Fisher–Yates perezoso recorre una permutación de la cola, también cuando
+ * la cola crece a mitad de camino. Semillas fijas para que sea determinista.
+ */
+class ShuffleOrderTest {
+
+    private static final int SEEDS = 200;
+
+    private static List<Integer> playAll(ShuffleOrder order) {
+        List<Integer> played = new ArrayList<>();
+        played.add(order.current());
+        while (order.hasNext()) {
+            played.add(order.next());
+        }
+        return played;
+    }
+
+    private static Set<Integer> range(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toSet());
+    }
+
+    @Test
+    void visitsEveryIndexOnceStartingWithTheFirst() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            ShuffleOrder order = new ShuffleOrder(12, 5, new SplittableRandom(seed));
+
+            List<Integer> played = playAll(order);
+
+            assertEquals(5, played.get(0));
+            assertEquals(12, played.size());
+            assertEquals(range(12), new HashSet<>(played));
+            assertEquals(0, order.remaining());
+        }
+    }
+
+    @Test
+    void staysAPermutationAfterGrowing() {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            ShuffleOrder order = new ShuffleOrder(6, 0, new SplittableRandom(seed));
+            List<Integer> played = new ArrayList<>();
+            played.add(order.current());
+            played.add(order.next());
+            played.add(order.next());
+
+            order.grow(10);
+            assertEquals(7, order.remaining());
+            played.addAll(playAll(order).subList(1, 8));
+
+            assertEquals(10, played.size());
+            assertEquals(range(10), new HashSet<>(played));
+        }
+    }
+
+    @Test
+    void growingAtTheEndLeavesOnlyTheNewIndex() {
+        ShuffleOrder order = new ShuffleOrder(3, 1, new SplittableRandom(7));
+        playAll(order);
+        assertFalse(order.hasNext());
+
+        order.grow(4);
+
+        assertEquals(3, order.next());
+    }
+
+    @Test
+    void peekDoesNotMoveAndMatchesWhatNextReturns() {
+        ShuffleOrder order = new ShuffleOrder(8, 2, new SplittableRandom(42));
+        List<Integer> peeked = IntStream.rangeClosed(1, 7).map(order::peek).boxed().toList();
+
+        assertEquals(2, order.current());
+        assertEquals(-1, order.peek(8));
+        assertEquals(peeked, playAll(order).subList(1, 8));
+    }
+
+    @Test
+    void previousRetracesTheSameOrder() {
+        ShuffleOrder order = new ShuffleOrder(8, 4, new SplittableRandom(3));
+        List<Integer> forward = playAll(order);
+
+        List<Integer> backward = new ArrayList<>();
+        backward.add(order.current());
+        while (order.hasPrevious()) {
+            backward.add(order.previous());
+        }
+
+        Collections.reverse(backward);
+        assertEquals(forward, backward);
+    }
+
+    @Test
+    void firstAndLastWrapAroundWithRepeat() {
+        ShuffleOrder order = new ShuffleOrder(5, 0, new SplittableRandom(11));
+
+        int last = order.last();
+        assertFalse(order.hasNext());
+        assertEquals(0, order.first());
+        List<Integer> played = playAll(order);
+
+        assertEquals(last, played.get(4));
+        assertEquals(range(5), new HashSet<>(played));
+    }
+
+    @Test
+    void rejectsAFirstIndexOutsideTheQueue() {
+        assertThrows(IllegalArgumentException.class, () -> new ShuffleOrder(3, 3, new SplittableRandom(0)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.tfu.backend.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Conteos simétricos, orden por similitud coseno, invalidación del top y poda
+ * de filas.
+ */
+class CoListenMatrixTest {
+
+    private static void listen(CoListenMatrix matrix, int track, int times) {
+        for (int i = 0; i < times; i++) {
+            matrix.addListen(track);
+        }
+    }
+
+    private static void pair(CoListenMatrix matrix, int a, int b, int times) {
+        for (int i = 0; i < times; i++) {
+            matrix.addPair(a, b);
+        }
+    }
+
+    @Test
+    void pairsAreCountedInBothDirections() {
+        CoListenMatrix matrix = new CoListenMatrix(16, 8);
+        pair(matrix, 0, 1, 3);
+        pair(matrix, 0, 2, 1);
+
+        assertEquals(3, matrix.coListens(0, 1));
+        assertEquals(3, matrix.coListens(1, 0));
+        assertEquals(1, matrix.coListens(2, 0));
+        assertEquals(0, matrix.coListens(1, 2));
+        assertEquals(4, matrix.pairs());
+    }
+
+    @Test
+    void popularTracksRankBelowEquallyCoListenedNiches() {
+        CoListenMatrix matrix = new CoListenMatrix(16, 8);
+        listen(matrix, 0, 10);
+        listen(matrix, 1, 1000);
+        listen(matrix, 2, 10);
+        pair(matrix, 0, 1, 5);
+        pair(matrix, 0, 2, 5);
+
+        assertArrayEquals(new int[] {2, 1}, matrix.neighbors(0, 10));
+        assertEquals(0.5f, matrix.score(0, 0), 1e-6);
+        assertTrue(matrix.score(0, 0) > matrix.score(0, 1));
+    }
+
+    @Test
+    void neighborsRespectTheLimitAndFollowChanges() {
+        CoListenMatrix matrix = new CoListenMatrix(16, 8);
+        for (int track = 0; track < 4; track++) {
+            listen(matrix, track, 10);
+        }
+        pair(matrix, 0, 1, 3);
+        pair(matrix, 0, 2, 2);
+        pair(matrix, 0, 3, 1);
+        assertArrayEquals(new int[] {1, 2}, matrix.neighbors(0, 2));
+
+        pair(matrix, 0, 3, 5);
+
+        assertArrayEquals(new int[] {3, 1, 2}, matrix.neighbors(0, 10));
+    }
+
+    @Test
+    void unknownTracksHaveNoNeighbors() {
+        CoListenMatrix matrix = new CoListenMatrix(16, 8);
+        matrix.addListen(3);
+
+        assertEquals(0, matrix.neighbors(3, 5).length);
+        assertEquals(0, matrix.neighbors(5000, 5).length);
+        assertEquals(0, matrix.listens(5000));
+    }
+
+    @Test
+    void fullRowsArePrunedToTheirStrongestHalf() {
+        CoListenMatrix matrix = new CoListenMatrix(8, 8);
+        // El track 0 co-ocurre con 1..9; el vecino n tiene n co-escuchas
+        for (int neighbor = 1; neighbor <= 9; neighbor++) {
+            pair(matrix, 0, neighbor, neighbor);
+        }
+
+        // La primera co-escucha del 9 pasa la fila a 9 entradas: quedan 5..8 y
+        // el 9 vuelve a entrar con el resto de sus co-escuchas
+        for (int neighbor = 1; neighbor <= 4; neighbor++) {
+            assertEquals(0, matrix.coListens(0, neighbor));
+        }
+        for (int neighbor = 5; neighbor <= 8; neighbor++) {
+            assertEquals(neighbor, matrix.coListens(0, neighbor));
+        }
+        assertEquals(8, matrix.coListens(0, 9));
+        // Las filas de los vecinos no se podan: conservan su par con 0
+        assertEquals(1, matrix.coListens(1, 0));
+        assertEquals(5 + 9, matrix.pairs());
+    }
+
+    @Test
+    void growsBeyondTheInitialCapacity() {
+        CoListenMatrix matrix = new CoListenMatrix(16, 8);
+        matrix.addPair(5000, 1);
+        matrix.addListen(5000);
+
+        assertEquals(1, matrix.coListens(1, 5000));
+        assertEquals(1, matrix.listens(5000));
+        assertArrayEquals(new int[] {1}, matrix.neighbors(5000, 5));
+    }
+}
@@ -0,0 +1,107 @@
+package com.tfu.backend.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Conteos con sondeo lineal: crecimiento de la tabla y {@link IntIntCounts#retainTop}.
+ */
+class IntIntCountsTest {
+
+    /** Contenido recorriendo las celdas */
+    private static Map<Integer, Integer> entries(IntIntCounts counts) {
+        Map<Integer, Integer> entries = new HashMap<>();
+        for (int slot = 0; slot < counts.capacity(); slot++) {
+            if (counts.keyAt(slot) >= 0) {
+                entries.put(counts.keyAt(slot), counts.valueAt(slot));
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    void incrementAccumulatesAndSurvivesRehash() {
+        IntIntCounts counts = new IntIntCounts(2);
+        for (int key = 0; key < 1000; key++) {
+            assertEquals(1, counts.increment(key, 1));
+        }
+        for (int key = 0; key < 1000; key += 2) {
+            assertEquals(1 + key, counts.increment(key, key));
+        }
+
+        assertEquals(1000, counts.size());
+        assertEquals(1, counts.get(999));
+        assertEquals(501, counts.get(500));
+        assertEquals(0, counts.get(1000));
+        assertEquals(1000, entries(counts).size());
+    }
+
+    @Test
+    void retainTopKeepsTheHighestCounts() {
+        IntIntCounts counts = new IntIntCounts(4);
+        for (int key = 0; key < 100; key++) {
+            counts.increment(key, key);
+        }
+
+        counts.retainTop(10);
+
+        assertEquals(10, counts.size());
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int key = 90; key < 100; key++) {
+            expected.put(key, key);
+        }
+        assertEquals(expected, entries(counts));
+        assertEquals(0, counts.get(89));
+    }
+
+    @Test
+    void retainTopKeepsExactlyTheLimitWithTies() {
+        IntIntCounts counts = new IntIntCounts(4);
+        counts.increment(1, 9);
+        for (int key = 2; key < 20; key++) {
+            counts.increment(key, 5);
+        }
+
+        counts.retainTop(4);
+
+        Map<Integer, Integer> kept = entries(counts);
+        assertEquals(4, counts.size());
+        assertEquals(4, kept.size());
+        assertEquals(9, kept.get(1));
+        kept.remove(1);
+        kept.values().forEach(count -> assertEquals(5, count));
+    }
+
+    @Test
+    void retainTopWithRoomLeavesTheTableAsIs() {
+        IntIntCounts counts = new IntIntCounts(4);
+        counts.increment(7, 3);
+        counts.increment(8, 1);
+
+        counts.retainTop(2);
+
+        assertEquals(Map.of(7, 3, 8, 1), entries(counts));
+    }
+
+    @Test
+    void tableStaysUsableAfterRetainTop() {
+        IntIntCounts counts = new IntIntCounts(4);
+        for (int key = 0; key < 64; key++) {
+            counts.increment(key, key + 1);
+        }
+        counts.retainTop(8);
+
+        for (int key = 100; key < 200; key++) {
+            counts.increment(key, 1);
+        }
+        counts.increment(63, 1);
+
+        assertEquals(108, counts.size());
+        assertEquals(65, counts.get(63));
+        assertEquals(0, counts.get(0));
+    }
+}
@@ -0,0 +1,133 @@
+package com.tfu.backend.spotify;
+
+import com.tfu.backend.catalog.TrackCatalogService;
+import com.tfu.backend.common.ApiResponse;
+import com.tfu.backend.common.StaleResponseAdvice;
+import com.tfu.backend.upstream.LastKnownGoodStore;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerAutoConfiguration;
+import io.github.resilience4j.springboot3.retry.autoconfigure.RetryAutoConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Los fallbacks de {@code spotifyApi} pasan por los aspectos de resilience4j
+ * (el circuit breaker envuelve al retry) y sirven el último valor bueno
+ * marcando la respuesta como {@code stale}.
+ */
+@SpringBootTest(
+    classes = {SpotifyService.class, LastKnownGoodStore.class},
+    properties = {
+        "spotify.client.id=test",
+        "spotify.client.secret=test",
+        "spotify.api.url=http://spotify.test",
+        "spotify.accounts.url=http://spotify.test",
+        "last-known-good.disk.enabled=false",
+        "resilience4j.retry.instances.spotifyApi.waitDuration=1ms"
+    })
+@ImportAutoConfiguration({AopAutoConfiguration.class, JacksonAutoConfiguration.class,
+    CircuitBreakerAutoConfiguration.class, RetryAutoConfiguration.class})
+class SpotifyServiceFallbackTest {
+
+  private static final List<SpotifyTrackDto> LAST_GOOD = List.of(
+      new SpotifyTrackDto("t1", "De música ligera", "Soda Stereo", "Canción Animal", null, null));
+
+  @MockitoBean
+  private RestTemplate restTemplate;
+
+  @MockitoBean
+  private TrackCatalogService trackCatalog;
+
+  @Autowired
+  private SpotifyService spotifyService;
+
+  @Autowired
+  private LastKnownGoodStore lastKnownGood;
+
+  @Autowired
+  private CircuitBreakerRegistry circuitBreakers;
+
+  @BeforeEach
+  void setUp() {
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    lastKnownGood.put("searchTracks:soda_5", LAST_GOOD);
+    clearInvocations(restTemplate);
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+    circuitBreakers.circuitBreaker("spotifyApi").reset();
+  }
+
+  /** La respuesta que armaría un controller con el resultado, después de StaleResponseAdvice */
+  private static ApiResponse<?> respond(Object data) {
+    return (ApiResponse<?>) new StaleResponseAdvice()
+        .beforeBodyWrite(ApiResponse.success(data), null, null, null, null, null);
+  }
+
+  @Test
+  void openBreakerServesTheLastKnownGoodValueAsStale() {
+    circuitBreakers.circuitBreaker("spotifyApi").transitionToForcedOpenState();
+
+    List<SpotifyTrackDto> tracks = spotifyService.searchTracks("soda", 5);
+
+    assertEquals(LAST_GOOD, tracks);
+    assertEquals(Boolean.TRUE, respond(tracks).getStale());
+    verify(restTemplate, never()).exchange(startsWith("http://spotify.test/v1/search"), eq(HttpMethod.GET),
+        any(HttpEntity.class), eq(SpotifySearchResponse.class));
+  }
+
+  @Test
+  void failingCallsAreRetriedBeforeTheFallback() {
+    when(restTemplate.exchange(startsWith("http://spotify.test/v1/search"), eq(HttpMethod.GET),
+        any(HttpEntity.class), eq(SpotifySearchResponse.class)))
+        .thenThrow(new ResourceAccessException("connection refused"));
+
+    List<SpotifyTrackDto> tracks = spotifyService.searchTracks("soda", 5);
+
+    assertEquals(LAST_GOOD, tracks);
+    assertEquals(Boolean.TRUE, respond(tracks).getStale());
+    verify(restTemplate, times(3)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+        eq(SpotifySearchResponse.class));
+  }
+
+  @Test
+  void openBreakerWithoutALastKnownValueDegradesToEmpty() {
+    circuitBreakers.circuitBreaker("spotifyApi").transitionToForcedOpenState();
+
+    List<SpotifyTrackDto> tracks = spotifyService.searchTracks("otra", 5);
+
+    assertTrue(tracks.isEmpty());
+    assertNull(respond(tracks).getStale());
+  }
+}
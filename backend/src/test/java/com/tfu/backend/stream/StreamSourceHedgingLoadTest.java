@@ -0,0 +1,160 @@
+package com.tfu.backend.stream;
+
+import com.sun.net.httpserver.HttpServer;
+import com.tfu.backend.upstream.HedgedExecutor;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.tfu.backend.loadtest.LoadTestStats.percentile;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark de latencia de cola contra la fuente de streaming poco confiable:
+ * reintentos solos (configuración streamSource) frente a reintentos + hedging.
+ *
+ * Por defecto levanta en la JVM un upstream con la misma distribución que
+ * flaky-service/server.js (40% sin respuesta, 20% 500, 40% OK). Para usar el
+ * servicio real: node flaky-service/server.js y
+ * -Dloadtest.flaky-url=http://localhost:9090.
+ *
+ * Ejecutar con: mvn -Pload-test test -Dtest=StreamSourceHedgingLoadTest
+ */
+@Tag("load")
+class StreamSourceHedgingLoadTest {
+
+  private static final int REQUESTS = Integer.getInteger("loadtest.requests", 300);
+  private static final int CONCURRENCY = 20;
+  private static final Duration READ_TIMEOUT = Duration.ofSeconds(2);
+
+  private static HttpServer upstream;
+  private static ExecutorService upstreamExecutor;
+  private static String sourceUrl;
+  private static final AtomicInteger upstreamCalls = new AtomicInteger();
+
+  @BeforeAll
+  static void startFlakyUpstream() throws Exception {
+    String external = System.getProperty("loadtest.flaky-url");
+    if (external != null) {
+      sourceUrl = external;
+      return;
+    }
+    upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1000);
+    upstream.createContext("/source", exchange -> {
+      upstreamCalls.incrementAndGet();
+      double dice = ThreadLocalRandom.current().nextDouble();
+      try {
+        if (dice < 0.4) {
+          Thread.sleep(30_000); // No responde: el cliente corta por read timeout
+          exchange.close();
+          return;
+        }
+        Thread.sleep(ThreadLocalRandom.current().nextInt(5, 40)); // Tiempo de servicio normal
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        exchange.close();
+        return;
+      }
+      int status = dice < 0.6 ? 500 : 200;
+      byte[] body = (status == 200 ? "https://cdn.example/high-bitrate/T0" : "Upstream error")
+          .getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(status, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    upstreamExecutor = Executors.newCachedThreadPool();
+    upstream.setExecutor(upstreamExecutor);
+    upstream.start();
+    sourceUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+  }
+
+  @AfterAll
+  static void stopFlakyUpstream() {
+    if (upstream != null) {
+      upstream.stop(0);
+      upstreamExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  void hedgingReducesTailLatency() throws Exception {
+    RestTemplate restTemplate = StreamSourceClient.createRestTemplate(false, Duration.ofMillis(500), READ_TIMEOUT);
+    Supplier<String> attempt = () -> restTemplate.getForObject(sourceUrl + "/source?trackId=T0", String.class);
+
+    Result retryOnly = run("retry (3 intentos, 200ms exp)", attempt);
+
+    ExecutorService attempts = Executors.newCachedThreadPool();
+    HedgedExecutor hedging = new HedgedExecutor(attempts, 0.9, 3, 20, 1000, 200, 0.5, 10);
+    Result hedged = run("retry + hedging p90 (presupuesto 50%)", () -> hedging.call(attempt));
+    attempts.shutdownNow();
+
+    System.out.printf("hedges: lanzados=%d ganados=%d sin presupuesto=%d retardo=%d ms%n",
+        hedging.getHedgesFired(), hedging.getHedgesWon(), hedging.getHedgesDenied(), hedging.getHedgeDelayMillis());
+
+    assertTrue(hedged.p99Ms() < retryOnly.p99Ms(), "El hedging debería reducir el p99");
+  }
+
+  private Result run(String mode, Supplier<String> call) throws Exception {
+    Retry retry = Retry.of("bench", RetryConfig.custom()
+        .maxAttempts(3)
+        .intervalFunction(IntervalFunction.ofExponentialBackoff(200, 2))
+        .build());
+    Supplier<String> withRetry = Retry.decorateSupplier(retry, call);
+
+    ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+    List<Long> latencies = Collections.synchronizedList(new ArrayList<>(REQUESTS));
+    AtomicInteger failed = new AtomicInteger();
+    int callsBefore = upstreamCalls.get();
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>(REQUESTS);
+    for (int i = 0; i < REQUESTS; i++) {
+      futures.add(CompletableFuture.runAsync(() -> {
+        long start = System.nanoTime();
+        try {
+          withRetry.get();
+        } catch (RuntimeException e) {
+          failed.incrementAndGet();
+        }
+        latencies.add(System.nanoTime() - start);
+      }, clients));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.MINUTES);
+    clients.shutdown();
+
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    double attemptsPerRequest = upstream == null ? Double.NaN
+        : (double) (upstreamCalls.get() - callsBefore) / REQUESTS;
+    Result result = new Result(REQUESTS - failed.get(), percentile(sorted, 0.50) / 1e6,
+        percentile(sorted, 0.90) / 1e6, percentile(sorted, 0.99) / 1e6, attemptsPerRequest);
+
+    System.out.printf("%-40s ok=%3d/%d p50=%7.1f ms p90=%7.1f ms p99=%7.1f ms intentos/req=%.2f%n",
+        mode, result.succeeded(), REQUESTS, result.p50Ms(), result.p90Ms(), result.p99Ms(),
+        result.attemptsPerRequest());
+    return result;
+  }
+
+  private record Result(int succeeded, double p50Ms, double p90Ms, double p99Ms, double attemptsPerRequest) {
+  }
+}
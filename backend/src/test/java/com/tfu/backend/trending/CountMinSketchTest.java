@@ -0,0 +1,101 @@
+package com.tfu.backend.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Estimaciones del sketch (nunca por debajo de lo real), combinación entre
+ * réplicas y serialización.
+ */
+class CountMinSketchTest {
+
+    @Test
+    void estimateIsNeverBelowTheRealCount() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        for (int key = 0; key < 500; key++) {
+            sketch.add("track-" + key, key % 7 + 1);
+        }
+        for (int key = 0; key < 500; key++) {
+            assertTrue(sketch.estimate("track-" + key) >= key % 7 + 1, "track-" + key);
+        }
+    }
+
+    @Test
+    void fewKeysInAWideSketchAreExact() {
+        CountMinSketch sketch = new CountMinSketch(4, 4096);
+        sketch.add("a", 5);
+        sketch.add("b", 2);
+        sketch.add("a", 1);
+
+        assertEquals(6, sketch.estimate("a"));
+        assertEquals(2, sketch.estimate("b"));
+        assertEquals(0, sketch.estimate("c"));
+        assertEquals(8, sketch.total());
+    }
+
+    @Test
+    void mergeEqualsCountingEverythingInOneSketch() {
+        CountMinSketch replicaA = new CountMinSketch(4, 64);
+        CountMinSketch replicaB = new CountMinSketch(4, 64);
+        CountMinSketch single = new CountMinSketch(4, 64);
+        for (int i = 0; i < 300; i++) {
+            String key = "track-" + i % 37;
+            (i % 2 == 0 ? replicaA : replicaB).add(key, 1);
+            single.add(key, 1);
+        }
+
+        replicaA.merge(replicaB);
+
+        assertEquals(single.total(), replicaA.total());
+        for (int key = 0; key < 37; key++) {
+            assertEquals(single.estimate("track-" + key), replicaA.estimate("track-" + key));
+        }
+    }
+
+    @Test
+    void mergeRejectsDifferentDimensions() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new CountMinSketch(4, 128)));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new CountMinSketch(3, 64)));
+    }
+
+    @Test
+    void copyIsIndependent() {
+        CountMinSketch sketch = new CountMinSketch(2, 16);
+        sketch.add("a", 3);
+        CountMinSketch copy = sketch.copy();
+        sketch.add("a", 1);
+
+        assertEquals(3, copy.estimate("a"));
+        assertEquals(4, sketch.estimate("a"));
+    }
+
+    @Test
+    void serializedSketchKeepsItsCounts() throws IOException {
+        CountMinSketch sketch = new CountMinSketch(3, 100);
+        sketch.add("a", 4);
+        sketch.add("b", 9);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            sketch.writeTo(out);
+        }
+        CountMinSketch read = CountMinSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(sketch.estimate("a"), read.estimate("a"));
+        assertEquals(sketch.estimate("b"), read.estimate("b"));
+        assertEquals(13, read.total());
+        // Mismas dimensiones (el ancho se redondeó a 128): se puede combinar
+        read.merge(sketch);
+    }
+}
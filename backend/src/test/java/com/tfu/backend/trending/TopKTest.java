@@ -0,0 +1,79 @@
+package com.tfu.backend.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El heap conserva las claves de mayor conteo sin crecer con las distintas.
+ */
+class TopKTest {
+
+    private static Set<String> keys(TopK top) {
+        return new HashSet<>(top.keys());
+    }
+
+    @Test
+    void keepsTheKeysWithTheHighestCounts() {
+        TopK top = new TopK(3);
+        long[] counts = {5, 1, 9, 3, 7, 2, 8};
+        for (int i = 0; i < counts.length; i++) {
+            top.offer("k" + i, counts[i]);
+        }
+
+        assertEquals(Set.of("k2", "k6", "k4"), keys(top));
+    }
+
+    @Test
+    void anUpdatedKeyCanOvertakeTheOthers() {
+        TopK top = new TopK(2);
+        top.offer("a", 1);
+        top.offer("b", 5);
+        top.offer("c", 3);
+        assertEquals(Set.of("b", "c"), keys(top));
+
+        // Los conteos del sketch solo crecen: "a" vuelve con un conteo mayor
+        top.offer("a", 4);
+        assertEquals(Set.of("b", "a"), keys(top));
+
+        top.offer("a", 10);
+        top.offer("c", 6);
+        assertEquals(Set.of("a", "c"), keys(top));
+    }
+
+    @Test
+    void aLowerCountForAKnownKeyIsIgnored() {
+        TopK top = new TopK(2);
+        top.offer("a", 5);
+        top.offer("b", 3);
+        top.offer("a", 1);
+        top.offer("c", 4);
+
+        assertEquals(Set.of("a", "c"), keys(top));
+    }
+
+    @Test
+    void tiesDoNotEvictTheCurrentMinimum() {
+        TopK top = new TopK(1);
+        top.offer("a", 2);
+        top.offer("b", 2);
+
+        assertEquals(List.of("a"), top.keys());
+    }
+
+    @Test
+    void clearEmptiesTheHeap() {
+        TopK top = new TopK(2);
+        top.offer("a", 1);
+        top.clear();
+        assertTrue(top.keys().isEmpty());
+
+        top.offer("b", 1);
+        assertEquals(List.of("b"), top.keys());
+    }
+}
@@ -0,0 +1,95 @@
+package com.tfu.backend.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ranking de la ventana combinando los intervalos de varias réplicas.
+ */
+class TrendingWindowTest {
+
+    private static final long BUCKET = 60_000;
+
+    private static TrendingWindow window() {
+        return new TrendingWindow(BUCKET, 3, 4, 1024, 10);
+    }
+
+    private static void add(TrendingWindow window, String key, int times, long epochMillis) {
+        for (int i = 0; i < times; i++) {
+            window.add(key, epochMillis);
+        }
+    }
+
+    /** Intervalos de ambas réplicas agrupados por índice, como los combina TrendingService */
+    private static Map<Long, List<TrendingBucket>> combine(Map<Long, TrendingBucket> a, Map<Long, TrendingBucket> b) {
+        Map<Long, List<TrendingBucket>> byIndex = new HashMap<>();
+        a.forEach((index, bucket) -> byIndex.computeIfAbsent(index, k -> new ArrayList<>()).add(bucket));
+        b.forEach((index, bucket) -> byIndex.computeIfAbsent(index, k -> new ArrayList<>()).add(bucket));
+        return byIndex;
+    }
+
+    @Test
+    void ranksByTheSumOfAllReplicasAndBuckets() {
+        long now = 10 * BUCKET;
+        TrendingWindow replicaA = window();
+        TrendingWindow replicaB = window();
+        add(replicaA, "x", 3, now - BUCKET);
+        add(replicaA, "y", 4, now);
+        add(replicaB, "x", 2, now);
+        add(replicaB, "z", 1, now);
+
+        List<TrendingEntry> ranking = TrendingWindow.rank(
+            combine(replicaA.snapshot(now), replicaB.snapshot(now)), 10);
+
+        assertEquals(List.of(new TrendingEntry("x", 5), new TrendingEntry("y", 4), new TrendingEntry("z", 1)),
+            ranking);
+    }
+
+    @Test
+    void tiesAreOrderedByKeyAndTheLimitApplies() {
+        long now = 10 * BUCKET;
+        TrendingWindow window = window();
+        add(window, "b", 2, now);
+        add(window, "a", 2, now);
+        add(window, "c", 1, now);
+
+        List<TrendingEntry> ranking = TrendingWindow.rank(combine(window.snapshot(now), Map.of()), 2);
+
+        assertEquals(List.of(new TrendingEntry("a", 2), new TrendingEntry("b", 2)), ranking);
+    }
+
+    @Test
+    void bucketsOutsideTheWindowAreLeftOut() {
+        TrendingWindow window = window();
+        add(window, "old", 5, 0);
+        long now = 10 * BUCKET;
+        add(window, "new", 1, now);
+
+        List<TrendingEntry> ranking = TrendingWindow.rank(combine(window.snapshot(now), Map.of()), 10);
+
+        assertEquals(List.of(new TrendingEntry("new", 1)), ranking);
+    }
+
+    @Test
+    void encodedBucketsRankLikeTheOriginals() {
+        long now = 10 * BUCKET;
+        TrendingWindow window = window();
+        add(window, "a", 3, now);
+        add(window, "b", 1, now - BUCKET);
+
+        Map<Long, byte[]> dirty = window.takeDirty(now);
+        Map<Long, List<TrendingBucket>> decoded = new HashMap<>();
+        dirty.forEach((index, bytes) -> decoded.put(index, List.of(TrendingBucket.decode(bytes))));
+
+        assertEquals(TrendingWindow.rank(combine(window.snapshot(now), Map.of()), 10),
+            TrendingWindow.rank(decoded, 10));
+        assertTrue(window.takeDirty(now).isEmpty());
+    }
+}
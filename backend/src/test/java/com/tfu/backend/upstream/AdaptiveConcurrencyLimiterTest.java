@@ -0,0 +1,238 @@
+package com.tfu.backend.upstream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comportamiento AIMD del límite: permisos, espera acotada, reducción ante
+ * sobrecarga y bloqueo por Retry-After; orden de atención por carril y reparto
+ * justo entre tenants.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static AdaptiveConcurrencyLimiter limiter(int limit, int min, int max, long maxWaitMillis, int maxQueue) {
+        return new AdaptiveConcurrencyLimiter(limit, min, max, 0.5, 1000, maxWaitMillis, maxQueue);
+    }
+
+    /** Límite fijo de 4 con prefetch hasta 3 permisos y fondo hasta 2 */
+    private static AdaptiveConcurrencyLimiter lanes() {
+        return new AdaptiveConcurrencyLimiter(4, 4, 4, 0.5, 100_000, 5000, 100, 100, 0.75, 0.5);
+    }
+
+    /** Lanza una llamada que se encola y anota {@code label} cuando obtiene el permiso */
+    private static Thread enqueue(AdaptiveConcurrencyLimiter limiter, String tenant, double weight,
+                                  UpstreamPriority priority, List<String> grants, String label)
+        throws InterruptedException {
+        int queued = limiter.getQueueDepth(priority);
+        Thread thread = new Thread(() -> {
+            limiter.acquire(tenant, weight, priority);
+            grants.add(label);
+        });
+        thread.start();
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while (limiter.getQueueDepth(priority) == queued) {
+            assertTrue(System.nanoTime() < deadline, "La llamada " + label + " no llegó a encolarse");
+            Thread.sleep(1);
+        }
+        return thread;
+    }
+
+    /** Libera un permiso y espera a que el siguiente en la cola lo tome */
+    private static void releaseAndAwait(AdaptiveConcurrencyLimiter limiter, List<String> grants)
+        throws InterruptedException {
+        int granted = grants.size();
+        limiter.onIgnored();
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while (grants.size() == granted) {
+            assertTrue(System.nanoTime() < deadline, "Nadie tomó el permiso liberado");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void grantsUpToTheLimitAndThenTimesOut() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10, 20, 10);
+        limiter.acquire();
+        limiter.acquire();
+        assertEquals(2, limiter.getInFlight());
+
+        assertThrows(UpstreamLimitExceededException.class, limiter::acquire);
+        assertEquals(0, limiter.getQueueDepth());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void rejectsImmediatelyWhenTheQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 10, 10_000, 0);
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        assertThrows(UpstreamLimitExceededException.class, limiter::acquire);
+        assertTrue(System.nanoTime() - start < 1_000_000_000L, "No debería esperar con la cola llena");
+    }
+
+    @Test
+    void releasedPermitIsReused() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, 20, 10);
+        long start = limiter.acquire();
+        limiter.onSuccess(start);
+        limiter.acquire();
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void overloadDecreasesTheLimitDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 3, 10, 20, 10);
+        limiter.acquire();
+        limiter.onOverload();
+        assertEquals(4, limiter.getLimit());
+        limiter.acquire();
+        limiter.onOverload();
+        assertEquals(3, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void fastResponsesWithTheLimitInUseIncreaseIt() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 3, 20, 10);
+        for (int i = 0; i < 10; i++) {
+            long first = limiter.acquire();
+            long second = limiter.acquire();
+            limiter.onSuccess(first);
+            limiter.onSuccess(second);
+        }
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void ignoredErrorsDoNotChangeTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 10, 20, 10);
+        limiter.acquire();
+        limiter.onIgnored();
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void retryAfterLongerThanTheMaxWaitRejectsWithoutWaiting() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 10, 50, 10);
+        limiter.acquire();
+        limiter.onThrottled(60_000);
+
+        long start = System.nanoTime();
+        assertThrows(UpstreamLimitExceededException.class, limiter::acquire);
+        assertTrue(System.nanoTime() - start < 1_000_000_000L, "No debería esperar un Retry-After que no alcanza");
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void shortRetryAfterDelaysTheNextCall() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 10, 2000, 10);
+        limiter.acquire();
+        limiter.onThrottled(100);
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        assertTrue(System.nanoTime() - start >= 90_000_000L, "Debería respetar el Retry-After");
+    }
+
+    @Test
+    void lowerPrioritiesOnlyUseTheirShareOfTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+            4, 4, 4, 0.5, 100_000, 20, 100, 100, 0.5, 0.25);
+        limiter.acquire("system", 1, UpstreamPriority.BACKGROUND);
+        assertThrows(UpstreamLimitExceededException.class,
+            () -> limiter.acquire("system", 1, UpstreamPriority.BACKGROUND));
+
+        limiter.acquire("system", 1, UpstreamPriority.PREFETCH);
+        assertThrows(UpstreamLimitExceededException.class,
+            () -> limiter.acquire("system", 1, UpstreamPriority.PREFETCH));
+
+        limiter.acquire("user", 1, UpstreamPriority.INTERACTIVE);
+        limiter.acquire("user", 1, UpstreamPriority.INTERACTIVE);
+        assertEquals(4, limiter.getInFlight());
+    }
+
+    @Test
+    void releasedPermitsGoToHigherPrioritiesFirst() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = lanes();
+        List<String> grants = Collections.synchronizedList(new ArrayList<>());
+
+        limiter.acquire("system", 1, UpstreamPriority.BACKGROUND);
+        limiter.acquire("system", 1, UpstreamPriority.BACKGROUND);
+        Thread background = enqueue(limiter, "system", 1, UpstreamPriority.BACKGROUND, grants, "background");
+        limiter.acquire("system", 1, UpstreamPriority.PREFETCH);
+        Thread prefetch = enqueue(limiter, "system", 1, UpstreamPriority.PREFETCH, grants, "prefetch");
+        limiter.acquire("user", 1, UpstreamPriority.INTERACTIVE);
+        Thread interactive = enqueue(limiter, "user", 1, UpstreamPriority.INTERACTIVE, grants, "interactive");
+        assertEquals(4, limiter.getInFlight());
+
+        // Cada carril espera hasta que el total baje de su capacidad (4, 3 y 2)
+        releaseAndAwait(limiter, grants);
+        limiter.onIgnored();
+        releaseAndAwait(limiter, grants);
+        limiter.onIgnored();
+        releaseAndAwait(limiter, grants);
+
+        background.join();
+        prefetch.join();
+        interactive.join();
+        assertEquals(List.of("interactive", "prefetch", "background"), grants);
+        assertEquals(0, limiter.getQueueDepth());
+    }
+
+    @Test
+    void queuedCallsAreSharedBetweenTenantsRegardlessOfBacklog() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, 5000, 100);
+        List<String> grants = Collections.synchronizedList(new ArrayList<>());
+        limiter.acquire("heavy", 1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            threads.add(enqueue(limiter, "heavy", 1, UpstreamPriority.INTERACTIVE, grants, "heavy" + i));
+        }
+        threads.add(enqueue(limiter, "light", 1, UpstreamPriority.INTERACTIVE, grants, "light"));
+        assertEquals(3, limiter.getTenantQueueDepths().get("heavy"));
+
+        for (int i = 0; i < 4; i++) {
+            releaseAndAwait(limiter, grants);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // light llegó último pero su etiqueta empata con la primera de heavy
+        assertEquals(List.of("heavy1", "light", "heavy2", "heavy3"), grants);
+        assertTrue(limiter.getTenantQueueDepths().isEmpty());
+    }
+
+    @Test
+    void heavierTenantGetsProportionallyMorePermits() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, 5000, 100);
+        List<String> grants = Collections.synchronizedList(new ArrayList<>());
+        limiter.acquire("a", 1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(enqueue(limiter, "gold", 2, UpstreamPriority.INTERACTIVE, grants, "gold"));
+        }
+        for (int i = 0; i < 2; i++) {
+            threads.add(enqueue(limiter, "basic", 1, UpstreamPriority.INTERACTIVE, grants, "basic"));
+        }
+
+        for (int i = 0; i < 6; i++) {
+            releaseAndAwait(limiter, grants);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Etiquetas de gold: 0, 0.5, 1, 1.5; de basic: 0, 1
+        assertEquals(List.of("gold", "basic", "gold", "gold", "basic", "gold"), grants);
+    }
+}
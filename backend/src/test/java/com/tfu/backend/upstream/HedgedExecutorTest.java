@@ -0,0 +1,114 @@
+package com.tfu.backend.upstream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hedging con retardo fijo (min = max) para que el momento del hedge no
+ * dependa de las latencias medidas.
+ */
+class HedgedExecutorTest {
+
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private HedgedExecutor hedging(int maxAttempts, double budgetRatio, double maxBudget) {
+        return new HedgedExecutor(pool, 0.9, maxAttempts, 20, 20, 100, budgetRatio, maxBudget);
+    }
+
+    private static String sleepThen(long millis, String value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    @Test
+    void fastCallsAreNotHedged() {
+        HedgedExecutor hedging = hedging(3, 1, 10);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("ok", hedging.call(() -> "ok"));
+        }
+        assertEquals(0, hedging.getHedgesFired());
+    }
+
+    @Test
+    void hedgeWinsWhenTheFirstAttemptIsSlow() throws InterruptedException {
+        HedgedExecutor hedging = hedging(2, 1, 10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedging.call(() -> attempts.getAndIncrement() == 0 ? sleepThen(2000, "slow") : "hedge");
+        // El hedge completa el resultado antes de contar la victoria: esperar a que termine
+        pool.shutdownNow();
+        assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+
+        assertEquals("hedge", result);
+        assertEquals(1, hedging.getHedgesFired());
+        assertEquals(1, hedging.getHedgesWon());
+    }
+
+    @Test
+    void budgetBoundsTheExtraAttempts() {
+        // Un solo token y sin reposición: el primer llamado lo gasta, el segundo no puede duplicar
+        HedgedExecutor hedging = hedging(2, 0, 1);
+
+        assertEquals("slow", hedging.call(() -> sleepThen(200, "slow")));
+        assertEquals("slow", hedging.call(() -> sleepThen(200, "slow")));
+
+        assertEquals(1, hedging.getHedgesFired());
+        assertEquals(1, hedging.getHedgesDenied());
+    }
+
+    @Test
+    void attemptsNeverExceedMaxAttempts() {
+        HedgedExecutor hedging = hedging(3, 1, 10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        hedging.call(() -> {
+            attempts.incrementAndGet();
+            return sleepThen(300, "slow");
+        });
+
+        assertEquals(3, attempts.get());
+        assertEquals(2, hedging.getHedgesFired());
+    }
+
+    @Test
+    void failsWithTheLastErrorWhenEveryAttemptFails() {
+        HedgedExecutor hedging = hedging(2, 1, 10);
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+            () -> hedging.call(() -> {
+                throw new IllegalStateException("down");
+            }));
+        assertEquals("down", error.getMessage());
+    }
+
+    @Test
+    void hedgeDelayIsRecomputedEveryFewSamples() {
+        // Retardo entre 1 ms y 1 s: arranca en el máximo hasta tener muestras
+        HedgedExecutor hedging = new HedgedExecutor(pool, 0.9, 2, 1, 1000, 100, 1, 10);
+        for (int i = 0; i < 19; i++) {
+            hedging.call(() -> "ok");
+        }
+        assertEquals(1000, hedging.getHedgeDelayMillis());
+
+        hedging.call(() -> "ok");
+
+        assertEquals(1, hedging.getHedgeDelayMillis());
+    }
+}
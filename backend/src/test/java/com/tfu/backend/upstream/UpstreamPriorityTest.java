@@ -0,0 +1,72 @@
+package com.tfu.backend.upstream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prioridad efectiva de las llamadas y su propagación a las tareas de un
+ * executor con ContextPropagatingTaskDecorator, como los de AsyncConfig.
+ */
+class UpstreamPriorityTest {
+
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    UpstreamPriorityTest() {
+        executor.setCorePoolSize(1);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.initialize();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        UpstreamTenant.clear();
+        executor.shutdown();
+    }
+
+    private UpstreamPriority seenByTask() {
+        CompletableFuture<UpstreamPriority> seen = new CompletableFuture<>();
+        executor.execute(() -> seen.complete(UpstreamPriority.resolve()));
+        return seen.join();
+    }
+
+    @Test
+    void withoutExplicitPriorityRequestsAreInteractiveAndTheRestBackground() {
+        assertEquals(UpstreamPriority.BACKGROUND, UpstreamPriority.resolve());
+        UpstreamTenant.set(new UpstreamTenant("user:1", 1));
+        assertEquals(UpstreamPriority.INTERACTIVE, UpstreamPriority.resolve());
+    }
+
+    @Test
+    void explicitPriorityWinsAndIsRestoredAfterwards() {
+        UpstreamTenant.set(new UpstreamTenant("user:1", 1));
+        UpstreamPriority inside = UpstreamPriority.PREFETCH.call(() -> {
+            assertEquals(UpstreamPriority.BACKGROUND, UpstreamPriority.BACKGROUND.call(UpstreamPriority::resolve));
+            return UpstreamPriority.resolve();
+        });
+
+        assertEquals(UpstreamPriority.PREFETCH, inside);
+        assertTrue(UpstreamPriority.current().isEmpty());
+        assertEquals(UpstreamPriority.INTERACTIVE, UpstreamPriority.resolve());
+    }
+
+    @Test
+    void tasksInheritThePriorityOfTheCaller() {
+        UpstreamTenant.set(new UpstreamTenant("user:1", 1));
+        UpstreamPriority[] seen = new UpstreamPriority[1];
+        UpstreamPriority.PREFETCH.run(() -> seen[0] = seenByTask());
+        assertEquals(UpstreamPriority.PREFETCH, seen[0]);
+
+        // Sin prioridad explícita la tarea hereda el tenant y es interactiva
+        assertEquals(UpstreamPriority.INTERACTIVE, seenByTask());
+
+        UpstreamTenant.clear();
+        assertEquals(UpstreamPriority.BACKGROUND, seenByTask());
+    }
+}
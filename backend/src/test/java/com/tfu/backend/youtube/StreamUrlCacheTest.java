@@ -0,0 +1,96 @@
+package com.tfu.backend.youtube;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * La request que encuentra la URL resolviéndose espera como mucho lo que tarda
+ * un yt-dlp, y un resolver que falla con cualquier Throwable no deja colgados a
+ * quienes esperan.
+ */
+class StreamUrlCacheTest {
+
+    private final StreamUrlCache cache = new StreamUrlCache(new SimpleMeterRegistry(),
+            Duration.ofMinutes(30), 100, Duration.ZERO, Duration.ofMillis(100));
+
+    @Test
+    void stuckPrefetchIsResolvedAgainInTheRequest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch prefetching = new CountDownLatch(1);
+        CompletableFuture<Void> prefetch = CompletableFuture.runAsync(() -> cache.prefetch("k", () -> {
+            prefetching.countDown();
+            release.await();
+            return "https://prefetch";
+        }));
+        assertTrue(prefetching.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        String url = cache.get("k", () -> "https://request");
+
+        assertEquals("https://request", url);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        release.countDown();
+        prefetch.get(5, TimeUnit.SECONDS);
+        // La entrada que quedó es la de la request
+        assertEquals("https://request", cache.get("k", () -> "https://otra"));
+    }
+
+    @Test
+    void errorInThePrefetchIsRetriedByTheRequest() throws Exception {
+        // El Error sigue hasta el hilo de prefetch, pero la entrada no queda pendiente
+        assertThrows(AssertionError.class, () -> cache.prefetch("k", () -> {
+            throw new AssertionError("yt-dlp");
+        }));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("https://request", cache.get("k", () -> {
+            calls.incrementAndGet();
+            return "https://request";
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void errorInTheRequestReachesTheWaiters() throws Exception {
+        // Espera larga: si el Error no completara la entrada, el waiter no terminaría a tiempo
+        StreamUrlCache cache = new StreamUrlCache(new SimpleMeterRegistry(),
+                Duration.ofMinutes(30), 100, Duration.ZERO, Duration.ofMinutes(1));
+        CountDownLatch resolving = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        CompletableFuture<String> owner = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cache.get("k", () -> {
+                    resolving.countDown();
+                    fail.await();
+                    throw new AssertionError("yt-dlp");
+                });
+            } catch (Exception e) {
+                return null;
+            }
+        });
+        assertTrue(resolving.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cache.get("k", () -> "https://waiter");
+            } catch (Exception e) {
+                return null;
+            }
+        });
+        fail.countDown();
+
+        // El dueño propaga el Error; quien esperaba lo ve fallar y resuelve por su cuenta
+        assertThrows(Exception.class, () -> owner.get(5, TimeUnit.SECONDS));
+        assertEquals("https://waiter", waiter.get(5, TimeUnit.SECONDS));
+    }
+}
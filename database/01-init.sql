@@ -36,10 +36,101 @@ CREATE INDEX idx_app_users_username ON app_users(username);
 CREATE INDEX idx_app_users_email ON app_users(email);
 CREATE INDEX idx_app_roles_username ON app_roles(username);
 
+-- ============================================================================
+-- CATÁLOGO LOCAL (write-behind de lo que devuelve Spotify)
+-- ============================================================================
+-- El backend persiste en lote cada canción que convierte desde Spotify para
+-- servir lecturas por ID sin llamar a la API y no arrancar en frío tras un
+-- reinicio. Spotify sigue siendo la fuente de verdad: fetched_at permite
+-- refrescar en segundo plano las filas antiguas.
+
+CREATE TABLE catalog_artists (
+    id VARCHAR(64) PRIMARY KEY,            -- ID de Spotify
+    name VARCHAR(500) NOT NULL,
+    spotify_url VARCHAR(500),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE catalog_albums (
+    id VARCHAR(64) PRIMARY KEY,            -- ID de Spotify
+    name VARCHAR(500),
+    image_url VARCHAR(500),
+    primary_artist_id VARCHAR(64),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE catalog_tracks (
+    id VARCHAR(64) PRIMARY KEY,            -- ID de Spotify
+    name VARCHAR(500) NOT NULL,
+    artists VARCHAR(1000),
+    album_id VARCHAR(64),
+    album_name VARCHAR(500),
+    image_url VARCHAR(500),
+    preview_url VARCHAR(500),
+    primary_artist_id VARCHAR(64),
+    primary_artist_name VARCHAR(500),
+    primary_artist_spotify_url VARCHAR(500),
+    fetched_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_catalog_tracks_artist ON catalog_tracks(primary_artist_id);
+CREATE INDEX idx_catalog_tracks_album ON catalog_tracks(album_id);
+
+-- ============================================================================
+-- ESTADO DEL REPRODUCTOR
+-- ============================================================================
+-- Cola y estado de reproducción por sesión, para sobrevivir reinicios y
+-- cambios blue/green. Lo escribe el backend en lote (write-behind) con una
+-- codificación binaria compacta (PlayerStateCodec).
+
+CREATE TABLE player_sessions (
+    session_id VARCHAR(64) PRIMARY KEY,
+    state BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ============================================================================
+-- HISTORIAL DE ESCUCHA
+-- ============================================================================
+-- Eventos play/skip/complete del reproductor, solo inserción. Los escribe el
+-- backend en lote desde un buffer en memoria (ListeningHistoryRecorder).
+-- Particionada por mes: el backend crea la partición del mes actual y la del
+-- siguiente; lo que no tenga partición cae en la DEFAULT. Borrar meses viejos
+-- es un DROP de su partición.
+
+CREATE TABLE listening_history (
+    session_id VARCHAR(64) NOT NULL,
+    track_id VARCHAR(100) NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    position_ms BIGINT NOT NULL DEFAULT 0,
+    occurred_at TIMESTAMP NOT NULL
+) PARTITION BY RANGE (occurred_at);
+
+CREATE TABLE listening_history_default PARTITION OF listening_history DEFAULT;
+
+CREATE INDEX idx_listening_history_track ON listening_history(track_id, occurred_at);
+
+-- ============================================================================
+-- TRENDING
+-- ============================================================================
+-- Count-min sketches por réplica e intervalo de la ventana de trending
+-- (TrendingService). Cada réplica publica los suyos y combina los de todas;
+-- los intervalos fuera de la ventana se borran solos.
+
+CREATE TABLE trending_sketches (
+    replica_id VARCHAR(64) NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    bucket_index BIGINT NOT NULL,
+    data BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (replica_id, kind, bucket_index)
+);
+
 -- ============================================================================
 -- NOTAS:
--- - La aplicación ahora usa únicamente Spotify API para música
--- - No se necesitan tablas de catálogo interno (canciones, artistas, álbumes)
--- - No se necesitan tablas de reproducción (historial, playlists)
+-- - Spotify API es la fuente de verdad para música; las tablas catalog_* son
+--   solo una copia local para absorber tráfico (no hay catálogo editable)
+-- - No se necesitan tablas de playlists; player_sessions solo guarda el estado
+--   actual del reproductor y listening_history los eventos de escucha
 -- - Solo mantenemos autenticación y autorización básica
 -- ============================================================================
\ No newline at end of file
@@ -0,0 +1,188 @@
+// Stub de la API de Spotify para pruebas de carga sin red.
+// Implementa token, búsqueda, canciones, artistas y nuevos lanzamientos con un
+// catálogo generado de forma determinística. Latencia, errores y 429 se
+// configuran por variables de entorno (ver loadtest/README.md).
+const http = require('http');
+
+const env = (name, def) => (process.env[name] !== undefined ? Number(process.env[name]) : def);
+const config = {
+  port: env('PORT', 9091),
+  catalogSize: env('STUB_CATALOG_SIZE', 10000),
+  latencyMs: env('STUB_LATENCY_MS', 40), // Latencia base
+  jitterMs: env('STUB_JITTER_MS', 40), // + uniforme entre 0 y jitter
+  slowRate: env('STUB_SLOW_RATE', 0.01), // Fracción de respuestas lentas (cola)
+  slowMs: env('STUB_SLOW_MS', 2500),
+  errorRate: env('STUB_ERROR_RATE', 0.01), // 500/503
+  throttleRate: env('STUB_THROTTLE_RATE', 0.02), // 429 con Retry-After
+  retryAfterS: env('STUB_RETRY_AFTER_S', 1),
+};
+
+const stats = {};
+const count = (endpoint, outcome) => {
+  const key = `${endpoint} ${outcome}`;
+  stats[key] = (stats[key] || 0) + 1;
+};
+
+// ---- Catálogo determinístico ----
+const GENRES = ['pop', 'rock', 'jazz', 'electronic', 'hip-hop', 'indie', 'latin', 'classical'];
+
+const trackId = (i) => 'stubtrack' + String(i).padStart(13, '0');
+const artistId = (i) => 'stubartist' + String(i).padStart(12, '0');
+const albumId = (i) => 'stubalbum' + String(i).padStart(13, '0');
+
+const hash = (text) => {
+  let h = 0;
+  for (let i = 0; i < text.length; i++) h = (h * 31 + text.charCodeAt(i)) | 0;
+  return Math.abs(h);
+};
+
+// Índice a partir de un ID del stub; IDs desconocidos se mapean por hash
+const indexOf = (id, prefix) => {
+  if (id && id.startsWith(prefix)) {
+    const n = Number(id.slice(prefix.length));
+    if (Number.isInteger(n)) return n % config.catalogSize;
+  }
+  return hash(id || '') % config.catalogSize;
+};
+
+const images = (kind, i) => [640, 300, 64].map((size) => ({
+  height: size, width: size, url: `https://i.stub.local/${kind}/${i}/${size}.jpg`,
+}));
+
+const simpleArtist = (i) => ({
+  id: artistId(i),
+  name: `Stub Artist ${i}`,
+  type: 'artist',
+  external_urls: { spotify: `https://open.spotify.com/artist/${artistId(i)}` },
+});
+
+const fullArtist = (i) => ({
+  ...simpleArtist(i),
+  images: images('artist', i),
+  genres: [GENRES[i % GENRES.length]],
+  popularity: 30 + (i % 70),
+});
+
+const albumArtists = (a) => [simpleArtist(a % 500)];
+
+const simpleAlbum = (a) => ({
+  id: albumId(a),
+  name: `Stub Album ${a}`,
+  album_type: 'album',
+  release_date: `20${String(10 + (a % 15))}-0${1 + (a % 9)}-15`,
+  total_tracks: 10,
+  images: images('album', a),
+  artists: albumArtists(a),
+});
+
+const track = (i) => {
+  const album = Math.floor(i / 10);
+  const artists = [simpleArtist(album % 500)];
+  if (i % 3 === 0) artists.push(simpleArtist((i * 7) % 500));
+  return {
+    id: trackId(i),
+    name: `Stub Track ${i}`,
+    artists,
+    album: simpleAlbum(album),
+    preview_url: i % 4 === 0 ? null : `https://p.stub.local/mp3-preview/${trackId(i)}`,
+    duration_ms: 120000 + (i % 180) * 1000,
+    popularity: i % 100,
+  };
+};
+
+const paging = (items, limit, offset, total, href) => ({
+  href, items, limit, offset, total,
+  next: offset + limit < total ? `${href}?offset=${offset + limit}&limit=${limit}` : null,
+  previous: offset > 0 ? `${href}?offset=${Math.max(0, offset - limit)}&limit=${limit}` : null,
+});
+
+const clamp = (value, min, max, def) => {
+  const n = Number(value);
+  return Number.isFinite(n) ? Math.min(max, Math.max(min, Math.floor(n))) : def;
+};
+
+// ---- Endpoints ----
+const routes = [
+  ['POST', /^\/api\/token$/, 'token', () => ({
+    access_token: 'stub-token-' + Date.now(), token_type: 'Bearer', expires_in: 3600,
+  })],
+  ['GET', /^\/v1\/search$/, 'search', (m, q) => {
+    const limit = clamp(q.get('limit'), 1, 50, 20);
+    const offset = clamp(q.get('offset'), 0, 1000, 0);
+    const total = Math.min(1000, config.catalogSize);
+    const start = hash(q.get('q') || '');
+    const items = [];
+    for (let k = offset; k < Math.min(offset + limit, total); k++) {
+      items.push(track((start + k) % config.catalogSize));
+    }
+    return { tracks: paging(items, limit, offset, total, 'https://api.spotify.com/v1/search') };
+  }],
+  ['GET', /^\/v1\/tracks$/, 'tracks', (m, q) => ({
+    tracks: (q.get('ids') || '').split(',').filter(Boolean).slice(0, 50)
+      .map((id) => track(indexOf(id, 'stubtrack'))),
+  })],
+  ['GET', /^\/v1\/tracks\/([^/]+)$/, 'track', (m) => track(indexOf(m[1], 'stubtrack'))],
+  ['GET', /^\/v1\/artists\/([^/]+)\/top-tracks$/, 'artistTopTracks', (m) => {
+    const a = indexOf(m[1], 'stubartist') % 500;
+    const tracks = [];
+    for (let k = 0; k < 10; k++) tracks.push(track((a + k * 500) * 10 % config.catalogSize));
+    return { tracks };
+  }],
+  ['GET', /^\/v1\/artists\/([^/]+)$/, 'artist', (m) => fullArtist(indexOf(m[1], 'stubartist') % 500)],
+  ['GET', /^\/v1\/browse\/new-releases$/, 'newReleases', (m, q) => {
+    const limit = clamp(q.get('limit'), 1, 50, 20);
+    const offset = clamp(q.get('offset'), 0, 100, 0);
+    const total = 100;
+    const items = [];
+    for (let a = offset; a < Math.min(offset + limit, total); a++) items.push(simpleAlbum(a));
+    return { albums: paging(items, limit, offset, total, 'https://api.spotify.com/v1/browse/new-releases') };
+  }],
+];
+
+const send = (res, status, body, headers = {}) => {
+  const json = JSON.stringify(body);
+  res.writeHead(status, { 'Content-Type': 'application/json', 'Content-Length': Buffer.byteLength(json), ...headers });
+  res.end(json);
+};
+
+const server = http.createServer((req, res) => {
+  const url = new URL(req.url, 'http://stub');
+  if (url.pathname === '/stats') {
+    return send(res, 200, stats);
+  }
+
+  const route = routes.find(([method, pattern]) => method === req.method && pattern.test(url.pathname));
+  if (!route) {
+    count('unknown', 404);
+    return send(res, 404, { error: { status: 404, message: 'Service not found' } });
+  }
+  const [, pattern, name, handler] = route;
+
+  if (name !== 'token' && !(req.headers.authorization || '').startsWith('Bearer ')) {
+    count(name, 401);
+    return send(res, 401, { error: { status: 401, message: 'No token provided' } });
+  }
+
+  // El token no sufre fallas: solo se simulan en la API
+  const dice = name === 'token' ? 1 : Math.random();
+  let delay = config.latencyMs + Math.random() * config.jitterMs;
+  if (Math.random() < config.slowRate) delay += config.slowMs;
+
+  req.resume();
+  setTimeout(() => {
+    if (dice < config.throttleRate) {
+      count(name, 429);
+      return send(res, 429, { error: { status: 429, message: 'API rate limit exceeded' } },
+        { 'Retry-After': String(config.retryAfterS) });
+    }
+    if (dice < config.throttleRate + config.errorRate) {
+      const status = dice < config.throttleRate + config.errorRate / 2 ? 500 : 503;
+      count(name, status);
+      return send(res, status, { error: { status, message: 'Stub upstream error' } });
+    }
+    count(name, 200);
+    send(res, 200, handler(url.pathname.match(pattern), url.searchParams));
+  }, delay);
+});
+
+server.listen(config.port, () => console.log(`spotify-stub on ${config.port}`, config));